@@ -22,10 +22,13 @@ import com.actiontech.dble.meta.ProxyMetaManager;
 import com.actiontech.dble.net.IOProcessor;
 import com.actiontech.dble.net.SocketAcceptor;
 import com.actiontech.dble.net.SocketConnector;
+import com.actiontech.dble.net.compress.PacketCompressor;
 import com.actiontech.dble.net.connection.AbstractConnection;
 import com.actiontech.dble.net.executor.BackendCurrentRunnable;
 import com.actiontech.dble.net.executor.FrontendBlockRunnable;
 import com.actiontech.dble.net.executor.FrontendCurrentRunnable;
+import com.actiontech.dble.net.executor.ThreadPoolStatistic;
+import com.actiontech.dble.net.executor.WorkStealingTaskQueue;
 import com.actiontech.dble.net.executor.WriteToBackendRunnable;
 import com.actiontech.dble.net.impl.aio.AIOAcceptor;
 import com.actiontech.dble.net.impl.aio.AIOConnector;
@@ -185,6 +188,11 @@ public final class DbleServer {
             StatisticManager.getInstance().start();
         }
 
+        if (SystemConfig.getInstance().getUseCompression() == 1 && PacketCompressor.isAlgorithmEnabled("zstd")) {
+            // the native library is probed here instead of in the first handshake
+            LOGGER.info("zstd of the compressed protocol is enabled");
+        }
+
         LOGGER.info("==============================Connection  Connector&Acceptor init start===========================");
         // startup manager
         SocketAcceptor manager = null;
@@ -234,7 +242,6 @@ public final class DbleServer {
         // start transaction SQL log
         if (SystemConfig.getInstance().getRecordTxn() == 1) {
             txnLogProcessor = new TxnLogProcessor();
-            txnLogProcessor.setName("TxnLogProcessor");
             txnLogProcessor.start();
         }
 
@@ -303,7 +310,14 @@ public final class DbleServer {
         frontExecutor = ExecutorUtil.createFixed(FRONT_WORKER_NAME, SystemConfig.getInstance().getFrontWorker(), runnableMap);
         backendExecutor = ExecutorUtil.createFixed(BACKEND_WORKER_NAME, SystemConfig.getInstance().getBackendWorker(), runnableMap);
         writeToBackendExecutor = ExecutorUtil.createFixed(WRITE_TO_BACKEND_WORKER_NAME, SystemConfig.getInstance().getWriteToBackendWorker(), runnableMap);
-        complexQueryExecutor = ExecutorUtil.createCached(COMPLEX_QUERY_EXECUTOR_NAME, SystemConfig.getInstance().getComplexQueryWorker(), null);
+        if (ExecutorUtil.isVirtualThreadEnabled()) {
+            complexQueryExecutor = ExecutorUtil.createVirtualCached(COMPLEX_QUERY_EXECUTOR_NAME, SystemConfig.getInstance().getComplexQueryWorker(), null);
+        } else {
+            if (SystemConfig.getInstance().getUseVirtualThread() == 1) {
+                LOGGER.warn("useVirtualThread needs JDK 21 or above, current is {}, use the platform threads instead", System.getProperty("java.version"));
+            }
+            complexQueryExecutor = ExecutorUtil.createCached(COMPLEX_QUERY_EXECUTOR_NAME, SystemConfig.getInstance().getComplexQueryWorker(), null);
+        }
         timerExecutor = ExecutorUtil.createFixed(TIMER_WORKER_NAME, 1);
         nioFrontExecutor = ExecutorUtil.createFixed(NIO_FRONT_RW, frontProcessorCount, runnableMap);
         nioBackendExecutor = ExecutorUtil.createFixed(NIO_BACKEND_RW, backendProcessorCount, runnableMap);
@@ -342,12 +356,22 @@ public final class DbleServer {
     private void initTaskQueue() {
         if (SystemConfig.getInstance().getUsePerformanceMode() == 1) {
 
-            frontHandlerQueue = new ConcurrentLinkedDeque<>();
+            if (SystemConfig.getInstance().getUseWorkStealingQueue() == 1) {
+                WorkStealingTaskQueue frontQueue = new WorkStealingTaskQueue(SystemConfig.getInstance().getFrontWorker());
+                WorkStealingTaskQueue backendQueue = new WorkStealingTaskQueue(SystemConfig.getInstance().getBackendWorker());
+                ThreadPoolStatistic.getFrontBusiness().setWorkStealingQueue(frontQueue);
+                ThreadPoolStatistic.getBackendBusiness().setWorkStealingQueue(backendQueue);
+                frontHandlerQueue = frontQueue;
+                concurrentBackHandlerQueue = backendQueue;
+            } else {
+                frontHandlerQueue = new ConcurrentLinkedDeque<>();
+                concurrentBackHandlerQueue = new ConcurrentLinkedQueue<>();
+            }
+
             for (int i = 0; i < SystemConfig.getInstance().getFrontWorker(); i++) {
                 frontExecutor.execute(new FrontendCurrentRunnable(frontHandlerQueue));
             }
 
-            concurrentBackHandlerQueue = new ConcurrentLinkedQueue<>();
             for (int i = 0; i < SystemConfig.getInstance().getBackendWorker(); i++) {
                 backendExecutor.execute(new BackendCurrentRunnable(concurrentBackHandlerQueue));
             }
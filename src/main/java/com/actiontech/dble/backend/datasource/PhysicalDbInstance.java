@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.heartbeat.MySQLHeartbeat;
 import com.actiontech.dble.backend.mysql.nio.handler.ConnectionHeartBeatHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
 import com.actiontech.dble.backend.pool.ConnectionPool;
+import com.actiontech.dble.backend.pool.ConnectionPoolStatistic;
 import com.actiontech.dble.backend.pool.ReadTimeStatusInstance;
 import com.actiontech.dble.config.model.db.DbGroupConfig;
 import com.actiontech.dble.config.model.db.DbInstanceConfig;
@@ -592,6 +593,14 @@ public abstract class PhysicalDbInstance implements ReadTimeStatusInstance {
         return connectionPool.getCount(schema, PooledConnection.STATE_NOT_IN_USE);
     }
 
+    public final int getThreadsAwaitingConnection() {
+        return connectionPool.getThreadsAwaitingConnection();
+    }
+
+    public ConnectionPoolStatistic getPoolStatistic() {
+        return connectionPool.getStatistic();
+    }
+
     public boolean isNeedSkipHeartTest() {
         return needSkipHeartTest;
     }
@@ -10,6 +10,7 @@ import com.actiontech.dble.alarm.Alert;
 import com.actiontech.dble.alarm.AlertUtil;
 import com.actiontech.dble.backend.datasource.PhysicalDbGroup;
 import com.actiontech.dble.backend.datasource.PhysicalDbInstance;
+import com.actiontech.dble.backend.heartbeat.HashedWheelTimer;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.db.DbGroupConfig;
 import com.actiontech.dble.net.connection.BackendConnection;
@@ -25,7 +26,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -37,7 +37,7 @@ public class DelayDetection {
     private boolean tableExists;
     private volatile boolean stop = true;
     private volatile BackendConnection conn;
-    private volatile ScheduledFuture scheduledFuture;
+    private volatile HashedWheelTimer.Timeout detectionTask;
     private final PhysicalDbInstance source;
     private final DbGroupConfig dbGroupConfig;
     private DelayDetectionStatus delayDetectionStatus;
@@ -97,7 +97,7 @@ public class DelayDetection {
 
     public void start(long initialDelay) {
         LOGGER.info("start delayDetection of instance[{}]", source);
-        if (Objects.nonNull(scheduledFuture)) {
+        if (Objects.nonNull(detectionTask)) {
             stop("the legacy thread is not closed");
         }
         stop = false;
@@ -105,7 +105,7 @@ public class DelayDetection {
             //avoid concurrency with the master
             initialDelay = initialDelay >> 1;
         }
-        this.scheduledFuture = Scheduler.getInstance().getScheduledExecutor().scheduleAtFixedRate(() -> execute(),
+        this.detectionTask = Scheduler.getInstance().getHeartbeatTimer().scheduleAtFixedRate(() -> execute(),
                 initialDelay, this.delayPeriodMillis, TimeUnit.MILLISECONDS);
     }
 
@@ -143,12 +143,12 @@ public class DelayDetection {
     public void stop(String reason) {
         LOGGER.info("stop delayDetection of instance[{}], due to {}", source, reason);
         stop = true;
-        if (Objects.nonNull(scheduledFuture)) {
-            scheduledFuture.cancel(true);
+        if (Objects.nonNull(detectionTask)) {
+            detectionTask.cancel();
             delayDetectionStatus = DelayDetectionStatus.STOP;
             source.setDelayDetectionStatus(delayDetectionStatus);
             cancel(reason);
-            scheduledFuture = null;
+            detectionTask = null;
         }
     }
 
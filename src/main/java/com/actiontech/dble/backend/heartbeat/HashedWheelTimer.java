@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.heartbeat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * hashed wheel timer shared by the heartbeat and the delay detection of all the dbInstances.
+ * adding or cancelling a probe is O(1) and one thread drives all of them, instead of one periodic task
+ * per dbInstance in the scheduled executor. the precision is one tick, which is enough for the probes.
+ * the tasks run on the wheel thread, so they must not block.
+ */
+public final class HashedWheelTimer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+    private static final double GOLDEN_RATIO = 0.6180339887498949;
+
+    private final String name;
+    private final long tickNanos;
+    private final List<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicInteger spreadSequence = new AtomicInteger();
+    // the nanoseconds since the timer is created
+    private final LongSupplier clock;
+    private volatile boolean stopped = false;
+    private long tick;
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(name, tickDuration, unit, ticksPerWheel, elapsedNanos(), false);
+    }
+
+    /**
+     * with the given clock, the worker thread is not started and the timer is driven by advance(), used by the tests
+     */
+    HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, LongSupplier clock) {
+        this(name, tickDuration, unit, ticksPerWheel, clock, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, LongSupplier clock, boolean manual) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("tickDuration and ticksPerWheel must be greater than 0");
+        }
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        if (ticksPerWheel == 1) {
+            size = 1;
+        }
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new LinkedList<>();
+        }
+        this.mask = size - 1;
+        this.clock = clock;
+        this.started.set(manual);
+    }
+
+    /**
+     * run the task after initialDelay and then every period until it is cancelled,
+     * a run is skipped rather than queued up if the wheel falls behind.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
+        start();
+        Timeout timeout = new Timeout(task, clock.getAsLong() + unit.toNanos(Math.max(initialDelay, 0)), unit.toNanos(period));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * the initial delay which spreads the start of the probes with the same period evenly over the period,
+     * the offsets follow the golden ratio sequence so they never collide no matter how many probes are added.
+     */
+    public long spreadDelay(long period) {
+        double offset = (spreadSequence.getAndIncrement() * GOLDEN_RATIO) % 1.0;
+        return (long) (offset * period);
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread worker = new Thread(this::work, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void work() {
+        while (!stopped) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while ((sleepNanos = deadline - clock.getAsLong()) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (stopped) {
+                    return;
+                }
+            }
+            nextTick();
+        }
+    }
+
+    /**
+     * run all the ticks which are due by the clock, for the timer without the worker thread
+     */
+    void advance() {
+        while (tickNanos * (tick + 1) <= clock.getAsLong()) {
+            nextTick();
+        }
+    }
+
+    private void nextTick() {
+        transferPendingTimeouts();
+        expireTimeouts(wheel[(int) (tick & mask)]);
+        tick++;
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (!timeout.cancelled) {
+                addToWheel(timeout, tick);
+            }
+        }
+    }
+
+    // fromTick is the first tick which will visit the timeout
+    private void addToWheel(Timeout timeout, long fromTick) {
+        long expireTick = Math.max(timeout.deadline / tickNanos, fromTick);
+        timeout.remainingRounds = (expireTick - fromTick) / wheel.length;
+        wheel[(int) (expireTick & mask)].add(timeout);
+    }
+
+    private void expireTimeouts(List<Timeout> bucket) {
+        List<Timeout> rescheduled = null;
+        for (Iterator<Timeout> iterator = bucket.iterator(); iterator.hasNext(); ) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                timeout.run();
+                if (!timeout.cancelled) {
+                    long now = clock.getAsLong();
+                    do {
+                        timeout.deadline += timeout.period;
+                    } while (timeout.deadline <= now - timeout.period);
+                    if (rescheduled == null) {
+                        rescheduled = new ArrayList<>();
+                    }
+                    rescheduled.add(timeout);
+                }
+            }
+        }
+        if (rescheduled != null) {
+            for (Timeout timeout : rescheduled) {
+                addToWheel(timeout, tick + 1);
+            }
+        }
+    }
+
+    private static LongSupplier elapsedNanos() {
+        final long startTime = System.nanoTime();
+        return () -> System.nanoTime() - startTime;
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void run() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.warn("run the timer task error", e);
+            }
+        }
+    }
+}
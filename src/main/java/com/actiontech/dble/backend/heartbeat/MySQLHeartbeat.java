@@ -21,7 +21,6 @@ import org.slf4j.LoggerFactory;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -56,7 +55,7 @@ public class MySQLHeartbeat {
     private volatile Integer slaveBehindMaster;
     private MySQLDetector detector;
     private volatile String message;
-    private volatile ScheduledFuture scheduledFuture;
+    private volatile HashedWheelTimer.Timeout heartbeatTask;
     private AtomicLong errorTimeInLast5Min = new AtomicLong();
     private int errorTimeInLast5MinCount = 0;
     private volatile long heartbeatRecoveryTime;
@@ -94,14 +93,16 @@ public class MySQLHeartbeat {
             if (LOGGER.isDebugEnabled()) {
                 ReloadLogHelper.debug("start heartbeat :{}", this.toString());
             }
-            this.scheduledFuture = Scheduler.getInstance().getScheduledExecutor().scheduleAtFixedRate(() -> {
+            // spread the heartbeats of the instances over the period to avoid bursts of probes
+            HashedWheelTimer timer = Scheduler.getInstance().getHeartbeatTimer();
+            this.heartbeatTask = timer.scheduleAtFixedRate(() -> {
                 if (DbleServer.getInstance().getConfig().isFullyConfigured()) {
                     if (TimeUtil.currentTimeMillis() < heartbeatRecoveryTime) {
                         return;
                     }
                     heartbeat();
                 }
-            }, 0L, heartbeatPeriodMillis, TimeUnit.MILLISECONDS);
+            }, timer.spreadDelay(heartbeatPeriodMillis), heartbeatPeriodMillis, TimeUnit.MILLISECONDS);
         } else {
             LOGGER.warn("init dbInstance[{}] heartbeat, but it has been initialized, skip initialization.", source.getName());
         }
@@ -114,7 +115,7 @@ public class MySQLHeartbeat {
         }
         LOGGER.info("stop heartbeat of instance[{}], due to {}", source.getConfig().getUrl(), reason);
         isStop = true;
-        scheduledFuture.cancel(false);
+        heartbeatTask.cancel();
         initHeartbeat.set(false);
         this.status = MySQLHeartbeatStatus.STOP;
         if (detector != null && !detector.isQuit()) {
@@ -9,6 +9,8 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.datasource.ShardingNode;
 import com.actiontech.dble.cache.CachePool;
 import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
 import com.actiontech.dble.net.ConnectionException;
 import com.actiontech.dble.net.connection.BackendConnection;
 import com.actiontech.dble.net.mysql.ErrorPacket;
@@ -20,12 +22,12 @@ import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.actiontech.dble.services.mysqlsharding.MySQLResponseService;
 import com.actiontech.dble.singleton.CacheService;
+import com.actiontech.dble.util.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -34,12 +36,16 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * company where id=(select company_id from customer where id=3); the one which
- * return data (id) is the shardingNode to store child table's records
+ * return data (id) is the shardingNode to store child table's records.
+ * the join keys of a multi-rows insert are found together by company where id in (...)
  *
  * @author wuzhih, huqing.yan
  */
 public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(FetchStoreNodeOfChildTableHandler.class);
+    private static final int MAX_KEYS_PER_PROBE = 1000;
+    // cached for the join key whose parent isn't found
+    private static final String NOT_FOUND = "";
     private final String sql;
     private AtomicBoolean hadResult = new AtomicBoolean(false);
     private volatile String shardingNode;
@@ -48,31 +54,126 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
     protected final ReentrantLock lock = new ReentrantLock();
     private Condition result = lock.newCondition();
     private final NonBlockingSession session;
+    // the sharding node of every join key returned, null if only one join key is found
+    private final Map<String, String> keyNodes;
 
     public FetchStoreNodeOfChildTableHandler(String sql, NonBlockingSession session) {
+        this(sql, session, null);
+    }
+
+    private FetchStoreNodeOfChildTableHandler(String sql, NonBlockingSession session, Map<String, String> keyNodes) {
         this.sql = sql;
         this.session = session;
+        this.keyNodes = keyNodes;
     }
 
     public String execute(String schema, List<String> shardingNodes) throws Exception {
         String key = schema + ":" + sql;
         CachePool cache = CacheService.getCachePoolByName("ER_SQL2PARENTID");
+        boolean negativeCache = SystemConfig.getInstance().isUseErParentNegativeCache();
         if (cache != null) {
             String cacheResult = (String) cache.get(key);
             if (cacheResult != null) {
-                return cacheResult;
+                if (!cacheResult.isEmpty()) {
+                    return cacheResult;
+                } else if (negativeCache) {
+                    return null;
+                }
             }
         }
 
-        int totalCount = shardingNodes.size();
-
         LOGGER.debug("find child node with sql:" + sql);
+        if (!probe(shardingNodes)) {
+            return null;
+        }
+
+        if (!LOGGER.isDebugEnabled()) {
+            //no cached when debug
+            if (cache != null && (shardingNode != null || negativeCache)) {
+                cache.putIfAbsent(key, shardingNode != null ? shardingNode : NOT_FOUND);
+            }
+        }
+        return shardingNode;
+
+    }
+
+    /**
+     * find the sharding nodes of the join keys of a multi-rows insert, the keys missed in ER_SQL2PARENTID
+     * are found by one select ... in (...) sent to all the sharding nodes in parallel
+     *
+     * @param joinValues the join keys in sql, e.g. 'a' or 1
+     * @return the sharding node of every join key found, null if the session is closed
+     */
+    public static Map<String, String> execute(String schema, ChildTableConfig tc, Collection<String> joinValues, NonBlockingSession session) throws Exception {
+        CachePool cache = CacheService.getCachePoolByName("ER_SQL2PARENTID");
+        boolean negativeCache = SystemConfig.getInstance().isUseErParentNegativeCache();
+        List<String> shardingNodes = tc.getRootParent().getShardingNodes();
+        ProbeStats stats = new ProbeStats(joinValues.size());
+        Map<String, String> result = new HashMap<>();
+        List<String> missKeys = new ArrayList<>();
+        for (String joinValue : new LinkedHashSet<>(joinValues)) {
+            String cacheResult = cache == null ? null : (String) cache.get(schema + ":" + tc.getLocateRTableKeySql() + joinValue);
+            if (cacheResult != null && !cacheResult.isEmpty()) {
+                stats.cacheHit++;
+                result.put(joinValue, cacheResult);
+            } else if (cacheResult != null && negativeCache) {
+                stats.negativeCacheHit++;
+            } else {
+                missKeys.add(joinValue);
+            }
+        }
+        for (int from = 0; from < missKeys.size(); from += MAX_KEYS_PER_PROBE) {
+            List<String> keys = missKeys.subList(from, Math.min(from + MAX_KEYS_PER_PROBE, missKeys.size()));
+            Map<String, String> keyNodes = new ConcurrentHashMap<>();
+            String probeSql = tc.getLocateRTableKeysSql() + "(" + String.join(",", keys) + ")";
+            LOGGER.debug("find child nodes with sql:" + probeSql);
+            FetchStoreNodeOfChildTableHandler handler = new FetchStoreNodeOfChildTableHandler(probeSql, session, keyNodes);
+            if (!handler.probe(shardingNodes)) {
+                return null;
+            }
+            stats.probe++;
+            stats.probeNodes += shardingNodes.size();
+            for (String joinValue : keys) {
+                String key = schema + ":" + tc.getLocateRTableKeySql() + joinValue;
+                String dn = keyNodes.get(StringUtil.removeApostrophe(joinValue));
+                if (dn == null) {
+                    // the value returned may be written in another way, such as the collation or the decimal, find it alone
+                    stats.singleProbe++;
+                    dn = new FetchStoreNodeOfChildTableHandler(tc.getLocateRTableKeySql() + joinValue, session).execute(schema, shardingNodes);
+                    if (dn == null) {
+                        // the statement fails without the parent
+                        logProbeStats(tc, stats);
+                        return result;
+                    }
+                } else if (cache != null && !LOGGER.isDebugEnabled()) {
+                    cache.putIfAbsent(key, dn);
+                }
+                result.put(joinValue, dn);
+            }
+        }
+        logProbeStats(tc, stats);
+        return result;
+    }
+
+    private static void logProbeStats(ChildTableConfig tc, ProbeStats stats) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("find child nodes of table " + tc.getName() + ", " + stats);
+        }
+    }
+
+    /**
+     * send the sql to the sharding nodes and wait for all the results
+     *
+     * @return false if the session is closed
+     */
+    private boolean probe(List<String> shardingNodes) throws Exception {
+        int totalCount = shardingNodes.size();
         for (String dn : shardingNodes) {
-            if (!LOGGER.isDebugEnabled()) {
+            if (keyNodes == null && !LOGGER.isDebugEnabled()) {
                 //no early return when debug
                 if (shardingNode != null) {
                     LOGGER.debug(" found return ");
-                    return shardingNode;
+                    return true;
                 }
             }
             ShardingNode mysqlDN = DbleServer.getInstance().getConfig().getShardingNodes().get(dn);
@@ -86,7 +187,7 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
                 if (session.tryExistsCon(conn, node)) {
                     if (session.closed()) {
                         session.clearResources(true);
-                        return null;
+                        return false;
                     }
                     conn.getBackendService().setResponseHandler(this);
                     conn.getBackendService().setSession(session);
@@ -123,15 +224,7 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
             fatalErrorMsg.append("}");
             throw new ConnectionException(ErrorCode.ER_UNKNOWN_ERROR, fatalErrorMsg.toString());
         }
-
-        if (!LOGGER.isDebugEnabled()) {
-            //no cached when debug
-            if (shardingNode != null && cache != null) {
-                cache.putIfAbsent(key, shardingNode);
-            }
-        }
-        return shardingNode;
-
+        return true;
     }
 
     /**
@@ -206,6 +299,20 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("received rowResponse response from  " + service);
         }
+        if (keyNodes != null) {
+            String dn = ((RouteResultsetNode) ((MySQLResponseService) service).getAttachment()).getName();
+            RowDataPacket rowDataPacket = new RowDataPacket(1);
+            rowDataPacket.read(row);
+            byte[] value = rowDataPacket.getValue(0);
+            if (value != null) {
+                String joinValue = StringUtil.decode(value, session.getShardingService().getCharset().getResults());
+                String oldNode = keyNodes.putIfAbsent(joinValue, dn);
+                if (oldNode != null && !oldNode.equals(dn)) {
+                    LOGGER.info("find multi shardingNodes for child table store, join key is " + joinValue + ", sql is:  " + sql);
+                }
+            }
+            return false;
+        }
         if (hadResult.compareAndSet(false, true)) {
             lock.lock();
             try {
@@ -264,4 +371,26 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
         }
 
     }
+
+    /**
+     * how the join keys of one statement are found
+     */
+    private static final class ProbeStats {
+        private final int keys;
+        private int cacheHit;
+        private int negativeCacheHit;
+        private int probe;
+        private int probeNodes;
+        private int singleProbe;
+
+        ProbeStats(int keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public String toString() {
+            return "keys=" + keys + ", cacheHit=" + cacheHit + ", negativeCacheHit=" + negativeCacheHit +
+                    ", probe=" + probe + ", probeNodes=" + probeNodes + ", singleProbe=" + singleProbe;
+        }
+    }
 }
@@ -14,7 +14,9 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.Aggregat
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.DirectGroupByHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.subquery.*;
 import com.actiontech.dble.backend.mysql.nio.handler.util.CallBackHandler;
+import com.actiontech.dble.backend.mysql.store.TopNSortedLocalResult;
 import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
 import com.actiontech.dble.net.mysql.ErrorPacket;
@@ -277,18 +279,12 @@ public abstract class BaseHandlerBuilder {
         /* need groupby handler */
         if (nodeHasGroupBy(node)) {
             boolean needOrderBy = (node.getGroupBys().size() > 0) && isOrderNeeded(node, node.getGroupBys());
-            boolean canDirectGroupBy = true;
-            List<ItemSum> sumRefs = new ArrayList<>();
-            for (ItemSum funRef : node.getSumFuncs()) {
-                if (funRef.hasWithDistinct() || funRef.sumType().equals(ItemSum.SumFuncType.GROUP_CONCAT_FUNC))
-                    canDirectGroupBy = false;
-                sumRefs.add(funRef);
-            }
+            List<ItemSum> sumRefs = new ArrayList<>(node.getSumFuncs());
             if (needOrderBy) {
-                if (canDirectGroupBy) {
-                    // we go direct groupby
+                if (DirectGroupByHandler.canDirectGroupBy(sumRefs)) {
+                    // we go direct groupby by hash, the groups are sorted when done if somebody depends on the order
                     DirectGroupByHandler gh = new DirectGroupByHandler(getSequenceId(), session, node.getGroupBys(),
-                            sumRefs);
+                            sumRefs, isGroupOrderNeeded(node));
                     addHandler(gh);
                 } else {
                     OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getGroupBys());
@@ -317,7 +313,7 @@ public abstract class BaseHandlerBuilder {
                 // can not merge,need distinct then order by
                 DistinctHandler dh = new DistinctHandler(getSequenceId(), session, node.getColumnsSelected());
                 addHandler(dh);
-                OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                OrderByHandler oh = createOrderByHandler(node);
                 addHandler(oh);
             } else {
                 DistinctHandler dh = new DistinctHandler(getSequenceId(), session, node.getColumnsSelected(),
@@ -333,11 +329,11 @@ public abstract class BaseHandlerBuilder {
             if (node.getOrderBys().size() > 0) {
                 if (node.getGroupBys().size() > 0) {
                     if (!PlanUtil.orderContains(node.getGroupBys(), node.getOrderBys())) {
-                        OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                        OrderByHandler oh = createOrderByHandler(node);
                         addHandler(oh);
                     }
                 } else if (isOrderNeeded(node, node.getOrderBys())) {
-                    OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                    OrderByHandler oh = createOrderByHandler(node);
                     addHandler(oh);
                 }
             }
@@ -415,6 +411,17 @@ public abstract class BaseHandlerBuilder {
         sendMakeHandlerHashMap.put(tableNode, sh);
     }
 
+    /**
+     * the order by handler of the node, only keeps the top rows if the limit follows it
+     */
+    private OrderByHandler createOrderByHandler(PlanNode node) {
+        int topN = TopNSortedLocalResult.topN(node.getLimitFrom(), node.getLimitTo(), SystemConfig.getInstance().getOrderByTopNMaxRows());
+        if (topN >= 0) {
+            return new OrderByHandler(getSequenceId(), session, node.getOrderBys(), topN);
+        }
+        return new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+    }
+
     /**
      * if the node's parent handler has been ordered,it is no need to order again
      */
@@ -433,6 +440,10 @@ public abstract class BaseHandlerBuilder {
      * the order way of join node stored in left join on orders and right join on orders
      */
     private boolean isJoinNodeOrderMatch(JoinNode jn, List<Order> orderBys) {
+        if (jn.getStrategy() == JoinNode.Strategy.HASH) {
+            // the rows of hash join are in the order of probe side
+            return false;
+        }
         // onCondition column in orderBys will be saved to onOrders,
         // eg: if jn.onCond = (t1.id=t2.id),
         // orderBys is t1.id,t2.id,t1.name, and onOrders = {t1.id,t2.id};
@@ -485,6 +496,19 @@ public abstract class BaseHandlerBuilder {
         return newOrderByList;
     }
 
+    /**
+     * the order of group by is needed only when the order by is contained in group by,
+     * because no OrderByHandler will be added after the group by handler.
+     * a GROUP BY without ORDER BY has the order bys copied from group by by OrderByPusher, so it is still sorted
+     */
+    private static boolean isGroupOrderNeeded(PlanNode planNode) {
+        List<Order> orderBys = planNode.getOrderBys();
+        if (orderBys.size() == 0) {
+            return false;
+        }
+        return !planNode.isDistinct() && PlanUtil.orderContains(planNode.getGroupBys(), orderBys);
+    }
+
     private static boolean nodeHasGroupBy(PlanNode arg) {
         return (arg.getSumFuncs().size() > 0 || arg.getGroupBys().size() > 0);
     }
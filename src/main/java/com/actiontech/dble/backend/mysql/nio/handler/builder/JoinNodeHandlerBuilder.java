@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.impl.DelayTableHandle
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.OrderByHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.SendMakeHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.TempTableHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.HashJoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.JoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.NotInHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.CallBackHandler;
@@ -150,7 +151,7 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             }
             tempHandler.setTempDoneCallBack(tempDone);
 
-        } else if (node.getStrategy() == JoinNode.Strategy.SORTMERGE) {
+        } else if (node.getStrategy() == JoinNode.Strategy.SORTMERGE || node.getStrategy() == JoinNode.Strategy.HASH) {
             try {
                 if (handleSubQueries()) {
                     needWhereHandler = false;
@@ -298,7 +299,12 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             this.getSubQueryBuilderList().addAll(builder.getSubQueryBuilderList());
         }
         DMLResponseHandler endHandler = builder.getEndHandler();
-        if (isLeft) {
+        if (node.getStrategy() == JoinNode.Strategy.HASH) {
+            // hash join need not ordered rows
+            if (isLeft) {
+                endHandler.setLeft(true);
+            }
+        } else if (isLeft) {
             if (!node.isLeftOrderMatch()) {
                 OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getLeftJoinOnOrders());
                 endHandler.setNextHandler(oh);
@@ -355,6 +361,10 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             NotInHandler nh = new NotInHandler(getSequenceId(), session, node.getLeftJoinOnOrders(),
                     node.getRightJoinOnOrders());
             addHandler(nh);
+        } else if (node.getStrategy() == JoinNode.Strategy.HASH) {
+            HashJoinHandler jh = new HashJoinHandler(getSequenceId(), session, node.isLeftOuterJoin(), node.isHashBuildLeft(),
+                    node.getLeftJoinOnOrders(), node.getRightJoinOnOrders(), node.getOtherJoinOnFilter());
+            addHandler(jh);
         } else {
             JoinHandler jh = new JoinHandler(getSequenceId(), session, node.isLeftOuterJoin(),
                     node.getLeftJoinOnOrders(), node.getRightJoinOnOrders(), node.getOtherJoinOnFilter());
@@ -123,8 +123,7 @@ public class BaseSelectHandler extends BaseDMLHandler {
     public boolean rowResponse(byte[] row, RowDataPacket rowPacket, boolean isLeft, @NotNull AbstractService conn) {
         if (terminate.get())
             return true;
-        RowDataPacket rp = new RowDataPacket(fieldCounts);
-        rp.read(row);
+        RowDataPacket rp = RowDataPacket.wrap(fieldCounts, row);
         nextHandler.rowResponse(null, rp, this.isLeft, conn);
         return false;
     }
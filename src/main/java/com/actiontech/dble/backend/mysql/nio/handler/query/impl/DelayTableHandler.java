@@ -78,7 +78,8 @@ public class DelayTableHandler extends BaseDMLHandler {
                 String charSet = !service.isFakeClosed() ? service.getCharset().getResults() : session.getSource().getService().getCharset().getResults();
                 tempTable.setCharset(charSet);
                 tempTable.setRowsStore(new UnSortedLocalResult(fieldPackets.size(), BufferPoolManager.getBufferPool(),
-                        CharsetUtil.getJavaCharset(charSet), generateBufferRecordBuilder()).setMemSizeController(session.getOtherBufferMC()));
+                        CharsetUtil.getJavaCharset(charSet), generateBufferRecordBuilder()).setMemSizeController(session.getOtherBufferMC()).
+                        setSpillStatistic(session.getSpillStatistic(this)));
                 List<Field> fields = HandlerTool.createFields(this.fieldPackets);
                 sourceSelIndex = HandlerTool.findField(sourceSel, fields, 0);
                 if (sourceSelIndex < 0)
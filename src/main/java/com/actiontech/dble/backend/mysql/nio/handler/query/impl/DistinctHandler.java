@@ -11,8 +11,10 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.DistinctSortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.HashDistinctLocalResult;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
 import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.Session;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
@@ -32,6 +34,7 @@ public class DistinctHandler extends BaseDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(DistinctHandler.class);
 
     private LocalResult localResult;
+    private HashDistinctLocalResult hashResult;
     private List<Order> fixedOrders;
     private BufferPool pool;
     /* if distinct is null, distinct the total row */
@@ -79,8 +82,14 @@ public class DistinctHandler extends BaseDMLHandler {
         RowDataComparator comparator = new RowDataComparator(this.fieldPackets, orders, this.isAllPushDown(), type());
         String charSet = !service.isFakeClosed() ? CharsetUtil.getJavaCharset(service.getCharset().getResults()) :
                 CharsetUtil.getJavaCharset(session.getSource().getService().getCharset().getResults());
-        localResult = new DistinctSortedLocalResult(pool, sourceFields.size(), comparator, charSet, generateBufferRecordBuilder()).
-                setMemSizeController(session.getOtherBufferMC());
+        if (this.fixedOrders == null && SystemConfig.getInstance().isUseHashDistinct()) {
+            // nobody depends on the order of the rows, they are sent as soon as known to be distinct
+            hashResult = new HashDistinctLocalResult(pool, sourceFields.size(), comparator, true, charSet, generateBufferRecordBuilder());
+            localResult = hashResult.setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+        } else {
+            localResult = new DistinctSortedLocalResult(pool, sourceFields.size(), comparator, charSet, generateBufferRecordBuilder()).
+                    setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+        }
         nextHandler.fieldEofResponse(null, null, this.fieldPackets, null, this.isLeft, service);
     }
 
@@ -88,6 +97,12 @@ public class DistinctHandler extends BaseDMLHandler {
     public boolean rowResponse(byte[] rowNull, final RowDataPacket rowPacket, boolean isLeft, @NotNull AbstractService service) {
         if (terminate.get())
             return true;
+        if (hashResult != null) {
+            if (hashResult.addIfAbsent(rowPacket)) {
+                return nextHandler.rowResponse(null, rowPacket, this.isLeft, service);
+            }
+            return false;
+        }
         localResult.add(rowPacket);
         return false;
     }
@@ -9,7 +9,9 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.ArrayMinHeap;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HeapItem;
+import com.actiontech.dble.backend.mysql.nio.handler.util.LoserTree;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowRingQueue;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.connection.BackendConnection;
 import com.actiontech.dble.net.mysql.FieldPacket;
@@ -26,9 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * mergeHandler will merge data,if contains aggregate function,use group by handler
@@ -38,9 +38,12 @@ import java.util.concurrent.LinkedBlockingQueue;
 public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(MultiNodeMergeAndOrderHandler.class);
 
+    // the loser tree takes the place of the heap when merging so many connections
+    private static final int LOSER_TREE_THRESHOLD = 8;
+
     private final int queueSize;
-    // map;conn->blocking queue.if receive row packet, add to the queue,if receive rowEof packet, add NullHeapItem into queue;
-    private Map<MySQLResponseService, BlockingQueue<HeapItem>> queues;
+    // map;conn->ring queue.if receive row packet, add to the queue,if receive rowEof packet, add NullHeapItem into queue;
+    private Map<MySQLResponseService, RowRingQueue> queues;
     private List<Order> orderBys;
     private RowDataComparator rowComparator;
     private volatile boolean noNeedRows = false;
@@ -84,7 +87,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
                 try {
                     BackendConnection exeConn = baseSelectHandler.initConnection();
                     exeConn.getBackendService().setComplexQuery(true);
-                    queues.put(exeConn.getBackendService(), new LinkedBlockingQueue<>(queueSize));
+                    queues.put(exeConn.getBackendService(), new RowRingQueue(queueSize));
                     baseSelectHandler.execute(exeConn.getBackendService());
                 } catch (Exception e) {
                     baseSelectHandler.connectionError(e, baseSelectHandler.getRrss());
@@ -127,15 +130,10 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
             return true;
 
         MySQLResponseService mySQLConn = (MySQLResponseService) service;
-        BlockingQueue<HeapItem> queue = queues.get(mySQLConn);
+        RowRingQueue queue = queues.get(mySQLConn);
         if (queue == null)
             return true;
-        HeapItem item = new HeapItem(row, rowPacket, mySQLConn);
-        try {
-            queue.put(item);
-        } catch (InterruptedException e) {
-            //ignore error
-        }
+        queue.put(new HeapItem(row, rowPacket, mySQLConn));
         return false;
     }
 
@@ -148,62 +146,18 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
 
         if (this.terminate.get())
             return;
-        BlockingQueue<HeapItem> queue = queues.get(responseService);
+        RowRingQueue queue = queues.get(responseService);
         if (queue == null)
             return;
-        try {
-            queue.put(HeapItem.nullItem());
-        } catch (InterruptedException e) {
-            //ignore error
-        }
+        queue.put(HeapItem.nullItem());
     }
 
     @Override
     protected void ownThreadJob(Object... objects) {
         try {
-            ArrayMinHeap<HeapItem> heap = new ArrayMinHeap<>((o1, o2) -> {
-                RowDataPacket row1 = o1.getRowPacket();
-                RowDataPacket row2 = o2.getRowPacket();
-                if (row1 == null || row2 == null) {
-                    if (row1 == row2)
-                        return 0;
-                    if (row1 == null)
-                        return -1;
-                    return 1;
-                }
-                return rowComparator.compare(row1, row2);
-            });
-            // init heap
-            for (Entry<MySQLResponseService, BlockingQueue<HeapItem>> entry : queues.entrySet()) {
-                HeapItem firstItem = entry.getValue().take();
-                heap.add(firstItem);
-            }
-            while (!heap.isEmpty()) {
-                if (terminate.get() && !nestLoopDependOn)
-                    return;
-                HeapItem top = heap.peak();
-                if (top.isNullItem()) {
-                    heap.poll();
-                } else {
-                    BlockingQueue<HeapItem> topItemQueue = queues.get(top.getIndex());
-                    HeapItem item = topItemQueue.take();
-                    heap.replaceTop(item);
-                    if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
-                        noNeedRows = true;
-                        while (!heap.isEmpty()) {
-                            HeapItem itemToDiscard = heap.poll();
-                            if (!itemToDiscard.isNullItem()) {
-                                BlockingQueue<HeapItem> discardQueue = queues.get(itemToDiscard.getIndex());
-                                while (true) {
-                                    if (discardQueue.take().isNullItem() || terminate.get()) {
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            boolean finished = queues.size() >= LOSER_TREE_THRESHOLD ? mergeByLoserTree() : mergeByHeap();
+            if (!finished)
+                return;
             if (LOGGER.isDebugEnabled()) {
                 String executeQueries = getRoutesSql(route);
                 LOGGER.debug(executeQueries + " heap send eof: ");
@@ -221,27 +175,115 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
         }
     }
 
+    /**
+     * @return false if terminated
+     */
+    private boolean mergeByHeap() {
+        ArrayMinHeap<HeapItem> heap = new ArrayMinHeap<>((o1, o2) -> {
+            if (o1.isNullItem() || o2.isNullItem()) {
+                if (o1 == o2)
+                    return 0;
+                if (o1.isNullItem())
+                    return -1;
+                return 1;
+            }
+            return rowComparator.compareKey(o1.getCmpKey(), o2.getCmpKey());
+        });
+        // init heap
+        for (Entry<MySQLResponseService, RowRingQueue> entry : queues.entrySet()) {
+            heap.add(takeItem(entry.getValue()));
+        }
+        while (!heap.isEmpty()) {
+            if (terminate.get() && !nestLoopDependOn)
+                return false;
+            HeapItem top = heap.peak();
+            if (top.isNullItem()) {
+                heap.poll();
+            } else {
+                RowRingQueue topItemQueue = queues.get(top.getIndex());
+                heap.replaceTop(takeItem(topItemQueue));
+                if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
+                    noNeedRows = true;
+                    while (!heap.isEmpty()) {
+                        HeapItem itemToDiscard = heap.poll();
+                        if (!itemToDiscard.isNullItem()) {
+                            discardRows(queues.get(itemToDiscard.getIndex()));
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return false if terminated
+     */
+    private boolean mergeByLoserTree() {
+        List<RowRingQueue> sources = new ArrayList<>(queues.values());
+        boolean[] exhausted = new boolean[sources.size()];
+        List<HeapItem> firstItems = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            HeapItem item = takeItem(sources.get(i));
+            exhausted[i] = item.isNullItem();
+            firstItems.add(exhausted[i] ? null : item);
+        }
+        LoserTree<HeapItem> tree = new LoserTree<>(firstItems, (o1, o2) -> rowComparator.compareKey(o1.getCmpKey(), o2.getCmpKey()));
+        while (!tree.isEmpty()) {
+            if (terminate.get() && !nestLoopDependOn)
+                return false;
+            HeapItem top = tree.peek();
+            int index = tree.peekIndex();
+            HeapItem item = takeItem(sources.get(index));
+            exhausted[index] = item.isNullItem();
+            tree.replaceTop(exhausted[index] ? null : item);
+            if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
+                noNeedRows = true;
+                for (int i = 0; i < sources.size(); i++) {
+                    if (!exhausted[i]) {
+                        discardRows(sources.get(i));
+                    }
+                }
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * the compare key is evaluated once here, not in every compare of the merging
+     */
+    private HeapItem takeItem(RowRingQueue queue) {
+        HeapItem item = queue.take();
+        if (!item.isNullItem()) {
+            item.setCmpKey(rowComparator.getCmpKey(item.getRowPacket()));
+        }
+        return item;
+    }
+
+    private void discardRows(RowRingQueue queue) {
+        while (true) {
+            if (queue.take().isNullItem() || terminate.get()) {
+                break;
+            }
+        }
+    }
+
     @Override
     protected void terminateThread() throws Exception {
-        for (Entry<MySQLResponseService, BlockingQueue<HeapItem>> entry : this.queues.entrySet()) {
-            // add EOF to signal atoMerge thread
-            entry.getValue().clear();
-            entry.getValue().put(HeapItem.nullItem());
+        for (Entry<MySQLResponseService, RowRingQueue> entry : this.queues.entrySet()) {
+            // signal the merge thread
+            entry.getValue().close();
         }
         recycleConn();
     }
 
     @Override
     protected void recycleResources() {
-        Iterator<Entry<MySQLResponseService, BlockingQueue<HeapItem>>> iterator = this.queues.entrySet().iterator();
+        Iterator<Entry<MySQLResponseService, RowRingQueue>> iterator = this.queues.entrySet().iterator();
         while (iterator.hasNext()) {
-            Entry<MySQLResponseService, BlockingQueue<HeapItem>> entry = iterator.next();
-            // fair lock queue,poll for clear
-            while (true) {
-                if (entry.getValue().poll() == null) {
-                    break;
-                }
-            }
+            Entry<MySQLResponseService, RowRingQueue> entry = iterator.next();
+            entry.getValue().clear();
             iterator.remove();
         }
     }
@@ -10,6 +10,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
 import com.actiontech.dble.backend.mysql.store.SortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.TopNSortedLocalResult;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.Session;
@@ -37,10 +38,17 @@ public class OrderByHandler extends OwnThreadDMLHandler {
     /* tmp object for ordering,support Memory-mapped file or file */
     private LocalResult localResult;
     private BufferPool pool;
+    // only the first topN rows are needed by the limit after it, -1 means all
+    private final int topN;
 
     public OrderByHandler(long id, Session session, List<Order> orders) {
+        this(id, session, orders, -1);
+    }
+
+    public OrderByHandler(long id, Session session, List<Order> orders, int topN) {
         super(id, session);
         this.orders = orders;
+        this.topN = topN;
         int queueSize = SystemConfig.getInstance().getOrderByQueueSize();
         this.queue = new LinkedBlockingDeque<>(queueSize);
     }
@@ -63,8 +71,12 @@ public class OrderByHandler extends OwnThreadDMLHandler {
         RowDataComparator cmp = new RowDataComparator(this.fieldPackets, orders, isAllPushDown(), type());
         String charSet = !service.isFakeClosed() ? CharsetUtil.getJavaCharset(service.getCharset().getResults()) :
                 CharsetUtil.getJavaCharset(session.getSource().getService().getCharset().getResults());
-        localResult = new SortedLocalResult(pool, fieldPackets.size(), cmp, charSet, generateBufferRecordBuilder()).
-                setMemSizeController(session.getOrderBufferMC());
+        if (topN >= 0) {
+            localResult = new TopNSortedLocalResult(pool, fieldPackets.size(), cmp, topN, charSet, generateBufferRecordBuilder());
+        } else {
+            localResult = new SortedLocalResult(pool, fieldPackets.size(), cmp, charSet, generateBufferRecordBuilder()).
+                    setMemSizeController(session.getOrderBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+        }
         nextHandler.fieldEofResponse(null, null, fieldPackets, null, this.isLeft, service);
         startOwnThread(service);
     }
@@ -162,7 +174,7 @@ public class OrderByHandler extends OwnThreadDMLHandler {
 
     @Override
     public ExplainType explainType() {
-        return ExplainType.ORDER;
+        return topN >= 0 ? ExplainType.TOP_N_ORDER : ExplainType.ORDER;
     }
 
 }
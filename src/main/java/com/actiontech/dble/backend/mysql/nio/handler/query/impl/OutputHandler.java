@@ -166,9 +166,8 @@ public class OutputHandler extends BaseDMLHandler {
                     buffer = rowPacket.write(buffer, serverSession.getShardingService(), true);
                 } else {
                     row = rowNull;
-                    RowDataPacket rowDataPk = new RowDataPacket(this.fieldPackets.size());
                     row[3] = (byte) serverSession.getShardingService().nextPacketId();
-                    rowDataPk.read(row);
+                    RowDataPacket rowDataPk = RowDataPacket.wrap(this.fieldPackets.size(), row);
                     this.netOutBytes += row.length;
                     buffer = rowDataPk.write(buffer, serverSession.getShardingService(), true);
                 }
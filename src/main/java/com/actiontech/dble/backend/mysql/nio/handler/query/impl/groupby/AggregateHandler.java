@@ -11,7 +11,9 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.DistinctLocalResult;
+import com.actiontech.dble.backend.mysql.store.HashDistinctLocalResult;
 import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.Session;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
@@ -203,8 +205,15 @@ public class AggregateHandler extends BaseDMLHandler {
                 ItemSum selFunc = sumFunctions.get(i);
                 List<Order> orders = HandlerTool.makeOrder(selFunc.arguments());
                 RowDataComparator distinctCmp = new RowDataComparator(packets, orders, isAllPushDown, this.type());
-                store = new DistinctLocalResult(pool, packets.size(), distinctCmp, this.charset, generateBufferRecordBuilder()).
-                        setMemSizeController(session.getOtherBufferMC());
+                if (func.sumType() == ItemSum.SumFuncType.GROUP_CONCAT_FUNC || !SystemConfig.getInstance().isUseHashDistinct()) {
+                    // group_concat(distinct) concatenates the values in the order of them,
+                    // the others are sorted as well unless useHashDistinct
+                    store = new DistinctLocalResult(pool, packets.size(), distinctCmp, this.charset, generateBufferRecordBuilder()).
+                            setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+                } else {
+                    store = new HashDistinctLocalResult(pool, packets.size(), distinctCmp, false, this.charset, generateBufferRecordBuilder()).
+                            setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+                }
                 distinctStores.add(store);
             }
             func.setAggregator(func.hasWithDistinct() ?
@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgr
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
+import com.actiontech.dble.backend.mysql.store.HashGroupByLocalResult;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
@@ -42,6 +43,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * groupBy is Behind OrderBy
  * use groupbylocalresult to calc groupby . try to merge before store to groupby LocalResult
  * these cases can't merge : 1.sum function contains distinct  2. groupconcat
+ * hashGroup mode groups rows by hash instead of sorting, and sorts the groups once when done if the order is needed
  *
  * @author ActionTech
  */
@@ -66,6 +68,8 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
     private BlockingQueue<RowDataPacket> outQueue;
     int bucketSize = 10;
     private List<GroupByBucket> buckets;
+    private final boolean hashGroup;
+    private final boolean orderNeeded;
 
     /**
      * @param groupBys
@@ -73,15 +77,45 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
      */
     public DirectGroupByHandler(long id, Session session, List<Order> groupBys,
                                 List<ItemSum> referredSumFunctions) {
+        this(id, session, groupBys, referredSumFunctions, false, true);
+    }
+
+    /**
+     * group by hash
+     *
+     * @param groupBys
+     * @param referredSumFunctions
+     * @param orderNeeded          the rows sent to next handler must be ordered by groupBys, the groups are sorted once when done
+     */
+    public DirectGroupByHandler(long id, Session session, List<Order> groupBys,
+                                List<ItemSum> referredSumFunctions, boolean orderNeeded) {
+        this(id, session, groupBys, referredSumFunctions, true, orderNeeded);
+    }
+
+    private DirectGroupByHandler(long id, Session session, List<Order> groupBys,
+                                 List<ItemSum> referredSumFunctions, boolean hashGroup, boolean orderNeeded) {
         super(id, session);
         this.groupBys = groupBys;
         this.referredSumFunctions = referredSumFunctions;
+        this.hashGroup = hashGroup;
+        this.orderNeeded = orderNeeded;
         int queueSize = SystemConfig.getInstance().getMergeQueueSize();
         this.queue = new LinkedBlockingQueue<>(queueSize);
         this.outQueue = new LinkedBlockingQueue<>(queueSize);
         this.buckets = new ArrayList<>();
     }
 
+    /**
+     * the rows can't be merged before stored if any sum function contains distinct or is group_concat
+     */
+    public static boolean canDirectGroupBy(List<ItemSum> sumFunctions) {
+        for (ItemSum sumFunction : sumFunctions) {
+            if (sumFunction.hasWithDistinct() || sumFunction.sumType().equals(ItemSum.SumFuncType.GROUP_CONCAT_FUNC))
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public HandlerType type() {
         return HandlerType.GROUPBY;
@@ -113,17 +147,31 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         RowDataComparator comparator = new RowDataComparator(this.localResultFps, this.groupBys, this.isAllPushDown(), this.type()
         );
         String charSet = !service.isFakeClosed() ? CharsetUtil.getJavaCharset(service.getCharset().getResults()) : CharsetUtil.getJavaCharset(session.getSource().getService().getCharset().getResults());
-        groupLocalResult = new GroupByLocalResult(pool, localResultFps.size(), comparator, localResultFps,
-                localResultReferredSums, this.isAllPushDown(), charSet, generateBufferRecordBuilder()).
-                setMemSizeController(session.getOtherBufferMC());
+        if (hashGroup) {
+            groupLocalResult = new HashGroupByLocalResult(pool, localResultFps.size(), comparator, localResultFps,
+                    localResultReferredSums, this.isAllPushDown(), orderNeeded, charSet, generateBufferRecordBuilder()).
+                    setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+        } else {
+            groupLocalResult = new GroupByLocalResult(pool, localResultFps.size(), comparator, localResultFps,
+                    localResultReferredSums, this.isAllPushDown(), charSet, generateBufferRecordBuilder()).
+                    setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+        }
         for (int i = 0; i < bucketSize; i++) {
             if (terminate.get())
                 break;
             RowDataComparator tmpComparator = new RowDataComparator(this.localResultFps, this.groupBys,
                     this.isAllPushDown(), this.type());
-            GroupByBucket bucket = new GroupByBucket(queue, outQueue, pool, localResultFps.size(), tmpComparator,
-                    localResultFps, localResultReferredSums, this.isAllPushDown(), charSet, generateBufferRecordBuilder());
-            bucket.setMemSizeController(session.getOtherBufferMC());
+            GroupByLocalResult bucketResult;
+            if (hashGroup) {
+                // the buckets are merged into groupLocalResult, their order does not matter
+                bucketResult = new HashGroupByLocalResult(pool, localResultFps.size(), tmpComparator,
+                        localResultFps, localResultReferredSums, this.isAllPushDown(), false, charSet, generateBufferRecordBuilder());
+            } else {
+                bucketResult = new GroupByLocalResult(pool, localResultFps.size(), tmpComparator,
+                        localResultFps, localResultReferredSums, this.isAllPushDown(), charSet, generateBufferRecordBuilder());
+            }
+            bucketResult.setMemSizeController(session.getOtherBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
+            GroupByBucket bucket = new GroupByBucket(queue, outQueue, bucketResult);
             buckets.add(bucket);
             bucket.start();
         }
@@ -324,14 +372,14 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         this.queue.clear();
         if (this.groupLocalResult != null)
             this.groupLocalResult.close();
-        for (LocalResult bucket : buckets) {
+        for (GroupByBucket bucket : buckets) {
             bucket.close();
         }
     }
 
     @Override
     public ExplainType explainType() {
-        return ExplainType.DIRECT_GROUP;
+        return hashGroup ? ExplainType.HASH_GROUP : ExplainType.DIRECT_GROUP;
     }
 
 }
@@ -6,32 +6,28 @@
 package com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby;
 
 import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
-import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
-import com.actiontech.dble.buffer.BufferPool;
-import com.actiontech.dble.buffer.BufferPoolRecord;
-import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
-import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * GroupByBucket,generate Group By tmp result in every bucket in parallel ,and merge the buckets finally
+ * <p>
+ * the rows are grouped by the given result, sorted by GroupByLocalResult or hashed by HashGroupByLocalResult
  */
-public class GroupByBucket extends GroupByLocalResult {
-    private BlockingQueue<RowDataPacket> inData;
-    private BlockingQueue<RowDataPacket> outData;
+public class GroupByBucket {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupByBucket.class);
+    private final BlockingQueue<RowDataPacket> inData;
+    private final BlockingQueue<RowDataPacket> outData;
+    private final GroupByLocalResult result;
 
-    public GroupByBucket(BlockingQueue<RowDataPacket> sourceData, BlockingQueue<RowDataPacket> outData,
-                         BufferPool pool, int fieldsCount, RowDataComparator groupCmp,
-                         List<FieldPacket> fieldPackets, List<ItemSum> sumFunctions,
-                         boolean isAllPushDown, String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
-        super(pool, fieldsCount, groupCmp, fieldPackets, sumFunctions,
-                isAllPushDown, charset, bufferRecordBuilder);
+    public GroupByBucket(BlockingQueue<RowDataPacket> sourceData, BlockingQueue<RowDataPacket> outData, GroupByLocalResult result) {
         this.inData = sourceData;
         this.outData = outData;
+        this.result = result;
     }
 
     /**
@@ -46,25 +42,24 @@ public class GroupByBucket extends GroupByLocalResult {
                         RowDataPacket rp = inData.take();
                         if (rp.getFieldCount() == 0)
                             break;
-                        add(rp);
+                        result.add(rp);
                     }
-                    done();
+                    result.done();
                     RowDataPacket groupedRow = null;
-                    while ((groupedRow = next()) != null)
+                    while ((groupedRow = result.next()) != null)
                         outData.put(groupedRow);
                     outData.put(OwnThreadDMLHandler.TERMINATED_ROW);
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    LOGGER.warn("group by bucket error", e);
                 }
             }
         });
         thread.start();
     }
 
-    @Override
     public void close() {
         inData.add(OwnThreadDMLHandler.TERMINATED_ROW);
-        super.close();
+        result.close();
     }
 
 }
@@ -0,0 +1,683 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+
+import com.actiontech.dble.backend.mysql.CharsetUtil;
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.nio.handler.util.TwoTableComparator;
+import com.actiontech.dble.backend.mysql.store.LocalResult;
+import com.actiontech.dble.backend.mysql.store.UnSortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.Session;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.net.service.AbstractService;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.exception.MySQLOutPutException;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.services.mysqlsharding.MySQLResponseService;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * join strategy is hash join, the rows of build side are put into a hash table,
+ * then the rows of probe side are streamed through it, so neither side need to be ordered.
+ * the probe rows which arrive before the hash table is built are kept in a local result
+ * instead of blocking the backend threads.
+ * <p>
+ * if the build side is larger than the join buffer, both sides are split into partitions by hash
+ * and stored into UnSortedLocalResult(which may flush into disk), then joined partition by partition.
+ * a partition which is still larger than the join buffer is split again by the next bits of the hash,
+ * if it can't be split any more, or no join column can be hashed, it is joined block by block as nest loop
+ * <p>
+ * left join must build with the right side, the output row is always left fields + right fields
+ *
+ * @author ActionTech
+ */
+public class HashJoinHandler extends OwnThreadDMLHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinHandler.class);
+    private static final int PARTITION_BITS = 4;
+    private static final int PARTITION_COUNT = 1 << PARTITION_BITS;
+    /* every level takes the next bits from the high bits of the hash, the low 16 bits are used by the hash table */
+    private static final int MAX_PARTITION_LEVEL = 3;
+
+    private final boolean isLeftJoin;
+    private final boolean isBuildLeft;
+    private final BlockingQueue<RowDataPacket> buildQueue;
+    private final BlockingQueue<RowDataPacket> probeQueue;
+    private final List<Order> leftOrders;
+    private final List<Order> rightOrders;
+    private List<FieldPacket> leftFieldPackets;
+    private List<FieldPacket> rightFieldPackets;
+    private final AtomicBoolean fieldSent = new AtomicBoolean(false);
+    private BufferPool pool;
+    private RowDataComparator buildComparator;
+    private RowDataComparator probeComparator;
+    private TwoTableComparator joinComparator;
+    /* the join columns whose hash of left and right are the same when they are equal */
+    private boolean[] hashColumns;
+    /* false if no join column can be hashed, eg: int join varchar */
+    private boolean hashable;
+    private List<Field> joinRowFields;
+    private final Item otherJoinOn;
+    private Item otherJoinOnItem;
+    private String charset = "UTF-8";
+    private boolean nestLoopDependOn;
+
+    private MemSizeController bufferMC;
+    private long maxMemory;
+    private long usedMemory;
+    private HashTable table;
+    private LocalResult[] buildPartitions;
+    private LocalResult[] probePartitions;
+
+    private final Object probeBufferLock = new Object();
+    /* guarded by probeBufferLock */
+    private boolean buildFinished = false;
+    private LocalResult probeBuffer;
+    private boolean probeBufferEof = false;
+
+    /**
+     * @param isBuildLeft build the hash table with left rows, must be false if isLeftJoin
+     */
+    public HashJoinHandler(long id, Session session, boolean isLeftJoin, boolean isBuildLeft, List<Order> leftOrder,
+                           List<Order> rightOrder, Item otherJoinOn) {
+        super(id, session);
+        this.isLeftJoin = isLeftJoin;
+        this.isBuildLeft = !isLeftJoin && isBuildLeft;
+        this.leftOrders = leftOrder;
+        this.rightOrders = rightOrder;
+        int queueSize = SystemConfig.getInstance().getJoinQueueSize();
+        this.buildQueue = new LinkedBlockingQueue<>(queueSize);
+        this.probeQueue = new LinkedBlockingQueue<>(queueSize);
+        this.leftFieldPackets = new ArrayList<>();
+        this.rightFieldPackets = new ArrayList<>();
+        this.otherJoinOn = otherJoinOn;
+        this.bufferMC = session.getJoinBufferMC();
+        this.maxMemory = SystemConfig.getInstance().getJoinMemSize() * 1024L * 1024L;
+        if (session instanceof NonBlockingSession) {
+            ((NonBlockingSession) session).getShardingService().getRequestScope().setUsingJoin(true);
+        }
+    }
+
+    @Override
+    public HandlerType type() {
+        return HandlerType.JOIN;
+    }
+
+    @Override
+    public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, final List<FieldPacket> fieldPackets,
+                                 byte[] eofNull, boolean isLeft, @NotNull final AbstractService service) {
+        session.setHandlerStart(this);
+        if (this.pool == null)
+            this.pool = BufferPoolManager.getBufferPool();
+
+        if (isLeft) {
+            leftFieldPackets = fieldPackets;
+        } else {
+            rightFieldPackets = fieldPackets;
+        }
+        this.charset = !service.isFakeClosed() ? CharsetUtil.getJavaCharset(service.getCharset().getResults()) : CharsetUtil.getJavaCharset(session.getSource().getService().getCharset().getResults());
+        if (!fieldSent.compareAndSet(false, true)) {
+            List<FieldPacket> newFieldPacket = new ArrayList<>();
+            newFieldPacket.addAll(leftFieldPackets);
+            newFieldPacket.addAll(rightFieldPackets);
+            nextHandler.fieldEofResponse(null, null, newFieldPacket, null, this.isLeft, service);
+            otherJoinOnItem = makeOtherJoinOnItem(newFieldPacket);
+            startOwnThread(service);
+        }
+    }
+
+    private Item makeOtherJoinOnItem(List<FieldPacket> rowPackets) {
+        this.joinRowFields = HandlerTool.createFields(rowPackets);
+        if (otherJoinOn == null)
+            return null;
+        return HandlerTool.createItem(this.otherJoinOn, this.joinRowFields, 0, this.isAllPushDown(), this.type());
+    }
+
+    @Override
+    public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, @NotNull AbstractService conn) {
+        LOGGER.debug("rowresponse");
+        if (terminate.get()) {
+            return true;
+        }
+        try {
+            if (isLeft == isBuildLeft) {
+                buildQueue.put(rowPacket);
+            } else if (!bufferProbeRow(rowPacket)) {
+                probeQueue.put(rowPacket);
+            }
+        } catch (InterruptedException e) {
+            LOGGER.info("hash join row response exception", e);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void rowEofResponse(byte[] data, boolean isLeft, @NotNull AbstractService service) {
+        LOGGER.debug("roweof");
+        if (terminate.get()) {
+            return;
+        }
+        try {
+            if (isLeft == isBuildLeft) {
+                buildQueue.put(TERMINATED_ROW);
+            } else if (!bufferProbeRow(TERMINATED_ROW)) {
+                probeQueue.put(TERMINATED_ROW);
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("HashJoinHandler rowEofResponse InterruptedException ", e);
+        }
+    }
+
+    /**
+     * the probe queue is not consumed until the hash table is built, the probe rows arrive before that
+     * are stored into a local result(which may flush into disk), so the backend threads are not blocked
+     *
+     * @return false if the build is finished and the row should be put into the probe queue
+     */
+    private boolean bufferProbeRow(RowDataPacket row) {
+        synchronized (probeBufferLock) {
+            if (buildFinished)
+                return false;
+            if (row.getFieldCount() == 0) {
+                probeBufferEof = true;
+                return true;
+            }
+            if (probeBuffer == null)
+                probeBuffer = createLocalResult(probeColumnCount());
+            probeBuffer.add(row);
+            return true;
+        }
+    }
+
+    @Override
+    protected void ownThreadJob(Object... objects) {
+        MySQLResponseService service = (MySQLResponseService) objects[0];
+        try {
+            initComparators();
+            if (!build())
+                return;
+            boolean interrupted = probe(service);
+            if (!interrupted && buildPartitions != null) {
+                joinPartitions(buildPartitions, probePartitions, 0, service);
+            }
+            if (terminate.get())
+                return;
+            if (!nestLoopDependOn) {
+                HandlerTool.terminateHandlerTree(this);
+            }
+            // for trace, when join end before all rows return ,the handler should mark as finished
+            for (DMLResponseHandler mergeHandler : this.getMerges()) {
+                DMLResponseHandler handler = mergeHandler;
+                while (handler != null && handler != this) {
+                    session.setHandlerEnd(handler);
+                    handler = handler.getNextHandler();
+                }
+            }
+            session.setHandlerEnd(this);
+            nextHandler.rowEofResponse(null, isLeft, service);
+        } catch (MySQLOutPutException e) {
+            String msg = e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+        } catch (Exception e) {
+            String msg = "hash join thread error, " + e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+        }
+    }
+
+    private void initComparators() {
+        List<FieldPacket> buildFieldPackets = isBuildLeft ? leftFieldPackets : rightFieldPackets;
+        List<FieldPacket> probeFieldPackets = isBuildLeft ? rightFieldPackets : leftFieldPackets;
+        buildComparator = new RowDataComparator(buildFieldPackets, isBuildLeft ? leftOrders : rightOrders, this.isAllPushDown(), this.type());
+        probeComparator = new RowDataComparator(probeFieldPackets, isBuildLeft ? rightOrders : leftOrders, this.isAllPushDown(), this.type());
+        joinComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets, leftOrders, rightOrders,
+                this.isAllPushDown(), this.type(), CharsetUtil.getCollationIndex(session.getSource().getService().getCharset().getCollation()));
+        // the two sides may be different types, eg: int join varchar, such columns can not be hashed
+        List<Field> buildCmpFields = buildComparator.getCmpFields();
+        List<Field> probeCmpFields = probeComparator.getCmpFields();
+        int columnCount = buildCmpFields == null ? 0 : buildCmpFields.size();
+        hashColumns = new boolean[columnCount];
+        hashable = false;
+        for (int i = 0; i < columnCount; i++) {
+            hashColumns[i] = RowDataComparator.isHashCompatible(buildCmpFields.get(i), probeCmpFields.get(i));
+            hashable |= hashColumns[i];
+        }
+        if (!hashable) {
+            LOGGER.debug("no join column of hash join can be hashed, join as nest loop");
+        }
+        table = new HashTable();
+    }
+
+    /**
+     * @return false if terminated
+     */
+    private boolean build() throws InterruptedException {
+        while (true) {
+            RowDataPacket row = buildQueue.take();
+            if (terminate.get())
+                return false;
+            if (row.getFieldCount() == 0)
+                return true;
+            int hash = buildComparator.hash(row, hashColumns);
+            if (buildPartitions != null) {
+                buildPartitions[partition(hash, 0)].add(row);
+            } else if (!addToTable(row, hash)) {
+                spillTable();
+            }
+        }
+    }
+
+    /**
+     * @return false if the join buffer is full
+     */
+    private boolean addToTable(RowDataPacket row, int hash) {
+        table.add(row, hash);
+        int rowSize = row.calcPacketSize();
+        usedMemory += rowSize;
+        if (bufferMC != null) {
+            return bufferMC.addSize(rowSize);
+        }
+        return usedMemory <= maxMemory;
+    }
+
+    /**
+     * move the hash table into partitions, the rows left are all added into partitions
+     */
+    private void spillTable() {
+        LOGGER.debug("hash join build side is too large, split into partitions");
+        buildPartitions = createPartitions(buildColumnCount());
+        probePartitions = createPartitions(probeColumnCount());
+        moveTable(buildPartitions, 0);
+    }
+
+    private void moveTable(LocalResult[] partitions, int level) {
+        for (int i = 0; i < table.size(); i++) {
+            partitions[partition(table.hashes[i], level)].add(table.rows.get(i));
+        }
+        clearTable();
+    }
+
+    /**
+     * @return true if interrupted by next handler
+     */
+    private boolean probe(MySQLResponseService service) throws Exception {
+        LocalResult buffered;
+        boolean eof;
+        synchronized (probeBufferLock) {
+            buildFinished = true;
+            buffered = probeBuffer;
+            probeBuffer = null;
+            eof = probeBufferEof;
+        }
+        if (buffered != null) {
+            try {
+                buffered.done();
+                RowDataPacket row;
+                while ((row = buffered.next()) != null) {
+                    if (terminate.get() || probeOrSpill(row, service))
+                        return true;
+                }
+            } finally {
+                buffered.close();
+            }
+        }
+        if (eof)
+            return false;
+        while (true) {
+            RowDataPacket row = probeQueue.take();
+            if (terminate.get())
+                return true;
+            if (row.getFieldCount() == 0)
+                return false;
+            if (probeOrSpill(row, service))
+                return true;
+        }
+    }
+
+    /**
+     * @return true if interrupted by next handler
+     */
+    private boolean probeOrSpill(RowDataPacket row, MySQLResponseService service) {
+        int hash = probeComparator.hash(row, hashColumns);
+        if (probePartitions != null) {
+            probePartitions[partition(hash, 0)].add(row);
+            return false;
+        }
+        return probeRow(row, hash, null, 0, service);
+    }
+
+    /**
+     * @return true if interrupted by next handler
+     */
+    private boolean joinPartitions(LocalResult[] buildParts, LocalResult[] probeParts, int level, MySQLResponseService service) throws Exception {
+        try {
+            for (int i = 0; i < buildParts.length; i++) {
+                if (terminate.get())
+                    return true;
+                if (joinPartition(buildParts[i], probeParts[i], level, service))
+                    return true;
+            }
+            return false;
+        } finally {
+            closePartitions(buildParts);
+            closePartitions(probeParts);
+        }
+    }
+
+    /**
+     * @return true if interrupted by next handler
+     */
+    private boolean joinPartition(LocalResult buildPart, LocalResult probePart, int level, MySQLResponseService service) throws Exception {
+        buildPart.done();
+        probePart.done();
+        if (probePart.getRowCount() == 0) {
+            // the probe side is the left side of left join, nothing to output
+            return false;
+        }
+        if (!loadTable(buildPart)) {
+            buildPart.close();
+            boolean interrupted = probePartition(probePart, null, service);
+            probePart.close();
+            clearTable();
+            return interrupted;
+        }
+        if (hashable && level < MAX_PARTITION_LEVEL) {
+            LOGGER.debug("hash join partition is too large, split again");
+            int subLevel = level + 1;
+            LocalResult[] subBuildParts = createPartitions(buildColumnCount());
+            LocalResult[] subProbeParts = createPartitions(probeColumnCount());
+            moveTable(subBuildParts, subLevel);
+            RowDataPacket row;
+            while ((row = buildPart.next()) != null) {
+                subBuildParts[partition(buildComparator.hash(row, hashColumns), subLevel)].add(row);
+            }
+            buildPart.close();
+            while ((row = probePart.next()) != null) {
+                subProbeParts[partition(probeComparator.hash(row, hashColumns), subLevel)].add(row);
+            }
+            probePart.close();
+            return joinPartitions(subBuildParts, subProbeParts, subLevel, service);
+        }
+        return joinByBlocks(buildPart, probePart, service);
+    }
+
+    /**
+     * load the build rows into the hash table until the join buffer is full
+     *
+     * @return true if the join buffer is full before all the rows are loaded
+     */
+    private boolean loadTable(LocalResult buildPart) {
+        RowDataPacket row;
+        while ((row = buildPart.next()) != null) {
+            if (!addToTable(row, buildComparator.hash(row, hashColumns)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * the build rows can't be split by hash any more, eg: the same join values or no join column can be hashed,
+     * so the probe rows are scanned once for every block of the build rows which fits in the join buffer.
+     * the first block is in the hash table already
+     *
+     * @return true if interrupted by next handler
+     */
+    private boolean joinByBlocks(LocalResult buildPart, LocalResult probePart, MySQLResponseService service) throws Exception {
+        LOGGER.debug("hash join partition can't be split, join by blocks");
+        // the probe rows of left join are joined with null at last if no block matches them
+        BitSet matched = isLeftJoin ? new BitSet(probePart.getRowCount()) : null;
+        while (true) {
+            if (probePartition(probePart, matched, service))
+                return true;
+            clearTable();
+            loadTable(buildPart);
+            if (table.size() == 0)
+                break;
+            probePart.reset();
+        }
+        buildPart.close();
+        if (matched != null) {
+            probePart.reset();
+            RowDataPacket row;
+            for (int index = 0; (row = probePart.next()) != null; index++) {
+                if (!matched.get(index) && connectWithNull(row, service))
+                    return true;
+            }
+        }
+        probePart.close();
+        return false;
+    }
+
+    /**
+     * @return true if interrupted by next handler
+     */
+    private boolean probePartition(LocalResult probePart, BitSet matched, MySQLResponseService service) {
+        RowDataPacket row;
+        for (int index = 0; (row = probePart.next()) != null; index++) {
+            if (terminate.get())
+                return true;
+            if (probeRow(row, probeComparator.hash(row, hashColumns), matched, index, service))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param matched if not null, the probe row is marked in it when matched instead of joined with null
+     * @return if is interrupted by next handler ,return true,else false
+     */
+    private boolean probeRow(RowDataPacket probeRow, int hash, BitSet matched, int probeIndex, MySQLResponseService service) {
+        int matchCount = 0;
+        for (int index = table.first(hash); index >= 0; index = table.next(index)) {
+            if (table.hashes[index] != hash)
+                continue;
+            RowDataPacket buildRow = table.rows.get(index);
+            RowDataPacket leftRow = isBuildLeft ? buildRow : probeRow;
+            RowDataPacket rightRow = isBuildLeft ? probeRow : buildRow;
+            if (joinComparator.compare(leftRow, rightRow) != 0)
+                continue;
+            RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+            for (byte[] value : leftRow.fieldValues) {
+                rowPacket.add(value);
+            }
+            for (byte[] value : rightRow.fieldValues) {
+                rowPacket.add(value);
+            }
+            if (otherJoinOnItem != null) {
+                HandlerTool.initFields(joinRowFields, rowPacket.fieldValues);
+                if (!otherJoinOnItem.valBool())
+                    continue;
+            }
+            matchCount++;
+            if (nextHandler.rowResponse(null, rowPacket, isLeft, service))
+                return true;
+        }
+        if (matched != null) {
+            if (matchCount > 0)
+                matched.set(probeIndex);
+            return false;
+        }
+        // probe side is left when left join
+        if (matchCount == 0 && isLeftJoin) {
+            return connectWithNull(probeRow, service);
+        }
+        return false;
+    }
+
+    private boolean connectWithNull(RowDataPacket leftRow, MySQLResponseService service) {
+        RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+        for (byte[] value : leftRow.fieldValues) {
+            rowPacket.add(value);
+        }
+        for (int i = 0; i < rightFieldPackets.size(); i++) {
+            rowPacket.add(null);
+        }
+        return nextHandler.rowResponse(null, rowPacket, isLeft, service);
+    }
+
+    private int partition(int hash, int level) {
+        if (!hashable)
+            return 0;
+        // the low bits are used by the hash table
+        return (hash >>> (Integer.SIZE - PARTITION_BITS * (level + 1))) & (PARTITION_COUNT - 1);
+    }
+
+    private LocalResult[] createPartitions(int columnCount) {
+        // all the rows have the same hash if no column can be hashed
+        LocalResult[] partitions = new LocalResult[hashable ? PARTITION_COUNT : 1];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = createLocalResult(columnCount);
+        }
+        return partitions;
+    }
+
+    private LocalResult createLocalResult(int columnCount) {
+        return new UnSortedLocalResult(columnCount, pool, this.charset, generateBufferRecordBuilder()).
+                setMemSizeController(bufferMC).setSpillStatistic(session.getSpillStatistic(this));
+    }
+
+    private int buildColumnCount() {
+        return isBuildLeft ? leftFieldPackets.size() : rightFieldPackets.size();
+    }
+
+    private int probeColumnCount() {
+        return isBuildLeft ? rightFieldPackets.size() : leftFieldPackets.size();
+    }
+
+    private void clearTable() {
+        if (bufferMC != null && usedMemory > 0)
+            bufferMC.subSize(usedMemory);
+        usedMemory = 0;
+        table = new HashTable();
+    }
+
+    @Override
+    protected void terminateThread() throws Exception {
+        this.buildQueue.clear();
+        this.buildQueue.put(TERMINATED_ROW);
+        this.probeQueue.clear();
+        this.probeQueue.put(TERMINATED_ROW);
+    }
+
+    @Override
+    protected void recycleResources() {
+        this.buildQueue.clear();
+        this.probeQueue.clear();
+        synchronized (probeBufferLock) {
+            buildFinished = true;
+            if (probeBuffer != null) {
+                probeBuffer.close();
+                probeBuffer = null;
+            }
+        }
+        if (table != null) {
+            clearTable();
+            table = null;
+        }
+        closePartitions(buildPartitions);
+        closePartitions(probePartitions);
+    }
+
+    private void closePartitions(LocalResult[] partitions) {
+        if (partitions == null)
+            return;
+        for (LocalResult partition : partitions) {
+            partition.close();
+        }
+    }
+
+    public void setNestLoopDependOn(boolean nestLoopDependOn) {
+        this.nestLoopDependOn = nestLoopDependOn;
+    }
+
+    @Override
+    public ExplainType explainType() {
+        return ExplainType.HASH_JOIN;
+    }
+
+    /**
+     * chained hash table, the chains are linked by index, so no entry object is allocated for a row
+     */
+    private static final class HashTable {
+        private static final int INITIAL_CAPACITY = 1024;
+        private final List<RowDataPacket> rows = new ArrayList<>();
+        private int[] hashes = new int[INITIAL_CAPACITY];
+        private int[] nexts = new int[INITIAL_CAPACITY];
+        private int[] heads;
+        private int mask;
+
+        HashTable() {
+            initHeads(INITIAL_CAPACITY);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void add(RowDataPacket row, int hash) {
+            int index = rows.size();
+            if (index == hashes.length) {
+                hashes = Arrays.copyOf(hashes, index << 1);
+                nexts = Arrays.copyOf(nexts, index << 1);
+            }
+            rows.add(row);
+            hashes[index] = hash;
+            if (rows.size() > heads.length) {
+                initHeads(heads.length << 1);
+                for (int i = 0; i < index; i++) {
+                    link(i);
+                }
+            }
+            link(index);
+        }
+
+        int first(int hash) {
+            return heads[spread(hash) & mask];
+        }
+
+        int next(int index) {
+            return nexts[index];
+        }
+
+        private void link(int index) {
+            int bucket = spread(hashes[index]) & mask;
+            nexts[index] = heads[bucket];
+            heads[bucket] = index;
+        }
+
+        private void initHeads(int capacity) {
+            heads = new int[capacity];
+            Arrays.fill(heads, -1);
+            mask = capacity - 1;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
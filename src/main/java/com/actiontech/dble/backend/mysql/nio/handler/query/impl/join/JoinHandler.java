@@ -359,7 +359,7 @@ public class JoinHandler extends OwnThreadDMLHandler {
             }
         }
         LocalResult newLocalResult = new UnSortedLocalResult(columnCount, pool, this.charset, generateBufferRecordBuilder()).
-                setMemSizeController(session.getJoinBufferMC());
+                setMemSizeController(session.getJoinBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
         newLocalResult.add(row);
         if (row.getFieldCount() == 0)
             newLocalResult.done();
@@ -377,7 +377,7 @@ public class JoinHandler extends OwnThreadDMLHandler {
     private void addEndRowToDeque(int columnCount, FairLinkedBlockingDeque<LocalResult> deque)
             throws InterruptedException {
         LocalResult newLocalResult = new UnSortedLocalResult(columnCount, pool, this.charset, generateBufferRecordBuilder()).
-                setMemSizeController(session.getJoinBufferMC());
+                setMemSizeController(session.getJoinBufferMC()).setSpillStatistic(session.getSpillStatistic(this));
         newLocalResult.add(TERMINATED_ROW);
         newLocalResult.done();
         LocalResult localResult = deque.addOrReplaceLast(newLocalResult);
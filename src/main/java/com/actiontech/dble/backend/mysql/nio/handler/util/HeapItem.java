@@ -17,6 +17,7 @@ public class HeapItem {
     private RowDataPacket rowPacket;
     private MySQLResponseService hashIndex;
     private boolean isNull = false;
+    private byte[][] cmpKey;
 
     static {
         NULL_ITEM = new HeapItem();
@@ -52,4 +53,12 @@ public class HeapItem {
         return this.rowPacket;
     }
 
+    public byte[][] getCmpKey() {
+        return cmpKey;
+    }
+
+    public void setCmpKey(byte[][] cmpKey) {
+        this.cmpKey = cmpKey;
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * tournament tree for the k-way merge, replacing the winner costs log2(k) compares on the path to the root,
+ * while the sift down of a binary heap costs about twice of that
+ * <p>
+ * null element means the source is exhausted, it loses to any element
+ */
+@SuppressWarnings("unchecked")
+public class LoserTree<E> {
+    private final Object[] leaves;
+    // tree[0] is the index of the winner, the others are the indexes of the losers of the internal nodes
+    private final int[] tree;
+    private final Comparator<E> comparator;
+
+    public LoserTree(List<E> elements, Comparator<E> comparator) {
+        int k = elements.size();
+        if (k < 1)
+            throw new IllegalArgumentException();
+        this.leaves = elements.toArray();
+        this.tree = new int[k];
+        this.comparator = comparator;
+        // -1 wins all, it is pushed out of the tree by the leaves one by one
+        for (int i = 0; i < k; i++) {
+            tree[i] = -1;
+        }
+        for (int i = k - 1; i >= 0; i--) {
+            adjust(i);
+        }
+    }
+
+    public boolean isEmpty() {
+        return leaves[tree[0]] == null;
+    }
+
+    /**
+     * @return the smallest element, null if all the sources are exhausted
+     */
+    public E peek() {
+        return (E) leaves[tree[0]];
+    }
+
+    /**
+     * @return the source index of the smallest element
+     */
+    public int peekIndex() {
+        return tree[0];
+    }
+
+    /**
+     * replace the smallest element with the next element of the same source
+     *
+     * @param e null if the source is exhausted
+     */
+    public void replaceTop(E e) {
+        int winner = tree[0];
+        leaves[winner] = e;
+        adjust(winner);
+    }
+
+    private void adjust(int leaf) {
+        int s = leaf;
+        for (int t = (s + leaves.length) >> 1; t > 0; t >>= 1) {
+            if (greater(s, tree[t])) {
+                int tmp = s;
+                s = tree[t];
+                tree[t] = tmp;
+            }
+        }
+        tree[0] = s;
+    }
+
+    private boolean greater(int i, int j) {
+        if (i == -1) {
+            return false;
+        } else if (j == -1) {
+            return true;
+        }
+        Object a = leaves[i];
+        Object b = leaves[j];
+        if (a == null) {
+            return b != null;
+        } else if (b == null) {
+            return false;
+        }
+        return comparator.compare((E) a, (E) b) > 0;
+    }
+}
@@ -11,12 +11,17 @@ import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.Order;
 import com.actiontech.dble.plan.common.field.Field;
 import com.actiontech.dble.plan.common.field.num.FieldLong;
+import com.actiontech.dble.plan.common.field.num.FieldNum;
+import com.actiontech.dble.plan.common.field.num.FieldReal;
+import com.actiontech.dble.plan.common.field.string.FieldStr;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.common.item.ItemField;
 import com.actiontech.dble.plan.common.item.subquery.ItemScalarSubQuery;
 import com.alibaba.druid.sql.ast.SQLOrderingSpecification;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -118,6 +123,75 @@ public class RowDataComparator implements Comparator<RowDataPacket> {
         }
     }
 
+    /**
+     * hash code consistent with compare: rows which compare to 0 get the same hash
+     * strings are compared ignore case, reals are compared by value, so they are normalized before hashing
+     */
+    public int hash(RowDataPacket o) {
+        return hash(o, null);
+    }
+
+    /**
+     * @param hashColumns the compare columns taken into the hash, null means all
+     */
+    public int hash(RowDataPacket o, boolean[] hashColumns) {
+        if (this.ascList == null || this.ascList.size() == 0) {
+            return 0;
+        }
+        List<byte[]> bo = getCmpBytes(o);
+        int h = 1;
+        for (int i = 0; i < cmpFields.size(); i++) {
+            if (hashColumns == null || hashColumns[i]) {
+                h = 31 * h + hashValue(cmpFields.get(i), bo.get(i));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * whether the values of the two fields which are equal have the same hash
+     */
+    public static boolean isHashCompatible(Field field1, Field field2) {
+        if (field1 instanceof FieldStr || field2 instanceof FieldStr) {
+            return field1 instanceof FieldStr && field2 instanceof FieldStr;
+        } else if (field1 instanceof FieldReal || field2 instanceof FieldReal) {
+            return field1 instanceof FieldReal && field2 instanceof FieldReal;
+        } else if (field1 instanceof FieldNum && field2 instanceof FieldNum) {
+            return true;
+        }
+        return field1.getClass() == field2.getClass();
+    }
+
+    private static int hashValue(Field field, byte[] b) {
+        if (b == null) {
+            return 0;
+        }
+        if (field instanceof FieldStr) {
+            field.setPtr(b);
+            String val = field.valStr();
+            if (val == null) {
+                return 0;
+            }
+            // trailing spaces are ignored by PAD SPACE collations
+            int end = val.length();
+            while (end > 0 && val.charAt(end - 1) == ' ') {
+                end--;
+            }
+            return val.substring(0, end).toUpperCase().hashCode();
+        } else if (field instanceof FieldReal) {
+            try {
+                return new BigDecimal(new String(b)).stripTrailingZeros().hashCode();
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return Arrays.hashCode(b);
+    }
+
+    public List<Field> getCmpFields() {
+        return cmpFields;
+    }
+
     private List<byte[]> getCmpBytes(RowDataPacket o) {
         if (o.getCmpValue(this) == null) {
             HandlerTool.initFields(sourceFields, o.fieldValues);
@@ -127,6 +201,40 @@ public class RowDataComparator implements Comparator<RowDataPacket> {
         return o.getCmpValue(this);
     }
 
+    /**
+     * evaluate the compare items of the row once, so that the rows can be compared by compareKey without the items
+     *
+     * @return null if there is no order
+     */
+    public byte[][] getCmpKey(RowDataPacket o) {
+        if (this.ascList == null || this.ascList.size() == 0) {
+            return null;
+        }
+        HandlerTool.initFields(sourceFields, o.fieldValues);
+        byte[][] key = new byte[cmpItems.size()][];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = cmpItems.get(i).getRowPacketByte();
+        }
+        return key;
+    }
+
+    /**
+     * the same result as compare for the rows of the keys
+     */
+    public int compareKey(byte[][] k1, byte[][] k2) {
+        if (k1 == null || k2 == null) {
+            return 0;
+        }
+        for (int i = 0; i < k1.length; i++) {
+            Field field = cmpFields.get(i);
+            int rs = ascList.get(i) ? field.compare(k1[i], k2[i]) : field.compare(k2[i], k1[i]);
+            if (rs != 0) {
+                return rs;
+            }
+        }
+        return 0;
+    }
+
     private int cmp(RowDataPacket o1, RowDataPacket o2, int index) {
         List<byte[]> bo1 = getCmpBytes(o1);
         List<byte[]> bo2 = getCmpBytes(o2);
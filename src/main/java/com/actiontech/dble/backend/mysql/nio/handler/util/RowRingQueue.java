@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * bounded ring buffer of rows with one producer (the backend connection) and one consumer (the merge thread)
+ * <p>
+ * no lock is taken for a row: the producer publishes every row by the tail, the consumer takes all the rows
+ * published since its last look as a batch and publishes the freed slots by the head once in a while.
+ * the rows are published one by one instead of in arrays, because the rows held back in a half-filled array
+ * could be needed by the consumer while the producer thread is blocked by another full queue
+ */
+public final class RowRingQueue {
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final HeapItem[] buffer;
+    private final int mask;
+    private final int publishMask;
+    // next slot to read, written by consumer
+    private final AtomicLong head = new AtomicLong();
+    // next slot to write, written by producer
+    private final AtomicLong tail = new AtomicLong();
+    // the head seen by producer last time
+    private long headCache;
+    // the tail seen by consumer last time, the rows before it are the current batch
+    private long tailCache;
+    private long readIndex;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+    private volatile boolean closed;
+
+    public RowRingQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.buffer = new HeapItem[size];
+        this.mask = size - 1;
+        this.publishMask = Math.max(size >> 2, 1) - 1;
+    }
+
+    /**
+     * block if the queue is full
+     *
+     * @return false if the queue is closed
+     */
+    public boolean put(HeapItem item) {
+        long t = tail.get();
+        if (t - headCache >= buffer.length) {
+            headCache = head.get();
+            while (t - headCache >= buffer.length) {
+                if (closed) {
+                    return false;
+                }
+                waitingProducer = Thread.currentThread();
+                headCache = head.get();
+                if (t - headCache < buffer.length) {
+                    waitingProducer = null;
+                    break;
+                }
+                LockSupport.parkNanos(this, PARK_NANOS);
+                waitingProducer = null;
+                headCache = head.get();
+            }
+        }
+        buffer[(int) t & mask] = item;
+        tail.set(t + 1);
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * block if the queue is empty
+     *
+     * @return the null item if the queue is closed
+     */
+    public HeapItem take() {
+        if (readIndex == tailCache) {
+            publishHead();
+            tailCache = tail.get();
+            while (readIndex == tailCache) {
+                if (closed) {
+                    return HeapItem.nullItem();
+                }
+                waitingConsumer = Thread.currentThread();
+                tailCache = tail.get();
+                if (readIndex != tailCache) {
+                    waitingConsumer = null;
+                    break;
+                }
+                LockSupport.parkNanos(this, PARK_NANOS);
+                waitingConsumer = null;
+                tailCache = tail.get();
+            }
+        }
+        if (closed) {
+            return HeapItem.nullItem();
+        }
+        int index = (int) readIndex & mask;
+        HeapItem item = buffer[index];
+        buffer[index] = null;
+        if ((++readIndex & publishMask) == 0) {
+            publishHead();
+        }
+        return item;
+    }
+
+    private void publishHead() {
+        head.set(readIndex);
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    /**
+     * the rows left are dropped, the blocked producer and consumer return
+     */
+    public void close() {
+        closed = true;
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * called by the consumer after the merging ended
+     */
+    public void clear() {
+        close();
+        Arrays.fill(buffer, null);
+    }
+}
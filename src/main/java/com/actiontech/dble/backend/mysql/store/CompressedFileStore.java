@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.util.exception.TmpFileException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * a temp file which compresses the data by blocks of BLOCK_SIZE.
+ * <p>
+ * the positions used by seek, read and getFilePointer are the positions in the uncompressed data,
+ * the data is appended into a staging block which is compressed and written into the file when full,
+ * and it is stored as it is if the compression does not make it smaller.
+ * the index of the blocks is kept in memory because the temp file is never reopened.
+ * unlike FileStore, the file is append only: write always appends whatever the position is.
+ * <p>
+ * when a block is read, the next one is read and decompressed in the complex query executor,
+ * so the merge of the sorted tapes does not wait for the disk most of the time.
+ * the decompressed blocks are counted by the MemSizeController of the result, when it is full
+ * only the block being read is kept and nothing is prefetched
+ */
+public class CompressedFileStore extends FileStore {
+    private static final int BLOCK_SIZE = 32 * 1024;
+    private static final int MAX_CACHED_BLOCKS = 256;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] compressBuffer = new byte[BLOCK_SIZE];
+    private final byte[] staging = new byte[BLOCK_SIZE];
+    private int stagingSize;
+
+    private long[] blockStarts = new long[16];
+    private long[] blockFilePositions = new long[16];
+    private int[] blockLengths = new int[16];
+    private int[] blockStoredLengths = new int[16];
+    private int blockCount;
+    // the length of the data in the blocks, the staging data follows
+    private long blocksLength;
+    private long storedLength;
+    private long pos;
+
+    // the blocks being read or read, the latest used are kept
+    private final LinkedHashMap<Integer, Future<byte[]>> cache;
+    private volatile int maxCachedBlocks = 2;
+    // guarded by cache
+    private MemSizeController bufferMC;
+    private long cachedMemory;
+    private boolean memoryFull;
+    // the file pointer of super is shared by the reader and the prefetching
+    private final Object fileLock = new Object();
+    private volatile boolean closed;
+    private SpillStatistic spillStatistic;
+
+    public CompressedFileStore(String name, String mode) {
+        super(name, mode);
+        this.cache = new LinkedHashMap<Integer, Future<byte[]>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Future<byte[]>> eldest) {
+                if (size() > (memoryFull ? 1 : maxCachedBlocks)) {
+                    releaseMemory(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * two blocks are cached for every reader, the current one and the prefetched one
+     *
+     * @param readers the count of the tapes read alternately
+     */
+    public void setReaders(int readers) {
+        this.maxCachedBlocks = Math.min(Math.max(readers, 1) * 2, MAX_CACHED_BLOCKS);
+    }
+
+    /**
+     * count the decompressed blocks which are cached
+     *
+     * @param memSizeController null for not counting
+     */
+    public void setMemSizeController(MemSizeController memSizeController) {
+        synchronized (cache) {
+            this.bufferMC = memSizeController;
+        }
+    }
+
+    @Override
+    public void setSpillStatistic(SpillStatistic spillStatistic) {
+        // super only writes the compressed blocks
+        this.spillStatistic = spillStatistic;
+    }
+
+    /**
+     * append the data at the end, the position is not used and it is always the end of the data after writing
+     */
+    @Override
+    public void write(ByteBuffer buffer) {
+        final SpillStatistic statistic = spillStatistic;
+        final long start = statistic == null ? 0 : System.nanoTime();
+        final int len = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            int n = Math.min(buffer.remaining(), BLOCK_SIZE - stagingSize);
+            buffer.get(staging, stagingSize, n);
+            stagingSize += n;
+            if (stagingSize == BLOCK_SIZE) {
+                flushBlock();
+            }
+        }
+        pos = blocksLength + stagingSize;
+        if (statistic != null) {
+            statistic.addWritten(len, System.nanoTime() - start);
+        }
+    }
+
+    private void flushBlock() {
+        deflater.reset();
+        deflater.setInput(staging, 0, stagingSize);
+        deflater.finish();
+        int compressed = deflater.deflate(compressBuffer, 0, compressBuffer.length);
+        byte[] src = compressBuffer;
+        if (!deflater.finished() || compressed >= stagingSize) {
+            // stored length equals to length means not compressed
+            src = staging;
+            compressed = stagingSize;
+        }
+        synchronized (fileLock) {
+            super.seek(storedLength);
+            super.write(ByteBuffer.wrap(src, 0, compressed));
+        }
+        if (blockCount == blockStarts.length) {
+            int newLength = blockCount << 1;
+            blockStarts = Arrays.copyOf(blockStarts, newLength);
+            blockFilePositions = Arrays.copyOf(blockFilePositions, newLength);
+            blockLengths = Arrays.copyOf(blockLengths, newLength);
+            blockStoredLengths = Arrays.copyOf(blockStoredLengths, newLength);
+        }
+        blockStarts[blockCount] = blocksLength;
+        blockFilePositions[blockCount] = storedLength;
+        blockLengths[blockCount] = stagingSize;
+        blockStoredLengths[blockCount] = compressed;
+        blockCount++;
+        blocksLength += stagingSize;
+        storedLength += compressed;
+        stagingSize = 0;
+        if (spillStatistic != null) {
+            spillStatistic.addStored(compressed);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer buffer, long endPos) {
+        long remained = Math.min(endPos, length()) - pos;
+        if (remained <= 0)
+            return 0;
+        int len = (int) Math.min(buffer.remaining(), remained);
+        int read = 0;
+        while (read < len) {
+            int n = readAt(buffer, len - read);
+            pos += n;
+            read += n;
+        }
+        return read;
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) {
+        ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        if (read(buffer, pos + len) != len) {
+            throw TmpFileException.get(ErrorCode.ER_FILE_READ, name);
+        }
+    }
+
+    private int readAt(ByteBuffer buffer, int len) {
+        if (pos >= blocksLength) {
+            int offset = (int) (pos - blocksLength);
+            int n = Math.min(len, stagingSize - offset);
+            buffer.put(staging, offset, n);
+            return n;
+        }
+        int index = Arrays.binarySearch(blockStarts, 0, blockCount, pos);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        byte[] block = getBlock(index);
+        int offset = (int) (pos - blockStarts[index]);
+        int n = Math.min(len, block.length - offset);
+        buffer.put(block, offset, n);
+        return n;
+    }
+
+    private byte[] getBlock(int index) {
+        FutureTask<byte[]> load = null;
+        Future<byte[]> future;
+        synchronized (cache) {
+            future = cache.get(index);
+            if (future == null) {
+                load = newLoadTask(index);
+                reserveMemory(index);
+                cache.put(index, load);
+                future = load;
+            }
+        }
+        if (load != null) {
+            load.run();
+        }
+        prefetch(index + 1);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw TmpFileException.get(ErrorCode.ER_FILE_READ, e, name);
+        } catch (ExecutionException e) {
+            synchronized (cache) {
+                if (cache.remove(index) != null) {
+                    releaseMemory(index);
+                }
+            }
+            throw TmpFileException.get(ErrorCode.ER_FILE_READ, e.getCause(), name);
+        }
+    }
+
+    private void prefetch(int index) {
+        if (index >= blockCount || maxCachedBlocks < 2)
+            return;
+        FutureTask<byte[]> task;
+        synchronized (cache) {
+            if (memoryFull || cache.containsKey(index))
+                return;
+            task = newLoadTask(index);
+            reserveMemory(index);
+            cache.put(index, task);
+        }
+        ExecutorService executor = DbleServer.getInstance().getComplexQueryExecutor();
+        try {
+            if (executor == null) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    // called with the lock of cache
+    private void reserveMemory(int index) {
+        int blockLength = blockLengths[index];
+        cachedMemory += blockLength;
+        if (bufferMC != null) {
+            memoryFull = !bufferMC.addSize(blockLength);
+        }
+    }
+
+    // called with the lock of cache
+    private void releaseMemory(int index) {
+        int blockLength = blockLengths[index];
+        cachedMemory -= blockLength;
+        if (bufferMC != null) {
+            bufferMC.subSize(blockLength);
+        }
+    }
+
+    private FutureTask<byte[]> newLoadTask(int index) {
+        final long filePosition = blockFilePositions[index];
+        final int blockLength = blockLengths[index];
+        final int storedBlockLength = blockStoredLengths[index];
+        return new FutureTask<>(() -> loadBlock(filePosition, blockLength, storedBlockLength));
+    }
+
+    private byte[] loadBlock(long filePosition, int blockLength, int storedBlockLength) throws DataFormatException {
+        byte[] stored = new byte[storedBlockLength];
+        ByteBuffer buffer = ByteBuffer.wrap(stored);
+        synchronized (fileLock) {
+            if (closed) {
+                throw TmpFileException.get(ErrorCode.ER_FILE_READ, "closed");
+            }
+            super.seek(filePosition);
+            while (buffer.hasRemaining()) {
+                if (super.read(buffer, filePosition + storedBlockLength) <= 0) {
+                    throw TmpFileException.get(ErrorCode.ER_FILE_READ, name);
+                }
+            }
+        }
+        if (storedBlockLength == blockLength) {
+            return stored;
+        }
+        byte[] block = new byte[blockLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            int n = 0;
+            while (n < blockLength && !inflater.finished()) {
+                int r = inflater.inflate(block, n, blockLength - n);
+                if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += r;
+            }
+            if (n != blockLength) {
+                throw new DataFormatException("block is truncated");
+            }
+        } finally {
+            inflater.end();
+        }
+        return block;
+    }
+
+    @Override
+    public void seek(long pos) {
+        this.pos = pos;
+    }
+
+    @Override
+    public long getFilePointer() {
+        return pos;
+    }
+
+    @Override
+    public long length() {
+        return blocksLength + stagingSize;
+    }
+
+    @Override
+    public void closeAndDeleteSilently() {
+        synchronized (fileLock) {
+            closed = true;
+            super.closeAndDeleteSilently();
+        }
+        synchronized (cache) {
+            cache.clear();
+            if (bufferMC != null && cachedMemory > 0) {
+                bufferMC.subSize(cachedMemory);
+            }
+            cachedMemory = 0;
+        }
+        deflater.end();
+    }
+}
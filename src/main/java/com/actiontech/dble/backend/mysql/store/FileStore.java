@@ -39,6 +39,7 @@ public class FileStore {
     private final String mode;
     private final int mappedFileSize;
     private List<FileLock> locks;
+    private SpillStatistic spillStatistic;
 
     /**
      * Create a new file using the given settings.
@@ -202,6 +203,9 @@ public class FileStore {
     }
 
     public void write(ByteBuffer buffer) {
+        final SpillStatistic statistic = spillStatistic;
+        final long start = statistic == null ? 0 : System.nanoTime();
+        final int len = buffer.remaining();
         try {
             do {
                 int index = (int) (filePos / mappedFileSize);
@@ -218,6 +222,19 @@ public class FileStore {
             throw TmpFileException.get(ErrorCode.ER_FILE_WRITE, e, name);
         }
         fileLength = Math.max(filePos, fileLength);
+        if (statistic != null) {
+            statistic.addWritten(len, System.nanoTime() - start);
+            statistic.addStored(len);
+        }
+    }
+
+    /**
+     * count the bytes written into the file
+     *
+     * @param spillStatistic null for not counting
+     */
+    public void setSpillStatistic(SpillStatistic spillStatistic) {
+        this.spillStatistic = spillStatistic;
     }
 
     private void createFile() throws IOException {
@@ -54,12 +54,20 @@ public class GroupByLocalResult extends LocalResult {
 
     public GroupByLocalResult(int initialCapacity, int fieldsCount, BufferPool pool, RowDataComparator groupCmp,
                               List<FieldPacket> fieldPackets, List<ItemSum> sumFunctions, boolean isAllPushDown, String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
+        this(new RBTreeList<>(initialCapacity, groupCmp), initialCapacity, fieldsCount, pool, groupCmp, fieldPackets, sumFunctions, isAllPushDown, charset, bufferRecordBuilder);
+    }
+
+    /**
+     * @param rows the container of the group rows
+     */
+    protected GroupByLocalResult(List<RowDataPacket> rows, int initialCapacity, int fieldsCount, BufferPool pool, RowDataComparator groupCmp,
+                                 List<FieldPacket> fieldPackets, List<ItemSum> sumFunctions, boolean isAllPushDown, String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
         super(initialCapacity, fieldsCount, pool, charset, bufferRecordBuilder);
         this.groupCmp = groupCmp;
         this.fieldPackets = fieldPackets;
         this.sumFunctions = sumFunctions;
         this.isAllPushDown = isAllPushDown;
-        this.rows = new RBTreeList<>(initialCapacity, groupCmp);
+        this.rows = rows;
         /* init item_sums */
         /*
       store the origin row fields,(already contains the item_sum fields in
@@ -108,7 +116,7 @@ public class GroupByLocalResult extends LocalResult {
             }
             if (needFlush) {
                 if (external == null)
-                    external = makeExternal();
+                    external = createExternal();
                 addRowsToDisk();
             }
         } finally {
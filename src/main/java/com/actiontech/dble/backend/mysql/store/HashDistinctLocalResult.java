@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.store.diskbuffer.UnSortedResultDiskBuffer;
+import com.actiontech.dble.backend.mysql.store.result.ResultExternal;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.BufferPoolRecord;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * distinct with an open-addressing hash set instead of a sorted tree, the rows are not ordered.
+ * <p>
+ * while the rows fit in memory, a row is known to be distinct as soon as it is added, see addIfAbsent.
+ * after the memory is used up, the rows are spilled into PARTITION_COUNT partitions on disk by hash,
+ * and every partition is de-duplicated in memory by itself when done.
+ * <p>
+ * if sendOnAdd, the rows for which addIfAbsent returns true are not returned by next again
+ */
+public class HashDistinctLocalResult extends LocalResult {
+    private static final int EMPTY = -1;
+    private static final int PARTITION_COUNT = 16;
+    private static final int SPILL_BATCH = 256;
+
+    private final RowDataComparator distinctCmp;
+    private final boolean sendOnAdd;
+    /**
+     * index of the row in rows, EMPTY if the slot is free
+     */
+    private int[] slots;
+    private int[] slotHashes;
+    private int mask;
+
+    // the rows which were distinct and had been returned by addIfAbsent before spilling
+    private ResultExternal[] sentPartitions;
+    // the rows which are still not known whether distinct
+    private ResultExternal[] pendingPartitions;
+    private List<List<RowDataPacket>> pendingBatches;
+
+    public HashDistinctLocalResult(BufferPool pool, int fieldsCount, RowDataComparator distinctCmp, boolean sendOnAdd,
+                                   String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
+        super(DEFAULT_INITIAL_CAPACITY, fieldsCount, pool, charset, bufferRecordBuilder);
+        this.distinctCmp = distinctCmp;
+        this.sendOnAdd = sendOnAdd;
+        initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+    }
+
+    @Override
+    public void add(RowDataPacket row) {
+        addIfAbsent(row);
+    }
+
+    /**
+     * @return true if the row is seen for the first time, false if it is a duplicate
+     * or can not be known until done because of spilling
+     */
+    public boolean addIfAbsent(RowDataPacket row) {
+        lock.lock();
+        try {
+            if (isClosed)
+                return false;
+            int hash = distinctCmp.hash(row);
+            if (pendingPartitions != null) {
+                spill(row, hash);
+                return false;
+            }
+            int slot = findSlot(row, hash);
+            if (slots[slot] != EMPTY) {
+                return false;
+            }
+            putRow(slot, row, hash);
+            rowCount++;
+            int incrementSize = getRowMemory(row);
+            currentMemory += incrementSize;
+            boolean needFlush = false;
+            if (bufferMC != null) {
+                if (!bufferMC.addSize(incrementSize)) {
+                    needFlush = true;
+                }
+            } else if (currentMemory > maxMemory) {
+                needFlush = true;
+            }
+            if (needFlush) {
+                spillAll();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * move the rows in memory into the partitions, the rows added later go to the partitions directly
+     */
+    private void spillAll() {
+        sentPartitions = new ResultExternal[PARTITION_COUNT];
+        pendingPartitions = new ResultExternal[PARTITION_COUNT];
+        pendingBatches = new ArrayList<>(PARTITION_COUNT);
+        List<List<RowDataPacket>> sentBatches = new ArrayList<>(PARTITION_COUNT);
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            pendingBatches.add(new ArrayList<>());
+            sentBatches.add(new ArrayList<>());
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != EMPTY) {
+                sentBatches.get(partition(slotHashes[i])).add(rows.get(slots[i]));
+            }
+        }
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            List<RowDataPacket> batch = sentBatches.get(i);
+            if (!sendOnAdd) {
+                // nothing has been sent, they are the same as the rows added later
+                pendingBatches.set(i, batch);
+            } else if (!batch.isEmpty()) {
+                sentPartitions[i] = createExternal();
+                sentPartitions[i].addRows(batch);
+            }
+        }
+        rows.clear();
+        if (bufferMC != null)
+            bufferMC.subSize(currentMemory);
+        currentMemory = 0;
+        rowCount = 0;
+        initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+    }
+
+    private void spill(RowDataPacket row, int hash) {
+        int p = partition(hash);
+        List<RowDataPacket> batch = pendingBatches.get(p);
+        batch.add(row);
+        if (batch.size() >= SPILL_BATCH) {
+            flushPending(p);
+        }
+    }
+
+    private void flushPending(int p) {
+        List<RowDataPacket> batch = pendingBatches.get(p);
+        if (batch.isEmpty())
+            return;
+        if (pendingPartitions[p] == null)
+            pendingPartitions[p] = createExternal();
+        pendingPartitions[p].addRows(batch);
+        batch.clear();
+    }
+
+    /**
+     * de-duplicate the partitions one by one, the distinct pending rows are written into external for next
+     */
+    private void donePartitions() {
+        external = createExternal();
+        List<RowDataPacket> output = new ArrayList<>(SPILL_BATCH);
+        int outputCount = 0;
+        for (int p = 0; p < PARTITION_COUNT; p++) {
+            flushPending(p);
+            if (pendingPartitions[p] == null) {
+                closePartition(p);
+                continue;
+            }
+            if (sentPartitions[p] != null) {
+                sentPartitions[p].done();
+                RowDataPacket row;
+                while ((row = sentPartitions[p].next()) != null) {
+                    int hash = distinctCmp.hash(row);
+                    int slot = findSlot(row, hash);
+                    if (slots[slot] == EMPTY)
+                        loadRow(slot, row, hash);
+                }
+            }
+            pendingPartitions[p].done();
+            RowDataPacket row;
+            while ((row = pendingPartitions[p].next()) != null) {
+                int hash = distinctCmp.hash(row);
+                int slot = findSlot(row, hash);
+                if (slots[slot] == EMPTY) {
+                    loadRow(slot, row, hash);
+                    output.add(row);
+                    outputCount++;
+                    if (output.size() >= SPILL_BATCH) {
+                        external.addRows(output);
+                        output.clear();
+                    }
+                }
+            }
+            closePartition(p);
+            rows.clear();
+            if (bufferMC != null)
+                bufferMC.subSize(currentMemory);
+            currentMemory = 0;
+            initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+        }
+        if (!output.isEmpty())
+            external.addRows(output);
+        external.done();
+        rowCount = outputCount;
+        sentPartitions = null;
+        pendingPartitions = null;
+        pendingBatches = null;
+    }
+
+    private void closePartition(int p) {
+        if (sentPartitions[p] != null) {
+            sentPartitions[p].close();
+            sentPartitions[p] = null;
+        }
+        if (pendingPartitions[p] != null) {
+            pendingPartitions[p].close();
+            pendingPartitions[p] = null;
+        }
+    }
+
+    @Override
+    public void done() {
+        lock.lock();
+        try {
+            if (this.isClosed)
+                return;
+            if (pendingPartitions != null) {
+                donePartitions();
+            } else if (sendOnAdd) {
+                // all of them have been sent
+                rowCount = 0;
+            }
+            reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * a partition can not be spilled again, but its rows are counted so that the other results spill earlier
+     */
+    private void loadRow(int slot, RowDataPacket row, int hash) {
+        putRow(slot, row, hash);
+        int incrementSize = getRowMemory(row);
+        currentMemory += incrementSize;
+        if (bufferMC != null)
+            bufferMC.addSize(incrementSize);
+    }
+
+    private void putRow(int slot, RowDataPacket row, int hash) {
+        slots[slot] = rows.size();
+        slotHashes[slot] = hash;
+        rows.add(row);
+        if (rows.size() > (slots.length >> 1)) {
+            rehash(slots.length << 1);
+        }
+    }
+
+    /**
+     * linear probing
+     *
+     * @return the slot which holds the same row, or the empty slot to put the new row
+     */
+    private int findSlot(RowDataPacket row, int hash) {
+        int slot = spread(hash) & mask;
+        while (true) {
+            int index = slots[slot];
+            if (index == EMPTY) {
+                return slot;
+            }
+            if (slotHashes[slot] == hash && distinctCmp.compare(rows.get(index), row) == 0) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldSlots = slots;
+        int[] oldHashes = slotHashes;
+        initSlots(newCapacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == EMPTY) {
+                continue;
+            }
+            int slot = spread(oldHashes[i]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = oldSlots[i];
+            slotHashes[slot] = oldHashes[i];
+        }
+    }
+
+    private void initSlots(int capacity) {
+        this.slots = new int[capacity];
+        this.slotHashes = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * the high bits, which are independent of the slot in the table of the partition
+     */
+    private static int partition(int hash) {
+        return (hash * 0x9E3779B9) >>> 28;
+    }
+
+    @Override
+    protected ResultExternal makeExternal() {
+        return new UnSortedResultDiskBuffer(pool, fieldsCount, bufferRecordBuilder);
+    }
+
+    @Override
+    protected void doneOnlyMemory() {
+        // hash distinct does not promise the order of rows
+    }
+
+    @Override
+    protected void beforeFlushRows() {
+        // the rows are spilled by spillAll
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closePartitions();
+        } finally {
+            lock.unlock();
+        }
+        super.close();
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            closePartitions();
+            super.clear();
+            initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closePartitions() {
+        if (pendingPartitions != null) {
+            for (int p = 0; p < PARTITION_COUNT; p++) {
+                closePartition(p);
+            }
+            sentPartitions = null;
+            pendingPartitions = null;
+            pendingBatches = null;
+        }
+    }
+}
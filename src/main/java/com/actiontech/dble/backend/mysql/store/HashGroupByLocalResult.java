@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.BufferPoolRecord;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * group by with an open-addressing hash table instead of a sorted tree,
+ * the result rows are not ordered by the group by columns unless sortOnDone or the rows have been flushed into disk
+ * <p>
+ * the hash of a row comes from RowDataComparator.hash, so the comparator is only called when the hash matches
+ */
+public class HashGroupByLocalResult extends GroupByLocalResult {
+    private static final int EMPTY = -1;
+
+    private final RowDataComparator groupCmp;
+    // sort the groups once when done, instead of keeping them sorted for every row
+    private final boolean sortOnDone;
+    /**
+     * index of the group row in rows, EMPTY if the slot is free
+     */
+    private int[] slots;
+    private int[] slotHashes;
+    private int mask;
+
+    public HashGroupByLocalResult(BufferPool pool, int fieldsCount, RowDataComparator groupCmp,
+                                  List<FieldPacket> fieldPackets, List<ItemSum> sumFunctions, boolean isAllPushDown, boolean sortOnDone,
+                                  String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
+        super(new ArrayList<RowDataPacket>(DEFAULT_INITIAL_CAPACITY), DEFAULT_INITIAL_CAPACITY, fieldsCount, pool, groupCmp, fieldPackets, sumFunctions, isAllPushDown, charset, bufferRecordBuilder);
+        this.groupCmp = groupCmp;
+        this.sortOnDone = sortOnDone;
+        initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+    }
+
+    @Override
+    public void add(RowDataPacket row) {
+        lock.lock();
+        try {
+            if (isClosed)
+                return;
+            int hash = groupCmp.hash(row);
+            int slot = findSlot(row, hash);
+            int incrementSize;
+            if (slots[slot] != EMPTY)/* found */ {
+                RowDataPacket oldRow = rows.get(slots[slot]);
+                int oldRowSizeBefore = getRowMemory(oldRow);
+                onFoundRow(oldRow, row);
+                int oldRowSizeAfter = getRowMemory(oldRow);
+                incrementSize = oldRowSizeAfter - oldRowSizeBefore;
+            } else {
+                onFirstGroupRow(row);
+                slots[slot] = rows.size();
+                slotHashes[slot] = hash;
+                rows.add(row);
+                rowCount++;
+                incrementSize = getRowMemory(row);
+                if (rows.size() > (slots.length >> 1)) {
+                    rehash(slots.length << 1);
+                }
+            }
+            currentMemory += incrementSize;
+            boolean needFlush = false;
+            if (bufferMC != null) {
+                if (!bufferMC.addSize(incrementSize)) {
+                    needFlush = true;
+                }
+            } else if (currentMemory > maxMemory) {
+                needFlush = true;
+            }
+            if (needFlush) {
+                if (external == null)
+                    external = createExternal();
+                addRowsToDisk();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * linear probing
+     *
+     * @return the slot which holds the same group, or the empty slot to put the new group
+     */
+    private int findSlot(RowDataPacket row, int hash) {
+        int slot = spread(hash) & mask;
+        while (true) {
+            int index = slots[slot];
+            if (index == EMPTY) {
+                return slot;
+            }
+            if (slotHashes[slot] == hash && groupCmp.compare(rows.get(index), row) == 0) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldSlots = slots;
+        int[] oldHashes = slotHashes;
+        initSlots(newCapacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == EMPTY) {
+                continue;
+            }
+            int slot = spread(oldHashes[i]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = oldSlots[i];
+            slotHashes[slot] = oldHashes[i];
+        }
+    }
+
+    private void initSlots(int capacity) {
+        this.slots = new int[capacity];
+        this.slotHashes = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    protected void doneOnlyMemory() {
+        if (sortOnDone) {
+            Collections.sort(rows, this.groupCmp);
+        }
+    }
+
+    @Override
+    protected void beforeFlushRows() {
+        // the tapes on disk must be sorted, so that the groups in different tapes can be merged
+        Collections.sort(rows, this.groupCmp);
+        initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            super.clear();
+            initSlots(DEFAULT_INITIAL_CAPACITY << 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
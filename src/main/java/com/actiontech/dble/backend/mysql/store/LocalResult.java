@@ -37,6 +37,7 @@ public abstract class LocalResult implements ResultStore {
     protected MemSizeController bufferMC;
     protected volatile int maxReadMemorySize = -1;
     protected BufferPoolRecord.Builder bufferRecordBuilder;
+    protected SpillStatistic spillStatistic;
 
     public LocalResult(int initialCapacity, int fieldsCount, BufferPool pool, String charset, BufferPoolRecord.Builder bufferRecordBuilder) {
         this.rows = new ArrayList<>(initialCapacity);
@@ -78,7 +79,7 @@ public abstract class LocalResult implements ResultStore {
             }
             if (needFlush) {
                 if (external == null)
-                    external = makeExternal();
+                    external = createExternal();
                 addRowsToDisk();
             }
         } finally {
@@ -88,6 +89,13 @@ public abstract class LocalResult implements ResultStore {
 
     protected abstract ResultExternal makeExternal();
 
+    protected final ResultExternal createExternal() {
+        ResultExternal result = makeExternal();
+        result.setSpillStatistic(spillStatistic);
+        result.setMemSizeController(bufferMC);
+        return result;
+    }
+
     public RowDataPacket currentRow() {
         return currentRow;
     }
@@ -230,6 +238,11 @@ public abstract class LocalResult implements ResultStore {
         return this;
     }
 
+    public LocalResult setSpillStatistic(SpillStatistic spillStatistic) {
+        this.spillStatistic = spillStatistic;
+        return this;
+    }
+
     public void setMaxReadMemorySize(int maxReadMemorySize) {
         this.maxReadMemorySize = maxReadMemorySize;
     }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the amount of the rows written into the temp files by one handler, shown by show trace
+ */
+public class SpillStatistic {
+    // bytes of the rows
+    private final LongAdder writtenBytes = new LongAdder();
+    // bytes in the files, less than writtenBytes if compressed
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder spillNanos = new LongAdder();
+
+    public void addWritten(long bytes, long nanos) {
+        writtenBytes.add(bytes);
+        spillNanos.add(nanos);
+    }
+
+    public void addStored(long bytes) {
+        storedBytes.add(bytes);
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    public long getSpillNanos() {
+        return spillNanos.sum();
+    }
+
+    /**
+     * @return writtenBytes / storedBytes, 1 if nothing is stored yet
+     */
+    public double getCompressionRatio() {
+        long stored = getStoredBytes();
+        return stored == 0 ? 1 : (double) getWrittenBytes() / stored;
+    }
+
+    @Override
+    public String toString() {
+        return "written=" + getWrittenBytes() + "B, stored=" + getStoredBytes() + "B, ratio=" +
+                String.format("%.2f", getCompressionRatio());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.ArrayMinHeap;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.BufferPoolRecord;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * sort for order by ... limit, only the first topN rows are kept in a bounded heap whose top is the biggest one,
+ * a row is dropped at once if it is not smaller than the top when the heap is full, so nothing is written into disk
+ */
+public class TopNSortedLocalResult extends SortedLocalResult {
+
+    private final int topN;
+    private final ArrayMinHeap<RowDataPacket> heap;
+
+    public TopNSortedLocalResult(BufferPool pool, int fieldsCount, RowDataComparator rowCmp, int topN, String charset,
+                                 BufferPoolRecord.Builder bufferRecordBuilder) {
+        super(0, fieldsCount, pool, rowCmp, charset, bufferRecordBuilder);
+        this.topN = topN;
+        this.heap = new ArrayMinHeap<>(Math.max(topN, 1), (o1, o2) -> rowCmp.compare(o2, o1));
+    }
+
+    /**
+     * @param limitFrom   the offset, negative if there is no limit
+     * @param limitTo     the row count of the limit, negative if there is no limit
+     * @param topNMaxRows orderByTopNMaxRows, 0 means disabled
+     * @return the rows to keep, -1 if all the rows are sorted
+     */
+    public static int topN(long limitFrom, long limitTo, int topNMaxRows) {
+        if (limitTo < 0 || topNMaxRows <= 0) {
+            return -1;
+        }
+        long topN = Math.max(limitFrom, 0) + limitTo;
+        return topN <= topNMaxRows ? (int) topN : -1;
+    }
+
+    @Override
+    public void add(RowDataPacket row) {
+        lock.lock();
+        try {
+            if (this.isClosed || topN == 0)
+                return;
+            if (heap.size() < topN) {
+                heap.add(row);
+            } else if (rowCmp.compare(row, heap.peak()) < 0) {
+                heap.replaceTop(row);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void doneOnlyMemory() {
+        rows = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            rows.add(heap.poll());
+        }
+        Collections.reverse(rows);
+        rowCount = rows.size();
+        lastRow = rowCount == 0 ? null : rows.get(rowCount - 1);
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            heap.clear();
+        } finally {
+            lock.unlock();
+        }
+        super.close();
+    }
+}
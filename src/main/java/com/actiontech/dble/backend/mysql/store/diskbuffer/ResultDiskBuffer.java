@@ -6,10 +6,14 @@
 package com.actiontech.dble.backend.mysql.store.diskbuffer;
 
 import com.actiontech.dble.backend.mysql.ByteUtil;
+import com.actiontech.dble.backend.mysql.store.CompressedFileStore;
 import com.actiontech.dble.backend.mysql.store.FileStore;
+import com.actiontech.dble.backend.mysql.store.SpillStatistic;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
 import com.actiontech.dble.backend.mysql.store.result.ResultExternal;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.buffer.BufferPoolRecord;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.MySQLPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.util.exception.NotSupportException;
@@ -38,7 +42,32 @@ public abstract class ResultDiskBuffer implements ResultExternal {
         this.columnCount = columnCount;
         this.bufferRecordBuilder = bufferRecordBuilder;
         this.writeBuffer = pool.allocate(bufferRecordBuilder);
-        this.file = new FileStore("nioMapped:Memory", "rw");
+        if (SystemConfig.getInstance().isUseSpillCompression()) {
+            this.file = new CompressedFileStore("nioMapped:Memory", "rw");
+        } else {
+            this.file = new FileStore("nioMapped:Memory", "rw");
+        }
+    }
+
+    @Override
+    public void setSpillStatistic(SpillStatistic spillStatistic) {
+        file.setSpillStatistic(spillStatistic);
+    }
+
+    @Override
+    public void setMemSizeController(MemSizeController memSizeController) {
+        if (file instanceof CompressedFileStore) {
+            ((CompressedFileStore) file).setMemSizeController(memSizeController);
+        }
+    }
+
+    /**
+     * @param readers the count of the tapes read alternately
+     */
+    protected void setReaders(int readers) {
+        if (file instanceof CompressedFileStore) {
+            ((CompressedFileStore) file).setReaders(readers);
+        }
     }
 
     @Override
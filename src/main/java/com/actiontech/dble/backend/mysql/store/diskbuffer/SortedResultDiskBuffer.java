@@ -131,6 +131,7 @@ public class SortedResultDiskBuffer extends ResultDiskBuffer {
             tape.readBufferOffset = 0;
             tape.readBuffer.clear();
         }
+        setReaders(tapes.size());
         resetHeap();
     }
 
@@ -6,6 +6,7 @@
 package com.actiontech.dble.backend.mysql.store.fs;
 
 import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.util.MappedBufferUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,7 +14,6 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.lang.ref.WeakReference;
-import java.lang.reflect.Method;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
@@ -66,22 +66,7 @@ class FileNioMapped extends FileBase {
         // need to dispose old direct buffer, see bug
         // http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4724038
 
-        boolean useSystemGc = true;
-        try {
-            Method cleanerMethod = mapped.getClass().getMethod("cleaner");
-            cleanerMethod.setAccessible(true);
-            Object cleaner = cleanerMethod.invoke(mapped);
-            if (cleaner != null) {
-                Method clearMethod = cleaner.getClass().getMethod("clean");
-                clearMethod.invoke(cleaner);
-            }
-            useSystemGc = false;
-        } catch (Throwable e) {
-            logger.warn("unmap byteBuffer error", e);
-            // useSystemGc is already true
-        } finally {
-            mapped = null;
-        }
+        boolean useSystemGc = !MappedBufferUtil.unmap(mapped);
 
         if (useSystemGc) {
             WeakReference<MappedByteBuffer> bufferWeakRef = new WeakReference<>(mapped);
@@ -96,6 +81,7 @@ class FileNioMapped extends FileBase {
                 Thread.yield();
             }
         }
+        mapped = null;
     }
 
     /**
@@ -5,6 +5,8 @@
 
 package com.actiontech.dble.backend.mysql.store.result;
 
+import com.actiontech.dble.backend.mysql.store.SpillStatistic;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 
 import java.util.List;
@@ -78,4 +80,18 @@ public interface ResultExternal {
      * @return tape's count
      */
     int tapeCount();
+
+    /**
+     * count the bytes written into the temp file
+     *
+     * @param spillStatistic null for not counting
+     */
+    void setSpillStatistic(SpillStatistic spillStatistic);
+
+    /**
+     * count the memory used to read the temp file
+     *
+     * @param memSizeController null for not counting
+     */
+    void setMemSizeController(MemSizeController memSizeController);
 }
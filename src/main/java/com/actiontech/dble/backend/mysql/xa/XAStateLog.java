@@ -71,6 +71,10 @@ public final class XAStateLog {
                 sessionState == TxState.TX_ROLLBACKING_STATE) {
             return writeCheckpoint(xaTxId);
         }
+        // the other states don't wait, they are synced to the disk with the next batch
+        if (FILE_REPOSITORY instanceof FileSystemRepository) {
+            appendRecoveryLog(coordinatorLogEntry, false);
+        }
         return true;
     }
 
@@ -98,6 +102,10 @@ public final class XAStateLog {
     }
 
     public static boolean writeCheckpoint(String xaTxId) {
+        if (FILE_REPOSITORY instanceof FileSystemRepository) {
+            CoordinatorLogEntry coordinatorLogEntry = IN_MEMORY_REPOSITORY.get(xaTxId);
+            return coordinatorLogEntry != null && appendRecoveryLog(coordinatorLogEntry, true);
+        }
         lock.lock();
         try {
             while (isWriting) {
@@ -126,25 +134,8 @@ public final class XAStateLog {
             try {
                 isWriting = true;
                 boolean writeResult = false;
-                // copy memoryRepository
-                List<CoordinatorLogEntry> logs = new ArrayList<>();
-                ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
-                lockMap.lock();
-                try {
-                    Collection<CoordinatorLogEntry> logCollection = IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false);
-                    for (CoordinatorLogEntry coordinatorLogEntry : logCollection) {
-                        CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
-                        if (log != null) {
-                            logs.add(log);
-                        }
-                    }
-                } catch (Throwable e) {
-                    LOGGER.warn("logCollection deep copy error, leader Xid is:" + xaTxId, e);
-                    logs.clear();
-                } finally {
-                    lockMap.unlock();
-                }
-                if (!logs.isEmpty()) {
+                List<CoordinatorLogEntry> logs = copyMemoryRepository();
+                if (logs != null && !logs.isEmpty()) {
                     writeResult = FILE_REPOSITORY.writeCheckpoint(logs);
                 }
                 while (batchNum.get() != 1) {
@@ -189,6 +180,50 @@ public final class XAStateLog {
         }
     }
 
+    private static boolean appendRecoveryLog(CoordinatorLogEntry coordinatorLogEntry, boolean sync) {
+        FileSystemRepository repository = (FileSystemRepository) FILE_REPOSITORY;
+        return repository.openForAppending(XAStateLog::copyMemoryRepository) && repository.append(coordinatorLogEntry, sync);
+    }
+
+    /**
+     * rewrite the recovery log with the transactions in memory when the log is too large,
+     * the transactions are still appended and wait only for the rewriting.
+     */
+    public static void compactRecoveryLog() {
+        if (!(FILE_REPOSITORY instanceof FileSystemRepository)) {
+            return;
+        }
+        FileSystemRepository repository = (FileSystemRepository) FILE_REPOSITORY;
+        if (repository.getLogSize() >= SystemConfig.getInstance().getXaLogCompactSize() * 1024L * 1024L) {
+            long size = repository.getLogSize();
+            if (repository.writeCheckpoint(XAStateLog::copyMemoryRepository)) {
+                LOGGER.info("compact the xa recovery log from {} bytes to {} bytes", size, repository.getLogSize());
+            }
+        }
+    }
+
+    // copy memoryRepository, null if failed
+    private static List<CoordinatorLogEntry> copyMemoryRepository() {
+        List<CoordinatorLogEntry> logs = new ArrayList<>();
+        ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
+        lockMap.lock();
+        try {
+            Collection<CoordinatorLogEntry> logCollection = IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false);
+            for (CoordinatorLogEntry coordinatorLogEntry : logCollection) {
+                CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
+                if (log != null) {
+                    logs.add(log);
+                }
+            }
+        } catch (Throwable e) {
+            LOGGER.warn("logCollection deep copy error", e);
+            return null;
+        } finally {
+            lockMap.unlock();
+        }
+        return logs;
+    }
+
     public static void flushMemoryRepository(String xaTxId, CoordinatorLogEntry coordinatorLogEntry) {
         IN_MEMORY_REPOSITORY.put(xaTxId, coordinatorLogEntry);
     }
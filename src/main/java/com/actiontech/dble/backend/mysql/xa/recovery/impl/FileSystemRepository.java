@@ -22,20 +22,35 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import static com.actiontech.dble.backend.mysql.xa.XAStateLog.XA_ALERT_FLAG;
 
 /**
  * Created by zhangchao on 2016/10/13.
+ * <p>
+ * the log is appended with the coordinator log entry of one transaction every time its state changes,
+ * the reader keeps the last entry of every transaction, so the log is read as before.
+ * the appended entries are written by one thread in a batch with one fsync (group commit),
+ * the other threads wait for the batch on their latches, every holder of the lock writes the queued entries
+ * after unlocking, so an entry queued while the lock is held is never left behind.
+ * writeCheckpoint rewrites a new version of the log with the given entries, it is used to compact the log.
  */
 public class FileSystemRepository implements Repository {
     public static final Logger LOGGER = LoggerFactory.getLogger(FileSystemRepository.class);
+    private static final int MAX_BATCH_SIZE = 1024;
     private VersionedFile file;
-    private FileChannel rwChannel = null;
+    private volatile FileChannel rwChannel = null;
+    private final Queue<AppendRequest> appendQueue = new ConcurrentLinkedQueue<>();
+    // guards the channel, held by the writer of a batch and by writeCheckpoint
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong logSize = new AtomicLong();
 
     public FileSystemRepository() {
         init();
@@ -60,34 +75,152 @@ public class FileSystemRepository implements Repository {
 
     @Override
     public void put(String id, CoordinatorLogEntry coordinatorLogEntry) {
+        append(coordinatorLogEntry, false);
+    }
 
+    /**
+     * open the log for appending if it isn't opened, a new version is written with the snapshot
+     * because the end of the log may be broken since last time
+     */
+    public boolean openForAppending(Supplier<Collection<CoordinatorLogEntry>> snapshot) {
+        if (rwChannel != null) {
+            return true;
+        }
+        writeLock.lock();
         try {
-            initChannelIfNecessary();
-            write(coordinatorLogEntry, true);
-        } catch (IOException e) {
-            AlertUtil.alertSelf(AlarmCode.XA_WRITE_IO_FAIL, Alert.AlertLevel.WARN, "Failed to writeDirectly logfile", null);
-            LOGGER.warn(e.getMessage(), e);
+            return rwChannel != null || writeCheckpoint(snapshot);
+        } finally {
+            unlockAndDrain();
         }
     }
 
-    private synchronized void initChannelIfNecessary()
-            throws FileNotFoundException {
-        if (rwChannel == null) {
-            rwChannel = file.openNewVersionForNioWriting();
+    /**
+     * rewrite the log with the snapshot taken after the appending stops,
+     * so the entries appended before are all in the snapshot or written after it.
+     * the entries queued before the snapshot is taken are in it, they are finished with the checkpoint
+     *
+     * @param snapshot null if failed to take the snapshot
+     */
+    public boolean writeCheckpoint(Supplier<Collection<CoordinatorLogEntry>> snapshot) {
+        writeLock.lock();
+        try {
+            List<AppendRequest> covered = new ArrayList<>();
+            AppendRequest request;
+            while ((request = appendQueue.poll()) != null) {
+                covered.add(request);
+            }
+            boolean success = false;
+            try {
+                Collection<CoordinatorLogEntry> checkpointContent = snapshot.get();
+                success = checkpointContent != null && writeCheckpoint(checkpointContent);
+                return success;
+            } finally {
+                for (AppendRequest coveredRequest : covered) {
+                    coveredRequest.finish(success);
+                }
+            }
+        } finally {
+            unlockAndDrain();
         }
     }
 
-    private void write(CoordinatorLogEntry coordinatorLogEntry,
-                       boolean flushImmediately) throws IOException {
-        String str = Serializer.toJson(coordinatorLogEntry);
-        byte[] buffer = str.getBytes();
-        ByteBuffer buff = ByteBuffer.wrap(buffer);
-        writeToFile(buff, flushImmediately);
+    /**
+     * @param sync wait until the entry is written to the disk
+     * @return false if the entry is failed to write, the entry which doesn't sync always returns true
+     */
+    public boolean append(CoordinatorLogEntry coordinatorLogEntry, boolean sync) {
+        AppendRequest request = new AppendRequest(Serializer.toJson(coordinatorLogEntry).getBytes(StandardCharsets.UTF_8), sync);
+        appendQueue.offer(request);
+        // the thread which can't get the lock waits for the holder, which writes the request after unlocking
+        if (writeLock.tryLock()) {
+            try {
+                writeBatches();
+            } finally {
+                unlockAndDrain();
+            }
+        }
+        return !sync || request.await();
     }
 
-    private synchronized void writeToFile(ByteBuffer buff, boolean force)
-            throws IOException {
-        rwChannel.write(buff);
+    /**
+     * unlock the writeLock and write the requests queued while it was held, it is called instead of unlock everywhere.
+     * a request offered before the tryLock of another thread fails is seen here, if the lock is taken again by others,
+     * they drain the queue when unlocking. nothing is written if the lock is still held by a reentrant call
+     */
+    private void unlockAndDrain() {
+        writeLock.unlock();
+        while (!writeLock.isHeldByCurrentThread() && !appendQueue.isEmpty() && writeLock.tryLock()) {
+            try {
+                writeBatches();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void writeBatches() {
+        List<AppendRequest> batch = new ArrayList<>();
+        AppendRequest request;
+        while ((request = appendQueue.poll()) != null) {
+            batch.add(request);
+            if (batch.size() == MAX_BATCH_SIZE || appendQueue.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<AppendRequest> batch) {
+        boolean success = false;
+        try {
+            FileChannel channel = rwChannel;
+            if (channel == null) {
+                throw new IOException("the xa recovery log is not opened");
+            }
+            ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+            boolean force = false;
+            long length = 0;
+            for (int i = 0; i < buffers.length; i++) {
+                AppendRequest request = batch.get(i);
+                buffers[i] = ByteBuffer.wrap(request.data);
+                length += request.data.length;
+                force |= request.sync;
+            }
+            long written = 0;
+            while (written < length) {
+                written += channel.write(buffers);
+            }
+            if (force) {
+                channel.force(false);
+            }
+            logSize.addAndGet(length);
+            success = true;
+        } catch (IOException e) {
+            AlertUtil.alertSelf(AlarmCode.XA_WRITE_IO_FAIL, Alert.AlertLevel.WARN, "Failed to writeDirectly logfile", null);
+            LOGGER.warn("Failed to append the xa recovery log", e);
+            // the end of the file may be broken, a new version is written before the next append
+            closeQuietly();
+        } finally {
+            for (AppendRequest request : batch) {
+                request.finish(success);
+            }
+        }
+    }
+
+    /**
+     * @return the size of the current version of the log
+     */
+    public long getLogSize() {
+        return logSize.get();
+    }
+
+    private int write(CoordinatorLogEntry coordinatorLogEntry) throws IOException {
+        ByteBuffer buff = ByteBuffer.wrap(Serializer.toJson(coordinatorLogEntry).getBytes(StandardCharsets.UTF_8));
+        int length = buff.remaining();
+        while (buff.hasRemaining()) {
+            rwChannel.write(buff);
+        }
+        return length;
     }
 
     @Override
@@ -187,6 +320,7 @@ public class FileSystemRepository implements Repository {
     }
 
     private void closeOutput() throws IllegalStateException {
+        rwChannel = null;
         try {
             if (file != null) {
                 file.close();
@@ -198,15 +332,18 @@ public class FileSystemRepository implements Repository {
 
     @Override
     public boolean writeCheckpoint(Collection<CoordinatorLogEntry> checkpointContent) {
+        writeLock.lock();
         try {
             closeOutput();
             file.rotateFileVersion();
             rwChannel = file.openNewVersionForNioWriting();
+            long length = 0;
             for (CoordinatorLogEntry coordinatorLogEntry : checkpointContent) {
-                write(coordinatorLogEntry, false);
+                length += write(coordinatorLogEntry);
             }
             rwChannel.force(false);
             file.discardBackupVersion();
+            logSize.set(length);
             if (ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL.size() > 0) {
                 AlertUtil.alertSelfResolve(AlarmCode.XA_WRITE_CHECK_POINT_FAIL, Alert.AlertLevel.WARN, null, ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL, XA_ALERT_FLAG);
             }
@@ -215,7 +352,18 @@ public class FileSystemRepository implements Repository {
             LOGGER.warn("Failed to writeDirectly checkpoint", e);
             AlertUtil.alertSelf(AlarmCode.XA_WRITE_CHECK_POINT_FAIL, Alert.AlertLevel.WARN, "Failed to writeDirectly checkpoint:" + e.getMessage(), null);
             ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL.add(XA_ALERT_FLAG);
+            closeQuietly();
             return false;
+        } finally {
+            unlockAndDrain();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            closeOutput();
+        } catch (Exception e) {
+            LOGGER.info("Error closing file - ignoring", e);
         }
     }
 
@@ -234,4 +382,35 @@ public class FileSystemRepository implements Repository {
         throw new UnsupportedOperationException();
     }
 
+
+    private static final class AppendRequest {
+        private final byte[] data;
+        private final boolean sync;
+        private final CountDownLatch latch;
+        private volatile boolean success;
+
+        AppendRequest(byte[] data, boolean sync) {
+            this.data = data;
+            this.sync = sync;
+            this.latch = sync ? new CountDownLatch(1) : null;
+        }
+
+        void finish(boolean result) {
+            success = result;
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        boolean await() {
+            try {
+                latch.await();
+                return success;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("interrupted when waiting for the xa recovery log written");
+                return false;
+            }
+        }
+    }
 }
@@ -23,7 +23,9 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.SynchronousQueue;
@@ -46,6 +48,11 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
     private final CopyOnWriteArrayList<PooledConnection> allConnections;
     private final AtomicInteger totalConnections = new AtomicInteger();
     private final SynchronousQueue<PooledConnection> handoffQueue;
+    // the connections recently released by the current thread, try them first when borrowing
+    private final ThreadLocal<List<WeakReference<PooledConnection>>> threadList;
+    // LIFO stack of idle connections shared by all threads, the entries may be stale and must be checked by CAS
+    private final ConcurrentLinkedDeque<PooledConnection> freeStack;
+    private final ConnectionPoolStatistic statistic = new ConnectionPoolStatistic();
     // evictor
     private final WeakReference<ClassLoader> factoryClassLoader;
     private volatile Evictor evictor = null;
@@ -55,6 +62,8 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
     private final ReentrantReadWriteLock freshLock;
     private volatile int waiterNum;
 
+    private static final int MAX_THREAD_LIST_SIZE = 16;
+
     public ConnectionPool(final DbInstanceConfig config, final ReadTimeStatusInstance instance, final PooledConnectionFactory factory) {
         super(config, instance, factory);
 
@@ -67,6 +76,8 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
         }
 
         this.handoffQueue = new SynchronousQueue<>(true);
+        this.threadList = ThreadLocal.withInitial(() -> new ArrayList<>(MAX_THREAD_LIST_SIZE));
+        this.freeStack = new ConcurrentLinkedDeque<>();
         this.waiters = new AtomicInteger();
         this.allConnections = new CopyOnWriteArrayList<>();
         this.poolConfig = config.getPoolConfig();
@@ -82,15 +93,15 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
             ConnectionPoolProvider.getConnGetFrenshLocekAfter();
             ConnectionPoolProvider.borrowDirectlyConnectionBefore();
             int waiting = waiters.get();
-            for (PooledConnection conn : allConnections) {
-                if (conn.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-                    if (waiting > 0 && conn.getCreateByWaiter().compareAndSet(true, false)) {
-                        ConnectionPoolProvider.newConnectionBorrowDirectly();
-                        newPooledEntry(schema, waiting, true);
-                    }
-                    return conn;
+            PooledConnection conn = borrowIdle();
+            if (conn != null) {
+                if (waiting > 0 && conn.getCreateByWaiter().compareAndSet(true, false)) {
+                    ConnectionPoolProvider.newConnectionBorrowDirectly();
+                    newPooledEntry(schema, waiting, true);
                 }
+                return conn;
             }
+            statistic.onMiss();
             return null;
         } finally {
             freshLock.readLock().unlock();
@@ -98,6 +109,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
     }
 
     public PooledConnection borrow(final String schema, long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        final long borrowStart = System.nanoTime();
         if (!freshLock.readLock().tryLock()) {
             LOGGER.warn("the current thread is blocked, because currently at freshing conn");
             freshLock.readLock().lock();
@@ -106,17 +118,17 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
             final int waiting = waiterNum;
             ConnectionPoolProvider.getConnGetFrenshLocekAfter();
             ConnectionPoolProvider.borrowConnectionBefore();
-            for (PooledConnection conn : allConnections) {
-                if (conn.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-                    // If we may have stolen another waiter's connection, request another bag add.
-                    if (waiting > 0 && conn.getCreateByWaiter().compareAndSet(true, false)) {
-                        ConnectionPoolProvider.newConnectionBorrow0();
-                        newPooledEntry(schema, waiting, true);
-                    }
-                    return conn;
+            PooledConnection conn = borrowIdle();
+            if (conn != null) {
+                // If we may have stolen another waiter's connection, request another bag add.
+                if (waiting > 0 && conn.getCreateByWaiter().compareAndSet(true, false)) {
+                    ConnectionPoolProvider.newConnectionBorrow0();
+                    newPooledEntry(schema, waiting, true);
                 }
+                return conn;
             }
 
+            statistic.onMiss();
             waiterNum = waiters.incrementAndGet();
             try {
                 ConnectionPoolProvider.newConnectionBorrow1();
@@ -131,6 +143,9 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
                     if (bagEntry == null || bagEntry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
                         if (bagEntry != null) {
                             bagEntry.getCreateByWaiter().set(false);
+                            statistic.onHandoff();
+                        } else {
+                            statistic.onTimeout();
                         }
                         return bagEntry;
                     }
@@ -138,12 +153,78 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
                     timeout -= (System.nanoTime() - start);
                 } while (timeout > 10_000);
 
+                statistic.onTimeout();
                 return null;
             } finally {
                 waiterNum = waiters.decrementAndGet();
             }
         } finally {
             freshLock.readLock().unlock();
+            statistic.onBorrow(System.nanoTime() - borrowStart);
+        }
+    }
+
+    /**
+     * find an idle connection without waiting, in the order of
+     * the thread local list, the shared free stack and at last the scan of all connections
+     */
+    private PooledConnection borrowIdle() {
+        final List<WeakReference<PooledConnection>> list = threadList.get();
+        for (int i = list.size() - 1; i >= 0; i--) {
+            final PooledConnection conn = list.remove(i).get();
+            if (conn != null && tryAcquire(conn)) {
+                statistic.onThreadLocalHit();
+                return conn;
+            }
+        }
+
+        PooledConnection conn;
+        while ((conn = freeStack.pollFirst()) != null) {
+            conn.getInFreeStack().set(false);
+            if (tryAcquire(conn)) {
+                statistic.onFreeStackHit();
+                return conn;
+            }
+        }
+
+        for (PooledConnection entry : allConnections) {
+            if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                statistic.onScanHit();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private boolean tryAcquire(final PooledConnection conn) {
+        if (conn.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+            if (conn.isPooled()) {
+                return true;
+            }
+            // removed from the pool while idle, leave it as it was
+            conn.lazySet(STATE_NOT_IN_USE);
+        }
+        return false;
+    }
+
+    /**
+     * make the idle connection visible to the fast path of borrow
+     *
+     * @param local also remember it in the list of current thread, only for the business threads which release connections
+     */
+    private void offerIdle(final PooledConnection conn, boolean local) {
+        if (!conn.isPooled() || conn.getState() != STATE_NOT_IN_USE) {
+            return;
+        }
+        if (local) {
+            final List<WeakReference<PooledConnection>> list = threadList.get();
+            if (list.size() >= MAX_THREAD_LIST_SIZE) {
+                list.remove(0);
+            }
+            list.add(new WeakReference<>(conn));
+        }
+        if (conn.getInFreeStack().compareAndSet(false, true)) {
+            freeStack.offerFirst(conn);
         }
     }
 
@@ -190,6 +271,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
                 Thread.yield();
             }
         }
+        offerIdle(conn, true);
     }
 
     public void fillPool() {
@@ -214,6 +296,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
     @Override
     public void onCreateSuccess(PooledConnection conn) {
         conn.setPoolRelated(this);
+        conn.setPooled(true);
         allConnections.add(conn);
         LOGGER.info("connection create success: createByWaiter:{},new connection:{}", conn.getCreateByWaiter().get(), conn);
         if (poolConfig.getTestOnCreate()) {
@@ -228,6 +311,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
         while (waiters.get() > 0 && conn.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(conn)) {
             Thread.yield();
         }
+        offerIdle(conn, false);
 
         if (ToResolveContainer.CREATE_CONN_FAIL.contains(instance.getDbGroupConfig().getName() + "-" + config.getInstanceName())) {
             Map<String, String> labels = AlertUtil.genSingleLabel("dbInstance", instance.getDbGroupConfig().getName() + "-" + config.getInstanceName());
@@ -265,6 +349,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
         while (waiters.get() > 0 && conn.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(conn)) {
             Thread.yield();
         }
+        offerIdle(conn, false);
     }
 
     public int getCount(final int... states) {
@@ -318,6 +403,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
     }
 
     private boolean remove(final PooledConnection pooledConnection) {
+        pooledConnection.setPooled(false);
         final boolean removed = allConnections.remove(pooledConnection);
         if (!removed) {
             LOGGER.warn("Attempt to remove an object from the bag that does not exist: {}", pooledConnection);
@@ -377,6 +463,7 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
                 } else {
                     softCloseAllConnections(closureReason);
                 }
+                freeStack.clear();
             }
         } finally {
             freshLock.writeLock().unlock();
@@ -442,6 +529,10 @@ public class ConnectionPool extends PoolBase implements PooledConnectionListener
         return instance;
     }
 
+    public ConnectionPoolStatistic getStatistic() {
+        return statistic;
+    }
+
     public final int getThreadsAwaitingConnection() {
         return waiters.get();
     }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.pool;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * hot path counters of ConnectionPool.borrow, striped so that the borrowing threads do not contend on them
+ */
+public class ConnectionPoolStatistic {
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTimeNanos = new LongAdder();
+    private final LongAccumulator maxBorrowTimeNanos = new LongAccumulator(Long::max, 0L);
+    // where the idle connection was found
+    private final LongAdder threadLocalHitCount = new LongAdder();
+    private final LongAdder freeStackHitCount = new LongAdder();
+    private final LongAdder scanHitCount = new LongAdder();
+    // no idle connection, the borrower has to wait for a new one or a released one
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder handoffCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    void onBorrow(long nanos) {
+        borrowCount.increment();
+        borrowTimeNanos.add(nanos);
+        maxBorrowTimeNanos.accumulate(nanos);
+    }
+
+    void onThreadLocalHit() {
+        threadLocalHitCount.increment();
+    }
+
+    void onFreeStackHit() {
+        freeStackHitCount.increment();
+    }
+
+    void onScanHit() {
+        scanHitCount.increment();
+    }
+
+    void onMiss() {
+        missCount.increment();
+    }
+
+    void onHandoff() {
+        handoffCount.increment();
+    }
+
+    void onTimeout() {
+        timeoutCount.increment();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getBorrowTimeNanos() {
+        return borrowTimeNanos.sum();
+    }
+
+    public long getMaxBorrowTimeNanos() {
+        return maxBorrowTimeNanos.get();
+    }
+
+    public long getThreadLocalHitCount() {
+        return threadLocalHitCount.sum();
+    }
+
+    public long getFreeStackHitCount() {
+        return freeStackHitCount.sum();
+    }
+
+    public long getScanHitCount() {
+        return scanHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getHandoffCount() {
+        return handoffCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+}
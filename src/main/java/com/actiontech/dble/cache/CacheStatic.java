@@ -19,6 +19,9 @@ public class CacheStatic {
     private long hitTimes;
     private long lastAccessTime;
     private long lastPutTime;
+    private long evictTimes;
+    private long loadTimes;
+    private long loadTotalTime; // ns
 
     public long getMemorySize() {
         return memorySize;
@@ -92,6 +95,29 @@ public class CacheStatic {
         this.lastPutTime = lastPutTime;
     }
 
+    public long getEvictTimes() {
+        return evictTimes;
+    }
+
+    public void incEvictTimes() {
+        this.evictTimes++;
+    }
+
+    /**
+     * the load time is the time of copying the entry into or out of the cache, including serialization
+     */
+    public void addLoadTime(long nanos) {
+        this.loadTimes++;
+        this.loadTotalTime += nanos;
+    }
+
+    /**
+     * @return the average load time in microseconds
+     */
+    public long getAvgLoadTime() {
+        return loadTimes == 0 ? 0 : loadTotalTime / loadTimes / 1000;
+    }
+
     public long getMaxSize() {
         return maxSize;
     }
@@ -108,6 +134,9 @@ public class CacheStatic {
         this.lastPutTime = 0;
         this.memorySize = 0;
         this.putTimes = 0;
+        this.evictTimes = 0;
+        this.loadTimes = 0;
+        this.loadTotalTime = 0;
 
     }
 
@@ -116,7 +145,8 @@ public class CacheStatic {
         return "CacheStatic [memorySize=" + memorySize + ", itemSize=" +
                 itemSize + ", accessTimes=" + accessTimes + ", putTimes=" +
                 putTimes + ", hitTimes=" + hitTimes + ", lastAccesTime=" +
-                lastAccessTime + ", lastPutTime=" + lastPutTime + "]";
+                lastAccessTime + ", lastPutTime=" + lastPutTime + ", evictTimes=" +
+                evictTimes + ", avgLoadTime=" + getAvgLoadTime() + "]";
     }
 
 }
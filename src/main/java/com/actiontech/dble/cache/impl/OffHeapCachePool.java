@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.cache.impl;
+
+import com.actiontech.dble.cache.CachePool;
+import com.actiontech.dble.cache.CacheStatic;
+import org.nustaq.serialization.FSTConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * cache pool which keeps the serialized values in direct memory.
+ * <p>
+ * the pool is split into segments by the hash of the key, every segment owns a direct buffer cut into
+ * fixed size blocks, a value is stored in a chain of blocks, so the size of the pool never exceeds maxSize bytes.
+ * the eviction is W-TinyLFU: the new entries go into a small LRU window, the entries leaving the window
+ * are only admitted into the main SLRU (probation + protected) if they are accessed more frequently than
+ * the entries they would evict, the frequency is estimated by a count-min sketch.
+ * the keys and the index stay on heap, the expiration is by access time like the other pools.
+ */
+public class OffHeapCachePool implements CachePool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapCachePool.class);
+    static final int BLOCK_SIZE = 64;
+    private static final int MAX_SEGMENTS = 16;
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final String name;
+    private final long maxSize;
+    private final long expireMillis;
+    private final Segment[] segments;
+    private final CacheStatic cacheStatistics = new CacheStatic();
+    private final FSTConfiguration fst = FSTConfiguration.createDefaultConfiguration();
+
+    /**
+     * @param maxSize       bytes
+     * @param expireSeconds expire after access, not expired if not positive
+     */
+    public OffHeapCachePool(String name, long maxSize, int expireSeconds) {
+        this.name = name;
+        this.expireMillis = expireSeconds > 0 ? expireSeconds * 1000L : -1;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && maxSize / (segmentCount << 1) >= MIN_SEGMENT_SIZE) {
+            segmentCount <<= 1;
+        }
+        int segmentBlocks = (int) Math.min(Math.max(maxSize / segmentCount / BLOCK_SIZE, 1), Integer.MAX_VALUE / BLOCK_SIZE);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentBlocks);
+        }
+        this.maxSize = (long) segmentBlocks * BLOCK_SIZE * segmentCount;
+        cacheStatistics.setMaxSize(this.maxSize);
+    }
+
+    @Override
+    public void putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = fst.asByteArray(value);
+        } catch (Exception e) {
+            LOGGER.warn(name + " can't serialize the value of key:" + key, e);
+            return;
+        }
+        int hash = hash(key);
+        if (segmentFor(hash).putIfAbsent(key, hash, bytes, System.currentTimeMillis())) {
+            cacheStatistics.addLoadTime(System.nanoTime() - start);
+            cacheStatistics.incPutTimes();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(name + " add cache ,key:" + key + " value:" + value);
+            }
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        long start = System.nanoTime();
+        int hash = hash(key);
+        byte[] bytes = segmentFor(hash).get(key, hash, System.currentTimeMillis());
+        if (bytes != null) {
+            Object value = fst.asObject(bytes);
+            cacheStatistics.addLoadTime(System.nanoTime() - start);
+            cacheStatistics.incHitTimes();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(name + " hit cache ,key:" + key);
+            }
+            return value;
+        } else {
+            cacheStatistics.incAccessTimes();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(name + "  miss cache ,key:" + key);
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        LOGGER.info("clear cache " + name);
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        cacheStatistics.reset();
+    }
+
+    @Override
+    public CacheStatic getCacheStatic() {
+        long itemSize = 0;
+        long memorySize = 0;
+        for (Segment segment : segments) {
+            itemSize += segment.size();
+            memorySize += segment.usedBytes();
+        }
+        cacheStatistics.setItemSize(itemSize);
+        cacheStatistics.setMemorySize(memorySize);
+        return cacheStatistics;
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 8) & (segments.length - 1)];
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Object, Node> data = new HashMap<>();
+        private final ByteBuffer arena;
+        // the next block of the entry or of the free list, -1 for the end
+        private final int[] nextBlock;
+        private final int maxBlocks;
+        private final int windowMax;
+        private final int protectedMax;
+        private final NodeQueue window = new NodeQueue();
+        private final NodeQueue probation = new NodeQueue();
+        private final NodeQueue protectedQueue = new NodeQueue();
+        private final FrequencySketch sketch;
+        private int freeHead;
+        private int freeBlocks;
+
+        Segment(int blocks) {
+            this.maxBlocks = blocks;
+            this.arena = ByteBuffer.allocateDirect(blocks * BLOCK_SIZE);
+            this.nextBlock = new int[blocks];
+            this.windowMax = Math.max(1, blocks / 100);
+            this.protectedMax = (blocks - windowMax) * 4 / 5;
+            this.sketch = new FrequencySketch(blocks / 2);
+            resetBlocks();
+        }
+
+        byte[] get(Object key, int hash, long now) {
+            lock.lock();
+            try {
+                sketch.increment(hash);
+                Node node = data.get(key);
+                if (node == null) {
+                    return null;
+                }
+                if (isExpired(node, now)) {
+                    evict(node);
+                    return null;
+                }
+                node.accessTime = now;
+                onAccess(node);
+                return read(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean putIfAbsent(Object key, int hash, byte[] bytes, long now) {
+            int blocks = Math.max(1, (bytes.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            lock.lock();
+            try {
+                sketch.increment(hash);
+                Node old = data.get(key);
+                if (old != null) {
+                    if (!isExpired(old, now)) {
+                        return false;
+                    }
+                    evict(old);
+                }
+                if (blocks > maxBlocks) {
+                    return false;
+                }
+                makeRoom(blocks);
+                if (freeBlocks < blocks) {
+                    return false;
+                }
+                Node node = new Node(key, hash, bytes.length, blocks);
+                node.firstBlock = write(bytes, blocks);
+                node.accessTime = now;
+                node.queue = WINDOW;
+                window.addFirst(node);
+                data.put(key, node);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onAccess(Node node) {
+            switch (node.queue) {
+                case WINDOW:
+                    window.moveToFirst(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    node.queue = PROTECTED;
+                    protectedQueue.addFirst(node);
+                    while (protectedQueue.weight > protectedMax) {
+                        Node demoted = protectedQueue.tail;
+                        protectedQueue.remove(demoted);
+                        demoted.queue = PROBATION;
+                        probation.addFirst(demoted);
+                    }
+                    break;
+                default:
+                    protectedQueue.moveToFirst(node);
+                    break;
+            }
+        }
+
+        /**
+         * move the overflow of the window into probation, then evict from probation until the blocks are enough,
+         * an entry coming from the window is kept only if it is more frequent than the victim
+         */
+        private void makeRoom(int needed) {
+            Node candidate = null;
+            while (window.weight + needed > windowMax && window.tail != null) {
+                Node node = window.tail;
+                window.remove(node);
+                node.queue = PROBATION;
+                probation.addFirst(node);
+                if (candidate == null) {
+                    candidate = node;
+                }
+            }
+            while (freeBlocks < needed) {
+                Node victim = probation.tail;
+                if (victim == null) {
+                    victim = protectedQueue.tail != null ? protectedQueue.tail : window.tail;
+                    if (victim == null) {
+                        return;
+                    }
+                    evict(victim);
+                } else if (candidate == null) {
+                    evict(victim);
+                } else if (candidate == victim) {
+                    candidate = candidate.prev;
+                    evict(victim);
+                } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                    candidate = candidate.prev;
+                    evict(victim);
+                } else {
+                    Node rejected = candidate;
+                    candidate = candidate.prev;
+                    evict(rejected);
+                }
+            }
+        }
+
+        private boolean isExpired(Node node, long now) {
+            return expireMillis > 0 && now - node.accessTime > expireMillis;
+        }
+
+        private void evict(Node node) {
+            queueOf(node).remove(node);
+            data.remove(node.key);
+            freeChain(node.firstBlock);
+            cacheStatistics.incEvictTimes();
+        }
+
+        private NodeQueue queueOf(Node node) {
+            switch (node.queue) {
+                case WINDOW:
+                    return window;
+                case PROBATION:
+                    return probation;
+                default:
+                    return protectedQueue;
+            }
+        }
+
+        private int write(byte[] bytes, int blocks) {
+            int first = -1;
+            int last = -1;
+            int offset = 0;
+            for (int i = 0; i < blocks; i++) {
+                int block = freeHead;
+                freeHead = nextBlock[block];
+                freeBlocks--;
+                nextBlock[block] = -1;
+                if (last == -1) {
+                    first = block;
+                } else {
+                    nextBlock[last] = block;
+                }
+                int length = Math.min(BLOCK_SIZE, bytes.length - offset);
+                arena.position(block * BLOCK_SIZE);
+                arena.put(bytes, offset, length);
+                offset += length;
+                last = block;
+            }
+            return first;
+        }
+
+        private byte[] read(Node node) {
+            byte[] bytes = new byte[node.length];
+            int block = node.firstBlock;
+            int offset = 0;
+            while (offset < bytes.length) {
+                int length = Math.min(BLOCK_SIZE, bytes.length - offset);
+                arena.position(block * BLOCK_SIZE);
+                arena.get(bytes, offset, length);
+                offset += length;
+                block = nextBlock[block];
+            }
+            return bytes;
+        }
+
+        private void freeChain(int block) {
+            while (block != -1) {
+                int next = nextBlock[block];
+                nextBlock[block] = freeHead;
+                freeHead = block;
+                freeBlocks++;
+                block = next;
+            }
+        }
+
+        private void resetBlocks() {
+            for (int i = 0; i < maxBlocks; i++) {
+                nextBlock[i] = i + 1;
+            }
+            nextBlock[maxBlocks - 1] = -1;
+            freeHead = 0;
+            freeBlocks = maxBlocks;
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                data.clear();
+                window.clear();
+                probation.clear();
+                protectedQueue.clear();
+                sketch.clear();
+                resetBlocks();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return data.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long usedBytes() {
+            lock.lock();
+            try {
+                return (long) (maxBlocks - freeBlocks) * BLOCK_SIZE;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Object key;
+        private final int hash;
+        private final int length;
+        private final int blocks;
+        private int firstBlock;
+        private long accessTime;
+        private int queue;
+        private Node prev;
+        private Node next;
+
+        Node(Object key, int hash, int length, int blocks) {
+            this.key = key;
+            this.hash = hash;
+            this.length = length;
+            this.blocks = blocks;
+        }
+    }
+
+    /**
+     * access ordered list, the head is the most recently used, the weight is the number of blocks
+     */
+    private static final class NodeQueue {
+        private Node head;
+        private Node tail;
+        private int weight;
+
+        void addFirst(Node node) {
+            node.prev = null;
+            node.next = head;
+            if (head == null) {
+                tail = node;
+            } else {
+                head.prev = node;
+            }
+            head = node;
+            weight += node.blocks;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.blocks;
+        }
+
+        void moveToFirst(Node node) {
+            if (head != node) {
+                remove(node);
+                addFirst(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+}
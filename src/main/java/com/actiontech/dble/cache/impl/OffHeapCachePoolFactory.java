@@ -0,0 +1,19 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.cache.impl;
+
+import com.actiontech.dble.cache.CachePool;
+import com.actiontech.dble.cache.CachePoolFactory;
+
+public class OffHeapCachePoolFactory extends CachePoolFactory {
+
+    @Override
+    public CachePool createCachePool(String poolName, int cacheSize,
+                                     int expireSeconds) {
+        return new OffHeapCachePool(poolName, 1048576L * cacheSize, expireSeconds); //cacheSize M
+    }
+
+}
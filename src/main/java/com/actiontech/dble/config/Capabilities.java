@@ -88,4 +88,7 @@ public final class Capabilities {
     public static final int CLIENT_MULTIPLE_STATEMENTS = 0x00010000;
     public static final int CLIENT_CONNECT_ATTRS = 0x00100000;
 
+    // compress the packets by zstd, the level of zstd is at the end of the handshake response, MySQL 8.0.18+
+    public static final int CLIENT_ZSTD_COMPRESSION_ALGORITHM = 0x04000000;
+
 }
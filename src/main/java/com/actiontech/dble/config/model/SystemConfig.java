@@ -67,10 +67,19 @@ public final class SystemConfig {
     private int maxCon = 0;
     //option
     private int useCompression = 0;
+    // the algorithms of the compressed protocol, zlib and zstd, the former is preferred for backend
+    private String protocolCompressionAlgorithms = "zlib";
+    private int zstdCompressionLevel = 3;
     private boolean capClientFoundRows = false;
     private int usingAIO = 0;
+    // the max bytes of the queued buffers written by one gathering write of NIO, 0 means one buffer per write
+    private int maxGatheringWriteSize = 1048576;
     private int useThreadUsageStat = 0;
+    // run complexQueryExecutor and the blocking sql jobs on virtual threads, needs JDK 21+
+    private int useVirtualThread = 0;
     private int usePerformanceMode = 0;
+    // one queue per business worker with work stealing, only in performance mode
+    private int useWorkStealingQueue = 0;
     private int useSerializableMode = 0;
 
     //query time cost statistics
@@ -102,10 +111,15 @@ public final class SystemConfig {
     private String transactionLogBaseDir = "txlogs";
     private String transactionLogBaseName = "server-tx";
     private int transactionRotateSize = 16; // M
+    private int transactionLogQueueSize = 4096;
+    // 0 means forcing the transaction log at the end of every batch
+    private long transactionLogFsyncPeriod = 1000L;
 
     //XA transaction
     private long xaSessionCheckPeriod = 1000L;
     private long xaLogCleanPeriod = 1000L;
+    // the recovery log is appended, and rewritten with the unfinished transactions when it grows larger than this
+    private int xaLogCompactSize = 16; // M
     private String xaRecoveryLogBaseDir = "xalogs";
     private String xaRecoveryLogBaseName = "xalog";
     private int xaRetryCount = 0;
@@ -119,6 +133,17 @@ public final class SystemConfig {
     // join Optimizer
     private boolean useNewJoinOptimizer = false;
     private int joinStrategyType = -1;
+    private boolean useHashJoin = false;
+    // de-duplicate DISTINCT and COUNT/SUM/AVG(DISTINCT) with a hash set, the rows of DISTINCT are not ordered then
+    private boolean useHashDistinct = false;
+
+    // percent of the sequence segment left when prefetching the next segment, 0 means no prefetch
+    // the prefetched segments are lost when dble restarts, so it is off by default
+    private int sequencePrefetchWatermark = 0;
+    // max segments fetched in one round trip for the mysql offset-step sequence, 1 means no batch
+    private int sequenceMaxSegmentBatch = 1;
+    // cache the join key of the ER child table whose parent row isn't found
+    private boolean useErParentNegativeCache = false;
 
     //query memory used for per session,unit is M
     private int otherMemSize = 4;
@@ -138,6 +163,8 @@ public final class SystemConfig {
     private short bufferPoolPageNumber = (short) (Platform.getMaxDirectMemory() * 0.8 / bufferPoolPageSize);
     private boolean useDefaultPageNumber = true;
     private int mappedFileSize = 1024 * 1024 * 64;
+    // compress the blocks of the temp files written by complex query
+    private boolean useSpillCompression = false;
 
     // sql statistics
     private int useSqlStat = 1;
@@ -166,6 +193,8 @@ public final class SystemConfig {
     // for join tmp results
     private int mergeQueueSize = 1024;
     private int orderByQueueSize = 1024;
+    // order by followed by limit keeps only the top offset+limit rows in memory if they are no more than it, 0 means disabled
+    private int orderByTopNMaxRows = 10000;
     private int joinQueueSize = 1024;
     //slow log
     private int enableSlowLog = 0;
@@ -198,6 +227,8 @@ public final class SystemConfig {
     //load data
     private int maxRowSizeToFile = 100000;
     private int enableBatchLoadData = 0;
+    // parse and route the data of load data local while receiving it instead of saving it first, the backends are loaded after the client's last packet
+    private int enableLoadDataStream = 0;
     private int maxCharsPerColumn = 65535; // 128k,65535 chars
 
     private boolean enableFlowControl = false;
@@ -623,6 +654,32 @@ public final class SystemConfig {
         }
     }
 
+    public int getTransactionLogQueueSize() {
+        return transactionLogQueueSize;
+    }
+
+    @SuppressWarnings("unused")
+    public void setTransactionLogQueueSize(int transactionLogQueueSize) {
+        if (transactionLogQueueSize < 1 || Integer.bitCount(transactionLogQueueSize) != 1) {
+            problemReporter.warn("Property [ transactionLogQueueSize ] '" + transactionLogQueueSize + "' in bootstrap.cnf is illegal, size must not be less than 1 and must be a power of 2, you may need use the default value " + this.transactionLogQueueSize + " replaced");
+        } else {
+            this.transactionLogQueueSize = transactionLogQueueSize;
+        }
+    }
+
+    public long getTransactionLogFsyncPeriod() {
+        return transactionLogFsyncPeriod;
+    }
+
+    @SuppressWarnings("unused")
+    public void setTransactionLogFsyncPeriod(long transactionLogFsyncPeriod) {
+        if (transactionLogFsyncPeriod >= 0) {
+            this.transactionLogFsyncPeriod = transactionLogFsyncPeriod;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "transactionLogFsyncPeriod", transactionLogFsyncPeriod, this.transactionLogFsyncPeriod));
+        }
+    }
+
     public String getTransactionLogBaseDir() {
         return (this.getHomePath() + File.separatorChar + transactionLogBaseDir + File.separatorChar).replaceAll(File.separator + "+", File.separator);
     }
@@ -659,6 +716,50 @@ public final class SystemConfig {
         this.useNewJoinOptimizer = useNewJoinOptimizer;
     }
 
+    public boolean isUseHashJoin() {
+        return useHashJoin;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseHashJoin(boolean useHashJoin) {
+        this.useHashJoin = useHashJoin;
+    }
+
+    public boolean isUseHashDistinct() {
+        return useHashDistinct;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseHashDistinct(boolean useHashDistinct) {
+        this.useHashDistinct = useHashDistinct;
+    }
+
+    public int getSequencePrefetchWatermark() {
+        return sequencePrefetchWatermark;
+    }
+
+    @SuppressWarnings("unused")
+    public void setSequencePrefetchWatermark(int sequencePrefetchWatermark) {
+        if (sequencePrefetchWatermark >= 0 && sequencePrefetchWatermark < 100) {
+            this.sequencePrefetchWatermark = sequencePrefetchWatermark;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "sequencePrefetchWatermark", sequencePrefetchWatermark, this.sequencePrefetchWatermark));
+        }
+    }
+
+    public int getSequenceMaxSegmentBatch() {
+        return sequenceMaxSegmentBatch;
+    }
+
+    @SuppressWarnings("unused")
+    public void setSequenceMaxSegmentBatch(int sequenceMaxSegmentBatch) {
+        if (sequenceMaxSegmentBatch > 0) {
+            this.sequenceMaxSegmentBatch = sequenceMaxSegmentBatch;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "sequenceMaxSegmentBatch", sequenceMaxSegmentBatch, this.sequenceMaxSegmentBatch));
+        }
+    }
+
     public int getJoinStrategyType() {
         return joinStrategyType;
     }
@@ -769,6 +870,55 @@ public final class SystemConfig {
         }
     }
 
+    public String getProtocolCompressionAlgorithms() {
+        return protocolCompressionAlgorithms;
+    }
+
+    @SuppressWarnings("unused")
+    public void setProtocolCompressionAlgorithms(String protocolCompressionAlgorithms) {
+        boolean valid = !Strings.isNullOrEmpty(protocolCompressionAlgorithms);
+        if (valid) {
+            for (String algorithm : protocolCompressionAlgorithms.split(",")) {
+                algorithm = algorithm.trim();
+                if (!algorithm.equalsIgnoreCase("zlib") && !algorithm.equalsIgnoreCase("zstd")) {
+                    valid = false;
+                    break;
+                }
+            }
+        }
+        if (valid) {
+            this.protocolCompressionAlgorithms = protocolCompressionAlgorithms;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "protocolCompressionAlgorithms", protocolCompressionAlgorithms, this.protocolCompressionAlgorithms));
+        }
+    }
+
+    public int getZstdCompressionLevel() {
+        return zstdCompressionLevel;
+    }
+
+    @SuppressWarnings("unused")
+    public void setZstdCompressionLevel(int zstdCompressionLevel) {
+        if (zstdCompressionLevel >= 1 && zstdCompressionLevel <= 22) {
+            this.zstdCompressionLevel = zstdCompressionLevel;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "zstdCompressionLevel", zstdCompressionLevel, this.zstdCompressionLevel));
+        }
+    }
+
+    public int getMaxGatheringWriteSize() {
+        return maxGatheringWriteSize;
+    }
+
+    @SuppressWarnings("unused")
+    public void setMaxGatheringWriteSize(int maxGatheringWriteSize) {
+        if (maxGatheringWriteSize >= 0) {
+            this.maxGatheringWriteSize = maxGatheringWriteSize;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "maxGatheringWriteSize", maxGatheringWriteSize, this.maxGatheringWriteSize));
+        }
+    }
+
     public boolean isCapClientFoundRows() {
         return capClientFoundRows;
     }
@@ -950,6 +1100,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getXaLogCompactSize() {
+        return xaLogCompactSize;
+    }
+
+    @SuppressWarnings("unused")
+    public void setXaLogCompactSize(int xaLogCompactSize) {
+        if (xaLogCompactSize > 0) {
+            this.xaLogCompactSize = xaLogCompactSize;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "xaLogCompactSize", xaLogCompactSize, this.xaLogCompactSize));
+        }
+    }
+
     public long getXaIdCheckPeriod() {
         return xaIdCheckPeriod;
     }
@@ -1375,6 +1538,37 @@ public final class SystemConfig {
         }
     }
 
+    public boolean isUseSpillCompression() {
+        return useSpillCompression;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseSpillCompression(boolean useSpillCompression) {
+        this.useSpillCompression = useSpillCompression;
+    }
+
+    public boolean isUseErParentNegativeCache() {
+        return useErParentNegativeCache;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseErParentNegativeCache(boolean useErParentNegativeCache) {
+        this.useErParentNegativeCache = useErParentNegativeCache;
+    }
+
+    public int getOrderByTopNMaxRows() {
+        return orderByTopNMaxRows;
+    }
+
+    @SuppressWarnings("unused")
+    public void setOrderByTopNMaxRows(int orderByTopNMaxRows) {
+        if (orderByTopNMaxRows >= 0) {
+            this.orderByTopNMaxRows = orderByTopNMaxRows;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "orderByTopNMaxRows", orderByTopNMaxRows, this.orderByTopNMaxRows));
+        }
+    }
+
 
     public String getViewPersistenceConfBaseDir() {
         return (this.getHomePath() + File.separatorChar + viewPersistenceConfBaseDir + File.separatorChar).replaceAll(File.separator + "+", File.separator);
@@ -1433,6 +1627,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getUseVirtualThread() {
+        return useVirtualThread;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseVirtualThread(int useVirtualThread) {
+        if (useVirtualThread >= 0 && useVirtualThread <= 1) {
+            this.useVirtualThread = useVirtualThread;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useVirtualThread", useVirtualThread, this.useVirtualThread));
+        }
+    }
+
     public int getUseThreadUsageStat() {
         return useThreadUsageStat;
     }
@@ -1460,6 +1667,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getUseWorkStealingQueue() {
+        return useWorkStealingQueue;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseWorkStealingQueue(int useWorkStealingQueue) {
+        if (useWorkStealingQueue >= 0 && useWorkStealingQueue <= 1) {
+            this.useWorkStealingQueue = useWorkStealingQueue;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useWorkStealingQueue", useWorkStealingQueue, this.useWorkStealingQueue));
+        }
+    }
+
     public int getUseSerializableMode() {
         return useSerializableMode;
     }
@@ -1754,6 +1974,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getEnableLoadDataStream() {
+        return enableLoadDataStream;
+    }
+
+    @SuppressWarnings("unused")
+    public void setEnableLoadDataStream(int enableLoadDataStream) {
+        if (enableLoadDataStream >= 0 && enableLoadDataStream <= 1) {
+            this.enableLoadDataStream = enableLoadDataStream;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "enableLoadDataStream", enableLoadDataStream, this.enableLoadDataStream));
+        }
+    }
+
     public boolean isInSubQueryTransformToJoin() {
         return inSubQueryTransformToJoin;
     }
@@ -1908,10 +2141,15 @@ public final class SystemConfig {
                 ", serverBacklog=" + serverBacklog +
                 ", maxCon=" + maxCon +
                 ", useCompression=" + useCompression +
+                ", protocolCompressionAlgorithms=" + protocolCompressionAlgorithms +
+                ", zstdCompressionLevel=" + zstdCompressionLevel +
                 ", capClientFoundRows=" + capClientFoundRows +
                 ", usingAIO=" + usingAIO +
+                ", maxGatheringWriteSize=" + maxGatheringWriteSize +
                 ", useThreadUsageStat=" + useThreadUsageStat +
+                ", useVirtualThread=" + useVirtualThread +
                 ", usePerformanceMode=" + usePerformanceMode +
+                ", useWorkStealingQueue=" + useWorkStealingQueue +
                 ", useSerializableMode=" + useSerializableMode +
                 ", useCostTimeStat=" + useCostTimeStat +
                 ", maxCostStatSize=" + maxCostStatSize +
@@ -1928,10 +2166,13 @@ public final class SystemConfig {
                 ", recordTxn=" + recordTxn +
                 ", transactionLogBaseDir=" + transactionLogBaseDir +
                 ", transactionLogBaseName=" + transactionLogBaseName +
+                ", transactionLogQueueSize=" + transactionLogQueueSize +
+                ", transactionLogFsyncPeriod=" + transactionLogFsyncPeriod +
                 ", xaRecoveryLogBaseDir=" + xaRecoveryLogBaseDir +
                 ", xaRecoveryLogBaseName=" + xaRecoveryLogBaseName +
                 ", xaSessionCheckPeriod=" + xaSessionCheckPeriod +
                 ", xaLogCleanPeriod=" + xaLogCleanPeriod +
+                ", xaLogCompactSize=" + xaLogCompactSize +
                 ", useJoinStrategy=" + useJoinStrategy +
                 ", nestLoopConnSize=" + nestLoopConnSize +
                 ", nestLoopRowsSize=" + nestLoopRowsSize +
@@ -1957,6 +2198,9 @@ public final class SystemConfig {
                 ", joinQueueSize=" + joinQueueSize +
                 ", mergeQueueSize=" + mergeQueueSize +
                 ", orderByQueueSize=" + orderByQueueSize +
+                ", orderByTopNMaxRows=" + orderByTopNMaxRows +
+                ", useSpillCompression=" + useSpillCompression +
+                ", useErParentNegativeCache=" + useErParentNegativeCache +
                 ", enableSlowLog=" + enableSlowLog +
                 ", slowLogBaseDir=" + slowLogBaseDir +
                 ", slowLogBaseName=" + slowLogBaseName +
@@ -1968,6 +2212,7 @@ public final class SystemConfig {
                 ", maxCharsPerColumn=" + maxCharsPerColumn +
                 ", maxRowSizeToFile=" + maxRowSizeToFile +
                 ",enableBatchLoadData=" + enableBatchLoadData +
+                ", enableLoadDataStream=" + enableLoadDataStream +
                 ", xaRetryCount=" + xaRetryCount +
                 ", enableFlowControl=" + enableFlowControl +
                 ", flowControlHighLevel=" + flowControlHighLevel +
@@ -1990,6 +2235,10 @@ public final class SystemConfig {
                 ", statisticQueueSize=" + statisticQueueSize +
                 ", inSubQueryTransformToJoin=" + inSubQueryTransformToJoin +
                 ", joinStrategyType=" + joinStrategyType +
+                ", useHashJoin=" + useHashJoin +
+                ", useHashDistinct=" + useHashDistinct +
+                ", sequencePrefetchWatermark=" + sequencePrefetchWatermark +
+                ", sequenceMaxSegmentBatch=" + sequenceMaxSegmentBatch +
                 ", closeHeartBeatRecord=" + closeHeartBeatRecord +
                 ", serverCertificateKeyStoreUrl=" + serverCertificateKeyStoreUrl +
                 ", serverCertificateKeyStorePwd=" + serverCertificateKeyStorePwd +
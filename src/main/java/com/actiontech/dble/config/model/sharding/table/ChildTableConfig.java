@@ -15,6 +15,7 @@ public class ChildTableConfig extends BaseTableConfig {
     private final String parentColumn;
     private final String incrementColumn;
     private final String locateRTableKeySql;
+    private final String locateRTableKeysSql;
     private final ShardingTableConfig directRouteTC;
 
     public ChildTableConfig(String name, int maxLimit, List<String> shardingNodes, BaseTableConfig parentTC, String joinColumn, String parentColumn, String incrementColumn, boolean specifyCharset) {
@@ -25,9 +26,11 @@ public class ChildTableConfig extends BaseTableConfig {
         this.incrementColumn = incrementColumn;
         this.directRouteTC = findDirectRouteTC();
         if (directRouteTC == null) {
-            locateRTableKeySql = genLocateRootParentSQL();
+            locateRTableKeySql = genLocateRootParentSQL("=", false);
+            locateRTableKeysSql = genLocateRootParentSQL(" IN ", true);
         } else {
             locateRTableKeySql = null;
+            locateRTableKeysSql = null;
         }
     }
 
@@ -68,7 +71,11 @@ public class ChildTableConfig extends BaseTableConfig {
         }
     }
 
-    private String genLocateRootParentSQL() {
+    /**
+     * @param selectJoinKey select the parent column joined by this table instead of the column of the root parent,
+     *                      so that every row returned by IN (...) tells which join key it belongs to
+     */
+    private String genLocateRootParentSQL(String operator, boolean selectJoinKey) {
         BaseTableConfig tb = this;
         StringBuilder tableSb = new StringBuilder();
         StringBuilder condition = new StringBuilder();
@@ -79,7 +86,7 @@ public class ChildTableConfig extends BaseTableConfig {
             ChildTableConfig thisTable = (ChildTableConfig) tb;
             tableSb.append(thisTable.parentTC.name).append(',');
             if (level == 0) {
-                latestCond = " " + thisTable.parentTC.getName() + '.' + thisTable.parentColumn + "=";
+                latestCond = " " + thisTable.parentTC.getName() + '.' + thisTable.parentColumn + operator;
             } else {
                 String relation = thisTable.parentTC.getName() + '.' + thisTable.parentColumn + '=' + tb.name + '.' + thisTable.joinColumn;
                 condition.append(relation).append(" AND ");
@@ -88,11 +95,11 @@ public class ChildTableConfig extends BaseTableConfig {
             prevTC = tb;
             tb = thisTable.parentTC;
         }
-        ChildTableConfig firstGenChildTable = (ChildTableConfig) prevTC;
+        ChildTableConfig selectTable = selectJoinKey ? this : (ChildTableConfig) prevTC;
         return "SELECT " +
-                firstGenChildTable.parentTC.name +
+                selectTable.parentTC.name +
                 '.' +
-                firstGenChildTable.parentColumn +
+                selectTable.parentColumn +
                 " FROM " +
                 tableSb.substring(0, tableSb.length() - 1) +
                 " WHERE " +
@@ -131,6 +138,13 @@ public class ChildTableConfig extends BaseTableConfig {
         return locateRTableKeySql;
     }
 
+    /**
+     * the same as locateRTableKeySql, but followed by the list of the join keys, e.g. (1,2,3)
+     */
+    public String getLocateRTableKeysSql() {
+        return locateRTableKeysSql;
+    }
+
     public ShardingTableConfig getDirectRouteTC() {
         return directRouteTC;
     }
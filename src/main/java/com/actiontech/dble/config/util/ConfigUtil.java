@@ -20,6 +20,7 @@ import com.actiontech.dble.services.manager.response.ChangeItem;
 import com.actiontech.dble.services.manager.response.ChangeItemType;
 import com.actiontech.dble.services.manager.response.ChangeType;
 import com.actiontech.dble.singleton.TraceManager;
+import com.actiontech.dble.util.ExecutorUtil;
 import com.actiontech.dble.util.StringUtil;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -369,7 +370,7 @@ public final class ConfigUtil {
 
     private static void getAndSyncKeyVariablesForDataSources(List<ChangeItem> changeItemList, Map<VariableMapKey, Future<KeyVariables>> keyVariablesTaskMap,
                                                              boolean needSync, List<PhysicalDbInstance> dbInstanceList) throws InterruptedException {
-        ExecutorService service = Executors.newFixedThreadPool(changeItemList.size());
+        ExecutorService service = ExecutorUtil.createForBlockingJob("getKeyVariables", changeItemList.size());
         for (ChangeItem changeItem : changeItemList) {
             Object item = changeItem.getItem();
             if (changeItem.getItemType() == ChangeItemType.PHYSICAL_DB_INSTANCE) {
@@ -407,7 +408,7 @@ public final class ConfigUtil {
 
     private static void getAndSyncKeyVariablesForDataSources(Map<String, PhysicalDbGroup> dbGroups, Map<VariableMapKey, Future<KeyVariables>> keyVariablesTaskMap,
                                                              boolean needSync, List<PhysicalDbInstance> dbInstanceList) throws InterruptedException {
-        ExecutorService service = Executors.newFixedThreadPool(dbGroups.size());
+        ExecutorService service = ExecutorUtil.createForBlockingJob("getKeyVariables", dbGroups.size());
         for (Map.Entry<String, PhysicalDbGroup> entry : dbGroups.entrySet()) {
             String hostName = entry.getKey();
             PhysicalDbGroup pool = entry.getValue();
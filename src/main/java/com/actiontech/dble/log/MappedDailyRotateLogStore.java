@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.log;
+
+import com.actiontech.dble.util.MappedBufferUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * the same files as DailyRotateLogStore, but the current file is mapped with the size of the rotation,
+ * so the text is encoded into the page cache directly without the copies and the write calls.
+ * the file is truncated to the written size when it is rotated or closed, a file left by a crash
+ * ends with zeros, which are trimmed when it is opened again.
+ * not thread safe, written by one thread.
+ */
+public class MappedDailyRotateLogStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedDailyRotateLogStore.class);
+    private static final String FILE_SEPARATOR = String.valueOf(File.separatorChar);
+    private static final int TRIM_BUFFER_SIZE = 8192;
+    private final String prefix;
+    private final String suffix;
+    private final String fileName;
+    private final long maxFileSize;
+    private final CharsetEncoder encoder;
+    private final Calendar cal;
+    private final SimpleDateFormat dateFormat;
+    private int currentIndex;
+    private long nextCheckTime;
+    private Date now;
+    private String dateString;
+    private RandomAccessFile file;
+    private MappedByteBuffer segment;
+    private int syncedPosition;
+
+    /**
+     * @param rotateSize unit:M
+     */
+    public MappedDailyRotateLogStore(String baseDir, String baseName, String suffix, int rotateSize) {
+        if (!baseDir.endsWith(FILE_SEPARATOR)) {
+            baseDir += FILE_SEPARATOR;
+        }
+        this.prefix = baseDir + baseName;
+        this.suffix = suffix;
+        this.fileName = this.prefix + "." + suffix;
+        // a mapping is limited to 2G
+        this.maxFileSize = Math.min(1024L * 1024 * rotateSize, Integer.MAX_VALUE);
+        this.encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.cal = Calendar.getInstance();
+        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    }
+
+    public void open() throws IOException {
+        File f = new File(fileName);
+        FileUtils.makeParentDirs(f);
+        if (f.exists() && System.currentTimeMillis() > f.lastModified()) {
+            now = new Date(f.lastModified());
+        } else {
+            now = new Date();
+        }
+        nextCheckTime = calculateNextCheckTime(now);
+        dateString = dateFormat.format(now);
+        if (f.exists() && trimPreallocatedTail(f) > 0) {
+            indexRollOver();
+        } else {
+            openSegment();
+        }
+    }
+
+    /**
+     * encode the chars into the file, the text is split into the next file if the current one is full
+     *
+     * @return the written bytes
+     */
+    public long write(CharBuffer src, long time) throws IOException {
+        if (time >= nextCheckTime) {
+            now.setTime(time);
+            nextCheckTime = calculateNextCheckTime(now);
+            dateRollOver();
+        }
+        long written = 0;
+        int start = segment.position();
+        encoder.reset();
+        while (encoder.encode(src, segment, true).isOverflow()) {
+            written += segment.position() - start;
+            indexRollOver();
+            start = 0;
+        }
+        while (encoder.flush(segment).isOverflow()) {
+            written += segment.position() - start;
+            indexRollOver();
+            start = 0;
+        }
+        return written + segment.position() - start;
+    }
+
+    /**
+     * @return the bytes which are written since the last force
+     */
+    public int getUnsyncedSize() {
+        return segment == null ? 0 : segment.position() - syncedPosition;
+    }
+
+    public void force() {
+        if (segment != null && segment.position() > syncedPosition) {
+            segment.force();
+            syncedPosition = segment.position();
+        }
+    }
+
+    public void close() {
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            LOGGER.warn("close the log file " + fileName + " error", e);
+        }
+    }
+
+    private void dateRollOver() throws IOException {
+        if (segment.position() > 0) {
+            indexRollOver();
+        }
+        dateString = dateFormat.format(now);
+        currentIndex = 0;
+    }
+
+    private void indexRollOver() throws IOException {
+        currentIndex++;
+        File target;
+        while (true) {
+            target = new File(buildRollFileName(currentIndex));
+            if (target.exists()) {
+                currentIndex++;
+            } else {
+                break;
+            }
+        }
+        closeSegment();
+        if (!new File(fileName).renameTo(target)) {
+            LOGGER.warn("rename the log file {} to {} failed", fileName, target);
+        }
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        file = new RandomAccessFile(fileName, "rw");
+        segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, maxFileSize);
+        syncedPosition = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        int size = segment.position();
+        force();
+        // released at once, or the file can't be truncated and renamed on some systems
+        MappedBufferUtil.unmap(segment);
+        segment = null;
+        try {
+            file.getChannel().truncate(size);
+        } finally {
+            file.close();
+            file = null;
+        }
+    }
+
+    // returns the size after trimming
+    private static long trimPreallocatedTail(File f) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            ByteBuffer buffer = ByteBuffer.allocate(TRIM_BUFFER_SIZE);
+            FileChannel channel = raf.getChannel();
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - TRIM_BUFFER_SIZE);
+                buffer.clear();
+                buffer.limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                int last = buffer.position() - 1;
+                while (last >= 0 && buffer.get(last) == 0) {
+                    last--;
+                }
+                if (last >= 0) {
+                    end = start + last + 1;
+                    break;
+                }
+                end = start;
+            }
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            return end;
+        }
+    }
+
+    private String buildRollFileName(int index) {
+        return prefix + '_' + dateString + '.' + index + '.' + suffix;
+    }
+
+    private long calculateNextCheckTime(Date date) {
+        cal.setTime(date);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        cal.add(Calendar.DATE, 1);
+        return cal.getTimeInMillis();
+    }
+}
@@ -7,12 +7,18 @@ package com.actiontech.dble.log.transaction;
 
 import com.actiontech.dble.config.model.user.UserName;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * the slot of the transaction log ring buffer, it is reused for the following records.
+ */
 public class TxnBinaryLog {
     private UserName user;
     private String host;
     private String schema;
     private long xid;
-    private String executeTime;
+    private long executeTime;
     private String query;
     private long connId;
 
@@ -56,11 +62,11 @@ public class TxnBinaryLog {
         this.xid = xid;
     }
 
-    public String getExecuteTime() {
+    public long getExecuteTime() {
         return executeTime;
     }
 
-    public void setExecuteTime(String executeTime) {
+    public void setExecuteTime(long executeTime) {
         this.executeTime = executeTime;
     }
 
@@ -72,12 +78,35 @@ public class TxnBinaryLog {
         this.query = query;
     }
 
+    /**
+     * @param formattedSecond the executeTime formatted as yyyy-MM-dd HH:mm:ss
+     */
+    public void appendTo(StringBuilder sb, String formattedSecond) {
+        int millis = (int) (executeTime % 1000);
+        sb.append(formattedSecond).append(',');
+        if (millis < 100) {
+            sb.append('0');
+        }
+        if (millis < 10) {
+            sb.append('0');
+        }
+        sb.append(millis);
+        sb.append(", ConnID:").append(connId).append(", XID:").append(xid).append(", ");
+        sb.append("MySQL user '").append(user).append("'@'").append(host).append("', ");
+        sb.append(" Current schema `").append(schema).append("`, Current query \n").append(query).append('\n');
+    }
+
+    public void clear() {
+        user = null;
+        host = null;
+        schema = null;
+        query = null;
+    }
+
     @Override
     public String toString() {
-        String builder = executeTime + ", ConnID:" + connId + ", XID:" + xid + ", " +
-                "MySQL user " + "'" + user +
-                "'" + "@'" + host + "', " + " Current schema `" + schema +
-                "`, " + "Current query " + "\n" + query + "\n";
-        return builder;
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(executeTime)));
+        return sb.toString();
     }
 }
@@ -6,90 +6,241 @@
 package com.actiontech.dble.log.transaction;
 
 import com.actiontech.dble.config.model.SystemConfig;
-import com.actiontech.dble.log.DailyRotateLogStore;
-
+import com.actiontech.dble.log.MappedDailyRotateLogStore;
 import com.actiontech.dble.services.mysqlsharding.ShardingService;
 import com.actiontech.dble.util.TimeUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lmax.disruptor.*;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
-import java.text.DateFormat;
+import java.nio.CharBuffer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-public class TxnLogProcessor extends Thread {
+/**
+ * the transaction log is written by one thread through a disruptor, the records are encoded into the mapped file
+ * and forced to the disk with group commit: at the end of every batch if transactionLogFsyncPeriod is 0,
+ * or at most once per transactionLogFsyncPeriod milliseconds.
+ */
+public class TxnLogProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(TxnLogProcessor.class);
-    private final DateFormat dateFormat;
-    private BlockingQueue<TxnBinaryLog> queue;
-    private DailyRotateLogStore store;
+    private static final long DEFAULT_WAIT_TIMEOUT = 1000L;
+    private final int ringBufferSize;
+    private final long fsyncPeriod;
+    private final TxnLogEventHandler handler;
+    private volatile Disruptor<TxnBinaryLog> disruptor;
 
     public TxnLogProcessor() {
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss,SSS");
-        this.queue = new LinkedBlockingQueue<>(256);
-        this.store = new DailyRotateLogStore(SystemConfig.getInstance().getTransactionLogBaseDir(), SystemConfig.getInstance().getTransactionLogBaseName(), "log", SystemConfig.getInstance().getTransactionRotateSize(), null);
+        this.ringBufferSize = SystemConfig.getInstance().getTransactionLogQueueSize();
+        this.fsyncPeriod = SystemConfig.getInstance().getTransactionLogFsyncPeriod();
+        MappedDailyRotateLogStore store = new MappedDailyRotateLogStore(SystemConfig.getInstance().getTransactionLogBaseDir(), SystemConfig.getInstance().getTransactionLogBaseName(), "log", SystemConfig.getInstance().getTransactionRotateSize());
+        this.handler = new TxnLogEventHandler(store, fsyncPeriod);
     }
 
-    @Override
-    public void run() {
-        TxnBinaryLog log = null;
-        long flushTime = TimeUtil.currentTimeMillis();
-        try {
-            store.open();
-            for (; ; ) {
-                while ((log = queue.poll()) != null) {
-                    writeLog(log);
-                }
-                long interval = TimeUtil.currentTimeMillis() - flushTime;
-                if (interval > 1000) {
-                    store.force(false);
-                    flushTime = TimeUtil.currentTimeMillis();
+    public void start() {
+        // wake up the writer when idle, so the records are still forced in time and the rate is refreshed
+        long waitTimeout = fsyncPeriod > 0 ? fsyncPeriod : DEFAULT_WAIT_TIMEOUT;
+        Disruptor<TxnBinaryLog> temp = new Disruptor<>(TxnBinaryLog::new, ringBufferSize, new ThreadFactoryBuilder().setNameFormat("TxnLogProcessor").build(),
+                ProducerType.MULTI, new TimeoutBlockingWaitStrategy(waitTimeout, TimeUnit.MILLISECONDS));
+        temp.handleEventsWith(handler);
+        temp.setDefaultExceptionHandler(new TxnLogExceptionHandler());
+        temp.start();
+        disruptor = temp;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    public void stop() {
+        final Disruptor<TxnBinaryLog> temp = disruptor;
+        if (temp == null) {
+            return;
+        }
+        disruptor = null;
+        // the writer drains the ring buffer, forces and truncates the file
+        temp.shutdown();
+    }
+
+    public void putTxnLog(ShardingService service, String sql) {
+        final Disruptor<TxnBinaryLog> temp = disruptor;
+        if (temp == null) {
+            return;
+        }
+        RingBuffer<TxnBinaryLog> ringBuffer = temp.getRingBuffer();
+        if (!ringBuffer.tryPublishEvent(TRANSLATOR, service, sql)) {
+            // the writer falls behind, the producers are blocked instead of queuing up the records in memory
+            ringBuffer.publishEvent(TRANSLATOR, service, sql);
+        }
+    }
+
+    /**
+     * @return the count of the records waiting to be written
+     */
+    public long getPendingCount() {
+        final Disruptor<TxnBinaryLog> temp = disruptor;
+        if (temp == null) {
+            return 0;
+        }
+        return Math.max(0, temp.getRingBuffer().getCursor() - handler.writtenSequence);
+    }
+
+    /**
+     * @return how many milliseconds the written records fall behind the executing ones
+     */
+    public long getLag() {
+        if (getPendingCount() == 0) {
+            return 0;
+        }
+        return Math.max(0, TimeUtil.currentTimeMillis() - handler.lastWrittenTime);
+    }
+
+    public long getBytesPerSecond() {
+        return handler.bytesPerSecond;
+    }
+
+    private static final EventTranslatorTwoArg<TxnBinaryLog, ShardingService, String> TRANSLATOR = new EventTranslatorTwoArg<TxnBinaryLog, ShardingService, String>() {
+        @Override
+        public void translateTo(TxnBinaryLog log, long sequence, ShardingService service, String sql) {
+            log.setUser(service.getUser());
+            log.setHost(service.getConnection().getHost());
+            log.setSchema(service.getSchema());
+            log.setExecuteTime(System.currentTimeMillis());
+            log.setConnId(service.getConnection().getId());
+            log.setXid(service.getTxId());
+            log.setQuery(sql);
+        }
+    };
+
+    private static final class TxnLogEventHandler implements EventHandler<TxnBinaryLog>, TimeoutHandler, LifecycleAware {
+        private static final long RATE_WINDOW = 1000L;
+        private final MappedDailyRotateLogStore store;
+        private final long fsyncPeriod;
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        private final Date date = new Date();
+        private final StringBuilder sb = new StringBuilder(256);
+        private char[] chars = new char[256];
+        private CharBuffer charBuffer = CharBuffer.wrap(chars);
+        private long formattedSecond = -1;
+        private String formattedTime;
+        private long lastForceTime = TimeUtil.currentTimeMillis();
+        private long rateWindowStart = TimeUtil.currentTimeMillis();
+        private long rateWindowBytes;
+        private boolean opened = false;
+        private volatile long writtenSequence = -1;
+        private volatile long lastWrittenTime;
+        private volatile long bytesPerSecond;
+
+        TxnLogEventHandler(MappedDailyRotateLogStore store, long fsyncPeriod) {
+            this.store = store;
+            this.fsyncPeriod = fsyncPeriod;
+        }
+
+        @Override
+        public void onStart() {
+            try {
+                store.open();
+                opened = true;
+            } catch (IOException e) {
+                LOGGER.warn("open transaction log error, the transaction log is not recorded", e);
+            }
+        }
+
+        @Override
+        public void onShutdown() {
+            if (opened) {
+                store.close();
+                opened = false;
+            }
+        }
+
+        @Override
+        public void onEvent(TxnBinaryLog log, long sequence, boolean endOfBatch) throws Exception {
+            try {
+                if (opened) {
+                    write(log);
                 }
-                try {
-                    log = queue.take();
-                } catch (InterruptedException e) {
-                    //ignore error
+            } finally {
+                log.clear();
+                writtenSequence = sequence;
+            }
+            if (endOfBatch) {
+                long now = TimeUtil.currentTimeMillis();
+                if (now - lastForceTime >= fsyncPeriod) {
+                    force(now);
                 }
-                writeLog(log);
+                updateRate(now);
             }
-        } catch (IOException e) {
-            LOGGER.info("transaction log error:", e);
-            store.close();
         }
-    }
 
-    private void writeLog(TxnBinaryLog log) throws IOException {
-        if (log == null)
-            return;
-        byte[] data = null;
-        try {
-            data = log.toString().getBytes("utf-8");
-        } catch (UnsupportedEncodingException e) {
-            return;
+        @Override
+        public void onTimeout(long sequence) {
+            long now = TimeUtil.currentTimeMillis();
+            force(now);
+            updateRate(now);
+        }
+
+        private void write(TxnBinaryLog log) throws IOException {
+            long second = log.getExecuteTime() / 1000;
+            if (second != formattedSecond) {
+                date.setTime(second * 1000);
+                formattedTime = dateFormat.format(date);
+                formattedSecond = second;
+            }
+            sb.setLength(0);
+            log.appendTo(sb, formattedTime);
+            int length = sb.length();
+            if (length > chars.length) {
+                chars = new char[Math.max(length, chars.length << 1)];
+                charBuffer = CharBuffer.wrap(chars);
+            }
+            sb.getChars(0, length, chars, 0);
+            charBuffer.clear();
+            charBuffer.limit(length);
+            rateWindowBytes += store.write(charBuffer, log.getExecuteTime());
+            lastWrittenTime = log.getExecuteTime();
+            if (length > 64 * 1024) {
+                // don't keep the memory of a huge query
+                sb.setLength(0);
+                sb.trimToSize();
+                chars = new char[256];
+                charBuffer = CharBuffer.wrap(chars);
+            }
+        }
+
+        private void force(long now) {
+            if (opened && store.getUnsyncedSize() > 0) {
+                store.force();
+            }
+            lastForceTime = now;
+        }
+
+        private void updateRate(long now) {
+            long interval = now - rateWindowStart;
+            if (interval >= RATE_WINDOW) {
+                bytesPerSecond = rateWindowBytes * 1000 / interval;
+                rateWindowBytes = 0;
+                rateWindowStart = now;
+            }
         }
-        ByteBuffer buffer = ByteBuffer.wrap(data);
-        store.write(buffer);
     }
 
-    public void putTxnLog(ShardingService service, String sql) {
-        TxnBinaryLog log = new TxnBinaryLog();
-        log.setUser(service.getUser());
-        log.setHost(service.getConnection().getHost());
-        log.setSchema(service.getSchema());
-        Date date = new Date();
-        date.setTime(System.currentTimeMillis());
-        log.setExecuteTime(dateFormat.format(date));
-        log.setConnId(service.getConnection().getId());
-        log.setXid(service.getTxId());
-        log.setQuery(sql);
-        try {
-            this.queue.put(log);
-        } catch (InterruptedException e) {
-            //ignore error
+    private static final class TxnLogExceptionHandler implements ExceptionHandler {
+        @Override
+        public void handleEventException(Throwable ex, long sequence, Object event) {
+            LOGGER.warn("transaction log error, sequence:" + sequence, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            LOGGER.warn("Exception during onStart for transaction log's disruptor", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            LOGGER.warn("Exception during onShutdown for transaction log's disruptor", ex);
         }
     }
 }
@@ -5,6 +5,7 @@
 package com.actiontech.dble.net;
 
 import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.backend.mysql.store.SpillStatistic;
 import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
 import com.actiontech.dble.net.connection.BackendConnection;
 import com.actiontech.dble.net.connection.FrontendConnection;
@@ -48,6 +49,13 @@ public abstract class Session {
         return null;
     }
 
+    /**
+     * @return null if the temp files written by the handler is not traced
+     */
+    public SpillStatistic getSpillStatistic(DMLResponseHandler handler) {
+        return null;
+    }
+
     public void setRouteResultToTrace(RouteResultsetNode[] nodes) {
 
     }
@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.compress;
+
+/**
+ * the algorithm of the payload of the compressed packet
+ */
+public interface CompressionCodec {
+
+    String getName();
+
+    /**
+     * the length of dst which is large enough for the compressed data of len bytes
+     */
+    int maxCompressedLength(int len);
+
+    /**
+     * @return the length of the compressed data written into dst from 0
+     */
+    int compress(byte[] src, int off, int len, byte[] dst);
+
+    /**
+     * the length of dst must be the length of the data before compression
+     */
+    void decompress(byte[] src, int off, int len, byte[] dst);
+}
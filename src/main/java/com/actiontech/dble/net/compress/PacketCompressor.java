@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.compress;
+
+import com.actiontech.dble.backend.mysql.BufferUtil;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.connection.AbstractConnection;
+import com.actiontech.dble.util.CompressUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the compressed protocol of one connection, see CompressUtil for the format of the compressed packet.
+ * <p>
+ * every MySQL packet is sent in one compressed packet, the packet at the end of the written data which is not complete
+ * is kept until the next write, so as the packet at the end of the compressed packet received.
+ */
+public final class PacketCompressor {
+    // the scratch for the compressed data, the larger ones are not kept by the threads
+    private static final int MAX_CACHED_SCRATCH = 1024 * 1024;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private final CompressionCodec codec;
+    private final Object compressLock = new Object();
+    private byte[] compressUnfinished;
+    private final Object decompressLock = new Object();
+    private byte[] decompressUnfinished;
+
+    public PacketCompressor(CompressionCodec codec) {
+        this.codec = codec;
+    }
+
+    public CompressionCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * @param algorithm zlib or zstd
+     * @return whether the algorithm is in protocolCompressionAlgorithms and can be used
+     */
+    public static boolean isAlgorithmEnabled(String algorithm) {
+        for (String name : SystemConfig.getInstance().getProtocolCompressionAlgorithms().split(",")) {
+            if (name.trim().equalsIgnoreCase(algorithm)) {
+                return !algorithm.equalsIgnoreCase("zstd") || ZstdCodec.isAvailable();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * compress the MySQL packets in the input buffer, the input buffer is recycled
+     */
+    public ByteBuffer compress(ByteBuffer input, AbstractConnection con) {
+        synchronized (compressLock) {
+            byte[] data = merge(compressUnfinished, input);
+            compressUnfinished = null;
+            con.recycle(input);
+
+            ByteBuffer output = con.allocate();
+            int pos = 0;
+            while (pos < data.length) {
+                int readLength = data.length - pos;
+                int packetLength = readLength > 3 ? ub3(data, pos) + 4 : Integer.MAX_VALUE;
+                if (readLength < packetLength) {
+                    compressUnfinished = Arrays.copyOfRange(data, pos, data.length);
+                    break;
+                }
+                output = writeCompressedPacket(output, data, pos, packetLength, con);
+                pos += packetLength;
+            }
+            return output;
+        }
+    }
+
+    private ByteBuffer writeCompressedPacket(ByteBuffer output, byte[] data, int off, int len, AbstractConnection con) {
+        byte sequenceId = data[off + 3];
+        if (len > CompressUtil.NO_COMPRESS_PACKET_LENGTH) {
+            byte[] scratch = scratch(codec.maxCompressedLength(len));
+            int compressedLength = codec.compress(data, off, len, scratch);
+            // the packet which can't be compressed smaller is sent as it is
+            if (compressedLength < len) {
+                output = con.checkWriteBuffer(output, compressedLength + 7, false);
+                BufferUtil.writeUB3(output, compressedLength);   //length of compressed payload
+                output.put(sequenceId);                            //compressed sequence id
+                BufferUtil.writeUB3(output, len);                 //length of payload before compression
+                output.put(scratch, 0, compressedLength);
+                return output;
+            }
+        }
+        output = con.checkWriteBuffer(output, len + 7, false);
+        BufferUtil.writeUB3(output, len);
+        output.put(sequenceId);
+        BufferUtil.writeUB3(output, 0);                           //length of payload before compression is 0
+        output.put(data, off, len);
+        return output;
+    }
+
+    /**
+     * @param data one compressed packet
+     * @return the complete MySQL packets in it
+     */
+    public List<byte[]> decompress(byte[] data) {
+        int packetLength = ub3(data, 0);  //length of compressed payload
+        int oldLen = ub3(data, 4);        //length of payload before compression
+
+        //return if not compress
+        if (packetLength == data.length - 4) {
+            return Collections.singletonList(data);
+        }
+        synchronized (decompressLock) {
+            if (oldLen == 0) {
+                // Uncompressed Payload.
+                return splitPackets(data, 7, data.length - 7);
+            }
+            // Compressed Payload.
+            byte[] payload = new byte[oldLen];
+            codec.decompress(data, 7, data.length - 7, payload);
+            return splitPackets(payload, 0, payload.length);
+        }
+    }
+
+    private List<byte[]> splitPackets(byte[] payload, int off, int len) {
+        byte[] data = payload;
+        int pos = off;
+        int end = off + len;
+        if (decompressUnfinished != null) {
+            data = Arrays.copyOf(decompressUnfinished, decompressUnfinished.length + len);
+            System.arraycopy(payload, off, data, decompressUnfinished.length, len);
+            decompressUnfinished = null;
+            pos = 0;
+            end = data.length;
+        }
+
+        List<byte[]> packets = new ArrayList<>(1);
+        while (pos < end) {
+            int readLength = end - pos;
+            int packetLength = readLength > 3 ? ub3(data, pos) + 4 : Integer.MAX_VALUE;
+            if (readLength < packetLength) {
+                decompressUnfinished = Arrays.copyOfRange(data, pos, end);
+                break;
+            }
+            if (pos == 0 && packetLength == data.length) {
+                packets.add(data);
+            } else {
+                packets.add(Arrays.copyOfRange(data, pos, pos + packetLength));
+            }
+            pos += packetLength;
+        }
+        return packets;
+    }
+
+    public boolean hasUnfinishedPacket() {
+        synchronized (decompressLock) {
+            return decompressUnfinished != null;
+        }
+    }
+
+    public void clear() {
+        synchronized (compressLock) {
+            compressUnfinished = null;
+        }
+        synchronized (decompressLock) {
+            decompressUnfinished = null;
+        }
+    }
+
+    private static byte[] merge(byte[] unfinished, ByteBuffer input) {
+        input.flip();
+        int offset = unfinished == null ? 0 : unfinished.length;
+        byte[] data = new byte[offset + input.remaining()];
+        if (unfinished != null) {
+            System.arraycopy(unfinished, 0, data, 0, offset);
+        }
+        input.get(data, offset, data.length - offset);
+        input.clear();
+        return data;
+    }
+
+    private static byte[] scratch(int size) {
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length >= size) {
+            return scratch;
+        }
+        scratch = new byte[size];
+        if (size <= MAX_CACHED_SCRATCH) {
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    private static int ub3(byte[] data, int pos) {
+        return (data[pos] & 0xff) | ((data[pos + 1] & 0xff) << 8) | ((data[pos + 2] & 0xff) << 16);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * zlib, the Deflater and Inflater are reset and reused from the pools instead of being created for every packet,
+ * the pools are shared by the connections so the native memory of zlib is not kept by every connection
+ */
+public final class ZlibCodec implements CompressionCodec {
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    public static final ZlibCodec INSTANCE = new ZlibCodec();
+
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private ZlibCodec() {
+    }
+
+    @Override
+    public String getName() {
+        return "zlib";
+    }
+
+    @Override
+    public int maxCompressedLength(int len) {
+        // the same as deflateBound of zlib, with the header and the trailer
+        return len + (len >> 12) + (len >> 14) + (len >> 25) + 19;
+    }
+
+    @Override
+    public int compress(byte[] src, int off, int len, byte[] dst) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater();
+        }
+        try {
+            deflater.setInput(src, off, len);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished() && length < dst.length) {
+                length += deflater.deflate(dst, length, dst.length - length);
+            }
+            if (!deflater.finished()) {
+                throw new IllegalStateException("the buffer of zlib is too small");
+            }
+            return length;
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int off, int len, byte[] dst) {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        try {
+            inflater.setInput(src, off, len);
+            int length = 0;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(dst, length, dst.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary() || length == dst.length)) {
+                    throw new IllegalStateException("the compressed packet is not complete or its length is wrong");
+                }
+                length += n;
+            }
+        } catch (DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * zstd of MySQL 8.0.18+, the level is chosen by the client in the handshake response.
+ * the contexts of zstd are reused from the pools like the Deflater of zlib.
+ * zstd-jni is a native library, it is probed once before use and zstd is not advertised if it can't be loaded
+ */
+public final class ZstdCodec implements CompressionCodec {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZstdCodec.class);
+    public static final int MIN_LEVEL = 1;
+    public static final int MAX_LEVEL = 22;
+    public static final int DEFAULT_LEVEL = 3;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final BlockingQueue<ZstdCompressCtx> COMPRESS_CONTEXTS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<ZstdDecompressCtx> DECOMPRESS_CONTEXTS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final boolean AVAILABLE = probe();
+
+    private final int level;
+
+    public ZstdCodec(int level) {
+        this.level = level < MIN_LEVEL || level > MAX_LEVEL ? DEFAULT_LEVEL : level;
+    }
+
+    /**
+     * @return false if the native library of zstd can't be loaded on this platform
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean probe() {
+        try {
+            // loads the native library
+            Zstd.compressBound(1);
+            return true;
+        } catch (Throwable e) {
+            LOGGER.warn("the native library of zstd can't be loaded, zstd is not advertised in the handshake and the clients use zlib", e);
+            return false;
+        }
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getName() {
+        return "zstd";
+    }
+
+    @Override
+    public int maxCompressedLength(int len) {
+        return (int) Zstd.compressBound(len);
+    }
+
+    @Override
+    public int compress(byte[] src, int off, int len, byte[] dst) {
+        ZstdCompressCtx ctx = COMPRESS_CONTEXTS.poll();
+        if (ctx == null) {
+            ctx = new ZstdCompressCtx();
+        }
+        try {
+            ctx.setLevel(level);
+            return ctx.compressByteArray(dst, 0, dst.length, src, off, len);
+        } finally {
+            if (!COMPRESS_CONTEXTS.offer(ctx)) {
+                ctx.close();
+            }
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int off, int len, byte[] dst) {
+        ZstdDecompressCtx ctx = DECOMPRESS_CONTEXTS.poll();
+        if (ctx == null) {
+            ctx = new ZstdDecompressCtx();
+        }
+        try {
+            int length = ctx.decompressByteArray(dst, 0, dst.length, src, off, len);
+            if (length != dst.length) {
+                throw new IllegalStateException("the length of the decompressed packet is " + length + ", but " + dst.length + " is expected");
+            }
+        } finally {
+            if (!DECOMPRESS_CONTEXTS.offer(ctx)) {
+                ctx.close();
+            }
+        }
+    }
+}
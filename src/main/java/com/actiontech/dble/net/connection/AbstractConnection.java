@@ -16,6 +16,7 @@ import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.IOProcessor;
 import com.actiontech.dble.net.SocketWR;
 import com.actiontech.dble.net.WriteOutTask;
+import com.actiontech.dble.net.compress.PacketCompressor;
 import com.actiontech.dble.net.service.*;
 import com.actiontech.dble.services.BusinessService;
 import com.actiontech.dble.services.TransactionOperate;
@@ -23,7 +24,6 @@ import com.actiontech.dble.services.mysqlauthenticate.MySQLFrontAuthService;
 import com.actiontech.dble.singleton.FlowController;
 import com.actiontech.dble.statistic.sql.StatisticListener;
 import com.actiontech.dble.statistic.stat.FrontActiveRatioStat;
-import com.actiontech.dble.util.CompressUtil;
 import com.actiontech.dble.util.TimeUtil;
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
@@ -65,7 +65,7 @@ public abstract class AbstractConnection implements Connection {
     protected int port;
 
     private volatile ProtoHandler proto;
-    private volatile boolean isSupportCompress;
+    private volatile PacketCompressor compressor;
     private volatile AbstractService service;
 
     protected volatile IOProcessor processor;
@@ -78,6 +78,9 @@ public abstract class AbstractConnection implements Connection {
     protected volatile long lastWriteTime;
     protected long netInBytes;
     protected long netOutBytes;
+    // the write calls to the socket and the buffers of writeQueue written completely by them
+    protected long netOutCalls;
+    protected long netOutBuffers;
     protected long lastLargeMessageTime;
     private int extraPartOfBigPacketCount = 0;
 
@@ -86,8 +89,6 @@ public abstract class AbstractConnection implements Connection {
     protected AtomicBoolean doingGracefulClose = new AtomicBoolean(false);
 
     protected final ConcurrentLinkedQueue<WriteOutTask> writeQueue = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<byte[]> decompressUnfinishedDataQueue = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<byte[]> compressUnfinishedDataQueue = new ConcurrentLinkedQueue<>();
     protected final AtomicInteger writingSize = new AtomicInteger(0);
 
     protected volatile Boolean requestSSL;
@@ -246,7 +247,7 @@ public abstract class AbstractConnection implements Connection {
         boolean hasRemaining = true;
         int offset = 0;
         while (hasRemaining) {
-            ProtoHandlerResult result = proto.handle(dataBuffer, offset, isSupportCompress, isContainSSLData);
+            ProtoHandlerResult result = proto.handle(dataBuffer, offset, compressor != null, isContainSSLData);
             switch (result.getCode()) {
                 case PART_OF_BIG_PACKET:
                     if (!result.isHasMorePacket()) {
@@ -315,12 +316,13 @@ public abstract class AbstractConnection implements Connection {
             LOGGER.warn("front connection{} has been closed,ignore packet.", this);
         } else if (packetData != null) {
             int tmpCount = extraPartOfBigPacketCount;
-            if (!isSupportCompress) {
+            PacketCompressor packetCompressor = compressor;
+            if (packetCompressor == null) {
                 extraPartOfBigPacketCount = 0;
                 pushServiceTask(new NormalServiceTask(packetData, frontService, tmpCount));
             } else {
-                List<byte[]> packs = CompressUtil.decompressMysqlPacket(packetData, decompressUnfinishedDataQueue);
-                if (decompressUnfinishedDataQueue.isEmpty()) {
+                List<byte[]> packs = packetCompressor.decompress(packetData);
+                if (!packetCompressor.hasUnfinishedPacket()) {
                     extraPartOfBigPacketCount = 0;
                 }
                 for (byte[] pack : packs) {
@@ -519,8 +521,9 @@ public abstract class AbstractConnection implements Connection {
         WriteOutTask writeTask;
         ByteBuffer newBuffer = null;
         try {
-            if (isSupportCompress) {
-                newBuffer = CompressUtil.compressMysqlPacket(buffer, this, compressUnfinishedDataQueue);
+            PacketCompressor packetCompressor = compressor;
+            if (packetCompressor != null) {
+                newBuffer = packetCompressor.compress(buffer, this);
                 newBuffer = wrap(newBuffer);
                 writeTask = new WriteOutTask(newBuffer, false);
                 bufferSize = newBuffer.position();
@@ -600,12 +603,9 @@ public abstract class AbstractConnection implements Connection {
             ((FrontendConnection) this).setSkipCheck(false);
         }
 
-        if (!decompressUnfinishedDataQueue.isEmpty()) {
-            decompressUnfinishedDataQueue.clear();
-        }
-
-        if (!compressUnfinishedDataQueue.isEmpty()) {
-            compressUnfinishedDataQueue.clear();
+        PacketCompressor packetCompressor = compressor;
+        if (packetCompressor != null) {
+            packetCompressor.clear();
         }
 
         WriteOutTask task;
@@ -622,6 +622,11 @@ public abstract class AbstractConnection implements Connection {
         FrontActiveRatioStat.getInstance().record(this, r -> r.writeTime(lastWriteTime));
     }
 
+    public void writeCallStatistics(int writtenBuffers) {
+        this.netOutCalls++;
+        this.netOutBuffers += writtenBuffers;
+    }
+
     public void updateLastReadTime() {
         lastReadTime = TimeUtil.currentTimeMillis();
     }
@@ -779,6 +784,14 @@ public abstract class AbstractConnection implements Connection {
         return netOutBytes;
     }
 
+    public long getNetOutCalls() {
+        return netOutCalls;
+    }
+
+    public long getNetOutBuffers() {
+        return netOutBuffers;
+    }
+
     public long getStartupTime() {
         return startupTime;
     }
@@ -791,8 +804,15 @@ public abstract class AbstractConnection implements Connection {
         return lastWriteTime;
     }
 
-    public void setSupportCompress(boolean supportCompress) {
-        this.isSupportCompress = supportCompress;
+    /**
+     * the packets are compressed and decompressed by the compressor after it is set
+     */
+    public void setCompressor(PacketCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    public PacketCompressor getCompressor() {
+        return compressor;
     }
 
     public ProtoHandler getProto() {
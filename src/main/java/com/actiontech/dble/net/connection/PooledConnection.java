@@ -35,6 +35,10 @@ public abstract class PooledConnection extends AbstractConnection {
     public static final Comparator<PooledConnection> LAST_ACCESS_COMPARABLE;
 
     private AtomicBoolean createByWaiter = new AtomicBoolean(false);
+    // whether the connection is in the free stack of the pool, a connection is pushed into the stack at most once
+    private final AtomicBoolean inFreeStack = new AtomicBoolean(false);
+    // false after the connection is removed from the pool, the stale references in free stack and thread local list must be skipped
+    private volatile boolean pooled = false;
 
     static {
         LAST_ACCESS_COMPARABLE = Comparator.comparingLong(entryOne -> entryOne.lastTime);
@@ -128,4 +132,16 @@ public abstract class PooledConnection extends AbstractConnection {
     public AtomicBoolean getCreateByWaiter() {
         return createByWaiter;
     }
+
+    public AtomicBoolean getInFreeStack() {
+        return inFreeStack;
+    }
+
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
 }
@@ -25,9 +25,18 @@ public class BackendCurrentRunnable implements BackendRunnable {
 
     private final Queue<ServiceTask> concurrentBackQueue;
     private final ThreadContext threadContext = new ThreadContext();
+    private final WorkStealingTaskQueue workStealingQueue;
+    private final int lane;
 
     public BackendCurrentRunnable(Queue<ServiceTask> concurrentBackQueue) {
         this.concurrentBackQueue = concurrentBackQueue;
+        if (concurrentBackQueue instanceof WorkStealingTaskQueue) {
+            this.workStealingQueue = (WorkStealingTaskQueue) concurrentBackQueue;
+            this.lane = workStealingQueue.registerWorker();
+        } else {
+            this.workStealingQueue = null;
+            this.lane = 0;
+        }
     }
 
 
@@ -52,7 +61,7 @@ public class BackendCurrentRunnable implements BackendRunnable {
                     LOGGER.debug("interrupt thread:{},concurrentBackQueue:{}", Thread.currentThread().toString(), concurrentBackQueue);
                     break;
                 }
-                while ((task = concurrentBackQueue.poll()) != null) {
+                while ((task = poll()) != null) {
                     //threadUsageStat start
                     long workStart = 0;
                     if (workUsage != null) {
@@ -75,4 +84,8 @@ public class BackendCurrentRunnable implements BackendRunnable {
             }
         }
     }
+
+    private ServiceTask poll() {
+        return workStealingQueue == null ? concurrentBackQueue.poll() : workStealingQueue.poll(lane);
+    }
 }
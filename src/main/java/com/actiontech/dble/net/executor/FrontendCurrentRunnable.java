@@ -24,9 +24,18 @@ public class FrontendCurrentRunnable implements FrontendRunnable {
 
     private final Deque<ServiceTask> frontNormalTasks;
     private final ThreadContext threadContext = new ThreadContext();
+    private final WorkStealingTaskQueue workStealingQueue;
+    private final int lane;
 
     public FrontendCurrentRunnable(Deque<ServiceTask> frontEndTasks) {
         this.frontNormalTasks = frontEndTasks;
+        if (frontEndTasks instanceof WorkStealingTaskQueue) {
+            this.workStealingQueue = (WorkStealingTaskQueue) frontEndTasks;
+            this.lane = workStealingQueue.registerWorker();
+        } else {
+            this.workStealingQueue = null;
+            this.lane = 0;
+        }
     }
 
     @Override
@@ -51,7 +60,7 @@ public class FrontendCurrentRunnable implements FrontendRunnable {
                         LOGGER.debug("interrupt thread:{},frontNormalTasks:{}", Thread.currentThread().toString(), frontNormalTasks);
                     break;
                 }
-                task = frontNormalTasks.poll();
+                task = poll();
 
                 //threadUsageStat start
                 long workStart = 0;
@@ -81,4 +90,8 @@ public class FrontendCurrentRunnable implements FrontendRunnable {
             }
         }
     }
+
+    private ServiceTask poll() {
+        return workStealingQueue == null ? frontNormalTasks.poll() : workStealingQueue.poll(lane);
+    }
 }
@@ -17,6 +17,8 @@ public class ThreadPoolStatistic {
     private static final ThreadPoolStatistic BACKEND_BUSINESS = new ThreadPoolStatistic();
     private static final ThreadPoolStatistic WRITE_TO_BACKEND = new ThreadPoolStatistic();
     private LongAdder completedTaskCount = new LongAdder();
+    // null if the workers share one queue
+    private volatile WorkStealingTaskQueue workStealingQueue;
 
     public static ThreadPoolStatistic getFrontBusiness() {
         return FRONT_BUSINESS;
@@ -34,5 +36,42 @@ public class ThreadPoolStatistic {
         return completedTaskCount;
     }
 
+    public WorkStealingTaskQueue getWorkStealingQueue() {
+        return workStealingQueue;
+    }
+
+    public void setWorkStealingQueue(WorkStealingTaskQueue workStealingQueue) {
+        this.workStealingQueue = workStealingQueue;
+    }
+
+    /**
+     * @return the queue size of every worker, empty if the workers share one queue
+     */
+    public int[] getWorkerQueueSizes() {
+        WorkStealingTaskQueue queue = workStealingQueue;
+        if (queue == null) {
+            return new int[0];
+        }
+        int[] sizes = new int[queue.getLaneCount()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = queue.getLaneSize(i);
+        }
+        return sizes;
+    }
+
+    /**
+     * @return the count of the tasks stolen by every worker, empty if the workers share one queue
+     */
+    public long[] getWorkerStealCounts() {
+        WorkStealingTaskQueue queue = workStealingQueue;
+        if (queue == null) {
+            return new long[0];
+        }
+        long[] counts = new long[queue.getLaneCount()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = queue.getStealCount(i);
+        }
+        return counts;
+    }
 
 }
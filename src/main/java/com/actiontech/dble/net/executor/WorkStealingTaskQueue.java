@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.executor;
+
+import com.actiontech.dble.net.service.ServiceTask;
+import com.google.common.collect.Iterators;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the business task queue of performance mode, split into one lane per worker.
+ * <p>
+ * the tasks of one service always go to the same lane, so a connection is usually handled by the same worker.
+ * a worker takes the tasks from its own lane first and steals from the other lanes when its lane is empty.
+ * the order of the tasks of one service is still kept by the service itself, see PickTaskAlgorithm,
+ * so it doesn't matter which worker takes the task.
+ * the lanes are fixed when created, the workers added later share the lanes.
+ */
+public final class WorkStealingTaskQueue extends AbstractQueue<ServiceTask> implements Deque<ServiceTask> {
+
+    private final ConcurrentLinkedDeque<ServiceTask>[] lanes;
+    private final LongAdder[] steals;
+    private final AtomicInteger workerIndex = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    public WorkStealingTaskQueue(int laneCount) {
+        int count = Math.max(laneCount, 1);
+        this.lanes = new ConcurrentLinkedDeque[count];
+        this.steals = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new ConcurrentLinkedDeque<>();
+            steals[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the lane of the new worker
+     */
+    public int registerWorker() {
+        return workerIndex.getAndIncrement() % lanes.length;
+    }
+
+    /**
+     * take the task of the worker's own lane, or steal the oldest task from the other lanes
+     */
+    public ServiceTask poll(int lane) {
+        ServiceTask task = lanes[lane].pollFirst();
+        if (task != null) {
+            return task;
+        }
+        for (int i = 1; i < lanes.length; i++) {
+            task = lanes[(lane + i) % lanes.length].pollFirst();
+            if (task != null) {
+                steals[lane].increment();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private ConcurrentLinkedDeque<ServiceTask> laneOf(ServiceTask task) {
+        if (lanes.length == 1 || task.getService() == null) {
+            return lanes[0];
+        }
+        int h = System.identityHashCode(task.getService());
+        h ^= h >>> 16;
+        return lanes[(h & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getLaneSize(int lane) {
+        return lanes[lane].size();
+    }
+
+    public long getStealCount(int lane) {
+        return steals[lane].sum();
+    }
+
+    @Override
+    public boolean offer(ServiceTask task) {
+        return offerLast(task);
+    }
+
+    @Override
+    public void addFirst(ServiceTask task) {
+        offerFirst(task);
+    }
+
+    @Override
+    public void addLast(ServiceTask task) {
+        offerLast(task);
+    }
+
+    @Override
+    public boolean offerFirst(ServiceTask task) {
+        return laneOf(task).offerFirst(task);
+    }
+
+    @Override
+    public boolean offerLast(ServiceTask task) {
+        return laneOf(task).offerLast(task);
+    }
+
+    @Override
+    public void push(ServiceTask task) {
+        offerFirst(task);
+    }
+
+    @Override
+    public ServiceTask poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public ServiceTask pollFirst() {
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            ServiceTask task = lane.pollFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ServiceTask pollLast() {
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            ServiceTask task = lanes[i].pollLast();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ServiceTask removeFirst() {
+        ServiceTask task = pollFirst();
+        if (task == null) {
+            throw new NoSuchElementException();
+        }
+        return task;
+    }
+
+    @Override
+    public ServiceTask removeLast() {
+        ServiceTask task = pollLast();
+        if (task == null) {
+            throw new NoSuchElementException();
+        }
+        return task;
+    }
+
+    @Override
+    public ServiceTask pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public ServiceTask peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public ServiceTask peekFirst() {
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            ServiceTask task = lane.peekFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ServiceTask peekLast() {
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            ServiceTask task = lanes[i].peekLast();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ServiceTask getFirst() {
+        ServiceTask task = peekFirst();
+        if (task == null) {
+            throw new NoSuchElementException();
+        }
+        return task;
+    }
+
+    @Override
+    public ServiceTask getLast() {
+        ServiceTask task = peekLast();
+        if (task == null) {
+            throw new NoSuchElementException();
+        }
+        return task;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            if (lane.removeFirstOccurrence(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            if (lanes[i].removeLastOccurrence(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<ServiceTask> iterator() {
+        List<Iterator<ServiceTask>> iterators = new ArrayList<>(lanes.length);
+        for (ConcurrentLinkedDeque<ServiceTask> lane : lanes) {
+            iterators.add(lane.iterator());
+        }
+        return Iterators.concat(iterators.iterator());
+    }
+
+    @Override
+    public Iterator<ServiceTask> descendingIterator() {
+        List<Iterator<ServiceTask>> iterators = new ArrayList<>(lanes.length);
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            iterators.add(lanes[i].descendingIterator());
+        }
+        return Iterators.concat(iterators.iterator());
+    }
+}
@@ -154,6 +154,8 @@ public class AIOSocketWR extends SocketWR {
 
     protected void onWriteFinished(int result) {
         con.writeStatistics(result);
+        ByteBuffer buffer = leftoverWriteTask == null ? null : leftoverWriteTask.getBuffer();
+        con.writeCallStatistics(buffer != null && !buffer.hasRemaining() ? 1 : 0);
         boolean noMoreData = this.write0();
         if (noMoreData) {
             this.doNextWriteCheck();
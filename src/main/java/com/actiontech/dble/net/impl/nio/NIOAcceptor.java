@@ -20,12 +20,9 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.StandardSocketOptions;
 import java.nio.channels.*;
-import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * @author mycat
@@ -33,6 +30,7 @@ import java.util.stream.Collectors;
 public final class NIOAcceptor extends Thread implements SocketAcceptor {
     private static final Logger LOGGER = LoggerFactory.getLogger(NIOAcceptor.class);
     private static final AcceptIdGenerator ID_GENERATOR = new AcceptIdGenerator();
+    private static final int MAX_ACCEPT_ONCE = 64;
 
     private final int port;
     private Selector selector;
@@ -118,25 +116,37 @@ public final class NIOAcceptor extends Thread implements SocketAcceptor {
         }
     }
 
+    /**
+     * accept the pending connections of the backlog, at most MAX_ACCEPT_ONCE ones for one accept event
+     */
     private void accept() {
-        SocketChannel channel = null;
-        try {
-            channel = serverChannel.accept();
-            channel.configureBlocking(false);
-            NIOSocketWR socketWR = new NIOSocketWR();
-            FrontendConnection c = factory.make(channel, socketWR);
-            socketWR.initFromConnection(c);
-            c.setId(ID_GENERATOR.getId());
-            IOProcessor processor = DbleServer.getInstance().nextFrontProcessor();
-            c.setProcessor(processor);
-
-            frontRegisterQueue.offer(c);
-            wakeupFrontedSelector();
-
-        } catch (Exception e) {
-            //if this exception is "SocketException: Invalid argument." , maybe you are doing setOption when the frontendConnection was closed by peer. In most of those cases , you are using SLB/LVS on MACOS, just ignore it.
-            LOGGER.info(getName(), e);
-            closeChannel(channel);
+        for (int i = 0; i < MAX_ACCEPT_ONCE; i++) {
+            SocketChannel channel = null;
+            try {
+                channel = serverChannel.accept();
+                if (channel == null) {
+                    return;
+                }
+                channel.configureBlocking(false);
+                NIOSocketWR socketWR = new NIOSocketWR();
+                FrontendConnection c = factory.make(channel, socketWR);
+                socketWR.initFromConnection(c);
+                c.setId(ID_GENERATOR.getId());
+                IOProcessor processor = DbleServer.getInstance().nextFrontProcessor();
+                c.setProcessor(processor);
+
+                frontRegisterQueue.offer(c);
+                wakeupFrontedSelector();
+
+            } catch (Exception e) {
+                //if this exception is "SocketException: Invalid argument." , maybe you are doing setOption when the frontendConnection was closed by peer. In most of those cases , you are using SLB/LVS on MACOS, just ignore it.
+                LOGGER.info(getName(), e);
+                if (channel == null) {
+                    // accept failed, e.g. too many open files
+                    return;
+                }
+                closeChannel(channel);
+            }
         }
     }
 
@@ -161,12 +171,7 @@ public final class NIOAcceptor extends Thread implements SocketAcceptor {
 
     //wakeup selector
     private void wakeupFrontedSelector() {
-        Map<Thread, Runnable> threadRunnableMap = DbleServer.getInstance().getRunnableMap().get(DbleServer.NIO_FRONT_RW);
-        Map<Runnable, Integer> runnableMap = threadRunnableMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, entry -> ((RW) entry.getValue()).getSelectorKeySize()));
-        Optional<Map.Entry<Runnable, Integer>> min = runnableMap.entrySet().stream().min(Map.Entry.comparingByValue());
-        if (min.isPresent()) {
-            ((RW) min.get().getKey()).wakeUpSelector();
-        } else {
+        if (!RW.wakeUpLeastLoaded(DbleServer.getInstance().getRunnableMap().get(DbleServer.NIO_FRONT_RW))) {
             LOGGER.warn("wakeupFrontedSelector error");
         }
     }
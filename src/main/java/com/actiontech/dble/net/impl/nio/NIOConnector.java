@@ -27,7 +27,6 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 /**
  * @author mycat
@@ -184,12 +183,7 @@ public final class NIOConnector extends Thread implements SocketConnector {
 
     //wakeup selector
     private void wakeupBackendSelector() {
-        Map<Thread, Runnable> threadRunnableMap = DbleServer.getInstance().getRunnableMap().get(DbleServer.NIO_BACKEND_RW);
-        Map<Runnable, Integer> runnableMap = threadRunnableMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, entry -> ((RW) entry.getValue()).getSelectorKeySize()));
-        Optional<Map.Entry<Runnable, Integer>> min = runnableMap.entrySet().stream().min(Map.Entry.comparingByValue());
-        if (min.isPresent()) {
-            ((RW) min.get().getKey()).wakeUpSelector();
-        } else {
+        if (!RW.wakeUpLeastLoaded(DbleServer.getInstance().getRunnableMap().get(DbleServer.NIO_BACKEND_RW))) {
             LOGGER.warn("wakeupBackendSelector error");
         }
     }
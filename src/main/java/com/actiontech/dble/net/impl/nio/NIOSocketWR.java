@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.net.impl.nio;
 
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.SocketWR;
 import com.actiontech.dble.net.WriteOutTask;
 import com.actiontech.dble.net.connection.AbstractConnection;
@@ -17,6 +18,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
@@ -24,6 +27,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class NIOSocketWR extends SocketWR {
     private static final Logger LOGGER = LoggerFactory.getLogger(NIOSocketWR.class);
     public static final int NOT_USED = -1;
+    private static final int MAX_GATHERING_BUFFERS = 64;
     private volatile SelectionKey processKey;
     private static final int OP_NOT_READ = ~SelectionKey.OP_READ;
     private static final int OP_NOT_WRITE = ~SelectionKey.OP_WRITE;
@@ -32,7 +36,10 @@ public class NIOSocketWR extends SocketWR {
     private final AtomicLong writing = new AtomicLong(NOT_USED);
     private ConcurrentLinkedQueue<WriteOutTask> writeQueue;
 
-    private volatile WriteOutTask leftoverWriteTask;
+    // the buffers polled from the writeQueue which are not written completely, only used by the thread holding the writing flag
+    private final ArrayDeque<WriteOutTask> pending = new ArrayDeque<>();
+    private final ByteBuffer[] gathering = new ByteBuffer[MAX_GATHERING_BUFFERS];
+    private WriteOutTask quitTask;
     private volatile boolean writeDataErr = false;
 
     private volatile boolean disableReadForever = false;
@@ -120,7 +127,7 @@ public class NIOSocketWR extends SocketWR {
             this first one is preserved to make ensure forward compatibility.
             if the first one called, the second one will doesn't take any effect, even if the writing flag is marked used by other thread.
              */
-            writing.compareAndSet(threadId, NOT_USED);
+            releaseWriting(threadId);
 
         }
 
@@ -134,21 +141,21 @@ public class NIOSocketWR extends SocketWR {
     }
 
     public boolean registerWrite(ByteBuffer buffer) {
-        final long threadId = Thread.currentThread().getId();
-        while (!writing.compareAndSet(NOT_USED, threadId)) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        leftoverWriteTask = new WriteOutTask(buffer, false);
         if (FlowController.isEnableFlowControl()) {
             con.getWritingSize().addAndGet(buffer.position());
         }
-        buffer.flip();
+        final long threadId = Thread.currentThread().getId();
+        if (!writing.compareAndSet(NOT_USED, threadId)) {
+            // hand over to the thread which is writing, like the other writes
+            writeQueue.offer(new WriteOutTask(buffer, false));
+            doNextWriteCheck();
+            return true;
+        }
+        boolean noMoreData = true;
         try {
-            write0();
+            buffer.flip();
+            pending.addLast(new WriteOutTask(buffer, false));
+            noMoreData = write0();
         } catch (IOException e) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("caught err:", e);
@@ -156,7 +163,10 @@ public class NIOSocketWR extends SocketWR {
             con.close("connection was closed before first register.may be just a heartbeat from SLB/LVS. detail: [" + e.toString() + "]");
             return false;
         } finally {
-            writing.compareAndSet(threadId, NOT_USED);
+            releaseWriting(threadId);
+        }
+        if (!noMoreData || !writeQueue.isEmpty()) {
+            doNextWriteCheck();
         }
         return true;
     }
@@ -202,116 +212,158 @@ public class NIOSocketWR extends SocketWR {
             return false;
         }
         final long threadId = Thread.currentThread().getId();
-        while (!writing.compareAndSet(NOT_USED, threadId)) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
+        if (!writing.compareAndSet(NOT_USED, threadId)) {
+            // another thread is writing
+            return false;
         }
         try {
-            ByteBuffer buffer = leftoverWriteTask == null ? null : leftoverWriteTask.getBuffer();
-            if (buffer != null && buffer.hasRemaining()) {
-                return false;
-            }
-            return writeQueue.isEmpty();
+            return pending.isEmpty() && quitTask == null && writeQueue.isEmpty();
         } finally {
-            writing.set(NOT_USED);
+            releaseWriting(threadId);
         }
-
     }
 
+    /**
+     * write the pending buffers and the buffers in the writeQueue to the socket, several buffers are written by one
+     * gathering write until the socket buffer is full.
+     *
+     * @return true if there is no more data
+     */
     private boolean write0() throws IOException {
-        int written = 0;
-        boolean quitFlag = false;
-        if (leftoverWriteTask != null) {
-            ByteBuffer buffer = leftoverWriteTask.getBuffer();
-            while (buffer.hasRemaining()) {
-                quitFlag = leftoverWriteTask.closeFlag();
-                try {
-                    written = channel.write(buffer);
-                    if (written > 0) {
-                        con.writeStatistics(written);
-                        if (FlowController.isEnableFlowControl()) {
-                            int currentWritingSize = con.getWritingSize().addAndGet(-written);
-                            con.stopFlowControl(currentWritingSize);
-                        }
-                    } else {
-                        break;
-                    }
-                } catch (Throwable e) {
-                    leftoverWriteTask = null;
-                    con.recycle(buffer);
-                    if (!quitFlag) {
-                        throw e;
-                    } else {
-                        con.close(con.getCloseReason());
-                        LOGGER.info("writeDirectly quit error and ignore ");
-                        return true;
-                    }
+        while (true) {
+            int count = gather();
+            if (count == 0) {
+                return quitIfNoPending();
+            }
+            boolean quitFlag = pending.peekLast().closeFlag() && pending.size() == count;
+            long written;
+            try {
+                written = count == 1 ? channel.write(gathering[0]) : channel.write(gathering, 0, count);
+            } catch (Throwable e) {
+                clearPending();
+                if (!quitFlag) {
+                    throw e;
+                } else {
+                    con.close(con.getCloseReason());
+                    LOGGER.info("writeDirectly quit error and ignore ");
+                    return true;
                 }
+            } finally {
+                Arrays.fill(gathering, 0, count, null);
             }
+            if (written > 0) {
+                con.writeStatistics((int) written);
+                if (FlowController.isEnableFlowControl()) {
+                    int currentWritingSize = con.getWritingSize().addAndGet((int) -written);
+                    con.stopFlowControl(currentWritingSize);
+                }
+            }
+            con.writeCallStatistics(recycleWritten());
 
-
-            if (quitFlag) {
-                con.recycle(buffer);
+            if (quitFlag && pending.size() == 1) {
+                // the buffers before the one with close flag are all written
+                clearPending();
                 con.close(con.getCloseReason());
                 return true;
             }
-
-            if (buffer.hasRemaining()) {
+            if (!pending.isEmpty()) {
+                // the socket buffer is full
                 return false;
-            } else {
-                leftoverWriteTask = null;
-                con.recycle(buffer);
+            }
+        }
+    }
+
+    /**
+     * put the pending buffers and the buffers polled from the writeQueue into the array of the gathering write,
+     * until the buffer with close flag or the size limit of one gathering write
+     */
+    private int gather() {
+        int maxSize = SystemConfig.getInstance().getMaxGatheringWriteSize();
+        int maxCount = maxSize == 0 ? 1 : MAX_GATHERING_BUFFERS;
+        int count = 0;
+        long size = 0;
+        for (WriteOutTask task : pending) {
+            ByteBuffer buffer = task.getBuffer();
+            gathering[count++] = buffer;
+            size += buffer.remaining();
+            if (task.closeFlag() || count == maxCount || size >= maxSize) {
+                return count;
             }
         }
         WriteOutTask task;
-        ByteBuffer buffer;
-        while ((task = writeQueue.poll()) != null) {
-            quitFlag = task.closeFlag();
-            buffer = task.getBuffer();
+        while (quitTask == null && (task = writeQueue.poll()) != null) {
+            ByteBuffer buffer = task.getBuffer();
             if (buffer.limit() == 0) {
-                con.recycle(buffer);
-                con.close("quit send");
-                return true;
+                // quit send after the buffers before it are written
+                quitTask = task;
+                break;
             }
-
             buffer.flip();
-            try {
-                while (buffer.hasRemaining()) {
-                    written = channel.write(buffer);
-                    if (written > 0) {
-                        con.writeStatistics(written);
-                        if (FlowController.isEnableFlowControl()) {
-                            int currentWritingSize = con.getWritingSize().addAndGet(-written);
-                            con.stopFlowControl(currentWritingSize);
-                        }
-                    } else {
-                        break;
-                    }
-                }
-            } catch (Throwable e) {
-                con.recycle(buffer);
-                throw e;
+            pending.addLast(task);
+            gathering[count++] = buffer;
+            size += buffer.remaining();
+            if (task.closeFlag() || count == maxCount || size >= maxSize) {
+                break;
             }
+        }
+        return count;
+    }
 
-            if (quitFlag) {
-                con.recycle(buffer);
-                con.close(con.getCloseReason());
-                return true;
-            }
+    private int recycleWritten() {
+        int finished = 0;
+        WriteOutTask task;
+        while ((task = pending.peekFirst()) != null && !task.getBuffer().hasRemaining() && !task.closeFlag()) {
+            pending.pollFirst();
+            con.recycle(task.getBuffer());
+            finished++;
+        }
+        return finished;
+    }
 
-            if (buffer.hasRemaining()) {
-                leftoverWriteTask = task;
-                return false;
-            } else {
-                con.recycle(buffer);
-            }
+    private boolean quitIfNoPending() {
+        if (quitTask != null && pending.isEmpty()) {
+            con.recycle(quitTask.getBuffer());
+            quitTask = null;
+            con.close("quit send");
         }
         return true;
     }
 
+    /**
+     * the connection may be closed while another thread holds the writing flag, so the one releasing the flag
+     * after the close recycles the pending buffers instead.
+     */
+    private void releaseWriting(long threadId) {
+        writing.compareAndSet(threadId, NOT_USED);
+        if (con.isClosed()) {
+            recyclePending();
+        }
+    }
+
+    private void recyclePending() {
+        final long threadId = Thread.currentThread().getId();
+        if (!writing.compareAndSet(NOT_USED, threadId)) {
+            // recycled by the thread holding the writing flag when it is released
+            return;
+        }
+        try {
+            clearPending();
+        } finally {
+            writing.compareAndSet(threadId, NOT_USED);
+        }
+    }
+
+    private void clearPending() {
+        WriteOutTask task;
+        while ((task = pending.pollFirst()) != null) {
+            con.recycle(task.getBuffer());
+        }
+        if (quitTask != null) {
+            con.recycle(quitTask.getBuffer());
+            quitTask = null;
+        }
+    }
+
     private void disableWrite() {
         try {
             SelectionKey key = this.processKey;
@@ -374,7 +426,11 @@ public class NIOSocketWR extends SocketWR {
     @Override
     public void closeSocket() throws IOException {
         clearSelectionKey();
-        channel.close();
+        try {
+            channel.close();
+        } finally {
+            recyclePending();
+        }
     }
 
     @Override
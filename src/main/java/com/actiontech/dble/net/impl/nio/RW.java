@@ -19,6 +19,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.channels.*;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +27,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class RW implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(RW.class);
+    // the max connections registered in one loop, the register queue is shared by the RW threads
+    private static final int MAX_REGISTER_ONCE = 16;
     private Selector selector;
     private final ConcurrentLinkedQueue<AbstractConnection> registerQueue;
     private boolean useThreadUsageStat = false;
@@ -34,7 +37,7 @@ public final class RW implements Runnable {
     protected final AtomicBoolean wakenUp = new AtomicBoolean();
 
     public RW(ConcurrentLinkedQueue queue) throws IOException {
-        this.selector = Selector.open();
+        this.selector = SelectorUtil.openSelector();
         this.registerQueue = queue;
     }
 
@@ -227,13 +230,12 @@ public final class RW implements Runnable {
 
     private void register(Selector finalSelector) {
         AbstractConnection c;
-        if (registerQueue.isEmpty()) {
-            return;
-        }
-        c = registerQueue.poll();
-        if (c == null) {
-            return;
+        for (int i = 0; i < MAX_REGISTER_ONCE && (c = registerQueue.poll()) != null; i++) {
+            register(finalSelector, c);
         }
+    }
+
+    private void register(Selector finalSelector, AbstractConnection c) {
         try {
             ConnectionAssociateThreadManager.getInstance().put(c);
             ((NIOSocketWR) c.getSocketWR()).register(finalSelector);
@@ -261,6 +263,29 @@ public final class RW implements Runnable {
         }
     }
 
+    /**
+     * wake up the RW thread with the fewest keys to register the new connection
+     *
+     * @return false if there is no RW thread
+     */
+    static boolean wakeUpLeastLoaded(Map<Thread, Runnable> rwThreads) {
+        RW least = null;
+        int leastSize = Integer.MAX_VALUE;
+        for (Runnable runnable : rwThreads.values()) {
+            RW rw = (RW) runnable;
+            int size = rw.getSelectorKeySize();
+            if (size < leastSize) {
+                least = rw;
+                leastSize = size;
+            }
+        }
+        if (least == null) {
+            return false;
+        }
+        least.wakeUpSelector();
+        return true;
+    }
+
     public int getSelectorKeySize() {
         if (selector.isOpen()) {
             return selector.keys().size();
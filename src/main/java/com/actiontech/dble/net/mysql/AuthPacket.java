@@ -55,6 +55,7 @@ public class AuthPacket extends MySQLPacket {
     private String authPlugin;
     private String tenant = "";
     private boolean multStatementAllow = false;
+    private int zstdCompressionLevel;
 
     private boolean isSSLRequest = false;
 
@@ -82,6 +83,10 @@ public class AuthPacket extends MySQLPacket {
         if (checkSSLRequest(mm)) {
             return;
         }
+        if ((clientFlags & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0) {
+            // the last field of the packet
+            zstdCompressionLevel = data[data.length - 1] & 0xff;
+        }
 
         user = mm.readStringWithNull(); //user name end by a [00]
         password = mm.readBytesWithLength(); //CLIENT_SECURE_CONNECTION
@@ -228,6 +233,9 @@ public class AuthPacket extends MySQLPacket {
         if (authPlugin != null) {
             StreamUtil.writeWithNull(out, authPlugin.getBytes());
         }
+        if ((clientFlags & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0) {
+            StreamUtil.write(out, (byte) zstdCompressionLevel);
+        }
     }
 
     @Override
@@ -264,6 +272,9 @@ public class AuthPacket extends MySQLPacket {
         }
         //if use the mysql_native_password  is used for auth this need be replay
         BufferUtil.writeWithNull(buffer, authPlugin.getBytes());
+        if ((clientFlags & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0) {
+            buffer.put((byte) zstdCompressionLevel);
+        }
 
         c.getService().writeDirectly(buffer, getLastWriteFlag());
     }
@@ -284,6 +295,9 @@ public class AuthPacket extends MySQLPacket {
         size += (password == null) ? 1 : BufferUtil.getLength(password);
         size += (database == null) ? 1 : database.length() + 1;
         size += (authPlugin == null) ? 1 : authPlugin.length() + 1;
+        if ((clientFlags & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0) {
+            size += 1;
+        }
         return size;
     }
 
@@ -352,6 +366,14 @@ public class AuthPacket extends MySQLPacket {
         return authPlugin;
     }
 
+    public int getZstdCompressionLevel() {
+        return zstdCompressionLevel;
+    }
+
+    public void setZstdCompressionLevel(int zstdCompressionLevel) {
+        this.zstdCompressionLevel = zstdCompressionLevel;
+    }
+
     public boolean isMultStatementAllow() {
         return multStatementAllow;
     }
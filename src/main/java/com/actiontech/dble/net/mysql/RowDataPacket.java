@@ -56,7 +56,21 @@ public class RowDataPacket extends MySQLPacket {
     public RowDataPacket(int fieldCount) {
         this.fieldCount = fieldCount;
         this.fieldValues = new ArrayList<>(fieldCount);
-        cmpValues = new HashMap<>(1);
+    }
+
+    private RowDataPacket(int fieldCount, RowView view) {
+        this.fieldCount = fieldCount;
+        this.fieldValues = view;
+    }
+
+    /**
+     * the row packet whose values are read from the data only when used, instead of read(data)
+     */
+    public static RowDataPacket wrap(int fieldCount, byte[] data) {
+        RowDataPacket row = new RowDataPacket(fieldCount, new RowView(data, fieldCount));
+        row.packetLength = ByteUtil.readUB3(data, 0);
+        row.packetId = data[3];
+        return row;
     }
 
     public void add(byte[] value) {
@@ -107,6 +121,12 @@ public class RowDataPacket extends MySQLPacket {
             service.recycleBuffer(tmpBuffer);
             ByteBuffer newBuffer = service.allocate();
             return service.writeToBuffer(array, newBuffer);
+        } else if (isUnmodifiedView()) {
+            bb = service.checkWriteBuffer(bb, totalSize, writeSocketIfFull);
+            BufferUtil.writeUB3(bb, size);
+            bb.put(packetId);
+            bb.put(((RowView) fieldValues).getData(), PACKET_HEADER_SIZE, size);
+            return bb;
         } else {
             bb = service.checkWriteBuffer(bb, totalSize, writeSocketIfFull);
             BufferUtil.writeUB3(bb, calcPacketSize());
@@ -132,6 +152,11 @@ public class RowDataPacket extends MySQLPacket {
 
 
     private void writeBody(ByteBuffer buffer) {
+        if (isUnmodifiedView()) {
+            RowView view = (RowView) fieldValues;
+            buffer.put(view.getData(), PACKET_HEADER_SIZE, view.getBodyLength());
+            return;
+        }
         for (int i = 0; i < fieldCount; i++) {
             byte[] fv = fieldValues.get(i);
             if (fv == null) {
@@ -146,6 +171,9 @@ public class RowDataPacket extends MySQLPacket {
 
     @Override
     public int calcPacketSize() {
+        if (isUnmodifiedView()) {
+            return ((RowView) fieldValues).getBodyLength();
+        }
         int size = 0;
         for (int i = 0; i < fieldCount; i++) {
             byte[] v = fieldValues.get(i);
@@ -162,7 +190,11 @@ public class RowDataPacket extends MySQLPacket {
     public byte[] toBytes() {
         int size = calcPacketSize();
         int packageNum = size / MAX_PACKET_SIZE + 1;
-        if (packageNum > 1) {
+        if (packageNum == 1 && isUnmodifiedView()) {
+            byte[] data = ((RowView) fieldValues).getData().clone();
+            data[3] = packetId;
+            return data;
+        } else if (packageNum > 1) {
             BufferPool bufferPool = BufferPoolManager.getBufferPool();
             ByteBuffer tmpBuffer = bufferPool.allocate(size, null);
             writeBody(tmpBuffer);
@@ -198,11 +230,21 @@ public class RowDataPacket extends MySQLPacket {
     }
 
 
+    /**
+     * the packet data can be written as it is, without encoding the values again
+     */
+    private boolean isUnmodifiedView() {
+        return fieldValues instanceof RowView && !((RowView) fieldValues).isModified() && fieldValues.size() == fieldCount;
+    }
+
     public List<byte[]> getCmpValue(RowDataComparator comparator) {
-        return cmpValues.get(comparator);
+        return cmpValues == null ? null : cmpValues.get(comparator);
     }
 
     public void cacheCmpValue(RowDataComparator comparator, List<byte[]> cmpValue) {
+        if (cmpValues == null) {
+            cmpValues = new HashMap<>(1);
+        }
         this.cmpValues.put(comparator, cmpValue);
     }
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.mysql;
+
+import com.actiontech.dble.backend.mysql.MySQLMessage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * the field values of a row packet, read from the packet data only when asked.
+ * the offsets of the length coded values are decoded at the first get, and only the asked values are copied out,
+ * so the handlers which just pass the row to the next one cost no allocation for the fields.
+ * <p>
+ * the packet can be written as it is until the values are changed, see RowDataPacket.write
+ */
+public final class RowView extends AbstractList<byte[]> implements RandomAccess {
+    private static final byte[] UNDECODED = new byte[0];
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private final byte[] data;
+    private final int fieldCount;
+    // start of the value, -1 for NULL
+    private int[] starts;
+    private int[] lengths;
+    private byte[][] values;
+    private boolean modified;
+    // the values are moved here after the size changed
+    private List<byte[]> materialized;
+
+    /**
+     * @param data the whole packet with the header
+     */
+    public RowView(byte[] data, int fieldCount) {
+        this.data = data;
+        this.fieldCount = fieldCount;
+    }
+
+    @Override
+    public byte[] get(int index) {
+        if (materialized != null) {
+            return materialized.get(index);
+        }
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fieldCount);
+        }
+        decodeOffsets();
+        byte[] value = values[index];
+        if (value == UNDECODED) {
+            int start = starts[index];
+            if (start < 0) {
+                value = null;
+            } else if (lengths[index] == 0) {
+                value = EMPTY_BYTES;
+            } else {
+                value = Arrays.copyOfRange(data, start, start + lengths[index]);
+            }
+            values[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return materialized != null ? materialized.size() : fieldCount;
+    }
+
+    @Override
+    public byte[] set(int index, byte[] element) {
+        modified = true;
+        if (materialized != null) {
+            return materialized.set(index, element);
+        }
+        byte[] old = get(index);
+        values[index] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, byte[] element) {
+        materialize().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public byte[] remove(int index) {
+        modCount++;
+        return materialize().remove(index);
+    }
+
+    /**
+     * @return true if the packet data is not the same as the values any more
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * the length of the packet without the header
+     */
+    public int getBodyLength() {
+        return data.length - MySQLPacket.PACKET_HEADER_SIZE;
+    }
+
+    private List<byte[]> materialize() {
+        if (materialized == null) {
+            List<byte[]> list = new ArrayList<>(fieldCount + 1);
+            for (int i = 0; i < fieldCount; i++) {
+                list.add(get(i));
+            }
+            materialized = list;
+        }
+        modified = true;
+        return materialized;
+    }
+
+    private void decodeOffsets() {
+        if (starts != null) {
+            return;
+        }
+        int[] tmpStarts = new int[fieldCount];
+        int[] tmpLengths = new int[fieldCount];
+        MySQLMessage mm = new MySQLMessage(data);
+        mm.position(MySQLPacket.PACKET_HEADER_SIZE);
+        for (int i = 0; i < fieldCount; i++) {
+            long length = mm.readLength();
+            if (length == MySQLMessage.NULL_LENGTH) {
+                tmpStarts[i] = -1;
+            } else {
+                tmpStarts[i] = mm.position();
+                tmpLengths[i] = (int) length;
+                mm.move((int) length);
+            }
+        }
+        byte[][] tmpValues = new byte[fieldCount][];
+        Arrays.fill(tmpValues, UNDECODED);
+        values = tmpValues;
+        lengths = tmpLengths;
+        starts = tmpStarts;
+    }
+}
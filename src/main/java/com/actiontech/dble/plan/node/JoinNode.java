@@ -30,7 +30,7 @@ public class JoinNode extends PlanNode {
     }
 
     public enum Strategy {
-        SORTMERGE, NESTLOOP, HINT_NEST_LOOP, ALWAYS_NEST_LOOP
+        SORTMERGE, NESTLOOP, HINT_NEST_LOOP, ALWAYS_NEST_LOOP, HASH
     }
 
     private boolean isNotIn = false;
@@ -75,6 +75,8 @@ public class JoinNode extends PlanNode {
     private final List<ERTable> erKeys = new ArrayList<>();
 
     private Strategy strategy = Strategy.SORTMERGE;
+    // the side which builds the hash table of hash join
+    private boolean hashBuildLeft = false;
     private final int charsetIndex;
 
     public JoinNode(int charsetIndex) {
@@ -588,6 +590,14 @@ public class JoinNode extends PlanNode {
         this.strategy = strategy;
     }
 
+    public boolean isHashBuildLeft() {
+        return hashBuildLeft;
+    }
+
+    public void setHashBuildLeft(boolean hashBuildLeft) {
+        this.hashBuildLeft = hashBuildLeft;
+    }
+
     public Item getOtherJoinOnFilter() {
         return otherJoinOnFilter;
     }
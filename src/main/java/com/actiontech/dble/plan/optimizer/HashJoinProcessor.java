@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.optimizer;
+
+import com.actiontech.dble.plan.node.JoinNode;
+import com.actiontech.dble.plan.node.PlanNode;
+import com.actiontech.dble.plan.node.TableNode;
+import com.actiontech.dble.plan.util.PlanUtil;
+import com.actiontech.dble.singleton.TraceManager;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * choose hash join for the equal joins which would be sort merge join,
+ * must be called before OrderByPusher, so that the join columns are not pushed down as order by
+ */
+public final class HashJoinProcessor {
+    private HashJoinProcessor() {
+    }
+
+    public static PlanNode optimize(PlanNode qtn) {
+        TraceManager.TraceObject traceObject = TraceManager.threadTrace("optimize-for-hash-join");
+        try {
+            chooseHashJoin(qtn);
+            return qtn;
+        } finally {
+            TraceManager.log(ImmutableMap.of("plan-node", qtn), traceObject);
+            TraceManager.finishSpan(traceObject);
+        }
+    }
+
+    private static void chooseHashJoin(PlanNode qtn) {
+        if (PlanUtil.isGlobalOrER(qtn))
+            return;
+        if (qtn instanceof JoinNode) {
+            JoinNode jn = (JoinNode) qtn;
+            if (canHashJoin(jn)) {
+                jn.setStrategy(JoinNode.Strategy.HASH);
+                // left join must probe with the left rows
+                jn.setHashBuildLeft(jn.isInnerJoin() && isSmallNode(jn.getLeftNode()) && !isSmallNode(jn.getRightNode()));
+            }
+        }
+        for (PlanNode child : qtn.getChildren()) {
+            chooseHashJoin(child);
+        }
+    }
+
+    private static boolean canHashJoin(JoinNode jn) {
+        if (jn.getStrategy() != JoinNode.Strategy.SORTMERGE || jn.isNotIn() || jn.getJoinFilter().isEmpty()) {
+            return false;
+        }
+        if (jn.haveDependOnNode() || jn.getLeftNode().haveDependOnNode() || jn.getRightNode().haveDependOnNode()) {
+            return false;
+        }
+        return jn.isInnerJoin() || jn.isLeftOuterJoin();
+    }
+
+    /**
+     * no statistics of rows now, the same as nest loop: the table which has where filter is small
+     */
+    private static boolean isSmallNode(PlanNode node) {
+        return node instanceof TableNode && node.getWhereFilter() != null;
+    }
+}
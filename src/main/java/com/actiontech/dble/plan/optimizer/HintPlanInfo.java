@@ -20,6 +20,7 @@ public final class HintPlanInfo {
     private boolean left2inner = false;
     private boolean right2inner = false;
     private boolean in2join = false;
+    private boolean hashJoin = false;
 
     private HashMap<String, Set<HintPlanNode>> dependMap = Maps.newHashMap();
     private HashMap<String, Set<HintPlanNode>> erMap = Maps.newHashMap();
@@ -50,6 +51,14 @@ public final class HintPlanInfo {
         this.in2join = in2join;
     }
 
+    public boolean isHashJoin() {
+        return hashJoin;
+    }
+
+    public void setHashJoin(boolean hashJoin) {
+        this.hashJoin = hashJoin;
+    }
+
     public boolean isRight2inner() {
         return right2inner;
     }
@@ -96,6 +105,7 @@ public final class HintPlanInfo {
                 "dependMap=" + dependMap.toString() +
                 ", left2inner=" + left2inner +
                 ", in2join=" + in2join +
+                ", hashJoin=" + hashJoin +
                 '}';
     }
 
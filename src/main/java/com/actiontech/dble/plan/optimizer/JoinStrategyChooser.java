@@ -48,7 +48,7 @@ public class JoinStrategyChooser {
         if (jn.getLeftNode().type() != PlanNode.PlanNodeType.TABLE || jn.getRightNode().type() != PlanNode.PlanNodeType.TABLE) {
             return false;
         }
-        if (jn.isNotIn() || jn.getJoinFilter().isEmpty()) {
+        if (jn.isNotIn() || jn.getJoinFilter().isEmpty() || jn.getStrategy() == Strategy.HASH) {
             return false;
         }
         if (jn.isInnerJoin()) {
@@ -121,7 +121,7 @@ public class JoinStrategyChooser {
     }
 
     private boolean checkCondition(JoinNode joinNode) {
-        if (joinNode.isNotIn() || joinNode.getJoinFilter().isEmpty()) {
+        if (joinNode.isNotIn() || joinNode.getJoinFilter().isEmpty() || joinNode.getStrategy() == Strategy.HASH) {
             return false;
         }
         PlanNode leftNode = joinNode.getLeftNode();
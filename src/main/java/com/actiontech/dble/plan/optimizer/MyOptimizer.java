@@ -73,6 +73,10 @@ public final class MyOptimizer {
                 //  push down filter
                 node = FilterPusher.optimize(node);
 
+                if (hintPlanInfo.isZeroNode() && (SystemConfig.getInstance().isUseHashJoin() || hintPlanInfo.isHashJoin())) {
+                    HashJoinProcessor.optimize(node);
+                }
+
                 OrderByPusher.optimize(node);
 
                 LimitPusher.optimize(node);
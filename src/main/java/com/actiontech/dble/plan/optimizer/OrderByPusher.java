@@ -75,6 +75,15 @@ public final class OrderByPusher {
             return;
         } else if (qtn.type() == PlanNodeType.JOIN) {
             JoinNode join = (JoinNode) qtn;
+            if (join.getStrategy() == JoinNode.Strategy.HASH) {
+                // hash join need not ordered children, the join columns are only used as join keys
+                getJoinColumnOrders(join.getJoinFilter(), join.getLeftJoinOnOrders(),
+                        join.getRightJoinOnOrders(), new ArrayList<>());
+                for (PlanNode child : qtn.getChildren()) {
+                    pushOrderBy(child);
+                }
+                return;
+            }
 
             // sort merge join's order by, need to push down to left/right node
             List<Order> implicitOrders = getOrderBysGroupFirst(join);
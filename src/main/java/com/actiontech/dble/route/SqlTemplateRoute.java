@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.config.model.user.UserName;
+import com.actiontech.dble.route.parser.util.DruidUtil;
+import com.actiontech.dble.route.parser.util.ParameterizedSql;
+import com.actiontech.dble.server.util.SchemaUtil;
+import com.actiontech.dble.util.StringUtil;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQuery;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * the route of a parameterized select, which is a single sharding table with the sharding column equal to a literal,
+ * so the route of the same template with other literals only need the partition algorithm
+ * <p>
+ * the route is built from the result of the full route and checked by it, it is not cacheable if anything is uncertain
+ */
+public final class SqlTemplateRoute implements Serializable {
+    private static final long serialVersionUID = 6103536582950723418L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlTemplateRoute.class);
+    public static final SqlTemplateRoute NOT_CACHEABLE = new SqlTemplateRoute();
+
+    private final boolean cacheable;
+    // the sharding table, found by name when routing so that the entry does not hold the config
+    private String tableSchema;
+    private String tableName;
+    // index of the sharding value in the literals
+    private int valueIndex;
+
+    private String schema;
+    private String table;
+    private String tableAlias;
+    private int limitStart;
+    private int limitSize;
+    private Boolean canRunInReadDB;
+    private Boolean runOnSlave;
+    private boolean forUpdate;
+    private boolean sqlRouteCacheAble;
+    private boolean routePenetration;
+    private HashSet<String> tableSet;
+    private boolean nodeCanRunInReadDB;
+    private Boolean nodeRunOnSlave;
+    private boolean nodeForUpdate;
+    private int nodeLimitStart;
+    private int nodeLimitSize;
+
+    private SqlTemplateRoute() {
+        this.cacheable = false;
+    }
+
+    private SqlTemplateRoute(String tableSchema, String tableName, int valueIndex, RouteResultset rrs) {
+        this.cacheable = true;
+        this.tableSchema = tableSchema;
+        this.tableName = tableName;
+        this.valueIndex = valueIndex;
+        this.schema = rrs.getSchema();
+        this.table = rrs.getTable();
+        this.tableAlias = rrs.getTableAlias();
+        this.limitStart = rrs.getLimitStart();
+        this.limitSize = rrs.getLimitSize();
+        this.canRunInReadDB = rrs.getCanRunInReadDB();
+        this.runOnSlave = rrs.getRunOnSlave();
+        this.forUpdate = rrs.isForUpdate();
+        this.sqlRouteCacheAble = rrs.isSqlRouteCacheAble();
+        this.routePenetration = rrs.isRoutePenetration();
+        RouteResultsetNode node = rrs.getNodes()[0];
+        this.tableSet = node.getTableSet() == null ? null : new HashSet<>(node.getTableSet());
+        this.nodeCanRunInReadDB = node.canRunINReadDB(true);
+        this.nodeRunOnSlave = node.getRunOnSlave();
+        this.nodeForUpdate = node.isForUpdate();
+        this.nodeLimitStart = node.getLimitStart();
+        this.nodeLimitSize = node.getLimitSize();
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return null if the sharding value can not be routed here, the caller should do the full route then
+     */
+    public RouteResultset route(String stmt, int sqlType, ParameterizedSql sql) {
+        if (!cacheable) {
+            return null;
+        }
+        ShardingTableConfig tc = getShardingTable(tableSchema, tableName);
+        if (tc == null) {
+            return null;
+        }
+        String shardingNode = calculate(tc, sql.getValues(), valueIndex);
+        if (shardingNode == null) {
+            return null;
+        }
+        RouteResultset rrs = new RouteResultset(stmt, sqlType);
+        rrs.setSchema(schema);
+        rrs.setTable(table);
+        rrs.setTableAlias(tableAlias);
+        rrs.setLimitStart(limitStart);
+        rrs.setLimitSize(limitSize);
+        if (canRunInReadDB != null) {
+            rrs.setCanRunInReadDB(canRunInReadDB);
+        }
+        rrs.setRunOnSlave(runOnSlave);
+        rrs.setForUpdate(forUpdate);
+        rrs.setSqlRouteCacheAble(sqlRouteCacheAble);
+        rrs.setRoutePenetration(routePenetration);
+        RouteResultsetNode node = new RouteResultsetNode(shardingNode, sqlType, stmt, tableSet == null ? null : new HashSet<>(tableSet));
+        node.setCanRunInReadDB(nodeCanRunInReadDB);
+        node.setRunOnSlave(nodeRunOnSlave);
+        node.setForUpdate(nodeForUpdate);
+        node.setLimitStart(nodeLimitStart);
+        node.setLimitSize(nodeLimitSize);
+        rrs.setNodes(new RouteResultsetNode[]{node});
+        rrs.setFinishedRoute(true);
+        return rrs;
+    }
+
+    public static SqlTemplateRoute build(SchemaConfig schemaConfig, UserName user, String stmt, ParameterizedSql sql, RouteResultset rrs) {
+        if (!rrs.isSqlRouteCacheAble() || rrs.getNodes() == null || rrs.getNodes().length != 1 || rrs.isNeedOptimizer() || rrs.isComplexSQL() || rrs.isAlwaysFalse() ||
+                rrs.isGlobalTable() || rrs.isLoadData() || rrs.isCallStatement() || rrs.isHaveHintPlan2Inner()) {
+            return NOT_CACHEABLE;
+        }
+        // the statement sent to the node must be the origin one, so that the new one can be sent directly
+        if (!stmt.equals(rrs.getStatement()) || !stmt.equals(rrs.getNodes()[0].getStatement())) {
+            return NOT_CACHEABLE;
+        }
+        SQLStatement statement;
+        try {
+            statement = DruidUtil.parseSQL(sql.getTemplate());
+        } catch (Exception e) {
+            return NOT_CACHEABLE;
+        }
+        if (!(statement instanceof SQLSelectStatement)) {
+            return NOT_CACHEABLE;
+        }
+        SQLSelectQuery query = ((SQLSelectStatement) statement).getSelect().getQuery();
+        if (!(query instanceof MySqlSelectQueryBlock)) {
+            return NOT_CACHEABLE;
+        }
+        MySqlSelectQueryBlock queryBlock = (MySqlSelectQueryBlock) query;
+        if (!(queryBlock.getFrom() instanceof SQLExprTableSource) || queryBlock.getWhere() == null) {
+            return NOT_CACHEABLE;
+        }
+        ColumnVisitor statementVisitor = new ColumnVisitor(null);
+        statement.accept(statementVisitor);
+        // every literal must become a placeholder of druid, so that the index of placeholder is the index of literal
+        if (statementVisitor.queryBlockCount != 1 || statementVisitor.variantCount != sql.getValues().size()) {
+            return NOT_CACHEABLE;
+        }
+
+        SchemaUtil.SchemaInfo schemaInfo;
+        try {
+            schemaInfo = SchemaUtil.getSchemaInfo(user, schemaConfig == null ? null : schemaConfig.getName(), (SQLExprTableSource) queryBlock.getFrom());
+        } catch (Exception e) {
+            return NOT_CACHEABLE;
+        }
+        ShardingTableConfig tc = getShardingTable(schemaInfo.getSchema(), schemaInfo.getTable());
+        if (tc == null) {
+            return NOT_CACHEABLE;
+        }
+
+        // the sharding column must appear only once in where, as "column = ?" at the top level of AND
+        ColumnVisitor whereVisitor = new ColumnVisitor(tc.getShardingColumn());
+        queryBlock.getWhere().accept(whereVisitor);
+        if (whereVisitor.columnCount != 1) {
+            return NOT_CACHEABLE;
+        }
+        int index = findShardingValueIndex(queryBlock.getWhere(), tc.getShardingColumn());
+        if (index < 0 || index >= sql.getValues().size()) {
+            return NOT_CACHEABLE;
+        }
+        // double check with the full route
+        String shardingNode = calculate(tc, sql.getValues(), index);
+        if (shardingNode == null || !shardingNode.equals(rrs.getNodes()[0].getName())) {
+            LOGGER.debug("the template route of [{}] is different from the full route", stmt);
+            return NOT_CACHEABLE;
+        }
+        return new SqlTemplateRoute(schemaInfo.getSchema(), schemaInfo.getTable(), index, rrs);
+    }
+
+    private static ShardingTableConfig getShardingTable(String schemaName, String table) {
+        SchemaConfig schemaConfig = DbleServer.getInstance().getConfig().getSchemas().get(schemaName);
+        if (schemaConfig == null) {
+            return null;
+        }
+        BaseTableConfig tc = schemaConfig.getTables().get(table);
+        // the fake table and the table with specified charset have their own way to calculate the value
+        if (tc == null || tc.getClass() != ShardingTableConfig.class || tc.isSpecifyCharset() ||
+                ((ShardingTableConfig) tc).getShardingColumn() == null) {
+            return null;
+        }
+        return (ShardingTableConfig) tc;
+    }
+
+    private static String calculate(ShardingTableConfig tc, List<String> values, int index) {
+        if (index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        if (value == null) {
+            return null;
+        }
+        Integer nodeIndex;
+        try {
+            nodeIndex = tc.getFunction().calculate(value);
+        } catch (Exception e) {
+            return null;
+        }
+        if (nodeIndex == null || nodeIndex < 0 || nodeIndex >= tc.getShardingNodes().size()) {
+            return null;
+        }
+        return tc.getShardingNodes().get(nodeIndex);
+    }
+
+    private static int findShardingValueIndex(SQLExpr where, String shardingColumn) {
+        if (!(where instanceof SQLBinaryOpExpr)) {
+            return -1;
+        }
+        SQLBinaryOpExpr expr = (SQLBinaryOpExpr) where;
+        if (expr.getOperator() == SQLBinaryOperator.BooleanAnd) {
+            int index = findShardingValueIndex(expr.getLeft(), shardingColumn);
+            return index >= 0 ? index : findShardingValueIndex(expr.getRight(), shardingColumn);
+        } else if (expr.getOperator() == SQLBinaryOperator.Equality) {
+            if (isColumn(expr.getLeft(), shardingColumn) && expr.getRight() instanceof SQLVariantRefExpr) {
+                return ((SQLVariantRefExpr) expr.getRight()).getIndex();
+            } else if (isColumn(expr.getRight(), shardingColumn) && expr.getLeft() instanceof SQLVariantRefExpr) {
+                return ((SQLVariantRefExpr) expr.getLeft()).getIndex();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isColumn(SQLExpr expr, String column) {
+        if (expr instanceof SQLIdentifierExpr) {
+            return StringUtil.removeBackQuote(((SQLIdentifierExpr) expr).getName()).equalsIgnoreCase(column);
+        } else if (expr instanceof SQLPropertyExpr) {
+            return StringUtil.removeBackQuote(((SQLPropertyExpr) expr).getName()).equalsIgnoreCase(column);
+        }
+        return false;
+    }
+
+    private static class ColumnVisitor extends MySqlASTVisitorAdapter {
+        private final String column;
+        private int columnCount = 0;
+        private int queryBlockCount = 0;
+        private int variantCount = 0;
+
+        ColumnVisitor(String column) {
+            this.column = column;
+        }
+
+        @Override
+        public boolean visit(MySqlSelectQueryBlock x) {
+            queryBlockCount++;
+            return true;
+        }
+
+        @Override
+        public boolean visit(SQLVariantRefExpr x) {
+            variantCount++;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLIdentifierExpr x) {
+            if (column != null && isColumn(x, column)) {
+                columnCount++;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLPropertyExpr x) {
+            if (column != null && isColumn(x, column)) {
+                columnCount++;
+            }
+            return false;
+        }
+    }
+}
@@ -17,6 +17,11 @@ import java.util.Map;
  * @author lxy
  */
 public abstract class AbstractPartitionAlgorithm implements RuleAlgorithm, Serializable {
+    /**
+     * no sharding node matches, returned by the primitive calculate methods instead of null
+     */
+    public static final int NO_PARTITION = -1;
+
     protected String alias;
     protected String name;
 
@@ -44,6 +49,44 @@ public abstract class AbstractPartitionAlgorithm implements RuleAlgorithm, Seria
     public void init() {
     }
 
+    /**
+     * the same as calculate(String.valueOf(value)), the algorithms for numbers override it without
+     * formatting and parsing the value, it is called for every value of multi-row insert and in-list
+     *
+     * @return the index of the sharding node, NO_PARTITION if no node matches
+     */
+    public int calculate(long value) {
+        return toPartition(calculate(String.valueOf(value)));
+    }
+
+    /**
+     * the same as calculate(value.subSequence(start, end).toString()), value must not be null
+     *
+     * @return the index of the sharding node, NO_PARTITION if no node matches
+     */
+    public int calculate(CharSequence value, int start, int end) {
+        return toPartition(calculate(value.subSequence(start, end).toString()));
+    }
+
+    public static int toPartition(Integer index) {
+        return index == null ? NO_PARTITION : index;
+    }
+
+    /**
+     * @return true if the value is the string NULL ignoring case, which the string calculate method treats as null
+     */
+    protected static boolean isNullValue(CharSequence value, int start, int end) {
+        if (end - start != 4) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (Character.toUpperCase(value.charAt(start + i)) != "NULL".charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * getPartitionNum
      *
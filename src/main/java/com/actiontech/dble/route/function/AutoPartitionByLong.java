@@ -13,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 
 /**
@@ -26,6 +28,10 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
     private String mapFile = null;
     private String ruleFile = null;
     private LongRange[] longRanges;
+    // the ranges sorted by the start for binary search, null if some of them overlap
+    private long[] rangeStarts;
+    private long[] rangeEnds;
+    private int[] rangeNodes;
     private int defaultNode = -1;
     private int hashCode = 1;
 
@@ -64,20 +70,56 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
                 return null;
             }
 
-            long value = Long.parseLong(columnValue);
+            return toInteger(calculate(Long.parseLong(columnValue)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("columnValue:" + columnValue + " Please eliminate any quote and non number within it.", e);
+        }
+    }
+
+    @Override
+    public int calculate(long value) {
+        int node = findNode(value);
+        // use default node for other value
+        return node != NO_PARTITION ? node : defaultNode;
+    }
+
+    @Override
+    public int calculate(CharSequence value, int start, int end) {
+        if (isNullValue(value, start, end)) {
+            return defaultNode;
+        }
+        try {
+            return calculate(NumberParseUtil.parseLong(value, start, end));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("columnValue:" + value.subSequence(start, end) + " Please eliminate any quote and non number within it.", e);
+        }
+    }
+
+    private static Integer toInteger(int node) {
+        return node == NO_PARTITION ? null : node;
+    }
+
+    /**
+     * @return the node of the range containing the value, NO_PARTITION if not found
+     */
+    private int findNode(long value) {
+        if (rangeStarts == null) {
             for (LongRange longRang : this.longRanges) {
                 if (value <= longRang.getValueEnd() && value >= longRang.getValueStart()) {
                     return longRang.getNodeIndex();
                 }
             }
-            // use default node for other value
-            if (defaultNode >= 0) {
-                return defaultNode;
-            }
-            return null;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("columnValue:" + columnValue + " Please eliminate any quote and non number within it.", e);
+            return NO_PARTITION;
+        }
+        int index = Arrays.binarySearch(rangeStarts, value);
+        if (index < 0) {
+            // the last range starting before the value
+            index = -index - 2;
         }
+        if (index >= 0 && value <= rangeEnds[index]) {
+            return rangeNodes[index];
+        }
+        return NO_PARTITION;
     }
 
     /**
@@ -87,18 +129,10 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
     public boolean isUseDefaultNode(String columnValue) {
         try {
             long value = Long.parseLong(columnValue);
-            for (LongRange longRang : this.longRanges) {
-                if (value <= longRang.getValueEnd() && value >= longRang.getValueStart()) {
-                    return false;
-                }
-            }
-            if (defaultNode >= 0) {
-                return true;
-            }
+            return findNode(value) == NO_PARTITION && defaultNode >= 0;
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("columnValue:" + columnValue + " Please eliminate any quote and non number within it.", e);
         }
-        return false;
     }
 
 
@@ -184,6 +218,7 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
                 sb.append("\"");
             }
             longRanges = longRangeList.toArray(new LongRange[longRangeList.size()]);
+            initSortedRanges();
             sb.append("}");
             propertiesMap.put("mapFile", sb.toString());
         } catch (Exception e) {
@@ -204,6 +239,33 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
         }
     }
 
+    /**
+     * the ranges are looked up by binary search if they do not overlap, otherwise the first matched one in the file
+     * is used as before
+     */
+    private void initSortedRanges() {
+        LongRange[] sorted = Arrays.stream(longRanges).
+                filter(range -> range.getValueStart() <= range.getValueEnd()).
+                sorted(Comparator.comparingLong(LongRange::getValueStart)).
+                toArray(LongRange[]::new);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i].getValueStart() <= sorted[i - 1].getValueEnd()) {
+                rangeStarts = null;
+                rangeEnds = null;
+                rangeNodes = null;
+                return;
+            }
+        }
+        rangeStarts = new long[sorted.length];
+        rangeEnds = new long[sorted.length];
+        rangeNodes = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            rangeStarts[i] = sorted[i].getValueStart();
+            rangeEnds[i] = sorted[i].getValueEnd();
+            rangeNodes[i] = sorted[i].getNodeIndex();
+        }
+    }
+
     public void setDefaultNode(int defaultNode) {
         if (defaultNode >= 0 || defaultNode == -1) {
             this.defaultNode = defaultNode;
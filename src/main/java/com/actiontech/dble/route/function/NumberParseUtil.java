@@ -64,4 +64,47 @@ public final class NumberParseUtil {
         }
 
     }
+
+    /**
+     * the same as Long.parseLong(val.subSequence(start, end).toString()) without the copy
+     *
+     * @throws NumberFormatException if it is not a long
+     */
+    public static long parseLong(CharSequence val, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        int i = start;
+        char first = val.charAt(i);
+        if (first == '-' || first == '+') {
+            if (first == '-') {
+                negative = true;
+                limit = Long.MIN_VALUE;
+            }
+            if (++i == end) {
+                throw forInput(val, start, end);
+            }
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        // accumulating negatively avoids surprises near MAX_VALUE
+        for (; i < end; i++) {
+            int digit = Character.digit(val.charAt(i), 10);
+            if (digit < 0 || result < multmin) {
+                throw forInput(val, start, end);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw forInput(val, start, end);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException forInput(CharSequence val, int start, int end) {
+        return new NumberFormatException("For input string: \"" + val.subSequence(start, end) + "\"");
+    }
 }
@@ -12,7 +12,8 @@ import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * PartitionByDate
@@ -108,44 +109,60 @@ public class PartitionByDate extends AbstractPartitionAlgorithm implements RuleA
             if (targetTime < beginDate) {
                 return (defaultNode >= 0) ? defaultNode : null;
             }
-            int targetPartition = (int) ((targetTime - beginDate) / partitionTime);
-
-            if (targetTime > endDate && nCount != 0) {
-                targetPartition = targetPartition % nCount;
-            }
-            return targetPartition;
-
+            return toNode((targetTime - beginDate) / partitionTime);
         } catch (ParseException e) {
             throw new IllegalArgumentException("columnValue:" + columnValue + " Please check if the format satisfied.", e);
         }
     }
 
+    /**
+     * the times after endDate are in the periods after the nCount ones, which wrap around the nodes.
+     * the times not after endDate are in the first nCount periods, so the modulo is the same for them
+     *
+     * @param period the index of the period from beginDate
+     */
+    private int toNode(long period) {
+        return (int) (nCount != 0 ? period % nCount : period);
+    }
+
+    /**
+     * the nodes are the ones of the periods from the begin to the end, so only the first and the last period
+     * are calculated. the periods more than nCount are the same nodes as the first nCount ones
+     */
     @Override
     public Integer[] calculateRange(String beginValue, String endValue) {
-        SimpleDateFormat format = new SimpleDateFormat(this.dateFormat);
+        long begin;
+        long end;
         try {
-            Date begin = format.parse(beginValue);
-            Date end = format.parse(endValue);
-            Calendar cal = Calendar.getInstance();
-            List<Integer> list = new ArrayList<>();
-            while (begin.getTime() <= end.getTime()) {
-                Integer nodeValue = this.calculate(format.format(begin));
-                if (Collections.frequency(list, nodeValue) < 1) list.add(nodeValue);
-                cal.setTime(begin);
-                cal.add(Calendar.DATE, 1);
-                begin = cal.getTime();
-            }
-
-            Integer[] nodeArray = new Integer[list.size()];
-            for (int i = 0; i < list.size(); i++) {
-                nodeArray[i] = list.get(i);
-            }
-
-            return nodeArray;
+            SimpleDateFormat format = formatter.get();
+            begin = format.parse(beginValue).getTime();
+            end = format.parse(endValue).getTime();
         } catch (ParseException e) {
             LOGGER.info("error", e);
             return new Integer[0];
         }
+        if (begin > end) {
+            return new Integer[0];
+        }
+        Set<Integer> nodes = new LinkedHashSet<>();
+        if (begin < beginDate) {
+            if (defaultNode >= 0) {
+                nodes.add(defaultNode);
+            }
+            if (end < beginDate) {
+                return nodes.toArray(new Integer[0]);
+            }
+            begin = beginDate;
+        }
+        long firstPeriod = (begin - beginDate) / partitionTime;
+        long lastPeriod = (end - beginDate) / partitionTime;
+        if (nCount != 0 && lastPeriod - firstPeriod >= nCount) {
+            lastPeriod = firstPeriod + nCount - 1;
+        }
+        for (long period = firstPeriod; period <= lastPeriod; period++) {
+            nodes.add(toNode(period));
+        }
+        return nodes.toArray(new Integer[0]);
     }
 
     @Override
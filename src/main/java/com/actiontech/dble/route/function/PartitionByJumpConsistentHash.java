@@ -41,6 +41,17 @@ public final class PartitionByJumpConsistentHash extends AbstractPartitionAlgori
         return jumpConsistentHash(StringUtil.hash(columnValue, start, end), partitionCount);
     }
 
+    @Override
+    public int calculate(CharSequence value, int start, int end) {
+        if (isNullValue(value, start, end)) {
+            return 0;
+        }
+        int length = end - start;
+        int sliceStart = Math.max(hashSliceStart >= 0 ? hashSliceStart : length + hashSliceStart, 0);
+        int sliceEnd = Math.min(hashSliceEnd > 0 ? hashSliceEnd : length + hashSliceEnd, length);
+        return jumpConsistentHash(StringUtil.hash(value, start + sliceStart, start + Math.max(sliceEnd, sliceStart)), partitionCount);
+    }
+
     @Override
     public void selfCheck() {
         StringBuffer sb = new StringBuffer();
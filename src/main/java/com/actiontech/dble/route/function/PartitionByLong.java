@@ -50,8 +50,21 @@ public final class PartitionByLong extends AbstractPartitionAlgorithm implements
         }
     }
 
-    private Integer calculate(long key) {
-        return partitionUtil.partition(key);
+    @Override
+    public int calculate(long value) {
+        return partitionUtil.partition(value);
+    }
+
+    @Override
+    public int calculate(CharSequence value, int start, int end) {
+        if (isNullValue(value, start, end)) {
+            return 0;
+        }
+        try {
+            return partitionUtil.partition(NumberParseUtil.parseLong(value, start, end));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("columnValue:" + value.subSequence(start, end) + " Please eliminate any quote and non number within it.", e);
+        }
     }
 
     @Override
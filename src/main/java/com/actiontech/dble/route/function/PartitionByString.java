@@ -78,6 +78,17 @@ public final class PartitionByString extends AbstractPartitionAlgorithm implemen
         return partitionUtil.partition(hash);
     }
 
+    @Override
+    public int calculate(CharSequence value, int start, int end) {
+        if (isNullValue(value, start, end)) {
+            return 0;
+        }
+        int length = end - start;
+        int sliceStart = Math.max(hashSliceStart >= 0 ? hashSliceStart : length + hashSliceStart, 0);
+        int sliceEnd = Math.min(hashSliceEnd > 0 ? hashSliceEnd : length + hashSliceEnd, length);
+        return partitionUtil.partition(StringUtil.hash(value, start + sliceStart, start + Math.max(sliceEnd, sliceStart)));
+    }
+
     @Override
     public Integer[] calculateRange(String beginValue, String endValue) {
         //all node
@@ -54,6 +54,9 @@ public final class HintPlanHandler {
                 case "in2join":
                     planInfo.setIn2join(true);
                     break;
+                case "hash_join":
+                    planInfo.setHashJoin(true);
+                    break;
                 case "use_table_index":
                     useTableIndex = true;
                     break;
@@ -186,13 +186,12 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         final SchemaConfig schema = schemaInfo.getSchemaConfig();
         String tableName = schemaInfo.getTable();
         final ChildTableConfig tc = (ChildTableConfig) (schema.getTables().get(tableName));
-        if (isMultiInsert(insertStmt)) {
-            String msg = "ChildTable multi insert not provided";
-            LOGGER.info(msg);
-            throw new SQLNonTransientException(msg);
-        }
         String joinColumn = tc.getJoinColumn();
         int joinColumnIndex = getJoinColumnIndex(schemaInfo, insertStmt, joinColumn);
+        if (isMultiInsert(insertStmt)) {
+            routeChildTableRows(schemaInfo, rrs, tc, insertStmt, insertStmt.getColumns(), insertStmt.getValuesList(), joinColumnIndex, service, isExplain);
+            return;
+        }
         final String joinColumnVal = insertStmt.getValues().getValues().get(joinColumnIndex).toString();
         String realVal = StringUtil.removeApostrophe(joinColumnVal);
         final String sql = RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema());
@@ -273,40 +272,36 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         int shardingColIndex = tryGetShardingColIndex(schemaInfo, insertStmt, partitionColumn);
         String dataType = getShardingDataType(schemaInfo, partitionColumn);
         List<ValuesClause> valueClauseList = insertStmt.getValuesList();
-        Map<Integer, List<ValuesClause>> nodeValuesMap = new HashMap<>();
+        int[] rowNodes = new int[valueClauseList.size()];
         ShardingTableConfig tableConfig = (ShardingTableConfig) (schema.getTables().get(tableName));
-        for (ValuesClause valueClause : valueClauseList) {
+        for (int i = 0; i < rowNodes.length; i++) {
+            ValuesClause valueClause = valueClauseList.get(i);
             if (valueClause.getValues().size() != columnNum) {
                 String msg = "bad insert sql columnSize != valueSize:" + columnNum + " != " + valueClause.getValues().size() + "values:" + valueClause;
                 LOGGER.info(msg);
                 throw new SQLNonTransientException(msg);
             }
             SQLExpr expr = valueClause.getValues().get(shardingColIndex);
-            String shardingValue = shardingValueToSting(expr, clientCharset, dataType);
-            checkDefaultValues(shardingValue, tableConfig.getName(), schemaInfo.getSchema(), partitionColumn);
-            Integer nodeIndex = tableConfig.getFunction().calculate(shardingValue);
-            // null means can't find any valid index
-            if (nodeIndex == null || nodeIndex >= tableConfig.getShardingNodes().size()) {
-                String msg = "can't find any valid shardingnode :" + tableName + " -> " + partitionColumn + " -> " + shardingValue;
+            String shardingValue = null;
+            int nodeIndex;
+            if (isLongValue(expr)) {
+                nodeIndex = calculateLongNodeIndex(tableConfig.getFunction(), expr);
+            } else {
+                shardingValue = shardingValueToSting(expr, clientCharset, dataType);
+                checkDefaultValues(shardingValue, tableConfig.getName(), schemaInfo.getSchema(), partitionColumn);
+                nodeIndex = calculateNodeIndex(tableConfig.getFunction(), shardingValue);
+            }
+            // NO_PARTITION means can't find any valid index
+            if (nodeIndex < 0 || nodeIndex >= tableConfig.getShardingNodes().size()) {
+                String msg = "can't find any valid shardingnode :" + tableName + " -> " + partitionColumn + " -> " +
+                        (shardingValue == null ? expr.toString() : shardingValue);
                 LOGGER.info(msg);
                 throw new SQLNonTransientException(msg);
             }
-            nodeValuesMap.putIfAbsent(nodeIndex, new ArrayList<>());
-            nodeValuesMap.get(nodeIndex).add(valueClause);
+            rowNodes[i] = nodeIndex;
         }
 
-        RouteResultsetNode[] nodes = new RouteResultsetNode[nodeValuesMap.size()];
-        int count = 0;
-        for (Map.Entry<Integer, List<ValuesClause>> node : nodeValuesMap.entrySet()) {
-            Integer nodeIndex = node.getKey();
-            List<ValuesClause> valuesList = node.getValue();
-            insertStmt.getValuesList().clear();
-            insertStmt.getValuesList().addAll(valuesList);
-            nodes[count] = new RouteResultsetNode(tableConfig.getShardingNodes().get(nodeIndex), rrs.getSqlType(),
-                    RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema()), Sets.newHashSet(schemaInfo.getSchema() + "." + schemaInfo.getTable()));
-            count++;
-
-        }
+        RouteResultsetNode[] nodes = splitRowsToNodes(schemaInfo, rrs, tableConfig, insertStmt, valueClauseList, rowNodes);
         rrs.setNodes(nodes);
         rrs.setFinishedRoute(true);
     }
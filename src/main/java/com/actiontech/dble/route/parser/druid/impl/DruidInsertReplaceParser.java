@@ -15,6 +15,8 @@ import com.actiontech.dble.config.privileges.ShardingPrivileges;
 import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
 import com.actiontech.dble.route.parser.druid.ServerSchemaStatVisitor;
 import com.actiontech.dble.route.parser.util.Pair;
 import com.actiontech.dble.route.util.ConditionUtil;
@@ -29,6 +31,7 @@ import com.actiontech.dble.util.StringUtil;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.expr.*;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
 import com.alibaba.druid.sql.ast.statement.SQLSelect;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
@@ -139,6 +142,88 @@ abstract class DruidInsertReplaceParser extends DruidModifyParser {
         return shardingValue;
     }
 
+    /**
+     * @return true if the value is an integer literal in the range of long, which can be calculated by
+     * AbstractPartitionAlgorithm.calculate(long) without string
+     */
+    static boolean isLongValue(SQLExpr valueExpr) {
+        if (valueExpr instanceof SQLIntegerExpr) {
+            Number number = ((SQLIntegerExpr) valueExpr).getNumber();
+            return number instanceof Long || number instanceof Integer;
+        }
+        return false;
+    }
+
+    /**
+     * the value must be checked by isLongValue
+     */
+    static int calculateLongNodeIndex(AbstractPartitionAlgorithm function, SQLExpr valueExpr) {
+        // the same as shardingValueToSting, which consumes the charset of the string literal
+        CharsetContext.remove();
+        return function.calculate(((SQLIntegerExpr) valueExpr).getNumber().longValue());
+    }
+
+    /**
+     * the same as function.calculate(String) except that NO_PARTITION is returned instead of null
+     */
+    static int calculateNodeIndex(AbstractPartitionAlgorithm function, String shardingValue) {
+        if (shardingValue == null) {
+            return AbstractPartitionAlgorithm.toPartition(function.calculate((String) null));
+        }
+        return function.calculate(shardingValue, 0, shardingValue.length());
+    }
+
+    /**
+     * the nodes of insert/replace ... values (),(),..., every node gets the rows routed to it.
+     * the statements are split from the text by InsertValuesSplitter, and rebuilt from the AST if the rows can't be found
+     *
+     * @param stmt       the statement whose values list is valuesList
+     * @param valuesList the rows
+     * @param rowNodes   the index of the sharding node of every row
+     */
+    RouteResultsetNode[] splitRowsToNodes(SchemaInfo schemaInfo, RouteResultset rrs, BaseTableConfig tableConfig,
+                                          SQLStatement stmt, List<SQLInsertStatement.ValuesClause> valuesList, int[] rowNodes) {
+        int nodeCount = tableConfig.getShardingNodes().size();
+        String[] nodeSqls;
+        InsertValuesSplitter splitter = InsertValuesSplitter.split(rrs.getStatement(), rowNodes.length);
+        if (splitter != null) {
+            splitter.removeSchema(schemaInfo.getSchema());
+            nodeSqls = splitter.build(rowNodes, nodeCount);
+        } else {
+            nodeSqls = rebuildNodeStatements(stmt, valuesList, rowNodes, nodeCount, schemaInfo.getSchema());
+        }
+        List<RouteResultsetNode> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodeSqls[i] != null) {
+                nodes.add(new RouteResultsetNode(tableConfig.getShardingNodes().get(i), rrs.getSqlType(), nodeSqls[i],
+                        Sets.newHashSet(schemaInfo.getSchema() + "." + schemaInfo.getTable())));
+            }
+        }
+        return nodes.toArray(new RouteResultsetNode[0]);
+    }
+
+    private String[] rebuildNodeStatements(SQLStatement stmt, List<SQLInsertStatement.ValuesClause> valuesList,
+                                           int[] rowNodes, int nodeCount, String schema) {
+        List<List<SQLInsertStatement.ValuesClause>> nodeValues = new ArrayList<>(Collections.nCopies(nodeCount, null));
+        for (int i = 0; i < rowNodes.length; i++) {
+            List<SQLInsertStatement.ValuesClause> values = nodeValues.get(rowNodes[i]);
+            if (values == null) {
+                values = new ArrayList<>();
+                nodeValues.set(rowNodes[i], values);
+            }
+            values.add(valuesList.get(i));
+        }
+        String[] nodeSqls = new String[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodeValues.get(i) != null) {
+                valuesList.clear();
+                valuesList.addAll(nodeValues.get(i));
+                nodeSqls[i] = RouterUtil.removeSchema(statementToString(stmt), schema);
+            }
+        }
+        return nodeSqls;
+    }
+
     int getIncrementKeyIndex(SchemaInfo schemaInfo, String incrementColumn) throws SQLNonTransientException {
         if (incrementColumn == null) {
             throw new SQLNonTransientException("please make sure the incrementColumn's config is not null in schemal.xml");
@@ -255,6 +340,107 @@ abstract class DruidInsertReplaceParser extends DruidModifyParser {
         });
     }
 
+    /**
+     * route insert/replace ... values (),(),... of the child table, every row goes to the node of its join key.
+     * the nodes are calculated directly if the parent is routed by the join key, otherwise the join keys are
+     * found in the parent table together by FetchStoreNodeOfChildTableHandler
+     */
+    void routeChildTableRows(SchemaInfo schemaInfo, RouteResultset rrs, ChildTableConfig tc, SQLStatement stmt, List<SQLExpr> columns,
+                             List<SQLInsertStatement.ValuesClause> valuesList, int joinColumnIndex, ShardingService service,
+                             boolean isExplain) throws SQLNonTransientException {
+        int columnNum = getTableColumns(schemaInfo, columns);
+        String[] joinValues = new String[valuesList.size()];
+        for (int i = 0; i < joinValues.length; i++) {
+            SQLInsertStatement.ValuesClause valueClause = valuesList.get(i);
+            if (valueClause.getValues().size() != columnNum) {
+                String msg = "bad insert sql columnSize != valueSize:" + columnNum + " != " + valueClause.getValues().size() + "values:" + valueClause;
+                LOGGER.info(msg);
+                throw new SQLNonTransientException(msg);
+            }
+            joinValues[i] = valueClause.getValues().get(joinColumnIndex).toString();
+        }
+        ShardingTableConfig directRouteTC = tc.getDirectRouteTC();
+        if (directRouteTC == null) {
+            rrs.setFinishedExecute(true);
+            fetchChildTableToRoute(tc, joinValues, service, schemaInfo, stmt, valuesList, rrs, isExplain);
+            return;
+        }
+        String clientCharset = service.getCharset().getClient();
+        String dataType = getShardingDataType(schemaInfo, tc.getJoinColumn());
+        int[] rowNodes = new int[joinValues.length];
+        for (int i = 0; i < rowNodes.length; i++) {
+            SQLExpr expr = valuesList.get(i).getValues().get(joinColumnIndex);
+            String joinValue = null;
+            int nodeIndex;
+            if (isLongValue(expr)) {
+                nodeIndex = calculateLongNodeIndex(directRouteTC.getFunction(), expr);
+            } else {
+                joinValue = shardingValueToSting(expr, clientCharset, dataType);
+                checkDefaultValues(joinValue, tc.getName(), schemaInfo.getSchema(), tc.getJoinColumn());
+                nodeIndex = calculateNodeIndex(directRouteTC.getFunction(), joinValue);
+            }
+            if (nodeIndex >= 0 && nodeIndex < directRouteTC.getShardingNodes().size()) {
+                nodeIndex = tc.getShardingNodes().indexOf(directRouteTC.getShardingNodes().get(nodeIndex));
+            }
+            if (nodeIndex < 0) {
+                throw new SQLNonTransientException("parent key can't find valid data node :" + tc.getName() + " -> " + tc.getJoinColumn() + " -> " +
+                        (joinValue == null ? expr.toString() : joinValue));
+            }
+            rowNodes[i] = nodeIndex;
+        }
+        rrs.setNodes(splitRowsToNodes(schemaInfo, rrs, tc, stmt, valuesList, rowNodes));
+        rrs.setFinishedRoute(true);
+    }
+
+    private void fetchChildTableToRoute(ChildTableConfig tc, String[] joinValues, ShardingService service, SchemaInfo schemaInfo, SQLStatement stmt,
+                                        List<SQLInsertStatement.ValuesClause> valuesList, RouteResultset rrs, boolean isExplain) {
+        //get child result will be blocked, so use ComplexQueryExecutor
+        DbleServer.getInstance().getComplexQueryExecutor().execute(() -> {
+            try {
+                if (!routeByParentNodes(tc, joinValues, service, schemaInfo, stmt, valuesList, rrs)) {
+                    return;
+                }
+                if (isExplain) {
+                    ExplainHandler.writeOutHeadAndEof(service, rrs);
+                } else {
+                    service.getSession2().execute(rrs);
+                }
+            } catch (Exception e) {
+                service.setTxInterrupt(e.toString());
+                service.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, e.toString());
+            }
+        });
+    }
+
+    /**
+     * route the rows to the nodes of the parents found by their join keys
+     *
+     * @return false if the session is closed or a parent isn't found, the error is written to the client
+     */
+    boolean routeByParentNodes(ChildTableConfig tc, String[] joinValues, ShardingService service, SchemaInfo schemaInfo, SQLStatement stmt,
+                               List<SQLInsertStatement.ValuesClause> valuesList, RouteResultset rrs) throws Exception {
+        Map<String, String> keyNodes = findParentNodes(schemaInfo.getSchema(), tc, Arrays.asList(joinValues), service);
+        if (keyNodes == null) {
+            return false;
+        }
+        int[] rowNodes = new int[joinValues.length];
+        for (int i = 0; i < rowNodes.length; i++) {
+            String dn = keyNodes.get(joinValues[i]);
+            rowNodes[i] = dn == null ? -1 : tc.getShardingNodes().indexOf(dn);
+            if (rowNodes[i] < 0) {
+                service.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, "can't find (root) parent sharding node for join key " + joinValues[i] + " of sql:" + rrs.getStatement());
+                return false;
+            }
+        }
+        rrs.setNodes(splitRowsToNodes(schemaInfo, rrs, tc, stmt, valuesList, rowNodes));
+        rrs.setFinishedRoute(true);
+        return true;
+    }
+
+    Map<String, String> findParentNodes(String schema, ChildTableConfig tc, List<String> joinValues, ShardingService service) throws Exception {
+        return FetchStoreNodeOfChildTableHandler.execute(schema, tc, joinValues, service.getSession2());
+    }
+
     protected String getShardingDataType(SchemaInfo schemaInfo, String partitionColumn) throws SQLNonTransientException {
         TableMeta tbMeta = ProxyMeta.getInstance().getTmManager().getSyncTableMeta(schemaInfo.getSchema(),
                 schemaInfo.getTable());
@@ -283,15 +283,14 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
         final SchemaConfig schema = schemaInfo.getSchemaConfig();
         String tableName = schemaInfo.getTable();
         final ChildTableConfig tc = (ChildTableConfig) (schema.getTables().get(tableName));
-        //check if the childtable replace with the multi
-        if (isMultiReplace(replace)) {
-            String msg = "ChildTable multi insert not provided";
-            LOGGER.info(msg);
-            throw new SQLNonTransientException(msg);
-        }
         //find the value of child table join key
         String joinColumn = tc.getJoinColumn();
         int joinColumnIndex = getJoinColumnIndex(schemaInfo, replace, joinColumn);
+        //the rows of the multi replace are routed by their own join keys
+        if (isMultiReplace(replace)) {
+            routeChildTableRows(schemaInfo, rrs, tc, replace, replace.getColumns(), replace.getValuesList(), joinColumnIndex, service, isExplain);
+            return;
+        }
         final String joinColumnVal = replace.getValuesList().get(0).getValues().get(joinColumnIndex).toString();
         String realVal = StringUtil.removeApostrophe(joinColumnVal);
         final String sql = RouterUtil.removeSchema(statementToString(replace), schemaInfo.getSchema());
@@ -343,38 +342,35 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
         int shardingColIndex = tryGetShardingColIndex(schemaInfo, replace, partitionColumn);
         String dataType = getShardingDataType(schemaInfo, partitionColumn);
         List<SQLInsertStatement.ValuesClause> valueClauseList = replace.getValuesList();
-        Map<Integer, List<SQLInsertStatement.ValuesClause>> nodeValuesMap = new HashMap<>();
+        int[] rowNodes = new int[valueClauseList.size()];
         ShardingTableConfig tableConfig = (ShardingTableConfig) (schema.getTables().get(tableName));
-        for (SQLInsertStatement.ValuesClause valueClause : valueClauseList) {
+        for (int i = 0; i < rowNodes.length; i++) {
+            SQLInsertStatement.ValuesClause valueClause = valueClauseList.get(i);
             if (valueClause.getValues().size() != columnNum) {
                 String msg = "bad insert sql columnSize != valueSize:" + columnNum + " != " + valueClause.getValues().size() + "values:" + valueClause;
                 LOGGER.info(msg);
                 throw new SQLNonTransientException(msg);
             }
             SQLExpr expr = valueClause.getValues().get(shardingColIndex);
-            String shardingValue = shardingValueToSting(expr, clientCharset, dataType);
-            Integer nodeIndex = tableConfig.getFunction().calculate(shardingValue);
+            String shardingValue = null;
+            int nodeIndex;
+            if (isLongValue(expr)) {
+                nodeIndex = calculateLongNodeIndex(tableConfig.getFunction(), expr);
+            } else {
+                shardingValue = shardingValueToSting(expr, clientCharset, dataType);
+                nodeIndex = calculateNodeIndex(tableConfig.getFunction(), shardingValue);
+            }
             // no part find for this record
-            if (nodeIndex == null || nodeIndex >= tableConfig.getShardingNodes().size()) {
-                String msg = "can't find any valid shardingnode :" + tableName + " -> " + partitionColumn + " -> " + shardingValue;
+            if (nodeIndex < 0 || nodeIndex >= tableConfig.getShardingNodes().size()) {
+                String msg = "can't find any valid shardingnode :" + tableName + " -> " + partitionColumn + " -> " +
+                        (shardingValue == null ? expr.toString() : shardingValue);
                 LOGGER.info(msg);
                 throw new SQLNonTransientException(msg);
             }
-            nodeValuesMap.computeIfAbsent(nodeIndex, k -> new ArrayList<>());
-            nodeValuesMap.get(nodeIndex).add(valueClause);
+            rowNodes[i] = nodeIndex;
         }
 
-        RouteResultsetNode[] nodes = new RouteResultsetNode[nodeValuesMap.size()];
-        int count = 0;
-        for (Map.Entry<Integer, List<SQLInsertStatement.ValuesClause>> node : nodeValuesMap.entrySet()) {
-            Integer nodeIndex = node.getKey();
-            List<SQLInsertStatement.ValuesClause> valuesList = node.getValue();
-            replace.getValuesList().clear();
-            replace.getValuesList().addAll(valuesList);
-            nodes[count] = new RouteResultsetNode(tableConfig.getShardingNodes().get(nodeIndex), rrs.getSqlType(),
-                    RouterUtil.removeSchema(statementToString(replace), schemaInfo.getSchema()), Sets.newHashSet(schemaInfo.getSchema() + "." + schemaInfo.getTable()));
-            count++;
-        }
+        RouteResultsetNode[] nodes = splitRowsToNodes(schemaInfo, rrs, tableConfig, replace, valueClauseList, rowNodes);
         rrs.setNodes(nodes);
         rrs.setFinishedRoute(true);
     }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.druid.impl;
+
+import com.actiontech.dble.route.util.RouterUtil;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlLexer;
+import com.alibaba.druid.sql.parser.ParserException;
+import com.alibaba.druid.sql.parser.Token;
+
+/**
+ * split the rows of insert/replace ... values (...),(...) into the statements of the nodes by the text.
+ * <p>
+ * the sql is tokenized only once to find the positions of the rows, then the text of every row is appended
+ * into the buffer of the node it is routed to, between the text before the first row and the text after the last row.
+ * so the statement is not rebuilt from the AST for every node, which costs a lot for the big batch insert
+ */
+final class InsertValuesSplitter {
+    private final String sql;
+    private final int[] rowStarts;
+    private final int[] rowEnds;
+    private String prefix;
+    private String suffix;
+
+    private InsertValuesSplitter(String sql, int[] rowStarts, int[] rowEnds) {
+        this.sql = sql;
+        this.rowStarts = rowStarts;
+        this.rowEnds = rowEnds;
+        int rowCount = rowStarts.length;
+        this.prefix = sql.substring(0, rowStarts[0]);
+        this.suffix = sql.substring(rowEnds[rowCount - 1]);
+    }
+
+    /**
+     * @param sql      the text of the statement
+     * @param rowCount the count of the rows parsed from the sql
+     * @return null if the rows can't be found as expected, the statements should be rebuilt from the AST then
+     */
+    static InsertValuesSplitter split(String sql, int rowCount) {
+        try {
+            return locateRows(sql, rowCount);
+        } catch (ParserException e) {
+            return null;
+        }
+    }
+
+    private static InsertValuesSplitter locateRows(String sql, int rowCount) {
+        ValuesLexer lexer = new ValuesLexer(sql);
+        lexer.nextToken();
+        if (lexer.token() != Token.INSERT && lexer.token() != Token.REPLACE) {
+            return null;
+        }
+        // VALUES out of the parentheses
+        int depth = 0;
+        while (depth > 0 || lexer.token() != Token.VALUES) {
+            if (lexer.token() == Token.LPAREN) {
+                depth++;
+            } else if (lexer.token() == Token.RPAREN) {
+                depth--;
+            } else if (lexer.token() == Token.EOF || lexer.token() == Token.SELECT) {
+                return null;
+            }
+            lexer.nextToken();
+        }
+        lexer.nextToken();
+
+        int[] rowStarts = new int[rowCount];
+        int[] rowEnds = new int[rowCount];
+        int row = 0;
+        while (true) {
+            if (lexer.token() != Token.LPAREN || row == rowCount) {
+                return null;
+            }
+            rowStarts[row] = lexer.getStartPos();
+            depth = 1;
+            while (depth > 0) {
+                lexer.nextToken();
+                if (lexer.token() == Token.LPAREN) {
+                    depth++;
+                } else if (lexer.token() == Token.RPAREN) {
+                    depth--;
+                } else if (lexer.token() == Token.EOF) {
+                    return null;
+                }
+            }
+            rowEnds[row++] = lexer.getStartPos() + 1;
+            lexer.nextToken();
+            if (lexer.token() != Token.COMMA) {
+                break;
+            }
+            lexer.nextToken();
+        }
+        if (row != rowCount) {
+            return null;
+        }
+        return new InsertValuesSplitter(sql, rowStarts, rowEnds);
+    }
+
+    /**
+     * the schema is removed from the text out of the rows only, it is the same as removing it from the whole statement
+     * except for the schema in the values
+     */
+    void removeSchema(String schema) {
+        prefix = RouterUtil.removeSchema(prefix, schema);
+        suffix = RouterUtil.removeSchema(suffix, schema);
+    }
+
+    /**
+     * @param rowNodes  the index of the node of every row
+     * @param nodeCount the count of the nodes
+     * @return the statement of every node, null for the node without any row
+     */
+    String[] build(int[] rowNodes, int nodeCount) {
+        int[] nodeRowLengths = new int[nodeCount];
+        for (int i = 0; i < rowNodes.length; i++) {
+            nodeRowLengths[rowNodes[i]] += rowEnds[i] - rowStarts[i] + 1;
+        }
+        StringBuilder[] buffers = new StringBuilder[nodeCount];
+        for (int i = 0; i < rowNodes.length; i++) {
+            int node = rowNodes[i];
+            StringBuilder buffer = buffers[node];
+            if (buffer == null) {
+                buffer = new StringBuilder(prefix.length() + nodeRowLengths[node] + suffix.length());
+                buffer.append(prefix);
+                buffers[node] = buffer;
+            } else {
+                buffer.append(',');
+            }
+            buffer.append(sql, rowStarts[i], rowEnds[i]);
+        }
+        String[] nodeSqls = new String[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            if (buffers[node] != null) {
+                nodeSqls[node] = buffers[node].append(suffix).toString();
+            }
+        }
+        return nodeSqls;
+    }
+
+    private static class ValuesLexer extends MySqlLexer {
+        ValuesLexer(String input) {
+            super(input);
+        }
+
+        int getStartPos() {
+            return startPos;
+        }
+    }
+}
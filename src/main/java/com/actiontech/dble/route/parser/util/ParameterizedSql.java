@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the shape of a sql with the number and string literals replaced by '?',
+ * scanned by hand without druid, so that it is cheap enough to be done for every query
+ * <p>
+ * the sqls with comments, hints, double quotes, ';' or '?' are not parameterized
+ */
+public final class ParameterizedSql {
+    private final String template;
+    /**
+     * the literals in the order of '?', the value is the same as the druid value of the literal,
+     * null if the string literal has escape characters or non-ascii characters
+     */
+    private final List<String> values;
+
+    private ParameterizedSql(String template, List<String> values) {
+        this.template = template;
+        this.values = values;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * @return null if the sql can not be parameterized
+     */
+    public static ParameterizedSql parse(String sql) {
+        final int length = sql.length();
+        StringBuilder sb = new StringBuilder(length);
+        List<String> values = new ArrayList<>();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '\'': {
+                    int end = i + 1;
+                    boolean plain = true;
+                    while (true) {
+                        if (end >= length) {
+                            return null;
+                        }
+                        char s = sql.charAt(end);
+                        if (s == '\\') {
+                            plain = false;
+                            end += 2;
+                        } else if (s == '\'') {
+                            if (end + 1 < length && sql.charAt(end + 1) == '\'') {
+                                plain = false;
+                                end += 2;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            if (s > 0x7E || s < 0x20) {
+                                plain = false;
+                            }
+                            end++;
+                        }
+                    }
+                    values.add(plain ? sql.substring(i + 1, end) : null);
+                    sb.append('?');
+                    i = end + 1;
+                    break;
+                }
+                case '`': {
+                    int end = sql.indexOf('`', i + 1);
+                    if (end < 0) {
+                        return null;
+                    }
+                    sb.append(sql, i, end + 1);
+                    i = end + 1;
+                    break;
+                }
+                case '"':
+                case '#':
+                case ';':
+                case '?':
+                    return null;
+                case '/':
+                    if (i + 1 < length && sql.charAt(i + 1) == '*') {
+                        return null;
+                    }
+                    sb.append(c);
+                    i++;
+                    break;
+                case '-':
+                    if (i + 1 < length && sql.charAt(i + 1) == '-') {
+                        return null;
+                    }
+                    sb.append(c);
+                    i++;
+                    break;
+                default:
+                    if (c >= '0' && c <= '9' && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)) && sql.charAt(i - 1) != '.')) {
+                        int end = scanNumber(sql, i);
+                        if (end < 0) {
+                            return null;
+                        }
+                        values.add(normalizeNumber(sql.substring(i, end)));
+                        sb.append('?');
+                        i = end;
+                    } else if (isIdentifierPart(c)) {
+                        // the digits in identifier are not literals
+                        int end = i + 1;
+                        while (end < length && isIdentifierPart(sql.charAt(end))) {
+                            end++;
+                        }
+                        sb.append(sql, i, end);
+                        i = end;
+                    } else {
+                        sb.append(c);
+                        i++;
+                    }
+                    break;
+            }
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        return new ParameterizedSql(sb.toString(), values);
+    }
+
+    /**
+     * digits with an optional fraction, the hex, bit and exponent forms are not parameterized
+     *
+     * @return the end of the number, -1 if not a plain number
+     */
+    private static int scanNumber(String sql, int start) {
+        final int length = sql.length();
+        int end = start;
+        while (end < length && isDigit(sql.charAt(end))) {
+            end++;
+        }
+        if (end < length && sql.charAt(end) == '.') {
+            end++;
+            if (end >= length || !isDigit(sql.charAt(end))) {
+                return -1;
+            }
+            while (end < length && isDigit(sql.charAt(end))) {
+                end++;
+            }
+        }
+        if (end < length && (isIdentifierPart(sql.charAt(end)) || sql.charAt(end) == '.')) {
+            return -1;
+        }
+        return end;
+    }
+
+    private static String normalizeNumber(String number) {
+        if (number.indexOf('.') >= 0) {
+            return new BigDecimal(number).toString();
+        }
+        return new BigInteger(number).toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$' || c == '@' || c > 0x7F;
+    }
+}
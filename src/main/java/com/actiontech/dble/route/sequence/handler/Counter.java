@@ -8,6 +8,7 @@ package com.actiontech.dble.route.sequence.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -20,11 +21,26 @@ public class Counter {
     AtomicLong curVal = new AtomicLong(0);
     //max seg value of this time,if the curVal equals this value than need to find a new segment
     long maxSegValue;
+    //the next segment is prefetched when the value reaches it
+    private final long prefetchValue;
+    private final AtomicBoolean prefetchTriggered = new AtomicBoolean(false);
 
     public Counter(long start, long maxSegValue) {
+        this(start, maxSegValue, 0);
+    }
+
+    /**
+     * @param watermark percent of the segment left when prefetching, 0 means no prefetch
+     */
+    public Counter(long start, long maxSegValue, int watermark) {
         LOGGER.info("new counter " + start + "  " + maxSegValue);
         this.maxSegValue = maxSegValue;
         curVal = new AtomicLong(start);
+        if (watermark > 0) {
+            prefetchValue = maxSegValue - Math.max(1, (maxSegValue - start) * watermark / 100);
+        } else {
+            prefetchValue = Long.MAX_VALUE;
+        }
     }
 
     public long getNext() {
@@ -33,4 +49,11 @@ public class Counter {
         return maxSegValue > value ? value : -1;
     }
 
+    /**
+     * @return true only once for the counter, when the value reaches the watermark
+     */
+    public boolean reachWatermark(long value) {
+        return value >= prefetchValue && prefetchTriggered.compareAndSet(false, true);
+    }
+
 }
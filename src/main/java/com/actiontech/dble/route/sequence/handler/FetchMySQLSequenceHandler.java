@@ -29,20 +29,22 @@ import java.util.List;
 public class FetchMySQLSequenceHandler implements ResponseHandler {
     protected static final Logger LOGGER = LoggerFactory.getLogger(FetchMySQLSequenceHandler.class);
 
-    public void execute(SequenceVal seqVal) {
+    public void execute(SequenceVal.FetchRequest request) {
+        SequenceVal seqVal = request.seqVal;
         ServerConfig conf = DbleServer.getInstance().getConfig();
         ShardingNode mysqlDN = conf.getShardingNodes().get(seqVal.shardingNode);
         try {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("execute in shardingNode " + seqVal.shardingNode +
-                        " for fetch sequence sql " + seqVal.sql);
+                        " for fetch sequence sql " + request.sql);
             }
             // change Select mode to Update mode. Make sure the query send to the writeDirectly host
             mysqlDN.getConnection(mysqlDN.getDatabase(), true, true,
                     new RouteResultsetNode(seqVal.shardingNode, ServerParse.UPDATE,
-                            seqVal.sql), this, seqVal);
+                            request.sql), this, request);
         } catch (Exception e) {
             LOGGER.warn("get connection err: " + e);
+            handleError(request, "get connection err: " + e.getMessage());
         }
 
     }
@@ -56,7 +58,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
         conn.getBackendService().setResponseHandler(this);
         conn.getBackendService().setComplexQuery(true);
         try {
-            conn.getBackendService().query(((SequenceVal) conn.getBackendService().getAttachment()).sql, true);
+            conn.getBackendService().query(((SequenceVal.FetchRequest) conn.getBackendService().getAttachment()).sql, true);
         } catch (Exception e) {
             LOGGER.warn("connection acquired error: " + e);
             handleError(conn.getBackendService().getAttachment(), e.getMessage());
@@ -91,7 +93,8 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
     public void okResponse(byte[] ok, @NotNull AbstractService service) {
         boolean executeResponse = ((MySQLResponseService) service).syncAndExecute();
         if (executeResponse) {
-            ((SequenceVal) ((MySQLResponseService) service).getAttachment()).dbfinished = true;
+            SequenceVal.FetchRequest request = (SequenceVal.FetchRequest) ((MySQLResponseService) service).getAttachment();
+            request.seqVal.fetchFinished(request);
             ((MySQLResponseService) service).release();
         }
 
@@ -99,34 +102,37 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
 
     @Override
     public boolean rowResponse(byte[] row, RowDataPacket rowPacket, boolean isLeft, @NotNull AbstractService service) {
-        RowDataPacket rowDataPkg = new RowDataPacket(1);
+        SequenceVal.FetchRequest request = (SequenceVal.FetchRequest) ((MySQLResponseService) service).getAttachment();
+        RowDataPacket rowDataPkg = new RowDataPacket(request.batch);
         rowDataPkg.read(row);
-        byte[] columnData = rowDataPkg.fieldValues.get(0);
-        String columnVal = new String(columnData);
-        SequenceVal seqVal = (SequenceVal) ((MySQLResponseService) service).getAttachment();
-        if (IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(columnVal)) {
-            seqVal.dbretVal = IncrSequenceMySQLHandler.ERR_SEQ_RESULT;
-            String errMsg = "sequence sql returned err value, sequence:" +
-                    seqVal.seqName + " " + columnVal + " sql:" + seqVal.sql;
-            LOGGER.warn(errMsg);
-            IncrSequenceMySQLHandler.LATEST_ERRORS.put(seqVal.seqName, errMsg);
-        } else {
-            seqVal.dbretVal = columnVal;
+        // one column for one segment
+        String[] columnVals = new String[rowDataPkg.getFieldCount()];
+        for (int i = 0; i < columnVals.length; i++) {
+            byte[] columnData = rowDataPkg.fieldValues.get(i);
+            String columnVal = columnData == null ? null : new String(columnData);
+            if (columnVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(columnVal)) {
+                String errMsg = "sequence sql returned err value, sequence:" +
+                        request.seqVal.seqName + " " + columnVal + " sql:" + request.sql;
+                LOGGER.warn(errMsg);
+                IncrSequenceMySQLHandler.LATEST_ERRORS.put(request.seqVal.seqName, errMsg);
+            }
+            columnVals[i] = columnVal;
         }
+        request.result = columnVals;
         return false;
     }
 
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, @NotNull AbstractService service) {
-        ((SequenceVal) ((MySQLResponseService) service).getAttachment()).dbfinished = true;
+        SequenceVal.FetchRequest request = (SequenceVal.FetchRequest) ((MySQLResponseService) service).getAttachment();
+        request.seqVal.fetchFinished(request);
         ((MySQLResponseService) service).release();
     }
 
     private void handleError(Object attachment, String errMsg) {
-        SequenceVal seqVal = ((SequenceVal) attachment);
-        IncrSequenceMySQLHandler.LATEST_ERRORS.put(seqVal.seqName, errMsg);
-        seqVal.dbretVal = null;
-        seqVal.dbfinished = true;
+        SequenceVal.FetchRequest request = (SequenceVal.FetchRequest) attachment;
+        IncrSequenceMySQLHandler.LATEST_ERRORS.put(request.seqVal.seqName, errMsg);
+        request.seqVal.fetchFailed(request);
     }
 
     @Override
@@ -8,6 +8,7 @@ package com.actiontech.dble.route.sequence.handler;
 import com.actiontech.dble.cluster.values.RawJson;
 import com.actiontech.dble.config.ConfigFileName;
 import com.actiontech.dble.config.converter.SequenceConverter;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.util.ConfigException;
 import com.actiontech.dble.route.util.PropertiesUtil;
 import com.actiontech.dble.services.FrontendService;
@@ -23,9 +24,17 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
     protected static final Logger LOGGER = LoggerFactory.getLogger(IncrSequenceMySQLHandler.class);
     protected static final String ERR_SEQ_RESULT = "-999999999,null";
     protected static final Map<String, String> LATEST_ERRORS = new ConcurrentHashMap<>();
-    private final FetchMySQLSequenceHandler mysqlSeqFetcher = new FetchMySQLSequenceHandler();
+    private final FetchMySQLSequenceHandler mysqlSeqFetcher;
     private static Set<String> shardingNodes = new HashSet<>();
 
+    public IncrSequenceMySQLHandler() {
+        this(new FetchMySQLSequenceHandler());
+    }
+
+    IncrSequenceMySQLHandler(FetchMySQLSequenceHandler mysqlSeqFetcher) {
+        this.mysqlSeqFetcher = mysqlSeqFetcher;
+    }
+
     public void load(boolean isLowerCaseTableNames) {
         // load sequence properties
         Properties props = PropertiesUtil.loadProps(ConfigFileName.SEQUENCE_DB_FILE_NAME, isLowerCaseTableNames);
@@ -80,26 +89,45 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
             throw new ConfigException("can't find definition for sequence :" + seqName);
         }
         if (!seqVal.isSuccessFetched()) {
-            return getSeqValueFromDB(seqVal);
+            return getSeqValueFromDB(seqVal, false);
         } else {
             return getNextValidSeqVal(seqVal);
         }
 
     }
 
+    public Collection<SequenceVal> getSequenceVals() {
+        return seqValueMap.values();
+    }
+
     private Long getNextValidSeqVal(SequenceVal seqVal) throws SQLNonTransientException {
-        long nexVal = seqVal.counter.getNext();
-        if (nexVal != -1) {
-            return nexVal;
-        } else {
-            return getSeqValueFromDB(seqVal);
+        while (true) {
+            Counter counter = seqVal.counter;
+            long nexVal = counter.getNext();
+            if (nexVal != -1) {
+                if (counter.reachWatermark(nexVal)) {
+                    prefetch(seqVal);
+                }
+                return nexVal;
+            }
+            if (!seqVal.switchCounter(counter)) {
+                // no segment left, the caller has to wait for the round trip
+                return getSeqValueFromDB(seqVal, true);
+            }
+            if (seqVal.prefetchedCounters.isEmpty()) {
+                // the last prefetched segment is in use, the segment may be too small to reach the watermark
+                prefetch(seqVal);
+            }
         }
     }
 
-    private long getSeqValueFromDB(SequenceVal seqVal) throws SQLNonTransientException {
+    private long getSeqValueFromDB(SequenceVal seqVal, boolean stalled) throws SQLNonTransientException {
+        if (stalled) {
+            seqVal.onStall();
+        }
         if (seqVal.fetching.compareAndSet(false, true)) {
             //if get the lock ,connect to mysql and get next
-            return this.execSeqFetcher(seqVal);
+            return this.execSeqFetcher(seqVal, stalled);
         } else {
             //other who does get the lock just wait for awhile
             return this.waitForResult(seqVal);
@@ -107,31 +135,46 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
     }
 
     /**
-     * get the next segment & get the value[0]
+     * fetch the next segments in background, nobody waits for it
+     */
+    private void prefetch(SequenceVal seqVal) {
+        int watermark = SystemConfig.getInstance().getSequencePrefetchWatermark();
+        if (watermark == 0 || !seqVal.prefetchedCounters.isEmpty()) {
+            return;
+        }
+        if (seqVal.fetching.compareAndSet(false, true)) {
+            mysqlSeqFetcher.execute(seqVal.startFetch(true, false, SystemConfig.getInstance().getSequenceMaxSegmentBatch(), watermark));
+        }
+    }
+
+    /**
+     * get the next segments & get the value[0]
      *
      * @param seqVal
      * @return
      * @throws SQLNonTransientException
      */
-    private long execSeqFetcher(SequenceVal seqVal) throws SQLNonTransientException {
+    private long execSeqFetcher(SequenceVal seqVal, boolean stalled) throws SQLNonTransientException {
         try {
-            seqVal.dbretVal = null;
-            seqVal.dbfinished = false;
-            mysqlSeqFetcher.execute(seqVal);
-            Long[] values = seqVal.waitFinish();
+            int watermark = SystemConfig.getInstance().getSequencePrefetchWatermark();
+            mysqlSeqFetcher.execute(seqVal.startFetch(false, stalled, SystemConfig.getInstance().getSequenceMaxSegmentBatch(), watermark));
+            long[][] values = seqVal.waitFinish();
 
             //check if the result is right
             if (values == null) {
                 throw new RuntimeException("can't fetch sequence in db,sequence :" + seqVal.seqName + " detail:" +
                         mysqlSeqFetcher.getLastError(seqVal.seqName));
-            } else if (values[0] == 0) {
+            } else if (values[0][0] == 0) {
                 String msg = "sequence," + seqVal.seqName + " has not been set, please check configure in dble_sequence";
                 LOGGER.info(msg);
                 throw new SQLNonTransientException(msg);
             } else {
-                //if the result is OK just return the first value
-                seqVal.setNewCounter(values[0], values[1]);
-                return values[0];
+                //if the result is OK just return the first value, the other segments are kept for later
+                seqVal.setNewCounter(values[0][0], values[0][1], watermark);
+                for (int i = 1; i < values.length; i++) {
+                    seqVal.addPrefetchedCounter(values[i][0], values[i][1], watermark);
+                }
+                return values[0][0];
             }
         } catch (Exception e) {
             throw e;
@@ -149,11 +192,11 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
      */
     private long waitForResult(SequenceVal seqVal) throws SQLNonTransientException {
         seqVal.waitOtherFinish();
+        if (!seqVal.isSuccessFetched()) {
+            throw new SQLNonTransientException("can't fetch sequence in db,sequence :" + seqVal.seqName + " detail:" +
+                    mysqlSeqFetcher.getLastError(seqVal.seqName));
+        }
         return this.getNextValidSeqVal(seqVal);
     }
 
 }
-
-
-
-
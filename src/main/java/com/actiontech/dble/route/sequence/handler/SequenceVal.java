@@ -5,7 +5,11 @@
 
 package com.actiontech.dble.route.sequence.handler;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -13,15 +17,27 @@ import java.util.concurrent.locks.ReentrantLock;
  * Created by huqing.yan on 2017/7/3.
  */
 public class SequenceVal {
+    private static final long FETCH_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+    // the batch of segments grows if fetched more frequently than this, and shrinks if much less frequently
+    private static final long TARGET_FETCH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
 
 
-    Counter counter = null;
-    //exec fetch sql result
-    volatile String dbretVal = null;
+    volatile Counter counter = null;
+    // the segments fetched in advance, used in order when the counter runs out
+    final ConcurrentLinkedQueue<Counter> prefetchedCounters = new ConcurrentLinkedQueue<>();
+    // the fetch in progress, the response of any other fetch is late and ignored. guarded by executeLock
+    private FetchRequest currentFetch;
+    //exec fetch sql result, one value for one segment
+    private volatile String[] dbretVal = null;
     //exec fetch sql flag
-    volatile boolean dbfinished;
+    private volatile boolean dbfinished;
     //exec get next segment lock
     AtomicBoolean fetching = new AtomicBoolean(false);
+    private volatile long lastFetchTime;
+    // how many segments to fetch in one round trip, changes with the consumption rate
+    private volatile int segmentBatch = 1;
+    private volatile int fetchSqlBatch = 1;
+    private volatile String fetchSql;
 
     //flag if the init of the Sequence is done
     private volatile boolean successFetched;
@@ -31,40 +47,174 @@ public class SequenceVal {
     final String sql;
     private ReentrantLock executeLock = new ReentrantLock();
     private Condition condRelease = executeLock.newCondition();
+    private Condition condFinish = executeLock.newCondition();
+
+    private final AtomicLong fetchCount = new AtomicLong();
+    private final AtomicLong prefetchCount = new AtomicLong();
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong fetchTimeNanos = new AtomicLong();
+    private final LongAccumulator maxFetchTimeNanos = new LongAccumulator(Long::max, 0L);
 
     public SequenceVal(String seqName, String shardingNode) {
         this.seqName = seqName;
         this.shardingNode = shardingNode;
         sql = "SELECT dble_seq_nextval('" + seqName + "')";
+        fetchSql = sql;
     }
 
 
-    public void setNewCounter(long start, long end) {
-        counter = new Counter(start, end);
+    public void setNewCounter(long start, long end, int watermark) {
+        counter = new Counter(start, end, watermark);
         successFetched = true;
     }
 
-    public Long[] waitFinish() {
-        long start = System.currentTimeMillis();
-        long end = start + 10 * 1000;
-        while (System.currentTimeMillis() < end) {
-            if (dbfinished) {
-                if (dbretVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(dbretVal)) {
-                    break;
-                }
-                String[] items = dbretVal.split(",");
-                long curValue = Long.parseLong(items[0]);
-                int span = Integer.parseInt(items[1]);
-                return new Long[]{curValue, curValue + span};
+    /**
+     * the first value of the prefetched counter is start, not start + 1
+     */
+    public void addPrefetchedCounter(long start, long end, int watermark) {
+        prefetchedCounters.offer(new Counter(start - 1, end, watermark));
+    }
+
+    /**
+     * replace the counter which runs out with the prefetched one
+     *
+     * @return false if there is no prefetched counter
+     */
+    public boolean switchCounter(Counter old) {
+        synchronized (prefetchedCounters) {
+            if (counter != old) {
+                return true;
+            }
+            Counter next = prefetchedCounters.poll();
+            if (next == null) {
+                return false;
+            }
+            counter = next;
+            return true;
+        }
+    }
+
+    /**
+     * must be called by the thread which holds fetching
+     *
+     * @return the request, which is the attachment of the fetch sql
+     */
+    FetchRequest startFetch(boolean async, boolean stalled, int maxBatch, int watermark) {
+        long now = System.nanoTime();
+        int batch = segmentBatch;
+        if (lastFetchTime != 0) {
+            long interval = now - lastFetchTime;
+            if (stalled || interval < TARGET_FETCH_INTERVAL) {
+                batch = batch << 1;
+            } else if (interval > TARGET_FETCH_INTERVAL << 3) {
+                batch = batch >> 1;
+            }
+        }
+        batch = Math.max(1, Math.min(batch, maxBatch));
+        if (batch != fetchSqlBatch) {
+            StringBuilder sb = new StringBuilder(sql);
+            for (int i = 1; i < batch; i++) {
+                sb.append(",dble_seq_nextval('").append(seqName).append("')");
+            }
+            fetchSql = sb.toString();
+            fetchSqlBatch = batch;
+        }
+        segmentBatch = batch;
+        FetchRequest request = new FetchRequest(this, async, batch, fetchSql, watermark, now);
+        executeLock.lock();
+        try {
+            currentFetch = request;
+            dbretVal = null;
+            dbfinished = false;
+        } finally {
+            executeLock.unlock();
+        }
+        if (async) {
+            prefetchCount.incrementAndGet();
+        }
+        return request;
+    }
+
+    void fetchFinished(FetchRequest request) {
+        finishFetch(request, request.result);
+    }
+
+    void fetchFailed(FetchRequest request) {
+        finishFetch(request, null);
+    }
+
+    private void finishFetch(FetchRequest request, String[] values) {
+        executeLock.lock();
+        try {
+            if (request != currentFetch || dbfinished) {
+                // the fetch has been given up or failed, the segments it got are skipped
+                IncrSequenceMySQLHandler.LOGGER.info("ignore the late response of sequence " + seqName + " sql:" + request.sql);
+                return;
+            }
+            dbretVal = values;
+            dbfinished = true;
+            long now = System.nanoTime();
+            long elapsed = now - request.startTime;
+            lastFetchTime = now;
+            fetchCount.incrementAndGet();
+            fetchTimeNanos.addAndGet(elapsed);
+            maxFetchTimeNanos.accumulate(elapsed);
+            condFinish.signalAll();
+        } finally {
+            executeLock.unlock();
+        }
+        if (request.async) {
+            long[][] ranges = parseResult(values);
+            if (ranges == null || ranges[0][0] == 0) {
+                IncrSequenceMySQLHandler.LOGGER.warn("prefetch sequence " + seqName + " failed, detail:" + IncrSequenceMySQLHandler.LATEST_ERRORS.get(seqName));
             } else {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    IncrSequenceMySQLHandler.LOGGER.info("wait db fetch sequnce err " + e);
+                for (long[] range : ranges) {
+                    addPrefetchedCounter(range[0], range[1], request.watermark);
                 }
             }
+            signalAll();
+        }
+    }
+
+    /**
+     * wait for the fetch started by this thread, it is given up if timeout
+     */
+    public long[][] waitFinish() {
+        executeLock.lock();
+        try {
+            long remaining = FETCH_TIMEOUT;
+            while (!dbfinished && remaining > 0) {
+                remaining = condFinish.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            IncrSequenceMySQLHandler.LOGGER.info("wait db fetch sequnce err " + e);
+        } finally {
+            if (!dbfinished) {
+                currentFetch = null;
+            }
+            executeLock.unlock();
+        }
+        return dbfinished ? parseResult(dbretVal) : null;
+    }
+
+    /**
+     * @return {start, end} of every segment, null if failed
+     */
+    private static long[][] parseResult(String[] values) {
+        if (values == null) {
+            return null;
+        }
+        long[][] ranges = new long[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(values[i])) {
+                return null;
+            }
+            String[] items = values[i].split(",");
+            long curValue = Long.parseLong(items[0]);
+            int span = Integer.parseInt(items[1]);
+            ranges[i] = new long[]{curValue, curValue + span};
         }
-        return null;
+        return ranges;
     }
 
     public boolean isSuccessFetched() {
@@ -75,7 +225,12 @@ public class SequenceVal {
         executeLock.lock();
         try {
             while (fetching.get()) {
-                condRelease.await();
+                FetchRequest request = currentFetch;
+                if (!condRelease.await(FETCH_TIMEOUT, TimeUnit.NANOSECONDS) && request != null && request.async &&
+                        request == currentFetch && System.nanoTime() - request.startTime > FETCH_TIMEOUT) {
+                    // nobody else waits for the prefetch, give it up so that the waiters can fetch by themselves
+                    fetchFailed(request);
+                }
             }
         } catch (Exception e) {
             throw new java.lang.RuntimeException("wait");
@@ -94,4 +249,66 @@ public class SequenceVal {
             executeLock.unlock();
         }
     }
+
+    void onStall() {
+        stallCount.incrementAndGet();
+    }
+
+    public String getSeqName() {
+        return seqName;
+    }
+
+    public String getShardingNode() {
+        return shardingNode;
+    }
+
+    public int getSegmentBatch() {
+        return segmentBatch;
+    }
+
+    public int getPrefetchedSegments() {
+        return prefetchedCounters.size();
+    }
+
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    public long getPrefetchCount() {
+        return prefetchCount.get();
+    }
+
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    public long getFetchTimeNanos() {
+        return fetchTimeNanos.get();
+    }
+
+    public long getMaxFetchTimeNanos() {
+        return maxFetchTimeNanos.get();
+    }
+
+    /**
+     * one round trip of the fetch sql, the token to tell a late response from the response of the fetch in progress
+     */
+    static final class FetchRequest {
+        final SequenceVal seqVal;
+        final boolean async;
+        final int batch;
+        final String sql;
+        final int watermark;
+        final long startTime;
+        volatile String[] result;
+
+        FetchRequest(SequenceVal seqVal, boolean async, int batch, String sql, int watermark, long startTime) {
+            this.seqVal = seqVal;
+            this.async = async;
+            this.batch = batch;
+            this.sql = sql;
+            this.watermark = watermark;
+            this.startTime = startTime;
+        }
+    }
 }
@@ -18,6 +18,7 @@ import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.plan.node.QueryNode;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
 import com.actiontech.dble.route.parser.druid.DruidParser;
 import com.actiontech.dble.route.parser.druid.DruidShardingParseInfo;
 import com.actiontech.dble.route.parser.druid.RouteCalculateUnit;
@@ -567,7 +568,13 @@ public final class RouterUtil {
 
     private static String ruleCalculateSingleValue(String schemaName, ShardingTableConfig tc, Object originValue, String clientCharset) {
         String value;
-        if (originValue instanceof SQLHexExpr) {
+        int nodeIndex;
+        if (originValue instanceof Long || originValue instanceof Integer) {
+            // the integer literals of in-list and multi-row insert are routed without string
+            CharsetContext.remove();
+            nodeIndex = tc.getFunction().calculate(((Number) originValue).longValue());
+            return checkNodeIndex(tc, nodeIndex, originValue);
+        } else if (originValue instanceof SQLHexExpr) {
             TableMeta orgTbMeta;
             try {
                 orgTbMeta = ProxyMeta.getInstance().getTmManager().getSyncTableMeta(schemaName,
@@ -591,8 +598,16 @@ public final class RouterUtil {
             String actualCharset = CharsetContext.remove();
             value = StringUtil.charsetReplace(clientCharset, actualCharset, originValue.toString());
         }
-        Integer nodeIndex = tc.getFunction().calculate(value);
-        if (nodeIndex == null) {
+        if (value == null) {
+            nodeIndex = AbstractPartitionAlgorithm.toPartition(tc.getFunction().calculate((String) null));
+        } else {
+            nodeIndex = tc.getFunction().calculate(value, 0, value.length());
+        }
+        return checkNodeIndex(tc, nodeIndex, value);
+    }
+
+    private static String checkNodeIndex(ShardingTableConfig tc, int nodeIndex, Object value) {
+        if (nodeIndex == AbstractPartitionAlgorithm.NO_PARTITION) {
             String msg = "can't find any valid shardingNode in table[" + tc.getName() +
                     "] -> column[" + tc.getShardingColumn() + "] -> value[" + value + "]";
             LOGGER.info(msg);
@@ -17,6 +17,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.impl.OutputHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.transaction.TransactionCallback;
 import com.actiontech.dble.backend.mysql.nio.handler.transaction.TransactionHandlerManager;
 import com.actiontech.dble.backend.mysql.nio.handler.transaction.savepoint.SavePointHandler;
+import com.actiontech.dble.backend.mysql.store.SpillStatistic;
 import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
 import com.actiontech.dble.btrace.provider.ClusterDelayProvider;
 import com.actiontech.dble.btrace.provider.ComplexQueryProvider;
@@ -351,6 +352,13 @@ public class NonBlockingSession extends Session {
         sqlTracking(t -> t.addToRecordEndMap(handler));
     }
 
+    public SpillStatistic getSpillStatistic(DMLResponseHandler handler) {
+        if (traceEnable || SlowQueryLog.getInstance().isEnableSlowLog()) {
+            return traceResult.getSpillStatistic(handler);
+        }
+        return null;
+    }
+
     public List<String[]> genTraceResult() {
         if (traceEnable) {
             return traceResult.genShowTraceResult();
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.SocketWR;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+
+/**
+ * the data of load data local infile received from the client, read by the parser while the client is still sending.
+ * <p>
+ * offer is called in the NIO reactor of the front connection, so it never waits: when HIGH_WATER_MARK bytes are
+ * buffered, the reading of the front connection is stopped, and it is started again after the parser reads the data
+ * down to LOW_WATER_MARK. so the client is slowed down to the speed of parsing and routing by TCP
+ * instead of the data being saved into a temp file
+ */
+final class LoadDataStream extends InputStream {
+    private static final long HIGH_WATER_MARK = 16 * 1024 * 1024;
+    private static final long LOW_WATER_MARK = 4 * 1024 * 1024;
+
+    private final SocketWR socketWR;
+    private final ArrayDeque<byte[]> packets = new ArrayDeque<>();
+    private long bufferedBytes;
+    private byte[] current;
+    private int currentPos;
+    private boolean finished;
+    private volatile boolean aborted;
+    private boolean readPaused;
+
+    /**
+     * @param socketWR of the front connection which sends the data
+     */
+    LoadDataStream(SocketWR socketWR) {
+        this.socketWR = socketWR;
+    }
+
+    /**
+     * called by the front service for every packet, the packets already received are accepted after the reading is stopped
+     *
+     * @return false if the parser has stopped, the data is dropped
+     */
+    synchronized boolean offer(byte[] data) {
+        if (aborted) {
+            return false;
+        }
+        if (data.length > 0) {
+            packets.add(data);
+            bufferedBytes += data.length;
+            notifyAll();
+        }
+        if (!readPaused && bufferedBytes >= HIGH_WATER_MARK) {
+            // in the lock, so that the pausing and resuming are not reordered
+            readPaused = true;
+            socketWR.disableRead();
+        }
+        return true;
+    }
+
+    /**
+     * the client has sent the empty packet, read returns -1 after the data buffered
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * stop both sides, called if the parser meets an error or the load data is cleared
+     */
+    synchronized void abort() {
+        aborted = true;
+        packets.clear();
+        bufferedBytes = 0;
+        current = null;
+        // the rest of the data is read and dropped, so that the client gets the error
+        resumeRead();
+        notifyAll();
+    }
+
+    /**
+     * checked by the parser before every row, the rows already buffered by the csv parser are not routed after abort
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    private void resumeRead() {
+        if (readPaused) {
+            readPaused = false;
+            socketWR.enableRead();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || currentPos == current.length) {
+            if (aborted) {
+                throw new IOException("load data is aborted");
+            }
+            byte[] next = packets.poll();
+            if (next != null) {
+                bufferedBytes -= next.length;
+                current = next;
+                currentPos = 0;
+                if (bufferedBytes <= LOW_WATER_MARK) {
+                    resumeRead();
+                }
+            } else if (finished) {
+                return -1;
+            } else {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("load data is interrupted", e);
+                }
+            }
+        }
+        int n = Math.min(len, current.length - currentPos);
+        System.arraycopy(current, currentPos, b, off, n);
+        currentPos += n;
+        return n;
+    }
+}
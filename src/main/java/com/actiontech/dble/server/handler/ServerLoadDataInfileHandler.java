@@ -21,6 +21,7 @@ import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
 import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.net.connection.FrontendConnection;
 import com.actiontech.dble.net.handler.LoadDataInfileHandler;
+import com.actiontech.dble.net.impl.aio.AIOSocketWR;
 import com.actiontech.dble.net.mysql.BinaryPacket;
 import com.actiontech.dble.net.mysql.OkPacket;
 import com.actiontech.dble.net.mysql.RequestFilePacket;
@@ -52,6 +53,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
 import org.slf4j.Logger;
@@ -62,6 +64,10 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -96,6 +102,11 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     private int partitionColumnIndex = -1;
     private int autoIncrementIndex = -1;
     private boolean appendAutoIncrementColumn = false;
+    // not null if the data is parsed while receiving from the client, see enableLoadDataStream
+    private LoadDataStream dataStream;
+    private StreamParser streamParser;
+    private volatile int streamErrorCode;
+    private volatile String streamErrorMsg;
 
     public ServerLoadDataInfileHandler(ShardingService service) {
         this.service = service;
@@ -210,6 +221,10 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
 
         parseLoadDataPram();
         if (statement.isLocal()) {
+            // the stream stops reading the front connection when it is full, which AIO can't do
+            if (systemConfig.getEnableLoadDataStream() == 1 && !(service.getConnection().getSocketWR() instanceof AIOSocketWR)) {
+                startStreamParsing();
+            }
             //request file from client
             service.getConnection().setProto(new LoadDataProtoHandlerImpl(this, (MySQLProtoHandlerImpl) service.getConnection().getProto()));
             ByteBuffer buffer = service.allocate();
@@ -268,12 +283,96 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             ByteArrayInputStream inputStream = new ByteArrayInputStream(data, 0, data.length);
             packet.read(inputStream);
 
-            saveByteOrToFile(packet.getData(), false);
+            if (dataStream != null) {
+                // the data after an error is dropped, the error is sent at the end
+                dataStream.offer(packet.getData());
+            } else {
+                saveByteOrToFile(packet.getData(), false);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void startStreamParsing() {
+        dataStream = new LoadDataStream(service.getConnection().getSocketWR());
+        streamParser = new StreamParser(dataStream);
+        streamParser.start();
+    }
+
+    /**
+     * the same as parsing the content in end, but the rows are routed while the client is sending.
+     * the rows are kept by node in routeResultMap and saved into the files of the nodes after maxRowSizeToFile,
+     * so the data from the client is not saved into clientTemp.txt first.
+     * <p>
+     * only the parsing and routing overlap with the receiving, the load data of the backends is executed
+     * after the last packet of the client, the same as without the stream
+     */
+    private void parseStream(LoadDataStream stream) {
+        CsvParser parser = new CsvParser(createLocalParserSettings());
+        try {
+            parser.beginParsing(new InputStreamReader(stream, Charset.forName(loadData.getCharset())));
+            String[] row;
+            int ignoreNumber = getIgnoreNumber();
+            while ((row = parser.parseNext()) != null) {
+                // the csv parser reads ahead, the rows it has buffered must not be routed after the load data is cleared
+                if (stream.isAborted()) {
+                    return;
+                }
+                if (ignoreNumber == 0) {
+                    if ((row.length == 1 && row[0] == null) || (row.length == 1 && row[0].isEmpty()) || row.length == 0) {
+                        continue;
+                    }
+                    try {
+                        parseOneLine(row);
+                    } catch (Exception e) {
+                        setStreamError(stream, ErrorCode.ER_WRONG_VALUE_COUNT_ON_ROW, "one row can't be parsed,error:" + e.toString() + ",\tdata:" + Arrays.toString(row));
+                        return;
+                    }
+                } else {
+                    ignoreNumber--;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.info("local load data error", e);
+            setStreamError(stream, ErrorCode.ERR_HANDLE_DATA, e.getMessage());
+        } finally {
+            parser.stopParsing();
+        }
+    }
+
+    private void setStreamError(LoadDataStream stream, int errorCode, String errorMsg) {
+        streamErrorCode = errorCode;
+        streamErrorMsg = errorMsg;
+        stream.abort();
+    }
+
+    private void endStream() {
+        dataStream.finish();
+        try {
+            streamParser.waitFinish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            setStreamError(dataStream, ErrorCode.ERR_HANDLE_DATA, "load data is interrupted");
+        } catch (ExecutionException e) {
+            LOGGER.info("local load data error", e.getCause());
+            setStreamError(dataStream, ErrorCode.ERR_HANDLE_DATA, String.valueOf(e.getCause()));
+        }
+        if (streamErrorMsg != null) {
+            int errorCode = streamErrorCode;
+            String errorMsg = streamErrorMsg;
+            clear();
+            service.writeErrMessage(errorCode, errorMsg);
+            return;
+        }
+        if (routeResultMap.isEmpty()) {
+            clear();
+            writeNoRecordOk();
+            return;
+        }
+        executeLoadData();
+    }
+
     /**
      * findout the index of the partition key
      */
@@ -718,6 +817,10 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     public void end(byte packetId) {
         resetProto();
         service.setPacketId(packetId);
+        if (dataStream != null) {
+            endStream();
+            return;
+        }
         //empty packet for end
         saveByteOrToFile(null, true);
         if (isHasStoreToFile) {
@@ -726,41 +829,16 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             String content = new String(tempByteBuffer.toByteArray(), Charset.forName(loadData.getCharset()));
             if ("".equals(content)) {
                 clear();
-                OkPacket ok = new OkPacket();
-                ok.setPacketId(service.nextPacketId());
-                ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
-                ok.write(service.getConnection());
+                writeNoRecordOk();
                 return;
             }
             // List<String> lines = Splitter.on(loadData.getLineTerminatedBy()).omitEmptyStrings().splitToList(content);
-            CsvParserSettings settings = new CsvParserSettings();
-            settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
-            settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
-            settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
-            settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
-            settings.getFormat().setComment('\0');
-            if (loadData.getEnclose() != null) {
-                settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
-            } else {
-                settings.getFormat().setQuote('\0');
-            }
-            if (loadData.getEscape() != null) {
-                settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
-            }
-            settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
-            settings.setSkipEmptyLines(false);
-            settings.trimValues(false);
-            settings.setEmptyValue("");
-
-            CsvParser parser = new CsvParser(settings);
+            CsvParser parser = new CsvParser(createLocalParserSettings());
             try {
                 parser.beginParsing(new StringReader(content));
                 String[] row;
 
-                int ignoreNumber = 0;
-                if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
-                    ignoreNumber = Integer.parseInt(statement.getIgnoreLinesNumber().toString());
-                }
+                int ignoreNumber = getIgnoreNumber();
                 while ((row = parser.parseNext()) != null) {
                     if (ignoreNumber == 0) {
                         if ((row.length == 1 && row[0] == null) || (row.length == 1 && row[0].isEmpty()) || row.length == 0) {
@@ -785,7 +863,10 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
                 parser.stopParsing();
             }
         }
+        executeLoadData();
+    }
 
+    private void executeLoadData() {
         RouteResultset rrs;
         if (LoadDataBatch.getInstance().isEnableBatchLoadData()) {
             rrs = doBuildResultSet(routeResultMap);
@@ -800,6 +881,42 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         }
     }
 
+    private CsvParserSettings createLocalParserSettings() {
+        CsvParserSettings settings = new CsvParserSettings();
+        settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
+        settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
+        settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
+        settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
+        settings.getFormat().setComment('\0');
+        if (loadData.getEnclose() != null) {
+            settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
+        } else {
+            settings.getFormat().setQuote('\0');
+        }
+        if (loadData.getEscape() != null) {
+            settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
+        }
+        settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
+        settings.setSkipEmptyLines(false);
+        settings.trimValues(false);
+        settings.setEmptyValue("");
+        return settings;
+    }
+
+    private int getIgnoreNumber() {
+        if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
+            return Integer.parseInt(statement.getIgnoreLinesNumber().toString());
+        }
+        return 0;
+    }
+
+    private void writeNoRecordOk() {
+        OkPacket ok = new OkPacket();
+        ok.setPacketId(service.nextPacketId());
+        ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
+        ok.write(service.getConnection());
+    }
+
 
     private boolean parseFileByLine(String file, String encode) {
         CsvParserSettings settings = new CsvParserSettings();
@@ -851,10 +968,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             }
             if (empty) {
                 clear();
-                OkPacket ok = new OkPacket();
-                ok.setPacketId(service.nextPacketId());
-                ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
-                ok.write(service.getConnection());
+                writeNoRecordOk();
                 return false;
             }
             return true;
@@ -914,6 +1028,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     }
 
     public void init() {
+        resetStream();
         schema = null;
         tableConfig = null;
         isHasStoreToFile = false;
@@ -946,6 +1061,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     }
 
     public void clearFile(Set<String> successFileNames) {
+        resetStream();
         schema = null;
         tableConfig = null;
         isHasStoreToFile = false;
@@ -973,6 +1089,18 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         routeResultMap.clear();
     }
 
+    /**
+     * called before the fields are reset, the parser uses them until it returns
+     */
+    private void resetStream() {
+        if (streamParser != null) {
+            streamParser.stop();
+            streamParser = null;
+        }
+        dataStream = null;
+        streamErrorMsg = null;
+    }
+
     public void cleanLoadDataFile() {
         if (loadDataPath != null && new File(loadDataPath).exists()) {
             FileUtils.deleteFile(loadDataPath);
@@ -999,4 +1127,55 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         }
         return pColumn;
     }
+
+    /**
+     * runs parseStream in the complex query executor
+     */
+    private final class StreamParser implements Runnable {
+        private final LoadDataStream stream;
+        // false until the parser runs or it is stopped before running
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private Future<?> future;
+
+        StreamParser(LoadDataStream stream) {
+            this.stream = stream;
+        }
+
+        void start() {
+            future = DbleServer.getInstance().getComplexQueryExecutor().submit(this);
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                parseStream(stream);
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        void waitFinish() throws InterruptedException, ExecutionException {
+            future.get();
+        }
+
+        /**
+         * abort the stream and wait until the parser returns. the future can't be waited for after cancel(true),
+         * its get returns at once even if the parser is still running, so the latch is waited for instead
+         */
+        void stop() {
+            stream.abort();
+            if (started.compareAndSet(false, true)) {
+                // never runs
+                future.cancel(false);
+                return;
+            }
+            // wakes up the parser if it waits for the next id of the sequence
+            future.cancel(true);
+            Uninterruptibles.awaitUninterruptibly(finished);
+        }
+    }
 }
@@ -10,6 +10,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.builder.BaseHandlerBuilder;
 import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.BaseSelectHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.OutputHandler;
+import com.actiontech.dble.backend.mysql.store.SpillStatistic;
 import com.actiontech.dble.plan.util.ComplexQueryPlanUtil;
 import com.actiontech.dble.plan.util.ReferenceHandlerInfo;
 import com.actiontech.dble.route.RouteResultsetNode;
@@ -48,6 +49,7 @@ public class TraceResult implements Cloneable {
     private ConcurrentMap<ResponseHandler, Map<String, TraceRecord>> connFinishedMap = new ConcurrentHashMap<>();
     private ConcurrentMap<DMLResponseHandler, TraceRecord> recordStartMap = new ConcurrentHashMap<>();
     private ConcurrentMap<DMLResponseHandler, TraceRecord> recordEndMap = new ConcurrentHashMap<>();
+    private ConcurrentMap<DMLResponseHandler, SpillStatistic> spillStatisticMap = new ConcurrentHashMap<>();
 
     private SqlTraceType type;
     private TraceRecord requestEnd;
@@ -183,6 +185,10 @@ public class TraceResult implements Cloneable {
         recordEndMap.putIfAbsent(handler, TraceRecord.currenTime());
     }
 
+    public SpillStatistic getSpillStatistic(DMLResponseHandler handler) {
+        return spillStatisticMap.computeIfAbsent(handler, k -> new SpillStatistic());
+    }
+
     private void reset() {
         requestStart = null;
         requestEnd = null;
@@ -208,6 +214,7 @@ public class TraceResult implements Cloneable {
         connFinishedMap.clear();
         recordStartMap.clear();
         recordEndMap.clear();
+        spillStatisticMap.clear();
     }
 
     private void copyToPrevious() {
@@ -367,6 +374,7 @@ public class TraceResult implements Cloneable {
                 } else {
                     lst.add(genTraceRecord(result.getType(), handlerStart.getTimestamp(), handlerEnd.getTimestamp(), result.getName(), result.getRefOrSQL()));
                 }
+                genSpillRecord(lst, handler, result.getName());
 
                 if (handler.getNextHandler() == null) {
                     if (handlerEnd != null) {
@@ -478,6 +486,7 @@ public class TraceResult implements Cloneable {
                     return true;
                 }
                 lst.add(genTraceRecord(result.getType(), handlerStart.getTimestamp(), handlerEnd.getTimestamp(), result.getName(), result.getRefOrSQL()));
+                genSpillRecord(lst, handler, result.getName());
                 if (handler.getNextHandler() == null) {
                     lastChildFinished = Math.max(lastChildFinished, handlerEnd.getTimestamp());
                 }
@@ -710,6 +719,24 @@ public class TraceResult implements Cloneable {
         return readQuery;
     }
 
+    /**
+     * the bytes the handler wrote into the temp files, the duration is the time spent on writing
+     */
+    private void genSpillRecord(List<String[]> lst, DMLResponseHandler handler, String name) {
+        SpillStatistic statistic = spillStatisticMap.get(handler);
+        if (statistic == null || statistic.getWrittenBytes() == 0) {
+            return;
+        }
+        String[] spill = new String[6];
+        spill[0] = "Spill_to_Disk";
+        spill[1] = "-";
+        spill[2] = "-";
+        spill[3] = nanoToMilliSecond(statistic.getSpillNanos());
+        spill[4] = name;
+        spill[5] = statistic.toString();
+        lst.add(spill);
+    }
+
     private void printNoResultDebug(Map<String, TraceRecord> fetchStartRecordMap, Map<String, TraceRecord> fetchEndRecordMap) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("collect info not in pairs for connection");
@@ -784,6 +811,8 @@ public class TraceResult implements Cloneable {
             tr.recordStartMap.putAll(this.recordStartMap);
             tr.recordEndMap = new ConcurrentHashMap<>();
             tr.recordEndMap.putAll(this.recordEndMap);
+            tr.spillStatisticMap = new ConcurrentHashMap<>();
+            tr.spillStatisticMap.putAll(this.spillStatisticMap);
             return tr;
         } catch (Exception e) {
             LOGGER.warn("clone TraceResult error", e);
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.dump;
+
+import com.actiontech.dble.util.MappedBufferUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * the writer of the split file of one sharding node, the content is encoded into a direct buffer
+ * and written by the FileChannel when the buffer is full, without the copies of the BufferedWriter and FileWriter.
+ * there is one writer for every sharding node, so the buffer is small and freed at once when the writer is closed,
+ * it shares the direct memory with the buffer pool.
+ */
+final class DumpFileChannelWriter extends Writer {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().
+            onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final DumpFileProgress progress;
+    // reused for the non-ASCII char of write(int)
+    private final CharBuffer single = CharBuffer.allocate(1);
+    // reused for the surrogate pair split by two writes
+    private final CharBuffer pair = CharBuffer.allocate(2);
+    // the high surrogate at the end of the last write, encoded with the next char
+    private char pendingHigh;
+    private boolean closed;
+
+    DumpFileChannelWriter(String fileName, DumpFileProgress progress) throws IOException {
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.progress = progress;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        char ch = (char) c;
+        if (ch < 0x80 && pendingHigh == 0) {
+            // the same byte in UTF-8, put into the buffer directly
+            ensureOpen();
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+            buffer.put((byte) ch);
+            return;
+        }
+        single.clear();
+        single.put(ch).flip();
+        encode(single);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        encode(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        encode(CharBuffer.wrap(str, off, off + len));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("dump file writer is closed");
+        }
+    }
+
+    private void encode(CharBuffer in) throws IOException {
+        ensureOpen();
+        if (pendingHigh != 0 && in.hasRemaining()) {
+            pair.clear();
+            pair.put(pendingHigh).put(in.get()).flip();
+            pendingHigh = 0;
+            encode(pair, false);
+        }
+        encode(in, false);
+        if (in.hasRemaining()) {
+            pendingHigh = in.get();
+        }
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(in, buffer, endOfInput);
+            if (result.isOverflow()) {
+                flushBuffer();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        if (progress != null) {
+            progress.addWriteLength(length);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!closed) {
+            flushBuffer();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            CharBuffer rest = CharBuffer.wrap(pendingHigh == 0 ? new char[0] : new char[]{pendingHigh});
+            pendingHigh = 0;
+            encode(rest, true);
+            while (encoder.flush(buffer).isOverflow()) {
+                flushBuffer();
+            }
+            flushBuffer();
+        } finally {
+            closed = true;
+            try {
+                channel.close();
+            } finally {
+                MappedBufferUtil.release(buffer);
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ public final class DumpFileHandler implements Runnable {
     private final NameableExecutor nameableExecutor;
     private Map<String, String> errorMap;
     private AtomicBoolean errorFlag;
+    private DumpFileProgress progress;
 
 
     public DumpFileHandler(BlockingQueue<String> queue, BlockingQueue<String> insertDeque, BlockingQueue<String> handleQueue,
@@ -48,6 +49,10 @@ public final class DumpFileHandler implements Runnable {
         this.errorFlag = flag;
     }
 
+    public void setProgress(DumpFileProgress progress) {
+        this.progress = progress;
+    }
+
     @Override
     public void run() {
 
@@ -81,7 +86,7 @@ public final class DumpFileHandler implements Runnable {
 
     // read one statement by ;\n
     private void readSQLByEOF(String stmts) throws InterruptedException {
-        boolean endWithEOF = stmts.endsWith(";") || stmts.endsWith(";\n");
+        boolean endWithEOF = stmts.endsWith(";") || stmts.endsWith(";\n") || stmts.endsWith(";\r\n");
         List<String> strings = splitContent(stmts, ";\n", ";\r\n");
         int len = strings.size() - 1;
 
@@ -120,24 +125,32 @@ public final class DumpFileHandler implements Runnable {
     }
 
 
+    /**
+     * split the content by the separators in one scan, the content after the last separator is the last element
+     * if it is not empty
+     */
     public static List<String> splitContent(String content, String linuxSeparate, String windowsSeparate) {
         List<String> list = Lists.newArrayList();
-        boolean linuxFlag = true;
-        while (true) {
-            int j = content.indexOf(linuxSeparate);
-            if (j < 0) {
-                //windows
-                j = content.indexOf(windowsSeparate);
-                linuxFlag = false;
+        int from = 0;
+        int i = content.indexOf(linuxSeparate);
+        int j = content.indexOf(windowsSeparate);
+        while (i >= 0 || j >= 0) {
+            if (i >= 0 && (j < 0 || i <= j)) {
+                list.add(content.substring(from, i));
+                from = i + linuxSeparate.length();
+            } else {
+                list.add(content.substring(from, j));
+                from = j + windowsSeparate.length();
             }
-            if (j < 0) {
-                if (!content.isEmpty()) {
-                    list.add(content);
-                }
-                break;
+            if (i >= 0 && i < from) {
+                i = content.indexOf(linuxSeparate, from);
+            }
+            if (j >= 0 && j < from) {
+                j = content.indexOf(windowsSeparate, from);
             }
-            list.add(content.substring(0, j));
-            content = content.substring(j + (linuxFlag ? linuxSeparate : windowsSeparate).length());
+        }
+        if (from < content.length()) {
+            list.add(content.substring(from));
         }
         if (list.isEmpty()) {
             list.add(content);
@@ -149,6 +162,9 @@ public final class DumpFileHandler implements Runnable {
         if (StringUtil.isEmpty(sql)) {
             return;
         }
+        if (progress != null && !DumpFileReader.EOF.equals(sql)) {
+            progress.addStatement();
+        }
 
         int type = ServerParseFactory.getShardingParser().parse(sql);
         if (ServerParse.INSERT == type) {
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.dump;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the progress of the split command which is running, shown in dble_split_dump_progress
+ */
+public final class DumpFileProgress {
+
+    private static final Set<DumpFileProgress> RUNNING = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private final String readFile;
+    private final long fileLength;
+    private final long startTime = System.currentTimeMillis();
+    private final AtomicLong readLength = new AtomicLong();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder writeLength = new LongAdder();
+
+    public DumpFileProgress(String readFile, long fileLength) {
+        this.readFile = readFile;
+        this.fileLength = fileLength;
+    }
+
+    public static void register(DumpFileProgress progress) {
+        RUNNING.add(progress);
+    }
+
+    public static void unregister(DumpFileProgress progress) {
+        RUNNING.remove(progress);
+    }
+
+    public static Collection<DumpFileProgress> getRunning() {
+        return Collections.unmodifiableSet(RUNNING);
+    }
+
+    void addReadLength(long length) {
+        readLength.addAndGet(length);
+    }
+
+    void addStatement() {
+        statements.increment();
+    }
+
+    void addWriteLength(long length) {
+        writeLength.add(length);
+    }
+
+    public String getReadFile() {
+        return readFile;
+    }
+
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    public long getReadLength() {
+        return readLength.get();
+    }
+
+    public int getReadPercent() {
+        return fileLength == 0 ? 100 : (int) (readLength.get() * 100 / fileLength);
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getWriteLength() {
+        return writeLength.sum();
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * MB of the dump file read per second
+     */
+    public double getReadThroughput() {
+        long elapsed = Math.max(getElapsedMillis(), 1);
+        return readLength.get() / 1048576.0 * 1000 / elapsed;
+    }
+}
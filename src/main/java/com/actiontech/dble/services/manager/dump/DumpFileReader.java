@@ -5,15 +5,18 @@
 
 package com.actiontech.dble.services.manager.dump;
 
-import com.actiontech.dble.backend.mysql.store.fs.FileUtils;
 import com.actiontech.dble.singleton.TraceManager;
+import com.actiontech.dble.util.MappedBufferUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -21,6 +24,10 @@ import java.util.regex.Pattern;
 
 /**
  * @author Baofengqi
+ * <p>
+ * the file is mapped window by window, every window is cut after the last statement terminator in it,
+ * so every chunk put into the handleQueue is decoded once and ends at a statement boundary,
+ * the rest of the window is mapped again as the beginning of the next one
  */
 public final class DumpFileReader implements Runnable {
 
@@ -32,6 +39,7 @@ public final class DumpFileReader implements Runnable {
     private long fileLength;
     private long readLength;
     private int readPercent;
+    private DumpFileProgress progress;
     private final BlockingQueue<String> handleQueue;
     private DumpFileConfig fileConfig;
     private Map<String, String> errorMap;
@@ -44,9 +52,14 @@ public final class DumpFileReader implements Runnable {
     }
 
     public void open(String fileName, DumpFileConfig config) throws IOException {
-        this.fileChannel = FileUtils.open(fileName, "r");
+        this.fileChannel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
         this.fileLength = this.fileChannel.size();
         this.fileConfig = config;
+        this.progress = new DumpFileProgress(fileName, fileLength);
+    }
+
+    public DumpFileProgress getProgress() {
+        return progress;
     }
 
     @Override
@@ -54,19 +67,29 @@ public final class DumpFileReader implements Runnable {
         LOGGER.info("begin to read dump file.");
         TraceManager.TraceObject traceObject = TraceManager.threadTrace("dump-file-read");
         try {
-            ByteBuffer buffer = ByteBuffer.allocate(fileConfig.getBufferSize());
-            int byteRead = fileChannel.read(buffer);
-            while (byteRead != -1) {
-                readLength += byteRead;
-                float percent = ((float) readLength / (float) fileLength) * 100;
-                if (((int) percent) - readPercent > 5 || (int) percent == 100) {
-                    readPercent = (int) percent;
-                    LOGGER.info("dump file has bean read " + readPercent + "%");
+            int windowSize = fileConfig.getBufferSize();
+            while (readLength < fileLength) {
+                long size = Math.min(windowSize, fileLength - readLength);
+                MappedByteBuffer window = fileChannel.map(FileChannel.MapMode.READ_ONLY, readLength, size);
+                int end;
+                String stmts;
+                try {
+                    end = readLength + size == fileLength ? (int) size : chunkEnd(window, (int) size);
+                    window.limit(end);
+                    stmts = StandardCharsets.UTF_8.decode(window).toString();
+                } finally {
+                    // released at once instead of waiting for GC, or the count of the mappings may reach the limit
+                    // of the system before GC when the file is large
+                    MappedBufferUtil.unmap(window);
+                }
+                readLength += end;
+                progress.addReadLength(end);
+                int percent = (int) (readLength * 100 / fileLength);
+                if (percent - readPercent > 5 || percent == 100) {
+                    readPercent = percent;
+                    LOGGER.info("dump file has bean read " + readPercent + "%, " + String.format("%.2f", progress.getReadThroughput()) + " MB/s");
                 }
-                String stmts = new String(buffer.array(), 0, byteRead, StandardCharsets.UTF_8);
                 this.handleQueue.put(stmts);
-                buffer.clear();
-                byteRead = fileChannel.read(buffer);
             }
             this.handleQueue.put(EOF);
         } catch (IOException e) {
@@ -91,4 +114,35 @@ public final class DumpFileReader implements Runnable {
             }
         }
     }
+
+    /**
+     * the end of the chunk in the window: after the last ";\n", or after the last "\n" if the statement is longer than
+     * the window, or at the last character boundary if there is no line break at all
+     */
+    static int chunkEnd(ByteBuffer window, int size) {
+        int lastLine = -1;
+        for (int i = size - 1; i > 0; i--) {
+            if (window.get(i) != '\n') {
+                continue;
+            }
+            byte prev = window.get(i - 1);
+            if (prev == ';' || (prev == '\r' && i > 1 && window.get(i - 2) == ';')) {
+                return i + 1;
+            }
+            if (lastLine < 0) {
+                lastLine = i + 1;
+            }
+        }
+        if (lastLine > 0) {
+            return lastLine;
+        }
+        // don't cut a multi-byte character of UTF-8
+        int lead = size - 1;
+        while (lead > 0 && (window.get(lead) & 0xC0) == 0x80) {
+            lead--;
+        }
+        int b = window.get(lead) & 0xFF;
+        int charLength = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+        return lead + charLength <= size || lead == 0 ? size : lead;
+    }
 }
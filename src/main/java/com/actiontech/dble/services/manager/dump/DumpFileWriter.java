@@ -19,9 +19,8 @@ import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Date;
 import java.util.Map;
 import java.util.Set;
@@ -41,11 +40,16 @@ public class DumpFileWriter {
     // translator
     private final EventTranslatorOneArg<Element, Object> translator = (event, sequence, arg0) -> event.set(arg0);
     private Map<String, String> writerErrorMap;
+    private DumpFileProgress progress;
 
     public DumpFileWriter(Map<String, String> writerErrorMap) {
         this.writerErrorMap = writerErrorMap;
     }
 
+    public void setProgress(DumpFileProgress progress) {
+        this.progress = progress;
+    }
+
     public void open(String writePath, int writeQueueSize, int maxValue) throws IOException {
         Set<String> shardingNodes = DbleServer.getInstance().getConfig().getShardingNodes().keySet();
         Date date = new Date();
@@ -119,7 +123,7 @@ public class DumpFileWriter {
     }
 
     class ShardingNodeWriter {
-        private BufferedWriter bufferedWriter;
+        private Writer fileWriter;
         private final BlockingQueue<Object> queue;
         private Disruptor<Element> disruptor;
         private final int queueSize;
@@ -141,7 +145,7 @@ public class DumpFileWriter {
 
         void open(String fileName) throws IOException {
             this.path = fileName;
-            this.bufferedWriter = new BufferedWriter(new FileWriter(fileName));
+            this.fileWriter = new DumpFileChannelWriter(fileName, progress);
         }
 
         void write(Object obj) {
@@ -154,7 +158,7 @@ public class DumpFileWriter {
         }
 
         void close(boolean errorFlag) throws IOException {
-            this.bufferedWriter.close();
+            this.fileWriter.close();
             if (isDeleteFile || errorFlag) {
                 FileUtils.delete(path);
             }
@@ -171,7 +175,7 @@ public class DumpFileWriter {
                     Object content = element.get();
 
                     if (null != content && content.equals(DumpFileReader.EOF)) {
-                        this.bufferedWriter.write(wrapStr);
+                        this.fileWriter.write(wrapStr);
                         LOGGER.info("finish to write dump file.");
                         close(false);
                         finished.decrementAndGet();
@@ -217,8 +221,8 @@ public class DumpFileWriter {
                 writeInsert(table, insertQuery, wrapStr);
                 rows = 1;
             } else {
-                if (this.bufferedWriter != null) {
-                    this.bufferedWriter.write(content);
+                if (this.fileWriter != null) {
+                    this.fileWriter.write(content);
                 }
             }
         }
@@ -267,16 +271,16 @@ public class DumpFileWriter {
             }
             insertHeader.append(')');
             String content = wrapStr + insertHeader.toString();
-            if (this.bufferedWriter != null) {
-                this.bufferedWriter.write(content);
+            if (this.fileWriter != null) {
+                this.fileWriter.write(content);
             }
         }
 
         private void writeInsertValue(ShardingValuesHandler.InsertQuery insertQuery) throws IOException {
             char[] insertChars = insertQuery.getInsertQueryPos().getInsertChars();
-            if (this.bufferedWriter != null) {
-                this.bufferedWriter.write(',');
-                this.bufferedWriter.write('(');
+            if (this.fileWriter != null) {
+                this.fileWriter.write(',');
+                this.fileWriter.write('(');
                 if (insertQuery.getIncrementColumnIndex() != -1) {
                     //has increment column
                     int index = 0;
@@ -284,20 +288,20 @@ public class DumpFileWriter {
                         Integer start = pair.getKey();
                         Integer end = pair.getValue();
                         if (index++ == insertQuery.getIncrementColumnIndex()) {
-                            this.bufferedWriter.write(insertQuery.getIncrementColumnValue() + "");
+                            this.fileWriter.write(insertQuery.getIncrementColumnValue() + "");
                         } else {
-                            this.bufferedWriter.write(insertQuery.getInsertQueryPos().getInsertChars(), start, end - start);
+                            this.fileWriter.write(insertQuery.getInsertQueryPos().getInsertChars(), start, end - start);
                         }
                         if (index != insertQuery.getValuePair().size()) {
-                            this.bufferedWriter.write(',');
+                            this.fileWriter.write(',');
                         }
                     }
                 } else {
                     Integer start = insertQuery.getValuePair().get(0).getKey();
                     Integer end = insertQuery.getValuePair().get(insertQuery.getValuePair().size() - 1).getValue();
-                    this.bufferedWriter.write(insertChars, start, end - start);
+                    this.fileWriter.write(insertChars, start, end - start);
                 }
-                this.bufferedWriter.write(')');
+                this.fileWriter.write(')');
             }
         }
 
@@ -77,7 +77,10 @@ public final class SplitDumpHandler {
         DumpFileExecutor dumpFileExecutor = new DumpFileExecutor(deque, insertDeque, writer, config, defaultSchemaConfig, fileExecutor, errorFlag);
         try {
             reader.open(config.getReadFile(), config);
+            fileHandler.setProgress(reader.getProgress());
+            writer.setProgress(reader.getProgress());
             writer.open(config.getWritePath() + FileUtils.getName(config.getReadFile()), config.getWriteQueueSize(), config.getMaxValues());
+            DumpFileProgress.register(reader.getProgress());
 
             // start write
             writer.start();
@@ -95,7 +98,7 @@ public final class SplitDumpHandler {
 
         List<ErrorMsg> errors = dumpFileExecutor.getContext().getErrors();
         if (!CollectionUtil.isEmpty(errors)) {
-            recycleThread(fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, true, errorMap);
+            recycleThread(reader, fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, true, errorMap);
             DumpFileError.execute(service, errors);
             return;
         }
@@ -104,14 +107,14 @@ public final class SplitDumpHandler {
             LockSupport.parkNanos(1000);
         }
         //recycling thread
-        recycleThread(fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, errorFlag.get(), errorMap);
+        recycleThread(reader, fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, errorFlag.get(), errorMap);
 
         errorMap.forEach((key, value) -> errors.add(new ErrorMsg(key, value)));
 
         if (service.getConnection().isClosed()) {
             LOGGER.info("finish to split dump file because the connection is closed.");
             //recycling thread
-            recycleThread(fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, errorFlag.get(), errorMap);
+            recycleThread(reader, fileReadExecutor, fileHandlerExecutor, fileExecutor, writer, errorFlag.get(), errorMap);
             service.writeErrMessage(ErrorCode.ER_IO_EXCEPTION, "finish to split dump file due to the connection is closed.");
             return;
         }
@@ -120,12 +123,13 @@ public final class SplitDumpHandler {
         LOGGER.info("finish to split dump file.");
     }
 
-    private static void recycleThread(NameableExecutor fileReadExecutor, NameableExecutor fileHandlerExecutor, NameableExecutor fileExecutor,
+    private static void recycleThread(DumpFileReader reader, NameableExecutor fileReadExecutor, NameableExecutor fileHandlerExecutor, NameableExecutor fileExecutor,
                                       DumpFileWriter writer, boolean errorFlag, Map<String, String> errorMap) {
         //recycling thread
         fileReadExecutor.shutdownNow();
         fileHandlerExecutor.shutdownNow();
         fileExecutor.shutdownNow();
+        DumpFileProgress.unregister(reader.getProgress());
         try {
             writer.stop(errorFlag);
         } catch (IOException e) {
@@ -34,6 +34,7 @@ public final class ManagerSchemaInfo {
         registerTable(new DbleVariables());
         registerTable(new DbleThreadPool());
         registerTable(new DbleThreadPoolTask());
+        registerTable(new DbleThreadPoolWorker());
         registerTable(new DbleFrontConnections());
         registerTable(new DbleBackendConnections());
         registerTable(new DbleShardingNode());
@@ -57,7 +58,10 @@ public final class ManagerSchemaInfo {
         registerTable(new DbleTableShardingNode());
         registerTable(new DbleDbGroup());
         registerTable(new DbleDbInstance());
+        registerTable(new DbleDbInstancePool());
         registerTable(new DbleAlgorithm());
+        registerTable(new DbleSequence());
+        registerTable(new DbleSplitDumpProgress());
         registerTable(new ProcessList());
         registerTable(new SessionVariables());
         registerTable(new BackendVariables());
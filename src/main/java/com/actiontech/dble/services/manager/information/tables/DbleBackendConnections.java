@@ -26,7 +26,7 @@ import java.util.Optional;
 
 public final class DbleBackendConnections extends ManagerBaseTable {
     public DbleBackendConnections() {
-        super("backend_connections", 25);
+        super("backend_connections", 27);
     }
 
     @Override
@@ -95,6 +95,12 @@ public final class DbleBackendConnections extends ManagerBaseTable {
         columns.put("conn_send_task_queue", new ColumnMeta("conn_send_task_queue", "int(11)", false));
         columnsType.put("conn_send_task_queue", Fields.FIELD_TYPE_LONG);
 
+        columns.put("conn_send_calls", new ColumnMeta("conn_send_calls", "int(11)", false));
+        columnsType.put("conn_send_calls", Fields.FIELD_TYPE_LONG);
+
+        columns.put("conn_send_buffers", new ColumnMeta("conn_send_buffers", "int(11)", false));
+        columnsType.put("conn_send_buffers", Fields.FIELD_TYPE_LONG);
+
         columns.put("used_for_heartbeat", new ColumnMeta("used_for_heartbeat", "varchar(5)", false));
         columnsType.put("used_for_heartbeat", Fields.FIELD_TYPE_VAR_STRING);
 
@@ -148,6 +154,8 @@ public final class DbleBackendConnections extends ManagerBaseTable {
         ByteBuffer bb = c.getBottomReadBuffer();
         row.put("conn_recv_buffer", (bb == null ? 0 : bb.capacity()) + "");
         row.put("conn_send_task_queue", c.getWriteQueue().size() + "");
+        row.put("conn_send_calls", c.getNetOutCalls() + "");
+        row.put("conn_send_buffers", c.getNetOutBuffers() + "");
 
         RouteResultsetNode rrn = (RouteResultsetNode) service.getAttachment();
         if (rrn != null) {
@@ -88,6 +88,8 @@ public class DbleDbInstance extends ManagerWritableTable {
 
     private static final String COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN = "heartbeat_failure_in_last_5min";
 
+    private static final String COLUMN_HEARTBEAT_RTT_HISTOGRAM = "heartbeat_rtt_histogram";
+
     private static final String COLUMN_MIN_CONN_COUNT = "min_conn_count";
 
     private static final String COLUMN_MAX_CONN_COUNT = "max_conn_count";
@@ -121,9 +123,10 @@ public class DbleDbInstance extends ManagerWritableTable {
     private static final String COLUMN_FLOW_LOW_LEVEL = "flow_low_level";
 
     public DbleDbInstance() {
-        super(TABLE_NAME, 36);
+        super(TABLE_NAME, 37);
         setNotWritableColumnSet(COLUMN_ACTIVE_CONN_COUNT, COLUMN_IDLE_CONN_COUNT, COLUMN_READ_CONN_REQUEST, COLUMN_WRITE_CONN_REQUEST,
-                COLUMN_LAST_HEARTBEAT_ACK_TIMESTAMP, COLUMN_LAST_HEARTBEAT_ACK, COLUMN_HEARTBEAT_STATUS, COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN);
+                COLUMN_LAST_HEARTBEAT_ACK_TIMESTAMP, COLUMN_LAST_HEARTBEAT_ACK, COLUMN_HEARTBEAT_STATUS, COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN,
+                COLUMN_HEARTBEAT_RTT_HISTOGRAM);
 
         String path = ResourceUtil.getResourcePathFromRoot(ClusterPathUtil.LOCAL_WRITE_PATH);
         path = new File(path).getPath() + File.separator + ConfigFileName.DB_XML;
@@ -193,6 +196,9 @@ public class DbleDbInstance extends ManagerWritableTable {
         columns.put(COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN, new ColumnMeta(COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN, "int(11)", true));
         columnsType.put(COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN, Fields.FIELD_TYPE_LONG);
 
+        columns.put(COLUMN_HEARTBEAT_RTT_HISTOGRAM, new ColumnMeta(COLUMN_HEARTBEAT_RTT_HISTOGRAM, "varchar(256)", true));
+        columnsType.put(COLUMN_HEARTBEAT_RTT_HISTOGRAM, Fields.FIELD_TYPE_VAR_STRING);
+
         columns.put(COLUMN_MIN_CONN_COUNT, new ColumnMeta(COLUMN_MIN_CONN_COUNT, "int(11)", false));
         columnsType.put(COLUMN_MIN_CONN_COUNT, Fields.FIELD_TYPE_LONG);
 
@@ -274,6 +280,7 @@ public class DbleDbInstance extends ManagerWritableTable {
                 map.put(COLUMN_LAST_HEARTBEAT_ACK, heartbeat.getStatus().toString());
                 map.put(COLUMN_HEARTBEAT_STATUS, heartbeat.isChecking() ? MySQLHeartbeat.CHECK_STATUS_CHECKING : MySQLHeartbeat.CHECK_STATUS_IDLE);
                 map.put(COLUMN_HEARTBEAT_FAILURE_IN_LAST_5MIN, String.valueOf(heartbeat.getErrorTimeInLast5MinCount()));
+                map.put(COLUMN_HEARTBEAT_RTT_HISTOGRAM, heartbeat.getRecorder().getRttHistogram());
                 map.put(COLUMN_MIN_CONN_COUNT, String.valueOf(dbInstanceConfig.getMinCon()));
                 map.put(COLUMN_MAX_CONN_COUNT, String.valueOf(dbInstanceConfig.getMaxCon()));
                 map.put(COLUMN_READ_WEIGHT, String.valueOf(dbInstanceConfig.getReadWeight()));
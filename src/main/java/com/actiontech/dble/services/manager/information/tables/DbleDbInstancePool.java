@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.information.tables;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.datasource.PhysicalDbGroup;
+import com.actiontech.dble.backend.datasource.PhysicalDbInstance;
+import com.actiontech.dble.backend.pool.ConnectionPoolStatistic;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.meta.ColumnMeta;
+import com.actiontech.dble.services.manager.information.ManagerBaseTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DbleDbInstancePool extends ManagerBaseTable {
+
+    private static final String TABLE_NAME = "dble_db_instance_pool";
+
+    private static final String COLUMN_NAME = "name";
+
+    private static final String COLUMN_DB_GROUP = "db_group";
+
+    private static final String COLUMN_WAITING_COUNT = "waiting_count";
+
+    private static final String COLUMN_BORROW_COUNT = "borrow_count";
+
+    private static final String COLUMN_AVG_BORROW_TIME = "avg_borrow_time_us";
+
+    private static final String COLUMN_MAX_BORROW_TIME = "max_borrow_time_us";
+
+    private static final String COLUMN_THREAD_LOCAL_HIT = "thread_local_hit";
+
+    private static final String COLUMN_FREE_STACK_HIT = "free_stack_hit";
+
+    private static final String COLUMN_SCAN_HIT = "scan_hit";
+
+    private static final String COLUMN_MISS = "miss";
+
+    private static final String COLUMN_HANDOFF = "handoff";
+
+    private static final String COLUMN_TIMEOUT = "timeout";
+
+    public DbleDbInstancePool() {
+        super(TABLE_NAME, 12);
+    }
+
+    @Override
+    protected void initColumnAndType() {
+        columns.put(COLUMN_NAME, new ColumnMeta(COLUMN_NAME, "varchar(64)", false, true));
+        columnsType.put(COLUMN_NAME, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_DB_GROUP, new ColumnMeta(COLUMN_DB_GROUP, "varchar(64)", false, true));
+        columnsType.put(COLUMN_DB_GROUP, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_WAITING_COUNT, new ColumnMeta(COLUMN_WAITING_COUNT, "int(11)", false));
+        columnsType.put(COLUMN_WAITING_COUNT, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_BORROW_COUNT, new ColumnMeta(COLUMN_BORROW_COUNT, "bigint", false));
+        columnsType.put(COLUMN_BORROW_COUNT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_AVG_BORROW_TIME, new ColumnMeta(COLUMN_AVG_BORROW_TIME, "bigint", false));
+        columnsType.put(COLUMN_AVG_BORROW_TIME, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_MAX_BORROW_TIME, new ColumnMeta(COLUMN_MAX_BORROW_TIME, "bigint", false));
+        columnsType.put(COLUMN_MAX_BORROW_TIME, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_THREAD_LOCAL_HIT, new ColumnMeta(COLUMN_THREAD_LOCAL_HIT, "bigint", false));
+        columnsType.put(COLUMN_THREAD_LOCAL_HIT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_FREE_STACK_HIT, new ColumnMeta(COLUMN_FREE_STACK_HIT, "bigint", false));
+        columnsType.put(COLUMN_FREE_STACK_HIT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_SCAN_HIT, new ColumnMeta(COLUMN_SCAN_HIT, "bigint", false));
+        columnsType.put(COLUMN_SCAN_HIT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_MISS, new ColumnMeta(COLUMN_MISS, "bigint", false));
+        columnsType.put(COLUMN_MISS, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_HANDOFF, new ColumnMeta(COLUMN_HANDOFF, "bigint", false));
+        columnsType.put(COLUMN_HANDOFF, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_TIMEOUT, new ColumnMeta(COLUMN_TIMEOUT, "bigint", false));
+        columnsType.put(COLUMN_TIMEOUT, Fields.FIELD_TYPE_LONGLONG);
+    }
+
+    @Override
+    protected List<LinkedHashMap<String, String>> getRows() {
+        Set<String> nameSet = Sets.newHashSet();
+        Map<String, PhysicalDbGroup> dbGroups = DbleServer.getInstance().getConfig().getDbGroups();
+        List<LinkedHashMap<String, String>> rowList = Lists.newLinkedList();
+        for (PhysicalDbGroup dbGroup : dbGroups.values()) {
+            for (PhysicalDbInstance dbInstance : dbGroup.getDbInstances(true)) {
+                if (!nameSet.add(dbInstance.getName() + "-" + dbGroup.getGroupName())) {
+                    continue;
+                }
+                ConnectionPoolStatistic statistic = dbInstance.getPoolStatistic();
+                long borrowCount = statistic.getBorrowCount();
+                LinkedHashMap<String, String> map = Maps.newLinkedHashMap();
+                map.put(COLUMN_NAME, dbInstance.getName());
+                map.put(COLUMN_DB_GROUP, dbGroup.getGroupName());
+                map.put(COLUMN_WAITING_COUNT, String.valueOf(dbInstance.getThreadsAwaitingConnection()));
+                map.put(COLUMN_BORROW_COUNT, String.valueOf(borrowCount));
+                map.put(COLUMN_AVG_BORROW_TIME, String.valueOf(borrowCount == 0 ? 0 : statistic.getBorrowTimeNanos() / borrowCount / 1000));
+                map.put(COLUMN_MAX_BORROW_TIME, String.valueOf(statistic.getMaxBorrowTimeNanos() / 1000));
+                map.put(COLUMN_THREAD_LOCAL_HIT, String.valueOf(statistic.getThreadLocalHitCount()));
+                map.put(COLUMN_FREE_STACK_HIT, String.valueOf(statistic.getFreeStackHitCount()));
+                map.put(COLUMN_SCAN_HIT, String.valueOf(statistic.getScanHitCount()));
+                map.put(COLUMN_MISS, String.valueOf(statistic.getMissCount()));
+                map.put(COLUMN_HANDOFF, String.valueOf(statistic.getHandoffCount()));
+                map.put(COLUMN_TIMEOUT, String.valueOf(statistic.getTimeoutCount()));
+                rowList.add(map);
+            }
+        }
+        return rowList;
+    }
+}
@@ -26,7 +26,7 @@ import java.util.Map;
 
 public final class DbleFrontConnections extends ManagerBaseTable {
     public DbleFrontConnections() {
-        super("session_connections", 21);
+        super("session_connections", 23);
     }
 
     @Override
@@ -83,6 +83,12 @@ public final class DbleFrontConnections extends ManagerBaseTable {
         columns.put("conn_send_task_queue", new ColumnMeta("conn_send_task_queue", "int(11)", false));
         columnsType.put("conn_send_task_queue", Fields.FIELD_TYPE_LONG);
 
+        columns.put("conn_send_calls", new ColumnMeta("conn_send_calls", "int(11)", false));
+        columnsType.put("conn_send_calls", Fields.FIELD_TYPE_LONG);
+
+        columns.put("conn_send_buffers", new ColumnMeta("conn_send_buffers", "int(11)", false));
+        columnsType.put("conn_send_buffers", Fields.FIELD_TYPE_LONG);
+
         columns.put("conn_recv_task_queue", new ColumnMeta("conn_recv_task_queue", "int(11)", false));
         columnsType.put("conn_recv_task_queue", Fields.FIELD_TYPE_LONG);
 
@@ -160,6 +166,8 @@ public final class DbleFrontConnections extends ManagerBaseTable {
         ByteBuffer bb = c.getBottomReadBuffer();
         row.put("conn_recv_buffer", (bb == null ? 0 : bb.capacity()) + "");
         row.put("conn_send_task_queue", c.getWriteQueue().size() + "");
+        row.put("conn_send_calls", c.getNetOutCalls() + "");
+        row.put("conn_send_buffers", c.getNetOutBuffers() + "");
         row.put("conn_recv_task_queue", c.getFrontEndService().getRecvTaskQueueSize() + "");
         row.put("entry_id", users.get(service.getUser()).getId() + "");
         return row;
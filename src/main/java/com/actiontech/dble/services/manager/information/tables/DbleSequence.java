@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.information.tables;
+
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.meta.ColumnMeta;
+import com.actiontech.dble.route.sequence.handler.IncrSequenceMySQLHandler;
+import com.actiontech.dble.route.sequence.handler.SequenceHandler;
+import com.actiontech.dble.route.sequence.handler.SequenceVal;
+import com.actiontech.dble.services.manager.information.ManagerBaseTable;
+import com.actiontech.dble.singleton.SequenceManager;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * the segment fetching of the sequences in MySQL, empty for other sequence handlers
+ */
+public class DbleSequence extends ManagerBaseTable {
+
+    private static final String TABLE_NAME = "dble_sequence";
+
+    private static final String COLUMN_NAME = "name";
+
+    private static final String COLUMN_SHARDING_NODE = "sharding_node";
+
+    private static final String COLUMN_SEGMENT_BATCH = "segment_batch";
+
+    private static final String COLUMN_PREFETCHED_SEGMENTS = "prefetched_segments";
+
+    private static final String COLUMN_FETCH_COUNT = "fetch_count";
+
+    private static final String COLUMN_PREFETCH_COUNT = "prefetch_count";
+
+    private static final String COLUMN_STALL_COUNT = "stall_count";
+
+    private static final String COLUMN_AVG_REFILL_TIME = "avg_refill_time_ms";
+
+    private static final String COLUMN_MAX_REFILL_TIME = "max_refill_time_ms";
+
+    public DbleSequence() {
+        super(TABLE_NAME, 9);
+    }
+
+    @Override
+    protected void initColumnAndType() {
+        columns.put(COLUMN_NAME, new ColumnMeta(COLUMN_NAME, "varchar(64)", false, true));
+        columnsType.put(COLUMN_NAME, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_SHARDING_NODE, new ColumnMeta(COLUMN_SHARDING_NODE, "varchar(64)", false));
+        columnsType.put(COLUMN_SHARDING_NODE, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_SEGMENT_BATCH, new ColumnMeta(COLUMN_SEGMENT_BATCH, "int(11)", false));
+        columnsType.put(COLUMN_SEGMENT_BATCH, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_PREFETCHED_SEGMENTS, new ColumnMeta(COLUMN_PREFETCHED_SEGMENTS, "int(11)", false));
+        columnsType.put(COLUMN_PREFETCHED_SEGMENTS, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_FETCH_COUNT, new ColumnMeta(COLUMN_FETCH_COUNT, "bigint", false));
+        columnsType.put(COLUMN_FETCH_COUNT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_PREFETCH_COUNT, new ColumnMeta(COLUMN_PREFETCH_COUNT, "bigint", false));
+        columnsType.put(COLUMN_PREFETCH_COUNT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_STALL_COUNT, new ColumnMeta(COLUMN_STALL_COUNT, "bigint", false));
+        columnsType.put(COLUMN_STALL_COUNT, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_AVG_REFILL_TIME, new ColumnMeta(COLUMN_AVG_REFILL_TIME, "bigint", false));
+        columnsType.put(COLUMN_AVG_REFILL_TIME, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_MAX_REFILL_TIME, new ColumnMeta(COLUMN_MAX_REFILL_TIME, "bigint", false));
+        columnsType.put(COLUMN_MAX_REFILL_TIME, Fields.FIELD_TYPE_LONGLONG);
+    }
+
+    @Override
+    protected List<LinkedHashMap<String, String>> getRows() {
+        List<LinkedHashMap<String, String>> rowList = Lists.newLinkedList();
+        SequenceHandler handler = SequenceManager.getHandler();
+        if (!(handler instanceof IncrSequenceMySQLHandler)) {
+            return rowList;
+        }
+        for (SequenceVal seqVal : ((IncrSequenceMySQLHandler) handler).getSequenceVals()) {
+            long fetchCount = seqVal.getFetchCount();
+            LinkedHashMap<String, String> map = Maps.newLinkedHashMap();
+            map.put(COLUMN_NAME, seqVal.getSeqName());
+            map.put(COLUMN_SHARDING_NODE, seqVal.getShardingNode());
+            map.put(COLUMN_SEGMENT_BATCH, String.valueOf(seqVal.getSegmentBatch()));
+            map.put(COLUMN_PREFETCHED_SEGMENTS, String.valueOf(seqVal.getPrefetchedSegments()));
+            map.put(COLUMN_FETCH_COUNT, String.valueOf(fetchCount));
+            map.put(COLUMN_PREFETCH_COUNT, String.valueOf(seqVal.getPrefetchCount()));
+            map.put(COLUMN_STALL_COUNT, String.valueOf(seqVal.getStallCount()));
+            map.put(COLUMN_AVG_REFILL_TIME, String.valueOf(fetchCount == 0 ? 0 : seqVal.getFetchTimeNanos() / fetchCount / 1000000));
+            map.put(COLUMN_MAX_REFILL_TIME, String.valueOf(seqVal.getMaxFetchTimeNanos() / 1000000));
+            rowList.add(map);
+        }
+        return rowList;
+    }
+}
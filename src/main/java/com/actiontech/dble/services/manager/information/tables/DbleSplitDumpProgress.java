@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.information.tables;
+
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.meta.ColumnMeta;
+import com.actiontech.dble.services.manager.dump.DumpFileProgress;
+import com.actiontech.dble.services.manager.information.ManagerBaseTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * the progress of the split commands which are running
+ */
+public class DbleSplitDumpProgress extends ManagerBaseTable {
+
+    private static final String TABLE_NAME = "dble_split_dump_progress";
+
+    private static final String COLUMN_FILE = "file";
+
+    private static final String COLUMN_FILE_SIZE = "file_size";
+
+    private static final String COLUMN_READ_SIZE = "read_size";
+
+    private static final String COLUMN_READ_PERCENT = "read_percent";
+
+    private static final String COLUMN_STATEMENTS = "statements";
+
+    private static final String COLUMN_WRITE_SIZE = "write_size";
+
+    private static final String COLUMN_ELAPSED_TIME = "elapsed_time_ms";
+
+    private static final String COLUMN_READ_THROUGHPUT = "read_mb_per_second";
+
+    public DbleSplitDumpProgress() {
+        super(TABLE_NAME, 8);
+    }
+
+    @Override
+    protected void initColumnAndType() {
+        columns.put(COLUMN_FILE, new ColumnMeta(COLUMN_FILE, "varchar(512)", false, true));
+        columnsType.put(COLUMN_FILE, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_FILE_SIZE, new ColumnMeta(COLUMN_FILE_SIZE, "bigint", false));
+        columnsType.put(COLUMN_FILE_SIZE, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_READ_SIZE, new ColumnMeta(COLUMN_READ_SIZE, "bigint", false));
+        columnsType.put(COLUMN_READ_SIZE, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_READ_PERCENT, new ColumnMeta(COLUMN_READ_PERCENT, "int(11)", false));
+        columnsType.put(COLUMN_READ_PERCENT, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_STATEMENTS, new ColumnMeta(COLUMN_STATEMENTS, "bigint", false));
+        columnsType.put(COLUMN_STATEMENTS, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_WRITE_SIZE, new ColumnMeta(COLUMN_WRITE_SIZE, "bigint", false));
+        columnsType.put(COLUMN_WRITE_SIZE, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_ELAPSED_TIME, new ColumnMeta(COLUMN_ELAPSED_TIME, "bigint", false));
+        columnsType.put(COLUMN_ELAPSED_TIME, Fields.FIELD_TYPE_LONGLONG);
+
+        columns.put(COLUMN_READ_THROUGHPUT, new ColumnMeta(COLUMN_READ_THROUGHPUT, "varchar(32)", false));
+        columnsType.put(COLUMN_READ_THROUGHPUT, Fields.FIELD_TYPE_VAR_STRING);
+    }
+
+    @Override
+    protected List<LinkedHashMap<String, String>> getRows() {
+        List<LinkedHashMap<String, String>> rowList = Lists.newLinkedList();
+        for (DumpFileProgress progress : DumpFileProgress.getRunning()) {
+            LinkedHashMap<String, String> map = Maps.newLinkedHashMap();
+            map.put(COLUMN_FILE, progress.getReadFile());
+            map.put(COLUMN_FILE_SIZE, String.valueOf(progress.getFileLength()));
+            map.put(COLUMN_READ_SIZE, String.valueOf(progress.getReadLength()));
+            map.put(COLUMN_READ_PERCENT, String.valueOf(progress.getReadPercent()));
+            map.put(COLUMN_STATEMENTS, String.valueOf(progress.getStatements()));
+            map.put(COLUMN_WRITE_SIZE, String.valueOf(progress.getWriteLength()));
+            map.put(COLUMN_ELAPSED_TIME, String.valueOf(progress.getElapsedMillis()));
+            map.put(COLUMN_READ_THROUGHPUT, String.format("%.2f", progress.getReadThroughput()));
+            rowList.add(map);
+        }
+        return rowList;
+    }
+}
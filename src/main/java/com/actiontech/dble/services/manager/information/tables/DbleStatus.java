@@ -8,6 +8,7 @@ package com.actiontech.dble.services.manager.information.tables;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.log.transaction.TxnLogProcessor;
 import com.actiontech.dble.memory.unsafe.Platform;
 import com.actiontech.dble.meta.ColumnMeta;
 import com.actiontech.dble.services.manager.information.ManagerBaseTable;
@@ -72,6 +73,12 @@ public class DbleStatus extends ManagerBaseTable {
         list.add(genRow("direct_memory_pool_used", poolUsed + "B", "DirectMemory memory in the memory pool that has been used, measured in bytes"));
         list.add(genRow("questions", result.queries + "", "Number of requests"));
         list.add(genRow("transactions", result.transactions + "", "Number of transactions"));
+        TxnLogProcessor txnLogProcessor = server.getTxnLogProcessor();
+        if (txnLogProcessor != null) {
+            list.add(genRow("txn_log_pending", txnLogProcessor.getPendingCount() + "", "Number of the transaction log records waiting to be written"));
+            list.add(genRow("txn_log_lag", txnLogProcessor.getLag() + "ms", "How long the written transaction log falls behind the executing sql"));
+            list.add(genRow("txn_log_bytes_per_second", txnLogProcessor.getBytesPerSecond() + "B", "Bytes of the transaction log written in the last second"));
+        }
         return list;
     }
 
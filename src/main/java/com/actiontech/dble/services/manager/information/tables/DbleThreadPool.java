@@ -20,6 +20,7 @@ import com.actiontech.dble.services.manager.handler.WriteDynamicBootstrap;
 import com.actiontech.dble.services.manager.information.ManagerWritableTable;
 import com.actiontech.dble.util.IntegerUtil;
 import com.actiontech.dble.util.NameableExecutor;
+import com.actiontech.dble.util.NameableThreadFactory;
 import com.actiontech.dble.util.StringUtil;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -46,9 +47,10 @@ public final class DbleThreadPool extends ManagerWritableTable {
     private static final String COLUMN_CORE_POOL_SIZE = "core_pool_size";
     public static final String COLUMN_ACTIVE_COUNT = "active_count";
     private static final String COLUMN_WAITING_TASK_COUNT = "waiting_task_count";
+    private static final String COLUMN_THREAD_TYPE = "thread_type";
 
     public DbleThreadPool() {
-        super("dble_thread_pool", 5);
+        super("dble_thread_pool", 6);
     }
 
     @Override
@@ -68,6 +70,9 @@ public final class DbleThreadPool extends ManagerWritableTable {
 
         columns.put(COLUMN_WAITING_TASK_COUNT, new ColumnMeta(COLUMN_WAITING_TASK_COUNT, "int(11)", false));
         columnsType.put(COLUMN_WAITING_TASK_COUNT, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_THREAD_TYPE, new ColumnMeta(COLUMN_THREAD_TYPE, "varchar(8)", false));
+        columnsType.put(COLUMN_THREAD_TYPE, Fields.FIELD_TYPE_VAR_STRING);
     }
 
     @Override
@@ -96,6 +101,7 @@ public final class DbleThreadPool extends ManagerWritableTable {
         row.put(COLUMN_CORE_POOL_SIZE, info.getCorePoolSize() + "");
         row.put(COLUMN_ACTIVE_COUNT, info.getActiveCount() + "");
         row.put(COLUMN_WAITING_TASK_COUNT, info.getQueueSize() + "");
+        row.put(COLUMN_THREAD_TYPE, info.isVirtual() ? "virtual" : "platform");
         return row;
     }
 
@@ -106,8 +112,8 @@ public final class DbleThreadPool extends ManagerWritableTable {
 
     @Override
     public int updateRows(Set<LinkedHashMap<String, String>> affectPks, LinkedHashMap<String, String> values) throws SQLException {
-        if (values.containsKey(COLUMN_NAME) || values.containsKey(COLUMN_ACTIVE_COUNT) || values.containsKey(COLUMN_WAITING_TASK_COUNT) || values.containsKey(COLUMN_POOL_SIZE)) {
-            throw new SQLException("Column '" + COLUMN_NAME + "/" + COLUMN_ACTIVE_COUNT + "/" + COLUMN_WAITING_TASK_COUNT + "/" + COLUMN_POOL_SIZE + "' is not writable", "42S22", ErrorCode.ER_ERROR_ON_WRITE);
+        if (values.containsKey(COLUMN_NAME) || values.containsKey(COLUMN_ACTIVE_COUNT) || values.containsKey(COLUMN_WAITING_TASK_COUNT) || values.containsKey(COLUMN_POOL_SIZE) || values.containsKey(COLUMN_THREAD_TYPE)) {
+            throw new SQLException("Column '" + COLUMN_NAME + "/" + COLUMN_ACTIVE_COUNT + "/" + COLUMN_WAITING_TASK_COUNT + "/" + COLUMN_POOL_SIZE + "/" + COLUMN_THREAD_TYPE + "' is not writable", "42S22", ErrorCode.ER_ERROR_ON_WRITE);
         }
         String corePoolSizeStr = values.get(COLUMN_CORE_POOL_SIZE);
         int corePoolSize;
@@ -352,6 +358,7 @@ public final class DbleThreadPool extends ManagerWritableTable {
         private final int corePoolSize;
         private final int activeCount;
         private final int queueSize;
+        private final boolean virtual;
 
         ThreadPoolInfo(NameableExecutor nameableExecutor) {
             this.name = nameableExecutor.getName();
@@ -359,6 +366,7 @@ public final class DbleThreadPool extends ManagerWritableTable {
             this.corePoolSize = nameableExecutor.getCorePoolSize();
             this.activeCount = nameableExecutor.getActiveCount();
             this.queueSize = nameableExecutor.getQueue().size();
+            this.virtual = nameableExecutor.getThreadFactory() instanceof NameableThreadFactory && ((NameableThreadFactory) nameableExecutor.getThreadFactory()).isVirtual();
         }
 
         ThreadPoolInfo(String name, int poolSize, int corePoolSize, int activeCount, int queueSize) {
@@ -367,6 +375,7 @@ public final class DbleThreadPool extends ManagerWritableTable {
             this.corePoolSize = corePoolSize;
             this.activeCount = activeCount;
             this.queueSize = queueSize;
+            this.virtual = false;
         }
 
         public String getName() {
@@ -388,5 +397,9 @@ public final class DbleThreadPool extends ManagerWritableTable {
         public int getQueueSize() {
             return queueSize;
         }
+
+        public boolean isVirtual() {
+            return virtual;
+        }
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.services.manager.information.tables;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.meta.ColumnMeta;
+import com.actiontech.dble.net.executor.ThreadPoolStatistic;
+import com.actiontech.dble.services.manager.information.ManagerBaseTable;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * the queues of the business workers, only when useWorkStealingQueue is enabled
+ */
+public class DbleThreadPoolWorker extends ManagerBaseTable {
+
+    private static final String TABLE_NAME = "dble_thread_pool_worker";
+
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_WORKER_ID = "worker_id";
+    private static final String COLUMN_TASK_QUEUE_SIZE = "task_queue_size";
+    private static final String COLUMN_STEAL_COUNT = "steal_count";
+
+    public DbleThreadPoolWorker() {
+        super(TABLE_NAME, 4);
+    }
+
+    @Override
+    protected void initColumnAndType() {
+        columns.put(COLUMN_NAME, new ColumnMeta(COLUMN_NAME, "varchar(32)", false, true));
+        columnsType.put(COLUMN_NAME, Fields.FIELD_TYPE_VAR_STRING);
+
+        columns.put(COLUMN_WORKER_ID, new ColumnMeta(COLUMN_WORKER_ID, "int(11)", false, true));
+        columnsType.put(COLUMN_WORKER_ID, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_TASK_QUEUE_SIZE, new ColumnMeta(COLUMN_TASK_QUEUE_SIZE, "int(11)", false));
+        columnsType.put(COLUMN_TASK_QUEUE_SIZE, Fields.FIELD_TYPE_LONG);
+
+        columns.put(COLUMN_STEAL_COUNT, new ColumnMeta(COLUMN_STEAL_COUNT, "int(11)", false));
+        columnsType.put(COLUMN_STEAL_COUNT, Fields.FIELD_TYPE_LONG);
+    }
+
+    @Override
+    protected List<LinkedHashMap<String, String>> getRows() {
+        List<LinkedHashMap<String, String>> list = new ArrayList<>();
+        addRows(list, DbleServer.FRONT_WORKER_NAME, ThreadPoolStatistic.getFrontBusiness());
+        addRows(list, DbleServer.BACKEND_WORKER_NAME, ThreadPoolStatistic.getBackendBusiness());
+        return list;
+    }
+
+    private void addRows(List<LinkedHashMap<String, String>> list, String name, ThreadPoolStatistic statistic) {
+        int[] sizes = statistic.getWorkerQueueSizes();
+        long[] steals = statistic.getWorkerStealCounts();
+        for (int i = 0; i < sizes.length; i++) {
+            LinkedHashMap<String, String> map = Maps.newLinkedHashMap();
+            map.put(COLUMN_NAME, name);
+            map.put(COLUMN_WORKER_ID, i + "");
+            map.put(COLUMN_TASK_QUEUE_SIZE, sizes[i] + "");
+            map.put(COLUMN_STEAL_COUNT, steals[i] + "");
+            list.add(map);
+        }
+    }
+}
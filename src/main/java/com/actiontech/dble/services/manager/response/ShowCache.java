@@ -24,7 +24,7 @@ public final class ShowCache {
     private ShowCache() {
     }
 
-    private static final int FIELD_COUNT = 8;
+    private static final int FIELD_COUNT = 10;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -50,6 +50,10 @@ public final class ShowCache {
         FIELDS[i++].setPacketId(++packetId);
         FIELDS[i] = PacketUtil.getField("LAST_PUT", Fields.FIELD_TYPE_VAR_STRING);
         FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("EVICT", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("AVG_LOAD_TIME(us)", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
         EOF.setPacketId(++packetId);
     }
 
@@ -108,6 +112,8 @@ public final class ShowCache {
         row.add(LongUtil.toBytes(cacheStatic.getPutTimes()));
         row.add(StringUtil.encode(FormatUtil.formatDate(cacheStatic.getLastAccessTime()), charset));
         row.add(StringUtil.encode(FormatUtil.formatDate(cacheStatic.getLastPutTime()), charset));
+        row.add(LongUtil.toBytes(cacheStatic.getEvictTimes()));
+        row.add(LongUtil.toBytes(cacheStatic.getAvgLoadTime()));
         return row;
     }
 
@@ -15,6 +15,10 @@ import com.actiontech.dble.buffer.BufferPoolRecord;
 import com.actiontech.dble.config.Capabilities;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.ConnectionException;
+import com.actiontech.dble.net.compress.CompressionCodec;
+import com.actiontech.dble.net.compress.PacketCompressor;
+import com.actiontech.dble.net.compress.ZlibCodec;
+import com.actiontech.dble.net.compress.ZstdCodec;
 import com.actiontech.dble.net.connection.BackendConnection;
 import com.actiontech.dble.net.mysql.*;
 import com.actiontech.dble.net.service.AuthResultInfo;
@@ -50,6 +54,7 @@ public class MySQLBackAuthService extends BackendService implements AuthService
     private volatile boolean authSwitchMore;
     private volatile PluginName pluginName;
     private volatile long serverCapabilities;
+    private volatile CompressionCodec compressionCodec;
     private volatile boolean highPriority = false;
 
     public MySQLBackAuthService(BackendConnection connection, String user, String schema, String passwd, PooledConnectionListener listener, ResponseHandler handler) {
@@ -182,7 +187,15 @@ public class MySQLBackAuthService extends BackendService implements AuthService
         packet.setCharsetIndex(charsetIndex);
         packet.setUser(user);
         packet.setPassword(PasswordAuthPlugin.passwd(passwd, this.seed, pluginName));
-        packet.setClientFlags(getClientFlagSha());
+        long clientFlags = getClientFlagSha();
+        compressionCodec = negotiateCompressionCodec();
+        if (compressionCodec instanceof ZstdCodec) {
+            clientFlags |= Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM;
+            packet.setZstdCompressionLevel(((ZstdCodec) compressionCodec).getLevel());
+        } else if (compressionCodec != null) {
+            clientFlags |= Capabilities.CLIENT_COMPRESS;
+        }
+        packet.setClientFlags(clientFlags);
         packet.setAuthPlugin(pluginName.name());
         packet.setDatabase(schema);
         packet.bufferWrite(connection);
@@ -203,10 +216,8 @@ public class MySQLBackAuthService extends BackendService implements AuthService
             final MySQLResponseService service = (MySQLResponseService) BusinessServiceFactory.getBackendBusinessService(info, connection);
             service.setResponseHandler(handler);
             // support
-            boolean clientCompress = Capabilities.CLIENT_COMPRESS == (Capabilities.CLIENT_COMPRESS & serverCapabilities);
-            boolean usingCompress = SystemConfig.getInstance().getUseCompression() == 1;
-            if (clientCompress && usingCompress) {
-                connection.setSupportCompress(true);
+            if (compressionCodec != null) {
+                connection.setCompressor(new PacketCompressor(compressionCodec));
             }
             connection.setService(service);
             if (listener != null) {
@@ -264,10 +275,6 @@ public class MySQLBackAuthService extends BackendService implements AuthService
         flag |= Capabilities.CLIENT_LONG_FLAG;
         flag |= Capabilities.CLIENT_CONNECT_WITH_DB;
         // flag |= Capabilities.CLIENT_NO_SCHEMA;
-        boolean usingCompress = SystemConfig.getInstance().getUseCompression() == 1;
-        if (usingCompress) {
-            flag |= Capabilities.CLIENT_COMPRESS;
-        }
         flag |= Capabilities.CLIENT_ODBC;
         flag |= Capabilities.CLIENT_LOCAL_FILES;
         flag |= Capabilities.CLIENT_IGNORE_SPACE;
@@ -284,6 +291,25 @@ public class MySQLBackAuthService extends BackendService implements AuthService
         return flag;
     }
 
+    /**
+     * the first algorithm in protocolCompressionAlgorithms which is supported by the server,
+     * CLIENT_COMPRESS or CLIENT_ZSTD_COMPRESSION_ALGORITHM of the chosen one is set in the handshake response only
+     */
+    private CompressionCodec negotiateCompressionCodec() {
+        if (SystemConfig.getInstance().getUseCompression() != 1) {
+            return null;
+        }
+        for (String algorithm : SystemConfig.getInstance().getProtocolCompressionAlgorithms().split(",")) {
+            algorithm = algorithm.trim();
+            if (algorithm.equalsIgnoreCase("zstd") && (serverCapabilities & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0 && ZstdCodec.isAvailable()) {
+                return new ZstdCodec(SystemConfig.getInstance().getZstdCompressionLevel());
+            } else if (algorithm.equalsIgnoreCase("zlib") && (serverCapabilities & Capabilities.CLIENT_COMPRESS) != 0) {
+                return ZlibCodec.INSTANCE;
+            }
+        }
+        return null;
+    }
+
     private long getClientFlagSha() {
         int flag = 0;
         flag |= initClientFlags();
@@ -15,6 +15,9 @@ import com.actiontech.dble.config.Versions;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.user.ManagerUserConfig;
 import com.actiontech.dble.log.general.GeneralLogHelper;
+import com.actiontech.dble.net.compress.PacketCompressor;
+import com.actiontech.dble.net.compress.ZlibCodec;
+import com.actiontech.dble.net.compress.ZstdCodec;
 import com.actiontech.dble.net.connection.AbstractConnection;
 import com.actiontech.dble.net.connection.FrontendConnection;
 import com.actiontech.dble.net.mysql.*;
@@ -252,10 +255,9 @@ public class MySQLFrontAuthService extends FrontendService implements AuthServic
                 connection.setService(service);
                 writeOkPacket();
                 // must after sending ok packet
-                boolean clientCompress = Capabilities.CLIENT_COMPRESS == (Capabilities.CLIENT_COMPRESS & authPacket.getClientFlags());
-                boolean usingCompress = SystemConfig.getInstance().getUseCompression() == 1;
-                if (clientCompress && usingCompress) {
-                    connection.setSupportCompress(true);
+                PacketCompressor compressor = negotiateCompressor(authPacket);
+                if (compressor != null) {
+                    connection.setCompressor(compressor);
                 }
                 if (LOGGER.isDebugEnabled()) {
                     StringBuilder s = new StringBuilder(40);
@@ -280,6 +282,23 @@ public class MySQLFrontAuthService extends FrontendService implements AuthServic
         }
     }
 
+    /**
+     * the client chooses the algorithm from the ones in the capabilities of the server
+     */
+    private static PacketCompressor negotiateCompressor(AuthPacket auth) {
+        if (SystemConfig.getInstance().getUseCompression() != 1) {
+            return null;
+        }
+        long clientFlags = auth.getClientFlags();
+        if ((clientFlags & Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM) != 0 && PacketCompressor.isAlgorithmEnabled("zstd")) {
+            return new PacketCompressor(new ZstdCodec(auth.getZstdCompressionLevel()));
+        }
+        if ((clientFlags & Capabilities.CLIENT_COMPRESS) != 0 && PacketCompressor.isAlgorithmEnabled("zlib")) {
+            return new PacketCompressor(ZlibCodec.INSTANCE);
+        }
+        return null;
+    }
+
     private int getServerCapabilities() {
         int flag = 0;
         flag |= Capabilities.CLIENT_LONG_PASSWORD;
@@ -288,9 +307,12 @@ public class MySQLFrontAuthService extends FrontendService implements AuthServic
         flag |= Capabilities.CLIENT_CONNECT_WITH_DB;
         // flag |= Capabilities.CLIENT_NO_SCHEMA;
         boolean usingCompress = SystemConfig.getInstance().getUseCompression() == 1;
-        if (usingCompress) {
+        if (usingCompress && PacketCompressor.isAlgorithmEnabled("zlib")) {
             flag |= Capabilities.CLIENT_COMPRESS;
         }
+        if (usingCompress && PacketCompressor.isAlgorithmEnabled("zstd")) {
+            flag |= Capabilities.CLIENT_ZSTD_COMPRESSION_ALGORITHM;
+        }
 
         flag |= Capabilities.CLIENT_ODBC;
         flag |= Capabilities.CLIENT_LOCAL_FILES;
@@ -12,6 +12,7 @@ import com.actiontech.dble.cache.LayerCachePool;
 import com.actiontech.dble.cache.impl.EnchachePoolFactory;
 import com.actiontech.dble.cache.impl.LevelDBCachePooFactory;
 import com.actiontech.dble.cache.impl.MapDBCachePooFactory;
+import com.actiontech.dble.cache.impl.OffHeapCachePoolFactory;
 import com.actiontech.dble.cache.impl.RocksDBCachePoolFactory;
 import com.actiontech.dble.util.ResourceUtil;
 import org.slf4j.Logger;
@@ -34,6 +35,7 @@ public final class CacheService {
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheService.class);
     private static final CacheService INSTANCE = new CacheService();
     private static final String SQL_ROUTE_CACHE = "SQLRouteCache";
+    private static final String SQL_TEMPLATE_ROUTE_CACHE = "SQLTemplateRouteCache";
     private final Map<String, CachePoolFactory> poolFactories = new HashMap<>();
     private final ConcurrentMap<String, CachePool> allPools = new ConcurrentHashMap<>();
 
@@ -152,6 +154,9 @@ public final class CacheService {
             case "rocksdb":
                 poolFactories.put(factoryType, new RocksDBCachePoolFactory());
                 break;
+            case "offheap":
+                poolFactories.put(factoryType, new OffHeapCachePoolFactory());
+                break;
             default:
                 CachePoolFactory factry = (CachePoolFactory) Class.forName(factryClassName).newInstance();
                 poolFactories.put(factoryType, factry);
@@ -210,6 +215,10 @@ public final class CacheService {
         return INSTANCE.getCachePool(SQL_ROUTE_CACHE);
     }
 
+    public static CachePool getSqlTemplateRouteCache() {
+        return INSTANCE.getCachePool(SQL_TEMPLATE_ROUTE_CACHE);
+    }
+
     public static CachePool getCachePoolByName(String poolName) {
         return INSTANCE.getCachePool(poolName);
     }
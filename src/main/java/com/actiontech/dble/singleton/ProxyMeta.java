@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.singleton;
 
+import com.actiontech.dble.cache.CachePool;
 import com.actiontech.dble.config.ServerConfig;
 import com.actiontech.dble.meta.ProxyMetaManager;
 import com.actiontech.dble.meta.ReloadManager;
@@ -58,6 +59,10 @@ public final class ProxyMeta {
             if (newManager.initMeta(conf, specifiedSchemas)) {
                 tmManager = newManager;
                 tmpManager.terminate();
+                CachePool templateRouteCache = CacheService.getSqlTemplateRouteCache();
+                if (templateRouteCache != null) {
+                    templateRouteCache.clearCache();
+                }
                 return true;
             }
         } finally {
@@ -6,13 +6,16 @@
 package com.actiontech.dble.singleton;
 
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.cache.CachePool;
 import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.SqlTemplateRoute;
 import com.actiontech.dble.route.factory.RouteStrategyFactory;
 import com.actiontech.dble.route.handler.HintMasterDBHandler;
 import com.actiontech.dble.route.handler.HintPlanHandler;
 import com.actiontech.dble.route.handler.HintSQLHandler;
 import com.actiontech.dble.route.handler.HintShardingNodeHandler;
 import com.actiontech.dble.route.parser.DbleHintParser;
+import com.actiontech.dble.route.parser.util.ParameterizedSql;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.actiontech.dble.services.mysqlsharding.ShardingService;
 import com.google.common.collect.ImmutableMap;
@@ -41,6 +44,9 @@ public final class RouteService {
         RouteResultset rrs = null;
         try {
             String cacheKey = null;
+            String templateKey = null;
+            ParameterizedSql parameterizedSql = null;
+            CachePool templateCache = null;
 
             if (sqlType == ServerParse.SELECT && !LOGGER.isDebugEnabled() && CacheService.getSqlRouteCache() != null) {
                 cacheKey = (schema == null ? "NULL" : schema.getName()) + "_" + service.getUser().getFullName() + "_" + stmt;
@@ -51,6 +57,23 @@ public final class RouteService {
                 }
             }
 
+            // the same select with other literals only need to calculate the sharding node again
+            if (sqlType == ServerParse.SELECT && !isExplain && !LOGGER.isDebugEnabled() && (templateCache = CacheService.getSqlTemplateRouteCache()) != null) {
+                parameterizedSql = ParameterizedSql.parse(stmt.trim());
+                if (parameterizedSql != null) {
+                    templateKey = (schema == null ? "NULL" : schema.getName()) + "_" + service.getUser().getFullName() + "_" + parameterizedSql.getTemplate();
+                    SqlTemplateRoute templateRoute = (SqlTemplateRoute) templateCache.get(templateKey);
+                    if (templateRoute != null) {
+                        if (!templateRoute.isCacheable()) {
+                            templateKey = null;
+                        } else if ((rrs = templateRoute.route(stmt.trim(), sqlType, parameterizedSql)) != null) {
+                            service.getSession2().endParse();
+                            return rrs;
+                        }
+                    }
+                }
+            }
+
             DbleHintParser.HintInfo hintInfo = DbleHintParser.parse(stmt);
             if (hintInfo == null) {
                 stmt = stmt.trim();
@@ -74,6 +97,9 @@ public final class RouteService {
                     service.getSession2().getRemainingSql() == null) {
                 CacheService.getSqlRouteCache().putIfAbsent(cacheKey, rrs);
             }
+            if (rrs != null && rrs.isSqlRouteCacheAble() && templateKey != null && hintInfo == null && service.getSession2().getRemainingSql() == null) {
+                templateCache.putIfAbsent(templateKey, SqlTemplateRoute.build(schema, service.getUser(), stmt, parameterizedSql, rrs));
+            }
             return rrs;
         } finally {
             if (rrs != null) {
@@ -8,6 +8,7 @@ package com.actiontech.dble.singleton;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.datasource.PhysicalDbGroup;
 import com.actiontech.dble.backend.datasource.PhysicalDbInstance;
+import com.actiontech.dble.backend.heartbeat.HashedWheelTimer;
 import com.actiontech.dble.backend.mysql.xa.XAStateLog;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
@@ -39,8 +40,11 @@ public final class Scheduler {
     private static final long DEFAULT_OLD_CONNECTION_CLEAR_PERIOD = 5 * 1000L;
     private static final long DEFAULT_SQL_STAT_RECYCLE_PERIOD = 5 * 1000L;
     private static final int DEFAULT_CHECK_XAID = 5;
+    private static final long HEARTBEAT_TIMER_TICK = 20L;
+    private static final int HEARTBEAT_TIMER_TICKS_PER_WHEEL = 512;
     private ExecutorService timerExecutor;
     private ScheduledExecutorService scheduledExecutor;
+    private final HashedWheelTimer heartbeatTimer = new HashedWheelTimer("HeartbeatTimer", HEARTBEAT_TIMER_TICK, TimeUnit.MILLISECONDS, HEARTBEAT_TIMER_TICKS_PER_WHEEL);
 
     private Scheduler() {
         this.scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("TimerScheduler-%d").build());
@@ -174,6 +178,7 @@ public final class Scheduler {
                     @Override
                     public void run() {
                         XAStateLog.cleanCompleteRecoveryLog();
+                        XAStateLog.compactRecoveryLog();
                     }
                 });
             }
@@ -257,6 +262,10 @@ public final class Scheduler {
         return scheduledExecutor;
     }
 
+    public HashedWheelTimer getHeartbeatTimer() {
+        return heartbeatTimer;
+    }
+
     public static Scheduler getInstance() {
         return INSTANCE;
     }
@@ -79,9 +79,14 @@ public final class SystemParams {
         readOnlyParams.add(new ParamInfo("serverBacklog", sysConfig.getServerBacklog() + "", "The NIO/AIO reactor backlog,the max of create connection request at one time. The default value is 2048"));
         readOnlyParams.add(new ParamInfo("maxCon", sysConfig.getMaxCon() + "", "The number of max connections the server allowed, 0 means number of max connections attributes is not limited"));
         readOnlyParams.add(new ParamInfo("useCompression", sysConfig.getUseCompression() + "", "Whether the Compression is enable, the default number is 0"));
+        readOnlyParams.add(new ParamInfo("protocolCompressionAlgorithms", sysConfig.getProtocolCompressionAlgorithms(), "The algorithms of the compressed protocol if useCompression is enabled, zlib and zstd separated by comma, the former is preferred for the backend connections. The default value is zlib"));
+        readOnlyParams.add(new ParamInfo("zstdCompressionLevel", sysConfig.getZstdCompressionLevel() + "", "The level of zstd for the backend connections using zstd compressed protocol, from 1 to 22. The default value is 3"));
         readOnlyParams.add(new ParamInfo("usingAIO", sysConfig.getUsingAIO() + "", "Whether the AIO is enable, the default number is 0(use NIO instead)"));
+        readOnlyParams.add(new ParamInfo("maxGatheringWriteSize", sysConfig.getMaxGatheringWriteSize() + "", "The max bytes of the queued buffers which are written to the socket by one gathering write of NIO, 0 means writing one buffer each time. The default value is 1048576"));
         readOnlyParams.add(new ParamInfo("useThreadUsageStat", sysConfig.getUseThreadUsageStat() + "", "Whether the thread usage statistics function is enabled. The default value is 0"));
+        readOnlyParams.add(new ParamInfo("useVirtualThread", sysConfig.getUseVirtualThread() + "", "Whether the complex query workers and the blocking sql jobs run on virtual threads, it works on JDK 21 or above. The default value is 0"));
         readOnlyParams.add(new ParamInfo("usePerformanceMode", sysConfig.getUsePerformanceMode() + "", "Whether use the performance mode is enabled. The default value is 0"));
+        readOnlyParams.add(new ParamInfo("useWorkStealingQueue", sysConfig.getUseWorkStealingQueue() + "", "Whether the business workers of the performance mode have their own queues and steal the tasks of the others when idle, it works when usePerformanceMode is 1. The default value is 0"));
         readOnlyParams.add(new ParamInfo("useCostTimeStat", sysConfig.getUseCostTimeStat() + "", "Whether the cost time of query can be track by Btrace. The default value is 0"));
         readOnlyParams.add(new ParamInfo("maxCostStatSize", sysConfig.getMaxCostStatSize() + "", "The max cost total percentage. The default value is 100"));
         readOnlyParams.add(new ParamInfo("costSamplePercent", sysConfig.getCostSamplePercent() + "%", "The percentage of cost sample. The default value is 1%"));
@@ -99,10 +104,13 @@ public final class SystemParams {
         readOnlyParams.add(new ParamInfo("transactionLogBaseDir", sysConfig.getTransactionLogBaseDir(), "The directory of the transaction record file, the default value is ./txlogs/"));
         readOnlyParams.add(new ParamInfo("transactionLogBaseName", sysConfig.getTransactionLogBaseName(), "The name of the transaction record file. The default value is server-tx"));
         readOnlyParams.add(new ParamInfo("transactionRotateSize", sysConfig.getTransactionRotateSize() + "M", "The max size of the transaction record file. The default value is 16M"));
+        readOnlyParams.add(new ParamInfo("transactionLogQueueSize", sysConfig.getTransactionLogQueueSize() + "", "Sets the queue size for writing the transaction log, value must not be less than 1 and must be a power of 2, the default value is 4096"));
+        readOnlyParams.add(new ParamInfo("transactionLogFsyncPeriod", sysConfig.getTransactionLogFsyncPeriod() + "ms", "The transaction log is forced to the disk at most once in the period, 0 means forcing at the end of every batch of writing. The default value is 1000ms"));
         readOnlyParams.add(new ParamInfo("xaRecoveryLogBaseDir", sysConfig.getXaRecoveryLogBaseDir(), "The directory of the xa transaction record file, the default value is ./xalogs/"));
         readOnlyParams.add(new ParamInfo("xaRecoveryLogBaseName", sysConfig.getXaRecoveryLogBaseName(), "The name of the xa transaction record file. The default value is xalog"));
         readOnlyParams.add(new ParamInfo("xaSessionCheckPeriod", sysConfig.getXaSessionCheckPeriod() + "ms", "The xa transaction status check period. The default value is 1000ms"));
         readOnlyParams.add(new ParamInfo("xaLogCleanPeriod", sysConfig.getXaLogCleanPeriod() + "ms", "The xa log clear period. The default value is 1000ms"));
+        readOnlyParams.add(new ParamInfo("xaLogCompactSize", sysConfig.getXaLogCompactSize() + "M", "The xa recovery log file is rewritten with the unfinished transactions when it is larger than this size. The default value is 16M"));
         readOnlyParams.add(new ParamInfo("xaRetryCount", sysConfig.getXaRetryCount() + "", "Indicates the number of background retries if the xa failed to commit/rollback. The default value is 0, retry infinitely"));
         readOnlyParams.add(new ParamInfo("useJoinStrategy", sysConfig.isUseJoinStrategy() + "", "Whether nest loop join is enabled. The default value is false"));
         readOnlyParams.add(new ParamInfo("nestLoopConnSize", sysConfig.getNestLoopConnSize() + "", "The nest loop temporary tables block number. The default value is 4"));
@@ -130,9 +138,13 @@ public final class SystemParams {
         readOnlyParams.add(new ParamInfo("joinQueueSize", sysConfig.getJoinQueueSize() + "", "Size of join queue,Avoid using too much memory"));
         readOnlyParams.add(new ParamInfo("mergeQueueSize", sysConfig.getMergeQueueSize() + "", "Size of merge queue,Avoid using too much memory"));
         readOnlyParams.add(new ParamInfo("orderByQueueSize", sysConfig.getOrderByQueueSize() + "", "Size of order by queue, avoid using too much memory"));
+        readOnlyParams.add(new ParamInfo("orderByTopNMaxRows", sysConfig.getOrderByTopNMaxRows() + "", "If order by is followed by limit and offset+limit is no more than it, only the top rows are kept in memory without writing to disk. 0 means disabled, the default value is 10000"));
+        readOnlyParams.add(new ParamInfo("useSpillCompression", sysConfig.isUseSpillCompression() + "", "Whether compress the temp files of complex query by blocks when the result is too large for memory. The default value is false"));
+        readOnlyParams.add(new ParamInfo("useErParentNegativeCache", sysConfig.isUseErParentNegativeCache() + "", "Whether cache the join key of the ER child table whose parent row is not found in ER_SQL2PARENTID. The default value is false"));
         readOnlyParams.add(new ParamInfo("slowLogBaseDir", sysConfig.getSlowLogBaseDir() + "", "The directory of slow query log, the default value is ./slowlogs/"));
         readOnlyParams.add(new ParamInfo("slowLogBaseName", sysConfig.getSlowLogBaseName() + "", "The name of the slow query log. The default value is slow-query"));
         readOnlyParams.add(new ParamInfo("maxCharsPerColumn", sysConfig.getMaxCharsPerColumn() + "", "The maximum number of characters allowed for per column when load data. The default value is 65535"));
+        readOnlyParams.add(new ParamInfo("enableLoadDataStream", sysConfig.getEnableLoadDataStream() + "", "Whether to parse and route the data of load data local infile while receiving it, instead of saving it into a temp file first. The load data of the backends still starts after the client has sent all the data. The default value is 0(false)"));
         readOnlyParams.add(new ParamInfo("enableTrace", TraceManager.isEnable() + "", "Whether the trace Jaeger is enabled"));
         readOnlyParams.add(new ParamInfo("traceEndPoint", sysConfig.getTraceEndPoint(), "The trace Jaeger server endPoint"));
         readOnlyParams.add(new ParamInfo("traceSamplerType", TraceManager.getSamplerType(), "The trace Jaeger sampler type. The default type is 'const'"));
@@ -146,6 +158,10 @@ public final class SystemParams {
         readOnlyParams.add(new ParamInfo("inSubQueryTransformToJoin", sysConfig.isInSubQueryTransformToJoin() + "", "The inSubQuery is transformed into the join ,the default value is false"));
         readOnlyParams.add(new ParamInfo("rwStickyTime", sysConfig.getRwStickyTime() + "ms", "For rwSplitUser, Implement stickiness for read and write instances, the default value is 1000ms"));
         readOnlyParams.add(new ParamInfo("joinStrategyType", sysConfig.getJoinStrategyType() + "", "Nest loop strategy type. The default value is -1"));
+        readOnlyParams.add(new ParamInfo("useHashJoin", sysConfig.isUseHashJoin() + "", "Whether use hash join instead of sort merge join for the equal join which can not be pushed down. The default value is false"));
+        readOnlyParams.add(new ParamInfo("useHashDistinct", sysConfig.isUseHashDistinct() + "", "Whether use hash set instead of sorting for DISTINCT and COUNT/SUM/AVG(DISTINCT) which can not be pushed down, the rows of DISTINCT without ORDER BY are not sorted then. The default value is false"));
+        readOnlyParams.add(new ParamInfo("sequencePrefetchWatermark", sysConfig.getSequencePrefetchWatermark() + "", "The percent of the sequence segment left when the next segment is fetched in background, only for the sequence in MySQL. 0 means no prefetch. The unused prefetched segments are lost when dble restarts. The default value is 0"));
+        readOnlyParams.add(new ParamInfo("sequenceMaxSegmentBatch", sysConfig.getSequenceMaxSegmentBatch() + "", "The max count of sequence segments fetched in one round trip, it changes with the consumption rate, only for the sequence in MySQL. The unused segments are lost when dble restarts. The default value is 1"));
         readOnlyParams.add(new ParamInfo("closeHeartBeatRecord", sysConfig.isCloseHeartBeatRecord() + "", "close heartbeat record. if closed, `show @@dbinstance.synstatus`,`show @@dbinstance.syndetail`,`show @@heartbeat.detail` will be empty and `show @@heartbeat`'s EXECUTE_TIME will be '-' .The default value is false"));
         readOnlyParams.add(new ParamInfo("enableRoutePenetration", sysConfig.isEnableRoutePenetration() + "", "Whether enable route penetration.The default value is 0"));
         readOnlyParams.add(new ParamInfo("routePenetrationRules", sysConfig.getRoutePenetrationRules() + "", "The config of route penetration.The default value is ''"));
@@ -25,12 +25,18 @@ public class HeartbeatRecorder {
     private static final long AVG2_TIME = 10 * 60 * 1000L;
     private static final long AVG3_TIME = 30 * 60 * 1000L;
     private static final long SWAP_TIME = 24 * 60 * 60 * 1000L;
+    // upper bounds(exclusive) of the rtt histogram buckets in milliseconds, the last bucket is unbounded
+    private static final long[] RTT_BUCKET_BOUNDS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024};
+    // the counts are halved when reaching it, so the histogram shows the recent rtt
+    private static final long RTT_HISTOGRAM_DECAY_COUNT = 4096;
 
     private long avg1;
     private long avg2;
     private long avg3;
     private final Queue<Record> records;
     private final Queue<Record> recordsAll;
+    private final long[] rttHistogram = new long[RTT_BUCKET_BOUNDS.length + 1];
+    private long rttHistogramCount;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HeartbeatRecorder.class);
 
@@ -58,6 +64,7 @@ public class HeartbeatRecorder {
                 return;
             }
             remove(time);
+            addToRttHistogram(value);
             int size = records.size();
             if (size == 0) {
                 records.offer(new Record(value, time));
@@ -75,6 +82,50 @@ public class HeartbeatRecorder {
         }
     }
 
+    /**
+     * the rtt histogram of the recent heartbeats, like "<1ms:100,<2ms:3,>=1024ms:1", the empty buckets are omitted
+     */
+    public String getRttHistogram() {
+        if (SystemConfig.getInstance().isCloseHeartBeatRecord()) {
+            return "-";
+        }
+        StringBuilder sb = new StringBuilder();
+        synchronized (rttHistogram) {
+            for (int i = 0; i < rttHistogram.length; i++) {
+                if (rttHistogram[i] == 0) {
+                    continue;
+                }
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                if (i < RTT_BUCKET_BOUNDS.length) {
+                    sb.append('<').append(RTT_BUCKET_BOUNDS[i]);
+                } else {
+                    sb.append(">=").append(RTT_BUCKET_BOUNDS[RTT_BUCKET_BOUNDS.length - 1]);
+                }
+                sb.append("ms:").append(rttHistogram[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void addToRttHistogram(long value) {
+        int bucket = 0;
+        while (bucket < RTT_BUCKET_BOUNDS.length && value >= RTT_BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        synchronized (rttHistogram) {
+            rttHistogram[bucket]++;
+            if (++rttHistogramCount >= RTT_HISTOGRAM_DECAY_COUNT) {
+                rttHistogramCount = 0;
+                for (int i = 0; i < rttHistogram.length; i++) {
+                    rttHistogram[i] >>>= 1;
+                    rttHistogramCount += rttHistogram[i];
+                }
+            }
+        }
+    }
+
     /**
      * remove old data
      */
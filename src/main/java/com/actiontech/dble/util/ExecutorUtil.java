@@ -5,7 +5,11 @@
  */
 package com.actiontech.dble.util;
 
+import com.actiontech.dble.config.model.SystemConfig;
+
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 
@@ -45,4 +49,26 @@ public final class ExecutorUtil {
         NameableThreadFactory factory = new NameableThreadFactory(name, isDaemon);
         return new NameableExecutor(name, size, Integer.MAX_VALUE, 60, new SynchronousQueue<>(), factory, runnableMap);
     }
+
+    /**
+     * the cached executor whose threads are virtual, needs JDK 21+
+     */
+    public static NameableExecutor createVirtualCached(String name, int size, Map<String, Map<Thread, Runnable>> runnableMap) {
+        return new NameableExecutor(name, size, Integer.MAX_VALUE, 60, new SynchronousQueue<>(), NameableThreadFactory.newVirtual(name), runnableMap);
+    }
+
+    /**
+     * the executor of the jobs which block on the backend response, such as SQLJob and OneTimeConnJob.
+     * every job has its own virtual thread if useVirtualThread is enabled, otherwise the threads are fixed
+     */
+    public static ExecutorService createForBlockingJob(String name, int size) {
+        if (isVirtualThreadEnabled()) {
+            return createVirtualCached(name, 0, null);
+        }
+        return Executors.newFixedThreadPool(size);
+    }
+
+    public static boolean isVirtualThreadEnabled() {
+        return SystemConfig.getInstance().getUseVirtualThread() == 1 && VirtualThreadUtil.isSupported();
+    }
 }
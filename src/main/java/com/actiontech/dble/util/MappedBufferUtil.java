@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * release the mapping of a MappedByteBuffer or the memory of a direct buffer at once instead of waiting for GC.
+ * JDK 9+ hides the cleaner of the buffer, so Unsafe.invokeCleaner is used there and the cleaner on JDK 8,
+ * both are called by reflection because dble is built for JDK 8
+ */
+public final class MappedBufferUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedBufferUtil.class);
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 8, the cleaner of the buffer is used
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private MappedBufferUtil() {
+    }
+
+    /**
+     * the buffer must not be used after it is unmapped
+     *
+     * @return false if failed to unmap, the mapping is released by GC later
+     */
+    public static boolean unmap(MappedByteBuffer buffer) {
+        return release(buffer);
+    }
+
+    /**
+     * free the memory of a direct buffer allocated by ByteBuffer.allocateDirect, not a slice or duplicate of it.
+     * the buffer must not be used after it is freed
+     *
+     * @return false if failed to free or the buffer is not direct, the memory is released by GC later
+     */
+    public static boolean release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    Method cleanMethod = cleaner.getClass().getMethod("clean");
+                    cleanMethod.setAccessible(true);
+                    cleanMethod.invoke(cleaner);
+                }
+            }
+            return true;
+        } catch (Throwable e) {
+            LOGGER.warn("release the direct buffer error, it is released by GC later", e);
+            return false;
+        }
+    }
+}
@@ -18,6 +18,8 @@ public class NameableThreadFactory implements ThreadFactory {
     private String nameSuffix;
     private final AtomicInteger threadId;
     private final boolean isDaemon;
+    // not null if the threads are virtual, they are always daemon
+    private ThreadFactory virtualFactory;
 
     public NameableThreadFactory(String namePrefix, boolean isDaemon) {
         SecurityManager s = System.getSecurityManager();
@@ -36,9 +38,26 @@ public class NameableThreadFactory implements ThreadFactory {
         this.isDaemon = isDaemon;
     }
 
+    public static NameableThreadFactory newVirtual(String namePrefix) {
+        NameableThreadFactory factory = new NameableThreadFactory(namePrefix, true);
+        factory.virtualFactory = VirtualThreadUtil.newThreadFactory();
+        return factory;
+    }
+
+    public boolean isVirtual() {
+        return virtualFactory != null;
+    }
+
     public Thread newThread(Runnable r) {
-        Thread t = new Thread(group, r, threadId.getAndIncrement() + "-" + namePrefix + (StringUtil.isBlank(nameSuffix) ? "" : nameSuffix));
-        t.setDaemon(isDaemon);
+        String name = threadId.getAndIncrement() + "-" + namePrefix + (StringUtil.isBlank(nameSuffix) ? "" : nameSuffix);
+        Thread t;
+        if (virtualFactory != null) {
+            t = virtualFactory.newThread(r);
+            t.setName(name);
+        } else {
+            t = new Thread(group, r, name);
+            t.setDaemon(isDaemon);
+        }
         //If more processing needs to be overridden class processing
         t.setUncaughtExceptionHandler((Thread threads, Throwable e) -> LOGGER.warn("unknown exception ", e));
         return t;
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import java.nio.channels.SelectionKey;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * the selected keys of the selector kept in an array instead of the HashSet of JDK,
+ * adding a key doesn't allocate any node and clearing it doesn't walk the buckets.
+ * refer to io.netty.channel.nio.SelectedSelectionKeySet
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+    private SelectionKey[] keys = new SelectionKey[1024];
+    private int size;
+
+    @Override
+    public boolean add(SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        keys[size++] = key;
+        return true;
+    }
+
+    /**
+     * the selector adds a key only once in one select, so the key is not checked here
+     */
+    @Override
+    public boolean contains(Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return idx < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[idx++];
+            }
+        };
+    }
+}
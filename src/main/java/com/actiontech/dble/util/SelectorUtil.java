@@ -8,6 +8,8 @@ package com.actiontech.dble.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
 import java.nio.channels.*;
 import java.util.ConcurrentModificationException;
 
@@ -20,6 +22,37 @@ public final class SelectorUtil {
 
     public static final long DEFAULT_SELECT_TIMEOUT_RW = 500;
     public static final long DEFAULT_SELECT_TIMEOUT = 1000;
+    private static volatile boolean keySetOptimizeFailed = false;
+
+    /**
+     * open a selector whose selected keys are kept in an array, the selected keys of it must be cleared after every select.
+     * if the implementation of JDK can't be accessed, e.g. JDK 9+ without "--add-opens java.base/sun.nio.ch=ALL-UNNAMED",
+     * the selector of JDK is returned as it is.
+     */
+    public static Selector openSelector() throws IOException {
+        Selector selector = Selector.open();
+        if (keySetOptimizeFailed) {
+            return selector;
+        }
+        try {
+            Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isAssignableFrom(selector.getClass())) {
+                keySetOptimizeFailed = true;
+                return selector;
+            }
+            Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+            SelectedSelectionKeySet selectedKeySet = new SelectedSelectionKeySet();
+            selectedKeysField.set(selector, selectedKeySet);
+            publicSelectedKeysField.set(selector, selectedKeySet);
+        } catch (Exception | LinkageError e) {
+            keySetOptimizeFailed = true;
+            LOGGER.info("can't use the array of selected keys for the selector, use the one of JDK instead. reason: {}", e.toString());
+        }
+        return selector;
+    }
 
 
     public static boolean checkSelectReturnsImmediately(long timeBlocked, Selector finalSelector, long minSelectTimeout) {
@@ -60,7 +93,7 @@ public final class SelectorUtil {
         }
 
         try {
-            newSelector = Selector.open();
+            newSelector = openSelector();
         } catch (Exception e) {
             LOGGER.warn("Failed to create a new Selector.", e);
             return null;
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * the virtual threads of JDK 21+, called by reflection because dble is built for JDK 8.
+ * Thread.ofVirtual exists as a preview API on JDK 19/20 and throws unless the preview is enabled,
+ * so the support is probed by creating the factory once.
+ */
+public final class VirtualThreadUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadUtil.class);
+    private static final Method OF_VIRTUAL;
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            factory.invoke(ofVirtual.invoke(null));
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            // before JDK 19
+            ofVirtual = null;
+        } catch (Throwable e) {
+            // the preview API of JDK 19/20
+            LOGGER.info("virtual thread is not supported by the current JDK " + System.getProperty("java.version") + ": " + e);
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        FACTORY = factory;
+    }
+
+    private VirtualThreadUtil() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return the factory of the unnamed virtual threads
+     * @throws UnsupportedOperationException if the JDK doesn't support virtual threads
+     */
+    public static ThreadFactory newThreadFactory() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("virtual thread needs JDK 21 or above, current is " + System.getProperty("java.version"));
+        }
+        try {
+            return (ThreadFactory) FACTORY.invoke(OF_VIRTUAL.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("can't create the factory of virtual thread", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.heartbeat;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HashedWheelTimerTest {
+    private static final long TICK = 10;
+    private final AtomicLong now = new AtomicLong();
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        // 10ms a tick and 4 buckets, so a wheel round is 40ms
+        timer = new HashedWheelTimer("test", TICK, TimeUnit.MILLISECONDS, 4, now::get);
+    }
+
+    @Test
+    public void testRoundsOfSameBucket() {
+        AtomicInteger near = new AtomicInteger();
+        AtomicInteger far = new AtomicInteger();
+        // the same bucket 1, the far one is there after 2 rounds
+        timer.scheduleAtFixedRate(near::incrementAndGet, 15, 1000, TimeUnit.MILLISECONDS);
+        timer.scheduleAtFixedRate(far::incrementAndGet, 95, 1000, TimeUnit.MILLISECONDS);
+        advanceTo(10);
+        Assert.assertEquals(0, near.get());
+        advanceTo(20);
+        Assert.assertEquals(1, near.get());
+        Assert.assertEquals(0, far.get());
+        advanceTo(60);
+        Assert.assertEquals(0, far.get());
+        advanceTo(90);
+        Assert.assertEquals(0, far.get());
+        advanceTo(100);
+        Assert.assertEquals(1, far.get());
+        Assert.assertEquals(1, near.get());
+    }
+
+    @Test
+    public void testFixedRate() {
+        AtomicInteger runs = new AtomicInteger();
+        timer.scheduleAtFixedRate(runs::incrementAndGet, 0, 30, TimeUnit.MILLISECONDS);
+        advanceTo(10);
+        Assert.assertEquals(1, runs.get());
+        advanceTo(30);
+        Assert.assertEquals(1, runs.get());
+        advanceTo(40);
+        Assert.assertEquals(2, runs.get());
+        // across the rounds of the wheel
+        advanceTo(310);
+        Assert.assertEquals(11, runs.get());
+    }
+
+    @Test
+    public void testSkipRunsWhenFallingBehind() {
+        AtomicInteger runs = new AtomicInteger();
+        timer.scheduleAtFixedRate(() -> {
+            if (runs.incrementAndGet() == 1) {
+                // the first run blocks the wheel for 90ms
+                now.set(100 * 1_000_000L);
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        advanceTo(10);
+        // the 8 missed runs are skipped instead of run one after another
+        Assert.assertEquals(1, runs.get());
+        advanceTo(110);
+        Assert.assertEquals(2, runs.get());
+        advanceTo(120);
+        Assert.assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void testCancelBeforeRun() {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout pending = timer.scheduleAtFixedRate(runs::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        // cancelled before it is moved into the wheel
+        pending.cancel();
+        HashedWheelTimer.Timeout inWheel = timer.scheduleAtFixedRate(runs::incrementAndGet, 50, 10, TimeUnit.MILLISECONDS);
+        advanceTo(20);
+        // cancelled in the wheel
+        inWheel.cancel();
+        Assert.assertTrue(inWheel.isCancelled());
+        advanceTo(200);
+        Assert.assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testCancelAfterRuns() {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout timeout = timer.scheduleAtFixedRate(runs::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        advanceTo(30);
+        Assert.assertEquals(3, runs.get());
+        timeout.cancel();
+        advanceTo(100);
+        Assert.assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void testCancelInTask() {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout[] self = new HashedWheelTimer.Timeout[1];
+        self[0] = timer.scheduleAtFixedRate(() -> {
+            if (runs.incrementAndGet() == 2) {
+                self[0].cancel();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        advanceTo(100);
+        Assert.assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testTaskErrorKeepsSchedule() {
+        AtomicInteger runs = new AtomicInteger();
+        timer.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("error of the task");
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        advanceTo(30);
+        Assert.assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void testSpreadDelay() {
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            long delay = timer.spreadDelay(10000);
+            Assert.assertTrue(delay >= 0 && delay < 10000);
+            delays.add(delay);
+        }
+        Assert.assertEquals(100, delays.size());
+    }
+
+    // tick by tick, as the worker thread does when it keeps up
+    private void advanceTo(long millis) {
+        long target = TimeUnit.MILLISECONDS.toNanos(millis);
+        while (now.get() < target) {
+            now.set(Math.min(target, now.get() + TimeUnit.MILLISECONDS.toNanos(TICK)));
+            timer.advance();
+        }
+    }
+}
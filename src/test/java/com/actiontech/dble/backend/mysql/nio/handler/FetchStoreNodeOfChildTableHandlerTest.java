@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.cache.CachePool;
+import com.actiontech.dble.cache.CacheStatic;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.route.function.PartitionByLong;
+import com.actiontech.dble.singleton.CacheService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the join keys found in ER_SQL2PARENTID are not probed, the tests never reach the backends
+ */
+public class FetchStoreNodeOfChildTableHandlerTest {
+    private static final String POOL_NAME = "ER_SQL2PARENTID";
+    private static final String SCHEMA = "testdb";
+    private static final List<String> NODES = Arrays.asList("dn1", "dn2");
+    private ChildTableConfig items;
+    private MapCachePool cache;
+    private CachePool oldCache;
+    private boolean oldNegativeCache;
+
+    @Before
+    public void setUp() {
+        PartitionByLong function = new PartitionByLong();
+        function.setPartitionCount("2");
+        function.setPartitionLength("512");
+        function.init();
+        ShardingTableConfig customer = new ShardingTableConfig("customer", -1, NODES, null, function, "id", false, false);
+        ChildTableConfig orders = new ChildTableConfig("orders", -1, NODES, customer, "customer_id", "id", null, false);
+        items = new ChildTableConfig("items", -1, NODES, orders, "order_code", "code", null, false);
+
+        cache = new MapCachePool();
+        oldCache = CacheService.getInstance().getAllCachePools().put(POOL_NAME, cache);
+        oldNegativeCache = SystemConfig.getInstance().isUseErParentNegativeCache();
+        SystemConfig.getInstance().setUseErParentNegativeCache(true);
+    }
+
+    @After
+    public void tearDown() {
+        if (oldCache == null) {
+            CacheService.getInstance().getAllCachePools().remove(POOL_NAME);
+        } else {
+            CacheService.getInstance().getAllCachePools().put(POOL_NAME, oldCache);
+        }
+        SystemConfig.getInstance().setUseErParentNegativeCache(oldNegativeCache);
+    }
+
+    @Test
+    public void testNegativeCacheHit() throws Exception {
+        String sql = items.getLocateRTableKeySql() + "'a'";
+        cache.putIfAbsent(SCHEMA + ":" + sql, "");
+        Assert.assertNull(new FetchStoreNodeOfChildTableHandler(sql, null).execute(SCHEMA, NODES));
+    }
+
+    @Test
+    public void testMultiKeysFromCache() throws Exception {
+        cache.putIfAbsent(SCHEMA + ":" + items.getLocateRTableKeySql() + "'a'", "dn2");
+        cache.putIfAbsent(SCHEMA + ":" + items.getLocateRTableKeySql() + "'b'", "");
+        Map<String, String> keyNodes = FetchStoreNodeOfChildTableHandler.execute(SCHEMA, items, Arrays.asList("'a'", "'b'", "'a'"), null);
+        Assert.assertNotNull(keyNodes);
+        Assert.assertEquals(1, keyNodes.size());
+        Assert.assertEquals("dn2", keyNodes.get("'a'"));
+        // the key cached as not found isn't probed again and has no node
+        Assert.assertNull(keyNodes.get("'b'"));
+    }
+
+    private static final class MapCachePool implements CachePool {
+        private final Map<Object, Object> map = new ConcurrentHashMap<>();
+
+        @Override
+        public void putIfAbsent(Object key, Object value) {
+            map.putIfAbsent(key, value);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void clearCache() {
+            map.clear();
+        }
+
+        @Override
+        public CacheStatic getCacheStatic() {
+            return new CacheStatic();
+        }
+
+        @Override
+        public long getMaxSize() {
+            return Long.MAX_VALUE;
+        }
+    }
+}
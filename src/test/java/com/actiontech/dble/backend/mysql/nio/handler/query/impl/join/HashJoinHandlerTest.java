@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.PacketUtil;
+import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.net.Session;
+import com.actiontech.dble.net.connection.FrontendConnection;
+import com.actiontech.dble.net.mysql.CharsetNames;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.net.service.AbstractService;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.services.mysqlsharding.MySQLResponseService;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the left table is a(id, val) and the right table is b(id, val), joined by a.id = b.id,
+ * the join buffer is small, so the build side is split into partitions
+ */
+public class HashJoinHandlerTest {
+    // about 100 rows fit in the join buffer
+    private static final long JOIN_BUFFER_SIZE = 2048;
+    private Object oldExecutor;
+    private Object oldPool;
+    private ExecutorService executor;
+    private TrackingMemSizeController mc;
+    private Session session;
+    private MySQLResponseService service;
+    private ResultCollector collector;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        oldExecutor = setField(DbleServer.class, DbleServer.getInstance(), "complexQueryExecutor", executor);
+        oldPool = setField(BufferPoolManager.class, BufferPoolManager.getInstance(), "bufferPool",
+                new DirectByteBufferPool(1024 * 1024, (short) 4096, (short) 2));
+        mc = new TrackingMemSizeController(JOIN_BUFFER_SIZE);
+        CharsetNames charsetNames = Mockito.mock(CharsetNames.class);
+        Mockito.when(charsetNames.getResults()).thenReturn("utf8mb4");
+        Mockito.when(charsetNames.getCollation()).thenReturn("utf8mb4_general_ci");
+        service = Mockito.mock(MySQLResponseService.class);
+        Mockito.when(service.getCharset()).thenReturn(charsetNames);
+        FrontendConnection source = Mockito.mock(FrontendConnection.class);
+        Mockito.when(source.getService()).thenReturn(service);
+        session = Mockito.mock(Session.class);
+        Mockito.when(session.getJoinBufferMC()).thenReturn(mc);
+        Mockito.when(session.getSource()).thenReturn(source);
+        collector = new ResultCollector(session);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        setField(DbleServer.class, DbleServer.getInstance(), "complexQueryExecutor", oldExecutor);
+        setField(BufferPoolManager.class, BufferPoolManager.getInstance(), "bufferPool", oldPool);
+    }
+
+    @Test(timeout = 60000)
+    public void testInnerJoinAcrossSpill() throws Exception {
+        List<RowDataPacket> left = rows(2000, 500, "l");
+        List<RowDataPacket> right = rows(1500, 700, "r");
+        List<String> joined = join(false, Fields.FIELD_TYPE_LONG, left, right);
+        Assert.assertTrue(mc.spilled);
+        assertRows(expected(false, left, right), joined);
+    }
+
+    @Test(timeout = 60000)
+    public void testLeftJoinAcrossSpill() throws Exception {
+        List<RowDataPacket> left = rows(2000, 800, "l");
+        List<RowDataPacket> right = rows(1500, 500, "r");
+        List<String> joined = join(true, Fields.FIELD_TYPE_LONG, left, right);
+        Assert.assertTrue(mc.spilled);
+        assertRows(expected(true, left, right), joined);
+    }
+
+    @Test(timeout = 60000)
+    public void testPartitionCanNotBeSplit() throws Exception {
+        // all the build rows have the same join value, they stay in one partition at every level
+        List<RowDataPacket> right = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            right.add(row(7, "r" + i));
+        }
+        List<RowDataPacket> left = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            left.add(row(i % 2 == 0 ? 7 : 8, "l" + i));
+        }
+        List<String> joined = join(true, Fields.FIELD_TYPE_LONG, left, right);
+        Assert.assertTrue(mc.spilled);
+        // every block of the build rows is joined, the unmatched rows are joined with null only once
+        Assert.assertEquals(50 * 1000 + 50, joined.size());
+        assertRows(expected(true, left, right), joined);
+    }
+
+    @Test(timeout = 60000)
+    public void testNotHashableInnerJoin() throws Exception {
+        // int join varchar, no join column can be hashed
+        List<RowDataPacket> left = rows(300, 100, "l");
+        List<RowDataPacket> right = rows(300, 150, "r");
+        List<String> joined = join(false, Fields.FIELD_TYPE_VAR_STRING, left, right);
+        Assert.assertTrue(mc.spilled);
+        assertRows(expected(false, left, right), joined);
+    }
+
+    @Test(timeout = 60000)
+    public void testNotHashableLeftJoin() throws Exception {
+        List<RowDataPacket> left = rows(300, 150, "l");
+        List<RowDataPacket> right = rows(300, 100, "r");
+        List<String> joined = join(true, Fields.FIELD_TYPE_VAR_STRING, left, right);
+        Assert.assertTrue(mc.spilled);
+        assertRows(expected(true, left, right), joined);
+    }
+
+    /**
+     * half of the probe rows come before the build side is finished, the other half after it
+     *
+     * @param rightIdType the type of b.id, a.id is always int
+     */
+    private List<String> join(boolean isLeftJoin, int rightIdType, List<RowDataPacket> left, List<RowDataPacket> right) throws Exception {
+        List<Order> leftOrders = Collections.singletonList(new Order(new ItemField(null, "a", "id")));
+        List<Order> rightOrders = Collections.singletonList(new Order(new ItemField(null, "b", "id")));
+        HashJoinHandler handler = new HashJoinHandler(1, session, isLeftJoin, true, leftOrders, rightOrders, null);
+        handler.setNextHandler(collector);
+        handler.fieldEofResponse(null, null, fields("a", Fields.FIELD_TYPE_LONG), null, true, service);
+        handler.fieldEofResponse(null, null, fields("b", rightIdType), null, false, service);
+
+        // the left side is built unless it is a left join
+        boolean buildLeft = !isLeftJoin;
+        List<RowDataPacket> build = buildLeft ? left : right;
+        List<RowDataPacket> probe = buildLeft ? right : left;
+        int half = probe.size() / 2;
+        for (int i = 0; i < half; i++) {
+            Assert.assertFalse(handler.rowResponse(null, probe.get(i), !buildLeft, service));
+        }
+        for (RowDataPacket row : build) {
+            Assert.assertFalse(handler.rowResponse(null, row, buildLeft, service));
+        }
+        handler.rowEofResponse(null, buildLeft, service);
+        for (int i = half; i < probe.size(); i++) {
+            Assert.assertFalse(handler.rowResponse(null, probe.get(i), !buildLeft, service));
+        }
+        handler.rowEofResponse(null, !buildLeft, service);
+
+        Assert.assertTrue(collector.eof.await(30, TimeUnit.SECONDS));
+        // the resources are recycled after the join thread ends
+        executor.submit(() -> {
+        }).get();
+        Mockito.verify(session, Mockito.never()).onQueryError(Mockito.any(byte[].class));
+        Assert.assertEquals(0, mc.used.get());
+        return collector.rows;
+    }
+
+    private static List<String> expected(boolean isLeftJoin, List<RowDataPacket> left, List<RowDataPacket> right) {
+        List<String> joined = new ArrayList<>();
+        for (RowDataPacket leftRow : left) {
+            boolean matched = false;
+            for (RowDataPacket rightRow : right) {
+                if (value(leftRow, 0).equals(value(rightRow, 0))) {
+                    matched = true;
+                    joined.add(toString(leftRow, rightRow));
+                }
+            }
+            if (!matched && isLeftJoin) {
+                joined.add(toString(leftRow, null));
+            }
+        }
+        return joined;
+    }
+
+    private static void assertRows(List<String> expected, List<String> actual) {
+        Assert.assertFalse(expected.isEmpty());
+        List<String> sortedExpected = new ArrayList<>(expected);
+        List<String> sortedActual = new ArrayList<>(actual);
+        Collections.sort(sortedExpected);
+        Collections.sort(sortedActual);
+        Assert.assertEquals(sortedExpected, sortedActual);
+    }
+
+    /**
+     * count rows of id from 0 until distinct
+     */
+    private static List<RowDataPacket> rows(int count, int distinct, String prefix) {
+        List<RowDataPacket> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i % distinct, prefix + i));
+        }
+        return rows;
+    }
+
+    private static RowDataPacket row(int id, String val) {
+        RowDataPacket row = new RowDataPacket(2);
+        row.add(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+        row.add(val.getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    private static List<FieldPacket> fields(String table, int idType) {
+        List<FieldPacket> fields = new ArrayList<>();
+        fields.add(field(table, "id", idType));
+        fields.add(field(table, "val", Fields.FIELD_TYPE_VAR_STRING));
+        return fields;
+    }
+
+    private static FieldPacket field(String table, String name, int type) {
+        FieldPacket field = PacketUtil.getField(name, type);
+        field.setTable(table.getBytes(StandardCharsets.UTF_8));
+        field.setLength(20);
+        return field;
+    }
+
+    private static String value(RowDataPacket row, int index) {
+        byte[] value = row.getValue(index);
+        return value == null ? "NULL" : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static String toString(RowDataPacket leftRow, RowDataPacket rightRow) {
+        return value(leftRow, 0) + "," + value(leftRow, 1) + "," +
+                (rightRow == null ? "NULL,NULL" : value(rightRow, 0) + "," + value(rightRow, 1));
+    }
+
+    /**
+     * @return the old value
+     */
+    private static Object setField(Class<?> clazz, Object target, String name, Object value) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        Object old = field.get(target);
+        field.set(target, value);
+        return old;
+    }
+
+    private static final class ResultCollector extends BaseDMLHandler {
+        private final List<String> rows = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch eof = new CountDownLatch(1);
+
+        ResultCollector(Session session) {
+            super(2, session);
+        }
+
+        @Override
+        public HandlerType type() {
+            return HandlerType.FINAL;
+        }
+
+        @Override
+        public void fieldEofResponse(byte[] header, List<byte[]> fields, List<FieldPacket> fieldPackets, byte[] eof,
+                                     boolean isLeft, @NotNull AbstractService service) {
+            Assert.assertEquals(4, fieldPackets.size());
+        }
+
+        @Override
+        public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, @NotNull AbstractService service) {
+            Assert.assertEquals(4, rowPacket.getFieldCount());
+            rows.add(value(rowPacket, 0) + "," + value(rowPacket, 1) + "," + value(rowPacket, 2) + "," + value(rowPacket, 3));
+            return false;
+        }
+
+        @Override
+        public void rowEofResponse(byte[] data, boolean isLeft, @NotNull AbstractService service) {
+            eof.countDown();
+        }
+
+        @Override
+        protected void onTerminate() {
+        }
+    }
+
+    /**
+     * keeps how much is in use, and whether the limit has been reached
+     */
+    private static final class TrackingMemSizeController extends MemSizeController {
+        private final AtomicLong used = new AtomicLong();
+        private volatile boolean spilled;
+
+        TrackingMemSizeController(long maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        public boolean addSize(long increment) {
+            used.addAndGet(increment);
+            boolean ok = super.addSize(increment);
+            if (!ok) {
+                spilled = true;
+            }
+            return ok;
+        }
+
+        @Override
+        public void subSize(long decrement) {
+            used.addAndGet(-decrement);
+            super.subSize(decrement);
+        }
+    }
+}
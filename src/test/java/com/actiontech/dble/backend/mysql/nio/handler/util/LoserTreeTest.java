@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class LoserTreeTest {
+
+    @Test
+    public void testMerge() {
+        List<List<Integer>> sources = new ArrayList<>();
+        sources.add(Arrays.asList(1, 4, 7, 10));
+        sources.add(Arrays.asList(2, 5, 8));
+        sources.add(Arrays.asList(3, 6, 9, 11, 12));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), merge(sources));
+    }
+
+    @Test
+    public void testEmptySources() {
+        List<List<Integer>> sources = new ArrayList<>();
+        sources.add(Collections.<Integer>emptyList());
+        sources.add(Arrays.asList(3, 5));
+        sources.add(Collections.<Integer>emptyList());
+        sources.add(Arrays.asList(1, 4));
+        sources.add(Collections.<Integer>emptyList());
+        Assert.assertEquals(Arrays.asList(1, 3, 4, 5), merge(sources));
+    }
+
+    @Test
+    public void testAllEmpty() {
+        List<Integer> heads = Arrays.asList(null, null, null);
+        LoserTree<Integer> tree = new LoserTree<>(heads, Comparator.<Integer>naturalOrder());
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertNull(tree.peek());
+    }
+
+    @Test
+    public void testOneSource() {
+        List<List<Integer>> sources = new ArrayList<>();
+        sources.add(Arrays.asList(1, 2, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), merge(sources));
+    }
+
+    @Test
+    public void testDuplicatesAndIndex() {
+        List<Integer> heads = Arrays.asList(2, 1, 1);
+        LoserTree<Integer> tree = new LoserTree<>(heads, Comparator.<Integer>naturalOrder());
+        Assert.assertEquals(Integer.valueOf(1), tree.peek());
+        int first = tree.peekIndex();
+        Assert.assertTrue(first == 1 || first == 2);
+        tree.replaceTop(null);
+        Assert.assertEquals(Integer.valueOf(1), tree.peek());
+        Assert.assertEquals(3 - first, tree.peekIndex());
+        tree.replaceTop(null);
+        Assert.assertEquals(Integer.valueOf(2), tree.peek());
+        Assert.assertEquals(0, tree.peekIndex());
+        tree.replaceTop(null);
+        Assert.assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void testRandomSources() {
+        Random random = new Random(1);
+        for (int k = 1; k <= 17; k++) {
+            List<List<Integer>> sources = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < k; i++) {
+                List<Integer> source = new ArrayList<>();
+                // some of the sources are empty or exhausted early
+                int size = random.nextInt(4) == 0 ? 0 : random.nextInt(50);
+                for (int j = 0; j < size; j++) {
+                    source.add(random.nextInt(100));
+                }
+                Collections.sort(source);
+                expected.addAll(source);
+                sources.add(source);
+            }
+            Collections.sort(expected);
+            Assert.assertEquals("k=" + k, expected, merge(sources));
+        }
+    }
+
+    private static List<Integer> merge(List<List<Integer>> sources) {
+        List<Iterator<Integer>> iterators = new ArrayList<>();
+        List<Integer> heads = new ArrayList<>();
+        for (List<Integer> source : sources) {
+            Iterator<Integer> iterator = source.iterator();
+            iterators.add(iterator);
+            heads.add(iterator.hasNext() ? iterator.next() : null);
+        }
+        LoserTree<Integer> tree = new LoserTree<>(heads, Comparator.<Integer>naturalOrder());
+        List<Integer> result = new ArrayList<>();
+        while (!tree.isEmpty()) {
+            result.add(tree.peek());
+            Iterator<Integer> iterator = iterators.get(tree.peekIndex());
+            tree.replaceTop(iterator.hasNext() ? iterator.next() : null);
+        }
+        return result;
+    }
+}
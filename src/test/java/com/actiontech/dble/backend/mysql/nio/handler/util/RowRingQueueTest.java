@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RowRingQueueTest {
+
+    @Test
+    public void testFifo() {
+        RowRingQueue queue = new RowRingQueue(8);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                Assert.assertTrue(queue.put(item(i)));
+            }
+            for (int i = 0; i < 8; i++) {
+                Assert.assertEquals(i, toInt(queue.take().getRowData()));
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPutBlockedWhenFull() throws Exception {
+        RowRingQueue queue = new RowRingQueue(4);
+        for (int i = 0; i < 4; i++) {
+            queue.put(item(i));
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            queue.put(item(4));
+            done.countDown();
+        });
+        producer.start();
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        // a freed slot wakes the producer up
+        Assert.assertEquals(0, toInt(queue.take().getRowData()));
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(i, toInt(queue.take().getRowData()));
+        }
+        producer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void testTakeBlockedWhenEmpty() throws Exception {
+        RowRingQueue queue = new RowRingQueue(4);
+        AtomicReference<HeapItem> taken = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            taken.set(queue.take());
+            done.countDown();
+        });
+        consumer.start();
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        queue.put(item(7));
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(7, toInt(taken.get().getRowData()));
+        consumer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWakesBlockedProducer() throws Exception {
+        RowRingQueue queue = new RowRingQueue(2);
+        queue.put(item(0));
+        queue.put(item(1));
+        AtomicBoolean result = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            result.set(queue.put(item(2)));
+            done.countDown();
+        });
+        producer.start();
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        queue.close();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(result.get());
+        producer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWakesBlockedConsumer() throws Exception {
+        RowRingQueue queue = new RowRingQueue(2);
+        AtomicReference<HeapItem> taken = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            taken.set(queue.take());
+            done.countDown();
+        });
+        consumer.start();
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        queue.close();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(taken.get().isNullItem());
+        consumer.join();
+    }
+
+    @Test(timeout = 30000)
+    public void testProducerAndConsumer() throws Exception {
+        final int count = 200000;
+        RowRingQueue queue = new RowRingQueue(16);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                queue.put(item(i));
+            }
+        });
+        producer.start();
+        for (int i = 0; i < count; i++) {
+            HeapItem taken = queue.take();
+            Assert.assertEquals(i, toInt(taken.getRowData()));
+        }
+        producer.join();
+    }
+
+    private static HeapItem item(int i) {
+        return new HeapItem(new byte[]{(byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i}, null, null);
+    }
+
+    private static int toInt(byte[] row) {
+        return (row[0] & 0xff) << 24 | (row[1] & 0xff) << 16 | (row[2] & 0xff) << 8 | (row[3] & 0xff);
+    }
+}
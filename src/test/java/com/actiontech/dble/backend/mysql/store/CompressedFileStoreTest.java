@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class CompressedFileStoreTest {
+    private static final int BLOCK_SIZE = 32 * 1024;
+    private CompressedFileStore store;
+
+    @Before
+    public void setUp() {
+        store = new CompressedFileStore("nioMapped:Memory", "rw");
+    }
+
+    @After
+    public void tearDown() {
+        store.closeAndDeleteSilently();
+    }
+
+    @Test
+    public void testCompressibleRoundTrip() {
+        byte[] data = new byte[BLOCK_SIZE * 3 + 123];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + i % 7);
+        }
+        writeInPieces(data);
+        Assert.assertEquals(data.length, store.length());
+        Assert.assertEquals(data.length, store.getFilePointer());
+        store.seek(0);
+        Assert.assertArrayEquals(data, readAll(data.length));
+    }
+
+    @Test
+    public void testIncompressibleRoundTrip() {
+        byte[] data = new byte[BLOCK_SIZE * 2 + 4567];
+        new Random(1).nextBytes(data);
+        writeInPieces(data);
+        Assert.assertEquals(data.length, store.length());
+        store.seek(0);
+        Assert.assertArrayEquals(data, readAll(data.length));
+    }
+
+    @Test
+    public void testReadOutOfOrder() {
+        byte[] data = mixedData(BLOCK_SIZE * 4 + 100);
+        writeInPieces(data);
+        // across the block boundaries, backwards, and in the staging block which is not flushed
+        int[] positions = {BLOCK_SIZE * 3 - 10, 5, BLOCK_SIZE * 4 + 50, BLOCK_SIZE - 1, BLOCK_SIZE * 2, 0, BLOCK_SIZE * 4 - 20};
+        for (int position : positions) {
+            int len = Math.min(60, data.length - position);
+            byte[] read = new byte[len];
+            store.seek(position);
+            store.readFully(read, 0, len);
+            for (int i = 0; i < len; i++) {
+                Assert.assertEquals("position " + (position + i), data[position + i], read[i]);
+            }
+            Assert.assertEquals(position + len, store.getFilePointer());
+        }
+    }
+
+    @Test
+    public void testReadEnd() {
+        byte[] data = mixedData(BLOCK_SIZE + 10);
+        writeInPieces(data);
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        store.seek(data.length - 4);
+        Assert.assertEquals(4, store.read(buffer, Long.MAX_VALUE));
+        Assert.assertEquals(0, store.read(buffer, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testWriteAppends() {
+        byte[] data = mixedData(BLOCK_SIZE + 10);
+        store.write(ByteBuffer.wrap(data, 0, BLOCK_SIZE));
+        store.seek(10);
+        store.write(ByteBuffer.wrap(data, BLOCK_SIZE, 10));
+        Assert.assertEquals(data.length, store.length());
+        Assert.assertEquals(data.length, store.getFilePointer());
+        store.seek(0);
+        Assert.assertArrayEquals(data, readAll(data.length));
+    }
+
+    @Test
+    public void testCachedBlocksCounted() {
+        CountingMemSizeController mc = new CountingMemSizeController(BLOCK_SIZE * 16L);
+        store.setMemSizeController(mc);
+        store.setReaders(2);
+        byte[] data = mixedData(BLOCK_SIZE * 8);
+        writeInPieces(data);
+        store.seek(0);
+        Assert.assertArrayEquals(data, readAll(data.length));
+        Assert.assertTrue(mc.used > 0);
+        // two blocks for every reader at most
+        Assert.assertTrue(mc.used <= BLOCK_SIZE * 4L);
+        store.closeAndDeleteSilently();
+        Assert.assertEquals(0, mc.used);
+    }
+
+    @Test
+    public void testCachedBlocksLimitedByMemory() {
+        // the controller is full once a block is cached
+        CountingMemSizeController mc = new CountingMemSizeController(BLOCK_SIZE);
+        store.setMemSizeController(mc);
+        store.setReaders(8);
+        byte[] data = mixedData(BLOCK_SIZE * 8);
+        writeInPieces(data);
+        store.seek(0);
+        Assert.assertArrayEquals(data, readAll(data.length));
+        // only the block being read is kept
+        Assert.assertEquals(BLOCK_SIZE, mc.used);
+        store.seek(BLOCK_SIZE * 2);
+        byte[] read = new byte[10];
+        store.readFully(read, 0, 10);
+        Assert.assertEquals(data[BLOCK_SIZE * 2], read[0]);
+        Assert.assertEquals(BLOCK_SIZE, mc.used);
+        store.closeAndDeleteSilently();
+        Assert.assertEquals(0, mc.used);
+    }
+
+    // half compressible, half random, so some blocks are stored as they are
+    private static byte[] mixedData(int length) {
+        byte[] data = new byte[length];
+        Random random = new Random(2);
+        for (int i = 0; i < length; i++) {
+            data[i] = (i / BLOCK_SIZE) % 2 == 0 ? (byte) (i % 13) : (byte) random.nextInt();
+        }
+        return data;
+    }
+
+    private void writeInPieces(byte[] data) {
+        int[] sizes = {1, 1000, 7777, BLOCK_SIZE, 3};
+        int offset = 0;
+        for (int i = 0; offset < data.length; i++) {
+            int len = Math.min(sizes[i % sizes.length], data.length - offset);
+            store.write(ByteBuffer.wrap(data, offset, len));
+            offset += len;
+        }
+    }
+
+    private byte[] readAll(int length) {
+        byte[] result = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            // the buffer is smaller than a block and not aligned to it
+            ByteBuffer buffer = ByteBuffer.wrap(result, offset, Math.min(5000, length - offset));
+            int n = store.read(buffer, length);
+            Assert.assertTrue(n > 0);
+            offset += n;
+        }
+        return result;
+    }
+
+    private static final class CountingMemSizeController extends MemSizeController {
+        private long used;
+
+        CountingMemSizeController(long maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        public boolean addSize(long increment) {
+            used += increment;
+            return super.addSize(increment);
+        }
+
+        @Override
+        public void subSize(long decrement) {
+            used -= decrement;
+            super.subSize(decrement);
+        }
+    }
+}
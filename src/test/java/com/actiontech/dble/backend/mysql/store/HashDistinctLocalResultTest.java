@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HashDistinctLocalResultTest {
+    // distinct by the first column, hashed by it
+    private static final RowDataComparator CMP = new KeyComparator(false);
+    // every row has the same hash, they are told apart by compare only
+    private static final RowDataComparator SAME_HASH_CMP = new KeyComparator(true);
+    private BufferPool pool;
+    private TrackingMemSizeController mc;
+    private HashDistinctLocalResult result;
+
+    @Before
+    public void setUp() {
+        pool = new DirectByteBufferPool(1024 * 1024, (short) 4096, (short) 2);
+        // about 200 rows fit in memory
+        mc = new TrackingMemSizeController(2048);
+    }
+
+    @After
+    public void tearDown() {
+        if (result != null) {
+            result.close();
+            Assert.assertEquals(0, mc.used.get());
+        }
+    }
+
+    @Test
+    public void testSendOnAddInMemory() {
+        result = create(CMP, true);
+        Set<Integer> sent = new HashSet<>();
+        int[] keys = {3, 1, 3, 2, 1, 3};
+        for (int i = 0; i < keys.length; i++) {
+            boolean first = !sent.contains(keys[i]);
+            Assert.assertEquals(first, result.addIfAbsent(row(keys[i], i)));
+            sent.add(keys[i]);
+        }
+        result.done();
+        // all of them have been sent
+        Assert.assertNull(result.next());
+        Assert.assertFalse(mc.spilled);
+    }
+
+    @Test
+    public void testSendOnAddAcrossSpill() {
+        result = create(CMP, true);
+        List<Integer> sent = new ArrayList<>();
+        int distinct = 3000;
+        List<Integer> keys = shuffledKeys(distinct, 3);
+        for (int i = 0; i < keys.size(); i++) {
+            if (result.addIfAbsent(row(keys.get(i), i))) {
+                sent.add(keys.get(i));
+            }
+        }
+        Assert.assertTrue(mc.spilled);
+        Assert.assertTrue(sent.size() < distinct);
+        long loadedBefore = mc.added.get();
+        result.done();
+        // the partitions loaded back are counted
+        Assert.assertTrue(mc.added.get() > loadedBefore);
+        List<Integer> rest = readKeys(result);
+        // the rows sent before done are not sent again
+        for (Integer key : rest) {
+            Assert.assertFalse(sent.contains(key));
+        }
+        sent.addAll(rest);
+        assertDistinct(sent, distinct);
+    }
+
+    @Test
+    public void testDistinctAcrossSpill() {
+        result = create(CMP, false);
+        int distinct = 3000;
+        List<Integer> keys = shuffledKeys(distinct, 2);
+        for (int i = 0; i < keys.size(); i++) {
+            result.add(row(keys.get(i), i));
+        }
+        Assert.assertTrue(mc.spilled);
+        result.done();
+        // nothing is sent on add, all of them come from next
+        assertDistinct(readKeys(result), distinct);
+    }
+
+    @Test
+    public void testSameHashAcrossSpill() {
+        result = create(SAME_HASH_CMP, true);
+        List<Integer> sent = new ArrayList<>();
+        int distinct = 500;
+        List<Integer> keys = shuffledKeys(distinct, 2);
+        for (int i = 0; i < keys.size(); i++) {
+            if (result.addIfAbsent(row(keys.get(i), i))) {
+                sent.add(keys.get(i));
+            }
+        }
+        Assert.assertTrue(mc.spilled);
+        result.done();
+        sent.addAll(readKeys(result));
+        assertDistinct(sent, distinct);
+    }
+
+    @Test
+    public void testCloseWhileSpilled() {
+        result = create(CMP, true);
+        for (int i = 0; i < 1000; i++) {
+            result.add(row(i, i));
+        }
+        Assert.assertTrue(mc.spilled);
+        // the partitions are closed and the memory is given back, see tearDown
+    }
+
+    private HashDistinctLocalResult create(RowDataComparator cmp, boolean sendOnAdd) {
+        HashDistinctLocalResult localResult = new HashDistinctLocalResult(pool, 2, cmp, sendOnAdd, "UTF-8", null);
+        localResult.setMemSizeController(mc);
+        return localResult;
+    }
+
+    /**
+     * every key of 0 until distinct appears times times
+     */
+    private static List<Integer> shuffledKeys(int distinct, int times) {
+        List<Integer> keys = new ArrayList<>();
+        for (int t = 0; t < times; t++) {
+            for (int i = 0; i < distinct; i++) {
+                keys.add(i);
+            }
+        }
+        Collections.shuffle(keys, new Random(1));
+        return keys;
+    }
+
+    private static void assertDistinct(List<Integer> keys, int distinct) {
+        Assert.assertEquals(distinct, keys.size());
+        Assert.assertEquals(distinct, new HashSet<>(keys).size());
+        for (Integer key : keys) {
+            Assert.assertTrue(key >= 0 && key < distinct);
+        }
+    }
+
+    private static RowDataPacket row(int key, int seq) {
+        RowDataPacket row = new RowDataPacket(2);
+        row.add(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+        row.add(String.valueOf(seq).getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    private static int key(RowDataPacket row) {
+        return Integer.parseInt(new String(row.getValue(0), StandardCharsets.UTF_8));
+    }
+
+    private static List<Integer> readKeys(LocalResult localResult) {
+        List<Integer> keys = new ArrayList<>();
+        RowDataPacket row;
+        while ((row = localResult.next()) != null) {
+            keys.add(key(row));
+        }
+        return keys;
+    }
+
+    private static final class KeyComparator extends RowDataComparator {
+        private final boolean sameHash;
+
+        KeyComparator(boolean sameHash) {
+            super(Collections.emptyList(), null);
+            this.sameHash = sameHash;
+        }
+
+        @Override
+        public int compare(RowDataPacket o1, RowDataPacket o2) {
+            return Integer.compare(key(o1), key(o2));
+        }
+
+        @Override
+        public int hash(RowDataPacket o) {
+            return sameHash ? 0 : Integer.hashCode(key(o));
+        }
+    }
+
+    /**
+     * keeps how much is in use, and whether the limit has been reached
+     */
+    private static final class TrackingMemSizeController extends MemSizeController {
+        private final AtomicLong used = new AtomicLong();
+        private final AtomicLong added = new AtomicLong();
+        private volatile boolean spilled;
+
+        TrackingMemSizeController(long maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        public boolean addSize(long increment) {
+            used.addAndGet(increment);
+            added.addAndGet(increment);
+            boolean ok = super.addSize(increment);
+            if (!ok) {
+                spilled = true;
+            }
+            return ok;
+        }
+
+        @Override
+        public void subSize(long decrement) {
+            used.addAndGet(-decrement);
+            super.subSize(decrement);
+        }
+    }
+}
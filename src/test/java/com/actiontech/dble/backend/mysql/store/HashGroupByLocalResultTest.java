@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.DirectGroupByHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.store.diskbuffer.GroupResultDiskBuffer;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.backend.mysql.store.result.ResultExternal;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemInt;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemFuncGroupConcat;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumCount;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumSum;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the rows are (key, value), the value of the group is the sum of the values, as SUM does with the sum functions
+ */
+public class HashGroupByLocalResultTest {
+    // grouped by the first column, hashed by it
+    private static final RowDataComparator CMP = new KeyComparator(false);
+    // every group has the same hash, they are told apart by compare only
+    private static final RowDataComparator SAME_HASH_CMP = new KeyComparator(true);
+    private BufferPool pool;
+    private TrackingMemSizeController mc;
+    private HashGroupByLocalResult result;
+
+    @Before
+    public void setUp() {
+        pool = new DirectByteBufferPool(1024 * 1024, (short) 4096, (short) 2);
+        mc = new TrackingMemSizeController(Long.MAX_VALUE);
+    }
+
+    @After
+    public void tearDown() {
+        if (result != null) {
+            result.close();
+            Assert.assertEquals(0, mc.used.get());
+        }
+    }
+
+    @Test
+    public void testMergeGroups() {
+        result = new SumGroupResult(pool, CMP, false);
+        result.setMemSizeController(mc);
+        Map<Integer, Long> expected = addRows(result, 100, 5000);
+        Assert.assertEquals(100, result.getRowCount());
+        result.done();
+        Map<Integer, Long> read = new HashMap<>();
+        RowDataPacket row;
+        while ((row = result.next()) != null) {
+            Assert.assertNull(read.put(key(row), value(row)));
+        }
+        Assert.assertEquals(expected, read);
+    }
+
+    @Test
+    public void testSameHash() {
+        result = new SumGroupResult(pool, SAME_HASH_CMP, false);
+        result.setMemSizeController(mc);
+        Map<Integer, Long> expected = addRows(result, 50, 1000);
+        result.done();
+        Map<Integer, Long> read = new HashMap<>();
+        RowDataPacket row;
+        while ((row = result.next()) != null) {
+            Assert.assertNull(read.put(key(row), value(row)));
+        }
+        Assert.assertEquals(expected, read);
+    }
+
+    @Test
+    public void testSortOnDone() {
+        result = new SumGroupResult(pool, CMP, true);
+        result.setMemSizeController(mc);
+        Map<Integer, Long> expected = addRows(result, 300, 3000);
+        result.done();
+        assertSorted(expected);
+    }
+
+    @Test
+    public void testSpill() {
+        // about 100 groups fit in memory
+        mc = new TrackingMemSizeController(1024);
+        result = new SumGroupResult(pool, CMP, false);
+        result.setMemSizeController(mc);
+        Map<Integer, Long> expected = addRows(result, 1000, 20000);
+        Assert.assertTrue(mc.spilled);
+        result.done();
+        // the groups in the tapes are merged, and sorted as the tapes are
+        assertSorted(expected);
+    }
+
+    @Test
+    public void testGroupConcatNotDirectGroupBy() {
+        List<Item> args = new ArrayList<>();
+        args.add(new ItemInt(1));
+        List<ItemSum> sums = new ArrayList<>();
+        sums.add(new ItemSumCount(args, false, false, null, 0));
+        sums.add(new ItemSumSum(args, false, false, null, 0));
+        Assert.assertTrue(DirectGroupByHandler.canDirectGroupBy(sums));
+
+        List<ItemSum> withDistinct = new ArrayList<>(sums);
+        withDistinct.add(new ItemSumCount(args, true, false, null, 0));
+        Assert.assertFalse(DirectGroupByHandler.canDirectGroupBy(withDistinct));
+
+        List<ItemSum> withGroupConcat = new ArrayList<>(sums);
+        withGroupConcat.add(new ItemFuncGroupConcat(args, false, null, ",", false, null, 0));
+        Assert.assertFalse(DirectGroupByHandler.canDirectGroupBy(withGroupConcat));
+    }
+
+    /**
+     * @return the sum of every group
+     */
+    private static Map<Integer, Long> addRows(LocalResult localResult, int groups, int rows) {
+        Map<Integer, Long> sums = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < rows; i++) {
+            int key = random.nextInt(groups);
+            int value = random.nextInt(100);
+            sums.merge(key, (long) value, Long::sum);
+            localResult.add(row(key, value));
+        }
+        return sums;
+    }
+
+    private void assertSorted(Map<Integer, Long> expected) {
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        Collections.sort(keys);
+        for (Integer key : keys) {
+            RowDataPacket row = result.next();
+            Assert.assertNotNull(row);
+            Assert.assertEquals(key.intValue(), key(row));
+            Assert.assertEquals(expected.get(key).longValue(), value(row));
+        }
+        Assert.assertNull(result.next());
+    }
+
+    private static RowDataPacket row(int key, long value) {
+        RowDataPacket row = new RowDataPacket(2);
+        row.add(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+        row.add(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    private static int key(RowDataPacket row) {
+        return Integer.parseInt(new String(row.getValue(0), StandardCharsets.UTF_8));
+    }
+
+    private static long value(RowDataPacket row) {
+        return Long.parseLong(new String(row.getValue(1), StandardCharsets.UTF_8));
+    }
+
+    private static void addValue(RowDataPacket oldRow, RowDataPacket row) {
+        oldRow.setValue(1, String.valueOf(value(oldRow) + value(row)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * no sum function, the value column is summed when the groups are merged in memory and in the tapes
+     */
+    private static final class SumGroupResult extends HashGroupByLocalResult {
+        private final RowDataComparator cmp;
+
+        SumGroupResult(BufferPool pool, RowDataComparator cmp, boolean sortOnDone) {
+            super(pool, 2, cmp, Collections.emptyList(), Collections.emptyList(), false, sortOnDone, "UTF-8", null);
+            this.cmp = cmp;
+        }
+
+        @Override
+        protected void onFirstGroupRow(RowDataPacket row) {
+        }
+
+        @Override
+        protected void onFoundRow(RowDataPacket oldRow, RowDataPacket row) {
+            addValue(oldRow, row);
+        }
+
+        @Override
+        protected ResultExternal makeExternal() {
+            return new GroupResultDiskBuffer(pool, fieldsCount, cmp, Collections.emptyList(), Collections.emptyList(),
+                    false, "UTF-8", null) {
+                @Override
+                protected void onFoundRow(RowDataPacket oldRow, RowDataPacket row) {
+                    addValue(oldRow, row);
+                }
+            };
+        }
+    }
+
+    private static final class KeyComparator extends RowDataComparator {
+        private final boolean sameHash;
+
+        KeyComparator(boolean sameHash) {
+            super(Collections.emptyList(), null);
+            this.sameHash = sameHash;
+        }
+
+        @Override
+        public int compare(RowDataPacket o1, RowDataPacket o2) {
+            return Integer.compare(key(o1), key(o2));
+        }
+
+        @Override
+        public int hash(RowDataPacket o) {
+            return sameHash ? 0 : Integer.hashCode(key(o));
+        }
+    }
+
+    /**
+     * keeps how much is in use, and whether the limit has been reached
+     */
+    private static final class TrackingMemSizeController extends MemSizeController {
+        private final AtomicLong used = new AtomicLong();
+        private volatile boolean spilled;
+
+        TrackingMemSizeController(long maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        public boolean addSize(long increment) {
+            used.addAndGet(increment);
+            boolean ok = super.addSize(increment);
+            if (!ok) {
+                spilled = true;
+            }
+            return ok;
+        }
+
+        @Override
+        public void subSize(long decrement) {
+            used.addAndGet(-decrement);
+            super.subSize(decrement);
+        }
+    }
+}
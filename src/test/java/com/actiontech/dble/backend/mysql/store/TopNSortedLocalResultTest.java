@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TopNSortedLocalResultTest {
+    // ordered by the first column as a number
+    private static final RowDataComparator CMP = new RowDataComparator(Collections.emptyList(), null) {
+        @Override
+        public int compare(RowDataPacket o1, RowDataPacket o2) {
+            return Integer.compare(key(o1), key(o2));
+        }
+    };
+    private TopNSortedLocalResult result;
+
+    @After
+    public void tearDown() {
+        if (result != null) {
+            result.close();
+        }
+    }
+
+    @Test
+    public void testKeepTopRows() {
+        result = new TopNSortedLocalResult(null, 2, CMP, 10, "UTF-8", null);
+        List<Integer> keys = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int key = random.nextInt(100000);
+            keys.add(key);
+            result.add(row(key, i));
+        }
+        result.done();
+        Collections.sort(keys);
+        Assert.assertEquals(keys.subList(0, 10), readKeys(result));
+    }
+
+    @Test
+    public void testLessRowsThanTopN() {
+        result = new TopNSortedLocalResult(null, 2, CMP, 10, "UTF-8", null);
+        int[] keys = {5, 3, 9};
+        for (int i = 0; i < keys.length; i++) {
+            result.add(row(keys[i], i));
+        }
+        result.done();
+        List<Integer> expected = new ArrayList<>();
+        expected.add(3);
+        expected.add(5);
+        expected.add(9);
+        Assert.assertEquals(expected, readKeys(result));
+    }
+
+    @Test
+    public void testTies() {
+        result = new TopNSortedLocalResult(null, 2, CMP, 3, "UTF-8", null);
+        // the key 2 ties at the boundary of the top 3
+        int[] keys = {2, 7, 1, 2, 2, 2, 0, 9};
+        for (int i = 0; i < keys.length; i++) {
+            result.add(row(keys[i], i));
+        }
+        result.done();
+        Assert.assertEquals(3, result.getRowCount());
+        RowDataPacket first = result.next();
+        RowDataPacket second = result.next();
+        RowDataPacket third = result.next();
+        Assert.assertNull(result.next());
+        Assert.assertEquals(0, key(first));
+        Assert.assertEquals(1, key(second));
+        Assert.assertEquals(2, key(third));
+        // a later row equal to the biggest kept one is dropped, so the 2 kept is one of the first two
+        Assert.assertTrue(seq(third) == 0 || seq(third) == 3);
+    }
+
+    @Test
+    public void testOffsetAndLimit() {
+        int offset = 20;
+        int limit = 15;
+        int topN = TopNSortedLocalResult.topN(offset, limit, 10000);
+        Assert.assertEquals(35, topN);
+        result = new TopNSortedLocalResult(null, 2, CMP, topN, "UTF-8", null);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // descending, so every row replaces the top of the full heap
+            keys.add(500 - i);
+            result.add(row(500 - i, i));
+        }
+        result.done();
+        Collections.sort(keys);
+        List<Integer> read = readKeys(result);
+        Assert.assertEquals(topN, read.size());
+        // the rows after the offset are the same as the ones of the full sort
+        Assert.assertEquals(keys.subList(offset, offset + limit), read.subList(offset, offset + limit));
+    }
+
+    @Test
+    public void testLimitZero() {
+        result = new TopNSortedLocalResult(null, 2, CMP, 0, "UTF-8", null);
+        result.add(row(1, 0));
+        result.done();
+        Assert.assertEquals(0, result.getRowCount());
+        Assert.assertNull(result.next());
+    }
+
+    @Test
+    public void testTopNFallback() {
+        // no limit
+        Assert.assertEquals(-1, TopNSortedLocalResult.topN(-1, -1, 10000));
+        // disabled by orderByTopNMaxRows
+        Assert.assertEquals(-1, TopNSortedLocalResult.topN(0, 10, 0));
+        // offset + limit beyond orderByTopNMaxRows, sorted with disk as before
+        Assert.assertEquals(-1, TopNSortedLocalResult.topN(9995, 10, 10000));
+        Assert.assertEquals(-1, TopNSortedLocalResult.topN(0, Long.MAX_VALUE, 10000));
+        Assert.assertEquals(10000, TopNSortedLocalResult.topN(9990, 10, 10000));
+        Assert.assertEquals(10, TopNSortedLocalResult.topN(-1, 10, 10000));
+        Assert.assertEquals(0, TopNSortedLocalResult.topN(0, 0, 10000));
+    }
+
+    private static RowDataPacket row(int key, int seq) {
+        RowDataPacket row = new RowDataPacket(2);
+        row.add(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+        row.add(String.valueOf(seq).getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    private static int key(RowDataPacket row) {
+        return Integer.parseInt(new String(row.getValue(0), StandardCharsets.UTF_8));
+    }
+
+    private static int seq(RowDataPacket row) {
+        return Integer.parseInt(new String(row.getValue(1), StandardCharsets.UTF_8));
+    }
+
+    private static List<Integer> readKeys(LocalResult localResult) {
+        List<Integer> keys = new ArrayList<>();
+        RowDataPacket row;
+        while ((row = localResult.next()) != null) {
+            keys.add(key(row));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.xa.recovery.impl;
+
+import com.actiontech.dble.backend.mysql.xa.CoordinatorLogEntry;
+import com.actiontech.dble.backend.mysql.xa.ParticipantLogEntry;
+import com.actiontech.dble.backend.mysql.xa.TxState;
+import com.actiontech.dble.config.model.SystemConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FileSystemRepositoryTest {
+    private String oldHomePath;
+    private File homeDir;
+    private FileSystemRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        oldHomePath = SystemConfig.getInstance().getHomePath();
+        homeDir = Files.createTempDirectory("xalog").toFile();
+        SystemConfig.getInstance().setHomePath(homeDir.getAbsolutePath());
+        repository = new FileSystemRepository();
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+        SystemConfig.getInstance().setHomePath(oldHomePath);
+        deleteRecursively(homeDir);
+    }
+
+    @Test
+    public void testConcurrentAppend() throws Exception {
+        Assert.assertTrue(repository.openForAppending(Collections::emptyList));
+        final int threads = 8;
+        final int perThread = 200;
+        final Map<String, TxState> expected = new ConcurrentHashMap<>();
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String id = "xa-" + thread + "-" + (i % 10);
+                    TxState state = i % 2 == 0 ? TxState.TX_PREPARING_STATE : TxState.TX_PREPARED_STATE;
+                    if (!repository.append(entry(id, state), i % 3 == 0)) {
+                        failures.incrementAndGet();
+                    }
+                    expected.put(id, state);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertEquals(0, failures.get());
+        assertLog(expected);
+    }
+
+    @Test
+    public void testSyncAppendDuringCheckpoint() throws Exception {
+        Assert.assertTrue(repository.openForAppending(Collections::emptyList));
+        final CountDownLatch inCheckpoint = new CountDownLatch(1);
+        final CountDownLatch appenderParked = new CountDownLatch(1);
+        final boolean[] appended = new boolean[1];
+        final Thread appender = new Thread(() -> appended[0] = repository.append(entry("xa-2", TxState.TX_COMMITTING_STATE), true));
+        Thread compactor = new Thread(() -> repository.writeCheckpoint(() -> {
+            inCheckpoint.countDown();
+            try {
+                Assert.assertTrue(appenderParked.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(entry("xa-1", TxState.TX_PREPARED_STATE));
+        }));
+        compactor.start();
+        Assert.assertTrue(inCheckpoint.await(10, TimeUnit.SECONDS));
+        // the appender fails to get the lock and waits on its latch while the checkpoint is written
+        appender.start();
+        while (appender.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        appenderParked.countDown();
+        compactor.join(10000);
+        appender.join(10000);
+        Assert.assertFalse("the appender is left waiting", appender.isAlive());
+        Assert.assertTrue(appended[0]);
+
+        Map<String, TxState> expected = new HashMap<>();
+        expected.put("xa-1", TxState.TX_PREPARED_STATE);
+        expected.put("xa-2", TxState.TX_COMMITTING_STATE);
+        assertLog(expected);
+    }
+
+    @Test
+    public void testReopenAfterFailure() {
+        Assert.assertTrue(repository.openForAppending(Collections::emptyList));
+        Assert.assertTrue(repository.append(entry("xa-1", TxState.TX_PREPARING_STATE), true));
+        // the channel is lost, as after a write error
+        repository.close();
+        Assert.assertFalse(repository.append(entry("xa-1", TxState.TX_PREPARED_STATE), true));
+
+        Assert.assertTrue(repository.openForAppending(() -> Collections.singletonList(entry("xa-1", TxState.TX_PREPARED_STATE))));
+        Assert.assertTrue(repository.append(entry("xa-2", TxState.TX_COMMITTING_STATE), true));
+
+        Map<String, TxState> expected = new HashMap<>();
+        expected.put("xa-1", TxState.TX_PREPARED_STATE);
+        expected.put("xa-2", TxState.TX_COMMITTING_STATE);
+        assertLog(expected);
+    }
+
+    @Test
+    public void testCompaction() {
+        Assert.assertTrue(repository.openForAppending(Collections::emptyList));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(repository.append(entry("xa-" + i, TxState.TX_PREPARING_STATE), true));
+            Assert.assertTrue(repository.append(entry("xa-" + i, TxState.TX_COMMITTED_STATE), false));
+        }
+        long size = repository.getLogSize();
+        Assert.assertTrue(size > 0);
+
+        // only the unfinished transaction is kept
+        Assert.assertTrue(repository.writeCheckpoint(() -> Collections.singletonList(entry("xa-100", TxState.TX_PREPARED_STATE))));
+        Assert.assertTrue(repository.getLogSize() * 100 < size);
+        Assert.assertTrue(repository.append(entry("xa-101", TxState.TX_COMMITTING_STATE), true));
+
+        Map<String, TxState> expected = new HashMap<>();
+        expected.put("xa-100", TxState.TX_PREPARED_STATE);
+        expected.put("xa-101", TxState.TX_COMMITTING_STATE);
+        assertLog(expected);
+    }
+
+    private void assertLog(Map<String, TxState> expected) {
+        repository.close();
+        Collection<CoordinatorLogEntry> entries = repository.getAllCoordinatorLogEntries(false);
+        Map<String, TxState> actual = new HashMap<>();
+        for (CoordinatorLogEntry logEntry : entries) {
+            actual.put(logEntry.getId(), logEntry.getTxState());
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static CoordinatorLogEntry entry(String id, TxState state) {
+        ParticipantLogEntry participant = new ParticipantLogEntry(id, "127.0.0.1", 3306, 0, "db1", state);
+        return new CoordinatorLogEntry(id, new ParticipantLogEntry[]{participant}, state);
+    }
+
+    private static void deleteRecursively(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        f.delete();
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.pool;
+
+import com.actiontech.dble.config.model.db.DbGroupConfig;
+import com.actiontech.dble.config.model.db.DbInstanceConfig;
+import com.actiontech.dble.config.model.db.PoolConfig;
+import com.actiontech.dble.net.IOProcessor;
+import com.actiontech.dble.net.connection.PooledConnection;
+import com.actiontech.dble.net.factory.PooledConnectionFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * the pool is not started, so no connection is created by it, the connections are added by onCreateSuccess
+ */
+public class ConnectionPoolTest {
+    private DbInstanceConfig config;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        config = Mockito.mock(DbInstanceConfig.class);
+        Mockito.when(config.getPoolConfig()).thenReturn(Mockito.mock(PoolConfig.class));
+        Mockito.when(config.getInstanceName()).thenReturn("instance");
+        Mockito.when(config.getMaxCon()).thenReturn(100);
+        DbGroupConfig groupConfig = Mockito.mock(DbGroupConfig.class);
+        Mockito.when(groupConfig.getName()).thenReturn("group");
+        ReadTimeStatusInstance instance = Mockito.mock(ReadTimeStatusInstance.class);
+        Mockito.when(instance.getDbGroupConfig()).thenReturn(groupConfig);
+        Mockito.when(instance.getConfig()).thenReturn(config);
+        pool = new ConnectionPool(config, instance, Mockito.mock(PooledConnectionFactory.class));
+    }
+
+    @Test
+    public void testBorrowFromThreadLocalList() {
+        List<TestConnection> connections = addConnections(3);
+        PooledConnection conn = pool.borrowDirectly(null);
+        Assert.assertNotNull(conn);
+        Assert.assertEquals(PooledConnection.STATE_IN_USE, conn.getState());
+        conn.release();
+        // the same one is taken again by the thread which released it
+        Assert.assertSame(conn, pool.borrowDirectly(null));
+        Assert.assertEquals(1, pool.getStatistic().getThreadLocalHitCount());
+        Assert.assertTrue(connections.contains(conn));
+    }
+
+    @Test
+    public void testBorrowAll() {
+        addConnections(3);
+        List<PooledConnection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PooledConnection conn = pool.borrowDirectly(null);
+            Assert.assertNotNull(conn);
+            Assert.assertFalse(borrowed.contains(conn));
+            borrowed.add(conn);
+        }
+        Assert.assertNull(pool.borrowDirectly(null));
+        Assert.assertEquals(1, pool.getStatistic().getMissCount());
+        for (PooledConnection conn : borrowed) {
+            conn.release();
+        }
+        Assert.assertEquals(3, pool.getCount(PooledConnection.STATE_NOT_IN_USE));
+    }
+
+    @Test
+    public void testReleaseOnAnotherThread() throws Exception {
+        addConnections(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            PooledConnection conn = pool.borrowDirectly(null);
+            Assert.assertNotNull(conn);
+            // released by another thread, which keeps it in its own thread local list
+            other.submit(conn::release).get();
+            Assert.assertSame(conn, pool.borrowDirectly(null));
+            Assert.assertEquals(2, pool.getStatistic().getFreeStackHitCount());
+
+            // the other thread finds its thread local entry in use, it must not get the connection
+            Assert.assertNull(other.submit(() -> pool.borrowDirectly(null)).get());
+            Assert.assertEquals(PooledConnection.STATE_IN_USE, conn.getState());
+            conn.release();
+            Assert.assertSame(conn, other.submit(() -> pool.borrowDirectly(null)).get());
+            Assert.assertEquals(0, pool.getStatistic().getThreadLocalHitCount());
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testShrinkWithThreadLocalCache() throws Exception {
+        Mockito.when(config.getMinCon()).thenReturn(1);
+        List<TestConnection> connections = addConnections(4);
+        List<PooledConnection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            borrowed.add(pool.borrowDirectly(null));
+        }
+        // all of them are cached by the thread local list of this thread
+        for (PooledConnection conn : borrowed) {
+            conn.release();
+        }
+        pool.evictImmediately();
+        Assert.assertEquals(1, pool.size());
+        int closed = 0;
+        for (TestConnection conn : connections) {
+            if (conn.closed) {
+                closed++;
+                Assert.assertFalse(conn.isPooled());
+            }
+        }
+        Assert.assertEquals(3, closed);
+
+        // only the one left in the pool is borrowed from the stale thread local list
+        PooledConnection conn = pool.borrowDirectly(null);
+        Assert.assertNotNull(conn);
+        Assert.assertFalse(((TestConnection) conn).closed);
+        Assert.assertNull(pool.borrowDirectly(null));
+        Assert.assertNull(borrowInThread());
+    }
+
+    @Test
+    public void testRemovedWhileIdle() throws Exception {
+        addConnections(1);
+        PooledConnection conn = pool.borrowDirectly(null);
+        conn.release();
+        // removed from the pool, but still idle in the thread local list and the free stack
+        pool.close(conn);
+        Assert.assertEquals(0, pool.size());
+        Assert.assertNull(pool.borrowDirectly(null));
+        Assert.assertNull(borrowInThread());
+        Assert.assertEquals(PooledConnection.STATE_NOT_IN_USE, conn.getState());
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentBorrowAndRelease() throws Exception {
+        final int threads = 8;
+        final int loops = 20000;
+        List<TestConnection> connections = addConnections(3);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger borrowedCount = new AtomicInteger();
+        // half of the connections are released by the other threads
+        BlockingQueue<PooledConnection> toRelease = new ArrayBlockingQueue<>(threads * 2);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final boolean crossThread = t % 2 == 1;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < loops; i++) {
+                        PooledConnection conn = pool.borrow(null, 5, TimeUnit.SECONDS);
+                        if (conn == null) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        TestConnection testConn = (TestConnection) conn;
+                        if (!testConn.owned.compareAndSet(false, true)) {
+                            // borrowed by two threads at the same time
+                            errors.incrementAndGet();
+                        }
+                        borrowedCount.incrementAndGet();
+                        testConn.owned.set(false);
+                        if (crossThread) {
+                            toRelease.put(conn);
+                            PooledConnection other = toRelease.poll();
+                            if (other != null) {
+                                other.release();
+                            }
+                        } else {
+                            conn.release();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        // release the connections left in the queue while the threads wait for them
+        while (!done.await(10, TimeUnit.MILLISECONDS)) {
+            PooledConnection conn;
+            while ((conn = toRelease.poll()) != null) {
+                conn.release();
+            }
+        }
+        PooledConnection conn;
+        while ((conn = toRelease.poll()) != null) {
+            conn.release();
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(threads * loops, borrowedCount.get());
+        Assert.assertEquals(connections.size(), pool.getCount(PooledConnection.STATE_NOT_IN_USE));
+    }
+
+    private List<TestConnection> addConnections(int count) {
+        List<TestConnection> connections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TestConnection conn = new TestConnection();
+            conn.setLastTime(i);
+            pool.onCreateSuccess(conn);
+            connections.add(conn);
+        }
+        return connections;
+    }
+
+    private PooledConnection borrowInThread() throws InterruptedException {
+        AtomicReference<PooledConnection> result = new AtomicReference<>();
+        runInThread(() -> result.set(pool.borrowDirectly(null)));
+        return result.get();
+    }
+
+    private static void runInThread(Runnable runnable) throws InterruptedException {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        thread.join();
+    }
+
+    private static final class TestConnection extends PooledConnection {
+        private final AtomicBoolean owned = new AtomicBoolean();
+        private volatile boolean closed;
+
+        TestConnection() {
+            super(null, null);
+        }
+
+        @Override
+        public void release() {
+            getPoolRelated().release(this);
+        }
+
+        @Override
+        public void close(String reason) {
+            closed = true;
+            getPoolRelated().close(this);
+        }
+
+        @Override
+        public void businessClose(String reason) {
+            close(reason);
+        }
+
+        @Override
+        public void setProcessor(IOProcessor processor) {
+        }
+
+        @Override
+        public void startFlowControl(int currentWritingSize) {
+        }
+
+        @Override
+        public void stopFlowControl(int currentWritingSize) {
+        }
+    }
+}
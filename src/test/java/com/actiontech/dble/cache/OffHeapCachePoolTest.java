@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.cache;
+
+import com.actiontech.dble.cache.impl.OffHeapCachePool;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapCachePoolTest {
+
+    @Test
+    public void testBasic() {
+        OffHeapCachePool pool = new OffHeapCachePool("testcache", 1024 * 1024, 2);
+        pool.putIfAbsent("2", "dn2");
+        pool.putIfAbsent("1", "dn1");
+        pool.putIfAbsent("1", "dn3");
+
+        Assert.assertEquals("dn2", pool.get("2"));
+        Assert.assertEquals("dn1", pool.get("1"));
+        Assert.assertEquals(null, pool.get("3"));
+
+        CacheStatic statics = pool.getCacheStatic();
+        Assert.assertEquals(2, statics.getItemSize());
+        Assert.assertEquals(2, statics.getPutTimes());
+        Assert.assertEquals(3, statics.getAccessTimes());
+        Assert.assertEquals(2, statics.getHitTimes());
+        Assert.assertTrue(statics.getMemorySize() > 0);
+        // wait expire
+        try {
+            Thread.sleep(3000);
+        } catch (InterruptedException e) {
+        }
+        Assert.assertEquals(null, pool.get("2"));
+        Assert.assertEquals(null, pool.get("1"));
+        Assert.assertEquals(2, pool.getCacheStatic().getEvictTimes());
+    }
+
+    @Test
+    public void testBoundedBySize() {
+        OffHeapCachePool pool = new OffHeapCachePool("testcache", 64 * 1024, -1);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            value.append('x');
+        }
+        for (int i = 0; i < 2000; i++) {
+            pool.putIfAbsent("key" + i, value.toString() + i);
+        }
+        CacheStatic statics = pool.getCacheStatic();
+        Assert.assertTrue(statics.getMemorySize() <= pool.getMaxSize());
+        Assert.assertTrue(statics.getItemSize() < 2000);
+        Assert.assertEquals(2000 - statics.getItemSize(), statics.getEvictTimes());
+    }
+
+    @Test
+    public void testFrequentKeysAdmitted() {
+        OffHeapCachePool pool = new OffHeapCachePool("testcache", 64 * 1024, -1);
+        for (int i = 0; i < 100; i++) {
+            pool.putIfAbsent("hot" + i, "value" + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                pool.get("hot" + i);
+            }
+        }
+        // a scan of keys accessed only once doesn't flush the frequent keys
+        for (int i = 0; i < 5000; i++) {
+            pool.putIfAbsent("cold" + i, "value" + i);
+        }
+        int hit = 0;
+        for (int i = 0; i < 100; i++) {
+            if (pool.get("hot" + i) != null) {
+                hit++;
+            }
+        }
+        Assert.assertTrue(hit > 90);
+    }
+}
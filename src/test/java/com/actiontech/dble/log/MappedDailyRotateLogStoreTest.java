@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedDailyRotateLogStoreTest {
+    private static final int MB = 1024 * 1024;
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("txlog").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testRotateAndSplitRecord() throws IOException {
+        MappedDailyRotateLogStore store = new MappedDailyRotateLogStore(dir.getPath(), "tx", "log", 1);
+        store.open();
+        StringBuilder expected = new StringBuilder();
+        // 3 bytes in UTF-8 for every char, so a record ends across the boundary of the files
+        String record = "中文记录\n";
+        long written = 0;
+        long time = System.currentTimeMillis();
+        while (written < MB * 2L + 100) {
+            written += store.write(CharBuffer.wrap(record), time);
+            expected.append(record);
+        }
+        store.close();
+
+        Assert.assertEquals(expected.toString().getBytes(StandardCharsets.UTF_8).length, written);
+        List<File> rolled = rolledFiles();
+        Assert.assertEquals(2, rolled.size());
+        for (File f : rolled) {
+            // the mapped size of a full file, without the zeros at the end
+            Assert.assertTrue(f.length() <= MB);
+            Assert.assertTrue(f.length() > MB - 3);
+        }
+        Assert.assertEquals(expected.toString(), readAll(rolled));
+        // the record split at the end of the first file is continued by the next one
+        Assert.assertNotEquals(0, rolled.get(0).length() % record.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void testTrimZerosOnReopen() throws IOException {
+        // a file left by a crash: the text followed by the zeros of the mapping
+        File current = new File(dir, "tx.log");
+        byte[] text = "before crash\n".getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[MB];
+        System.arraycopy(text, 0, content, 0, text.length);
+        Files.write(current.toPath(), content);
+
+        MappedDailyRotateLogStore store = new MappedDailyRotateLogStore(dir.getPath(), "tx", "log", 1);
+        store.open();
+        store.write(CharBuffer.wrap("after restart\n"), System.currentTimeMillis());
+        store.close();
+
+        List<File> rolled = rolledFiles();
+        Assert.assertEquals(1, rolled.size());
+        Assert.assertArrayEquals(text, Files.readAllBytes(rolled.get(0).toPath()));
+        Assert.assertEquals("after restart\n", new String(Files.readAllBytes(current.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReopenEmptyFile() throws IOException {
+        File current = new File(dir, "tx.log");
+        Files.write(current.toPath(), new byte[MB]);
+
+        MappedDailyRotateLogStore store = new MappedDailyRotateLogStore(dir.getPath(), "tx", "log", 1);
+        store.open();
+        store.close();
+
+        // nothing but zeros, the file is reused instead of rolled
+        Assert.assertTrue(rolledFiles().isEmpty());
+        Assert.assertEquals(0, current.length());
+    }
+
+    // sorted by the index
+    private List<File> rolledFiles() {
+        List<File> rolled = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            File found = null;
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    if (f.getName().startsWith("tx_") && f.getName().endsWith("." + i + ".log")) {
+                        found = f;
+                    }
+                }
+            }
+            if (found == null) {
+                return rolled;
+            }
+            rolled.add(found);
+        }
+    }
+
+    private String readAll(List<File> rolled) throws IOException {
+        List<byte[]> parts = new ArrayList<>();
+        int length = 0;
+        for (File f : rolled) {
+            byte[] bytes = Files.readAllBytes(f.toPath());
+            parts.add(bytes);
+            length += bytes.length;
+        }
+        byte[] current = Files.readAllBytes(new File(dir, "tx.log").toPath());
+        parts.add(current);
+        length += current.length;
+        byte[] all = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return new String(all, StandardCharsets.UTF_8);
+    }
+}
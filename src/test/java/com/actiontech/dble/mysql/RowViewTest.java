@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.mysql;
+
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.net.mysql.RowView;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowViewTest {
+
+    // 'a1', NULL, '', 300 bytes of 'x'
+    private static byte[] packet() {
+        byte[] data = new byte[4 + 3 + 1 + 1 + 3 + 300];
+        int pos = 4;
+        data[pos++] = 2;
+        data[pos++] = 'a';
+        data[pos++] = '1';
+        data[pos++] = (byte) 251;
+        data[pos++] = 0;
+        data[pos++] = (byte) 252;
+        data[pos++] = (byte) (300 & 0xff);
+        data[pos++] = (byte) (300 >> 8);
+        for (int i = 0; i < 300; i++) {
+            data[pos++] = 'x';
+        }
+        int length = data.length - 4;
+        data[0] = (byte) (length & 0xff);
+        data[1] = (byte) (length >> 8);
+        data[2] = (byte) (length >> 16);
+        data[3] = 5;
+        return data;
+    }
+
+    @Test
+    public void testSameAsRead() {
+        byte[] data = packet();
+        RowDataPacket read = new RowDataPacket(4);
+        read.read(data);
+        RowDataPacket view = RowDataPacket.wrap(4, data);
+        Assert.assertEquals(read.getFieldCount(), view.fieldValues.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertArrayEquals(read.getValue(i), view.getValue(i));
+        }
+        Assert.assertEquals(read.calcPacketSize(), view.calcPacketSize());
+        Assert.assertEquals(5, view.getPacketId());
+    }
+
+    @Test
+    public void testPassThrough() {
+        byte[] data = packet();
+        RowDataPacket view = RowDataPacket.wrap(4, data);
+        view.setPacketId(9);
+        byte[] out = view.toBytes();
+        Assert.assertEquals(9, out[3]);
+        out[3] = data[3];
+        Assert.assertArrayEquals(data, out);
+        Assert.assertFalse(((RowView) view.fieldValues).isModified());
+    }
+
+    @Test
+    public void testModify() {
+        RowDataPacket view = RowDataPacket.wrap(4, packet());
+        view.setValue(1, new byte[]{'b'});
+        Assert.assertTrue(((RowView) view.fieldValues).isModified());
+        Assert.assertArrayEquals(new byte[]{'b'}, view.getValue(1));
+        Assert.assertArrayEquals(new byte[]{'a', '1'}, view.getValue(0));
+        view.add(new byte[]{'c'});
+        view.addFieldCount(1);
+        Assert.assertEquals(5, view.fieldValues.size());
+        Assert.assertArrayEquals(new byte[]{'c'}, view.getValue(4));
+        Assert.assertEquals(300, view.getValue(3).length);
+    }
+}
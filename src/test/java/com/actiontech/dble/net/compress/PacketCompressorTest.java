@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.net.compress;
+
+import com.actiontech.dble.config.model.SystemConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class PacketCompressorTest {
+
+    @Test
+    public void testZlib() {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        byte[] compressed = new byte[ZlibCodec.INSTANCE.maxCompressedLength(data.length)];
+        int length = ZlibCodec.INSTANCE.compress(data, 0, data.length, compressed);
+        Assert.assertTrue(length < data.length);
+        byte[] decompressed = new byte[data.length];
+        ZlibCodec.INSTANCE.decompress(compressed, 0, length, decompressed);
+        Assert.assertArrayEquals(data, decompressed);
+
+        // not compressible
+        Random random = new Random(1);
+        random.nextBytes(data);
+        compressed = new byte[ZlibCodec.INSTANCE.maxCompressedLength(data.length)];
+        length = ZlibCodec.INSTANCE.compress(data, 0, data.length, compressed);
+        ZlibCodec.INSTANCE.decompress(compressed, 0, length, decompressed);
+        Assert.assertArrayEquals(data, decompressed);
+    }
+
+    @Test
+    public void testZstdEnabledOnlyIfLoaded() {
+        String old = SystemConfig.getInstance().getProtocolCompressionAlgorithms();
+        try {
+            SystemConfig.getInstance().setProtocolCompressionAlgorithms("zstd,zlib");
+            Assert.assertEquals(ZstdCodec.isAvailable(), PacketCompressor.isAlgorithmEnabled("zstd"));
+            Assert.assertTrue(PacketCompressor.isAlgorithmEnabled("zlib"));
+            SystemConfig.getInstance().setProtocolCompressionAlgorithms("zlib");
+            Assert.assertFalse(PacketCompressor.isAlgorithmEnabled("zstd"));
+        } finally {
+            SystemConfig.getInstance().setProtocolCompressionAlgorithms(old);
+        }
+    }
+
+    @Test
+    public void testDecompressUnfinishedPacket() {
+        byte[] first = packet(1, 300);
+        byte[] second = packet(2, 20);
+        byte[] payload = new byte[first.length + second.length];
+        System.arraycopy(first, 0, payload, 0, first.length);
+        System.arraycopy(second, 0, payload, first.length, second.length);
+
+        PacketCompressor compressor = new PacketCompressor(ZlibCodec.INSTANCE);
+        // the second packet is split into two compressed packets
+        int split = first.length + 5;
+        List<byte[]> packets = compressor.decompress(compressedPacket(payload, 0, split, 0));
+        Assert.assertEquals(1, packets.size());
+        Assert.assertArrayEquals(first, packets.get(0));
+        Assert.assertTrue(compressor.hasUnfinishedPacket());
+
+        packets = compressor.decompress(uncompressedPacket(payload, split, payload.length - split, 1));
+        Assert.assertEquals(1, packets.size());
+        Assert.assertArrayEquals(second, packets.get(0));
+        Assert.assertFalse(compressor.hasUnfinishedPacket());
+    }
+
+    private static byte[] packet(int seq, int length) {
+        byte[] packet = new byte[length + 4];
+        ub3(packet, 0, length);
+        packet[3] = (byte) seq;
+        Arrays.fill(packet, 4, packet.length, (byte) 'a');
+        return packet;
+    }
+
+    private static byte[] compressedPacket(byte[] data, int off, int len, int seq) {
+        byte[] compressed = new byte[ZlibCodec.INSTANCE.maxCompressedLength(len)];
+        int length = ZlibCodec.INSTANCE.compress(data, off, len, compressed);
+        byte[] packet = new byte[length + 7];
+        ub3(packet, 0, length);
+        packet[3] = (byte) seq;
+        ub3(packet, 4, len);
+        System.arraycopy(compressed, 0, packet, 7, length);
+        return packet;
+    }
+
+    private static byte[] uncompressedPacket(byte[] data, int off, int len, int seq) {
+        byte[] packet = new byte[len + 7];
+        ub3(packet, 0, len);
+        packet[3] = (byte) seq;
+        System.arraycopy(data, off, packet, 7, len);
+        return packet;
+    }
+
+    private static void ub3(byte[] b, int pos, int v) {
+        b[pos] = (byte) v;
+        b[pos + 1] = (byte) (v >>> 8);
+        b[pos + 2] = (byte) (v >>> 16);
+    }
+}
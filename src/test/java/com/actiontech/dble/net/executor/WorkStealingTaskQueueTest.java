@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.net.executor;
+
+import com.actiontech.dble.net.service.Service;
+import com.actiontech.dble.net.service.ServiceTask;
+import com.actiontech.dble.net.service.ServiceTaskType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkStealingTaskQueueTest {
+
+    @Test
+    public void testSameServiceSameLane() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(4);
+        Service service = new TestService();
+        ServiceTask first = new TestTask(service);
+        ServiceTask second = new TestTask(service);
+        ServiceTask notification = new TestTask(service);
+        queue.offer(first);
+        queue.offer(second);
+        queue.offerFirst(notification);
+        Assert.assertEquals(3, queue.size());
+
+        int lane = -1;
+        for (int i = 0; i < queue.getLaneCount(); i++) {
+            if (queue.getLaneSize(i) > 0) {
+                Assert.assertEquals(-1, lane);
+                lane = i;
+            }
+        }
+        Assert.assertSame(notification, queue.poll(lane));
+        Assert.assertSame(first, queue.poll(lane));
+        Assert.assertSame(second, queue.poll(lane));
+        Assert.assertNull(queue.poll(lane));
+        Assert.assertEquals(0, queue.getStealCount(lane));
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testSteal() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(2);
+        Assert.assertEquals(0, queue.registerWorker());
+        Assert.assertEquals(1, queue.registerWorker());
+        // the workers added later share the lanes
+        Assert.assertEquals(0, queue.registerWorker());
+
+        ServiceTask task = new TestTask(new TestService());
+        queue.offer(task);
+        int lane = queue.getLaneSize(0) == 1 ? 0 : 1;
+        int idle = 1 - lane;
+        Assert.assertSame(task, queue.poll(idle));
+        Assert.assertEquals(1, queue.getStealCount(idle));
+        Assert.assertEquals(0, queue.getStealCount(lane));
+        Assert.assertNull(queue.poll(lane));
+    }
+
+    @Test
+    public void testDequeMethods() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(3);
+        for (int i = 0; i < 30; i++) {
+            queue.offer(new TestTask(new TestService()));
+        }
+        ServiceTask noService = new TestTask(null);
+        queue.offer(noService);
+        Assert.assertEquals(31, queue.size());
+        int count = 0;
+        for (ServiceTask ignored : queue) {
+            count++;
+        }
+        Assert.assertEquals(31, count);
+        Assert.assertTrue(queue.remove(noService));
+        Assert.assertFalse(queue.contains(noService));
+        while (queue.poll() != null) {
+            count--;
+        }
+        Assert.assertEquals(1, count);
+        Assert.assertNull(queue.peek());
+    }
+
+    private static final class TestService implements Service {
+        @Override
+        public void handle(ServiceTask task) {
+        }
+
+        @Override
+        public void execute(ServiceTask task, ThreadContext threadContext) {
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+
+    private static final class TestTask extends ServiceTask {
+        TestTask(Service service) {
+            super(service);
+        }
+
+        @Override
+        public ServiceTaskType getType() {
+            return ServiceTaskType.NORMAL;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.impl.nio;
+
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.IOProcessor;
+import com.actiontech.dble.net.WriteOutTask;
+import com.actiontech.dble.net.connection.AbstractConnection;
+import com.actiontech.dble.singleton.FlowController;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NIOSocketWRTest {
+    private final ConcurrentLinkedQueue<WriteOutTask> writeQueue = new ConcurrentLinkedQueue<>();
+    private BufferPool bufferPool;
+    private LimitedSocketChannel channel;
+    private AbstractConnection con;
+    private NIOSocketWR socketWR;
+
+    @Before
+    public void setUp() throws Exception {
+        FlowController.init();
+        bufferPool = Mockito.mock(BufferPool.class);
+        channel = new LimitedSocketChannel();
+        con = Mockito.mock(AbstractConnection.class);
+        Mockito.when(con.getChannel()).thenReturn(channel);
+        Mockito.when(con.getWriteQueue()).thenReturn(writeQueue);
+        Mockito.when(con.getWritingSize()).thenReturn(new AtomicInteger());
+        Mockito.when(con.getCloseReason()).thenReturn("quit");
+        setField(AbstractConnection.class, con, "processor", new IOProcessor("test", bufferPool));
+        socketWR = new NIOSocketWR();
+        socketWR.initFromConnection(con);
+        setField(NIOSocketWR.class, socketWR, "processKey", Mockito.mock(SelectionKey.class));
+    }
+
+    @Test
+    public void testPartialWrite() {
+        ByteBuffer first = buffer(30, 'a');
+        ByteBuffer second = buffer(20, 'b');
+        channel.writable = 10;
+        Assert.assertTrue(socketWR.registerWrite(first));
+        Assert.assertEquals(10, channel.out.size());
+        Assert.assertFalse(socketWR.isWriteComplete());
+        Mockito.verify(bufferPool, Mockito.never()).recycle(Mockito.any(ByteBuffer.class));
+
+        writeQueue.offer(new WriteOutTask(second, false));
+        channel.writable = 25;
+        socketWR.doNextWriteCheck();
+        // the rest of the first buffer goes out before the second one
+        Assert.assertEquals(35, channel.out.size());
+        Mockito.verify(bufferPool).recycle(Mockito.same(first));
+        Mockito.verify(bufferPool, Mockito.never()).recycle(Mockito.same(second));
+
+        channel.writable = 100;
+        socketWR.doNextWriteCheck();
+        Assert.assertArrayEquals(concat(30, 'a', 20, 'b'), channel.out.toByteArray());
+        Mockito.verify(bufferPool).recycle(Mockito.same(second));
+        Assert.assertTrue(socketWR.isWriteComplete());
+    }
+
+    @Test
+    public void testCloseFlagBehindPending() {
+        ByteBuffer data = buffer(30, 'a');
+        ByteBuffer quit = buffer(5, 'q');
+        channel.writable = 10;
+        socketWR.registerWrite(data);
+        writeQueue.offer(new WriteOutTask(quit, true));
+        channel.writable = 10;
+        socketWR.doNextWriteCheck();
+        // the data before the close flag is not written completely yet
+        Assert.assertEquals(20, channel.out.size());
+        Mockito.verify(con, Mockito.never()).close(Mockito.anyString());
+        Mockito.verify(bufferPool, Mockito.never()).recycle(Mockito.any(ByteBuffer.class));
+
+        channel.writable = 100;
+        socketWR.doNextWriteCheck();
+        Assert.assertArrayEquals(concat(30, 'a', 5, 'q'), channel.out.toByteArray());
+        Mockito.verify(con).close("quit");
+        Mockito.verify(bufferPool).recycle(Mockito.same(data));
+        Mockito.verify(bufferPool).recycle(Mockito.same(quit));
+    }
+
+    @Test
+    public void testRecyclePendingOnClose() throws Exception {
+        ByteBuffer first = buffer(30, 'a');
+        ByteBuffer second = buffer(20, 'b');
+        channel.writable = 10;
+        socketWR.registerWrite(first);
+        writeQueue.offer(new WriteOutTask(second, false));
+        socketWR.doNextWriteCheck();
+        Assert.assertTrue(writeQueue.isEmpty());
+        Mockito.verify(bufferPool, Mockito.never()).recycle(Mockito.any(ByteBuffer.class));
+
+        Mockito.when(con.isClosed()).thenReturn(true);
+        socketWR.closeSocket();
+        Assert.assertFalse(channel.isOpen());
+        Mockito.verify(bufferPool).recycle(Mockito.same(first));
+        Mockito.verify(bufferPool).recycle(Mockito.same(second));
+        Assert.assertTrue(socketWR.isWriteComplete());
+    }
+
+    private static ByteBuffer buffer(int size, char c) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for (int i = 0; i < size; i++) {
+            buffer.put((byte) c);
+        }
+        return buffer;
+    }
+
+    private static byte[] concat(int size1, char c1, int size2, char c2) {
+        byte[] bytes = new byte[size1 + size2];
+        Arrays.fill(bytes, 0, size1, (byte) c1);
+        Arrays.fill(bytes, size1, bytes.length, (byte) c2);
+        return bytes;
+    }
+
+    private static void setField(Class<?> clazz, Object target, String name, Object value) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * accepts at most writable bytes until it is raised again, like a socket buffer which is full
+     */
+    private static final class LimitedSocketChannel extends SocketChannel {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int writable;
+
+        LimitedSocketChannel() {
+            super(SelectorProvider.provider());
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = Math.min(src.remaining(), writable);
+            for (int i = 0; i < n; i++) {
+                out.write(src.get());
+            }
+            writable -= n;
+            return n;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long written = 0;
+            for (int i = offset; i < offset + length; i++) {
+                written += write(srcs[i]);
+            }
+            return written;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            return 0;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) {
+            return 0;
+        }
+
+        @Override
+        public SocketChannel bind(SocketAddress local) {
+            return this;
+        }
+
+        @Override
+        public <T> SocketChannel setOption(SocketOption<T> name, T value) {
+            return this;
+        }
+
+        @Override
+        public <T> T getOption(SocketOption<T> name) {
+            return null;
+        }
+
+        @Override
+        public Set<SocketOption<?>> supportedOptions() {
+            return null;
+        }
+
+        @Override
+        public SocketChannel shutdownInput() {
+            return this;
+        }
+
+        @Override
+        public SocketChannel shutdownOutput() {
+            return this;
+        }
+
+        @Override
+        public Socket socket() {
+            return null;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean isConnectionPending() {
+            return false;
+        }
+
+        @Override
+        public boolean connect(SocketAddress remote) {
+            return true;
+        }
+
+        @Override
+        public boolean finishConnect() {
+            return true;
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        protected void implCloseSelectableChannel() {
+        }
+
+        @Override
+        protected void implConfigureBlocking(boolean block) {
+        }
+    }
+}
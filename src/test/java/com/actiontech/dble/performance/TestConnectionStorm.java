@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * connection storm against the server port: the threads open the connections at the same time and wait for the
+ * handshake packet, which is sent after the connection is accepted and registered to one RW thread.
+ * it holds all the connections until the end, so the idle connections are also counted in the selectors.
+ * run it against the dble built before and after a change of the reactors to compare the rate and the latency.
+ */
+public class TestConnectionStorm {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.out.println("input param,format: [host] [port] [threads] [connectionsPerThread] ");
+            return;
+        }
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int threads = Integer.parseInt(args[2]);
+        int perThread = Integer.parseInt(args[3]);
+
+        long[] latencies = new long[threads * perThread];
+        AtomicInteger failed = new AtomicInteger();
+        List<Socket> sockets = new ArrayList<>(latencies.length);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * perThread;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        long begin = System.nanoTime();
+                        try {
+                            Socket socket = connect(host, port);
+                            latencies[offset + i] = System.nanoTime() - begin;
+                            synchronized (sockets) {
+                                sockets.add(socket);
+                            }
+                        } catch (IOException e) {
+                            latencies[offset + i] = -1;
+                            failed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finish.countDown();
+                }
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        finish.await();
+        long used = System.nanoTime() - begin;
+
+        long[] succeeded = Arrays.stream(latencies).filter(l -> l >= 0).sorted().toArray();
+        System.out.println("connections:" + latencies.length + ", failed:" + failed.get() + ", used time(ms):" + used / 1000000);
+        System.out.println("handshakes per second:" + (succeeded.length * 1000000000L / Math.max(used, 1)));
+        if (succeeded.length > 0) {
+            System.out.println("latency(us) p50:" + percentile(succeeded, 50) / 1000 + ", p99:" + percentile(succeeded, 99) / 1000 +
+                    ", max:" + succeeded[succeeded.length - 1] / 1000);
+        }
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static Socket connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), 30000);
+            socket.setSoTimeout(30000);
+            // the header of the handshake packet
+            InputStream in = socket.getInputStream();
+            for (int i = 0; i < 4; i++) {
+                if (in.read() < 0) {
+                    throw new IOException("closed before handshake");
+                }
+            }
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int idx = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(idx, 0)];
+    }
+}
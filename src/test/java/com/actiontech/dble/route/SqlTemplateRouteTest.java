@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.config.model.user.UserConfig;
+import com.actiontech.dble.config.model.user.UserName;
+import com.actiontech.dble.route.function.PartitionByLong;
+import com.actiontech.dble.route.parser.util.ParameterizedSql;
+import com.actiontech.dble.route.util.RouterUtil;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.google.common.collect.Sets;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SqlTemplateRouteTest {
+    private static final String SCHEMA = "testdb";
+    private static final String TABLE = "t1";
+    private static final UserName USER = new UserName("test");
+    private static ServerConfig oldConfig;
+    private static SchemaConfig schemaConfig;
+    private static ShardingTableConfig tableConfig;
+
+    @BeforeClass
+    public static void beforeClass() {
+        PartitionByLong function = new PartitionByLong();
+        function.setPartitionCount("2");
+        function.setPartitionLength("512");
+        function.init();
+        tableConfig = new ShardingTableConfig(TABLE, -1, Arrays.asList("dn1", "dn2"), null, function, "id", false, false);
+        Map<String, BaseTableConfig> tables = new HashMap<>();
+        tables.put(TABLE, tableConfig);
+        schemaConfig = new SchemaConfig(SCHEMA, null, null, tables, -1, false);
+        Map<String, SchemaConfig> schemas = new HashMap<>();
+        schemas.put(SCHEMA, schemaConfig);
+        Map<UserName, UserConfig> users = new HashMap<>();
+        users.put(USER, Mockito.mock(UserConfig.class));
+
+        ServerConfig config = Mockito.mock(ServerConfig.class);
+        Mockito.when(config.getSchemas()).thenReturn(schemas);
+        Mockito.when(config.getUsers()).thenReturn(users);
+        oldConfig = DbleServer.getInstance().getConfig();
+        DbleServer.getInstance().setConfig(config);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        DbleServer.getInstance().setConfig(oldConfig);
+    }
+
+    @Test
+    public void testRouteOtherLiteral() {
+        String sql1 = "select * from t1 where id = 1 and name = 'a'";
+        RouteResultset full1 = fullRoute(sql1, true);
+        full1.setRoutePenetration(true);
+        SqlTemplateRoute templateRoute = SqlTemplateRoute.build(schemaConfig, USER, sql1, ParameterizedSql.parse(sql1), full1);
+        Assert.assertTrue(templateRoute.isCacheable());
+
+        String sql2 = "select * from t1 where id = 600 and name = 'b'";
+        ParameterizedSql parameterizedSql2 = ParameterizedSql.parse(sql2);
+        Assert.assertEquals(ParameterizedSql.parse(sql1).getTemplate(), parameterizedSql2.getTemplate());
+        RouteResultset templated = templateRoute.route(sql2, ServerParse.SELECT, parameterizedSql2);
+        RouteResultset full2 = fullRoute(sql2, true);
+        full2.setRoutePenetration(true);
+        assertSameRoute(full2, templated);
+        Assert.assertEquals("dn2", templated.getNodes()[0].getName());
+
+        // the same literal goes back to the first node
+        RouteResultset templatedAgain = templateRoute.route(sql1, ServerParse.SELECT, ParameterizedSql.parse(sql1));
+        assertSameRoute(full1, templatedAgain);
+        Assert.assertEquals("dn1", templatedAgain.getNodes()[0].getName());
+    }
+
+    @Test
+    public void testUncacheableRouteNotTemplated() {
+        String sql = "select * from t1 where id = 1";
+        RouteResultset full = fullRoute(sql, false);
+        SqlTemplateRoute templateRoute = SqlTemplateRoute.build(schemaConfig, USER, sql, ParameterizedSql.parse(sql), full);
+        Assert.assertFalse(templateRoute.isCacheable());
+        Assert.assertNull(templateRoute.route(sql, ServerParse.SELECT, ParameterizedSql.parse(sql)));
+    }
+
+    @Test
+    public void testDifferentNodeNotTemplated() {
+        String sql = "select * from t1 where id = 1";
+        RouteResultset full = fullRoute(sql, true);
+        // the full route doesn't agree with the partition algorithm
+        full.getNodes()[0] = new RouteResultsetNode("dn2", ServerParse.SELECT, sql, Sets.newHashSet(SCHEMA + "." + TABLE));
+        SqlTemplateRoute templateRoute = SqlTemplateRoute.build(schemaConfig, USER, sql, ParameterizedSql.parse(sql), full);
+        Assert.assertFalse(templateRoute.isCacheable());
+    }
+
+    /**
+     * the route result of a select on a single sharding table with the sharding column, the same as the select parser does
+     */
+    private static RouteResultset fullRoute(String sql, boolean cacheable) {
+        RouteResultset rrs = new RouteResultset(sql, ServerParse.SELECT);
+        rrs.setSchema(SCHEMA);
+        rrs.setTable(TABLE);
+        rrs.setTableAlias(TABLE);
+        rrs.setSqlRouteCacheAble(cacheable);
+        Integer nodeIndex = tableConfig.getFunction().calculate(ParameterizedSql.parse(sql).getValues().get(0));
+        return RouterUtil.routeToSingleNode(rrs, tableConfig.getShardingNodes().get(nodeIndex), Sets.newHashSet(SCHEMA + "." + TABLE));
+    }
+
+    private static void assertSameRoute(RouteResultset expected, RouteResultset actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getStatement(), actual.getStatement());
+        Assert.assertEquals(expected.getSqlType(), actual.getSqlType());
+        Assert.assertEquals(expected.getSchema(), actual.getSchema());
+        Assert.assertEquals(expected.getTable(), actual.getTable());
+        Assert.assertEquals(expected.isSqlRouteCacheAble(), actual.isSqlRouteCacheAble());
+        Assert.assertEquals(expected.isRoutePenetration(), actual.isRoutePenetration());
+        Assert.assertEquals(expected.isFinishedRoute(), actual.isFinishedRoute());
+        Assert.assertEquals(1, actual.getNodes().length);
+        RouteResultsetNode expectedNode = expected.getNodes()[0];
+        RouteResultsetNode actualNode = actual.getNodes()[0];
+        Assert.assertEquals(expectedNode.getName(), actualNode.getName());
+        Assert.assertEquals(expectedNode.getStatement(), actualNode.getStatement());
+        Assert.assertEquals(expectedNode.getTableSet(), actualNode.getTableSet());
+        Assert.assertEquals(expectedNode.getLimitSize(), actualNode.getLimitSize());
+    }
+}
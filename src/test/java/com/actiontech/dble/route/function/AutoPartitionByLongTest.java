@@ -87,5 +87,27 @@ public class AutoPartitionByLongTest {
 
     }
 
-
-}
\ No newline at end of file
+    @Test
+    public void testPrimitive() {
+        AutoPartitionByLong autoPartition = new AutoPartitionByLong();
+        autoPartition.setMapFile("autopartition-long.txt");
+        autoPartition.init();
+        long[] values = {Long.MIN_VALUE, -1, 0, 1, 2000000, 2000001, 3999999, 4000000, 4000001, 6000000, 6000001, Long.MAX_VALUE};
+        for (long value : values) {
+            String str = String.valueOf(value);
+            int expect = AbstractPartitionAlgorithm.toPartition(autoPartition.calculate(str));
+            Assert.assertEquals(expect, autoPartition.calculate(value));
+            String padded = "(" + str + ")";
+            Assert.assertEquals(expect, autoPartition.calculate(padded, 1, padded.length() - 1));
+        }
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_PARTITION, autoPartition.calculate(6000001L));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_PARTITION, autoPartition.calculate("null", 0, 4));
+
+        autoPartition = new AutoPartitionByLong();
+        autoPartition.setMapFile("autopartition-long.txt");
+        autoPartition.setDefaultNode(0);
+        autoPartition.init();
+        Assert.assertEquals(0, autoPartition.calculate(6000001L));
+        Assert.assertEquals(0, autoPartition.calculate("NULL", 0, 4));
+    }
+}
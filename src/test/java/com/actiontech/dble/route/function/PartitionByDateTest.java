@@ -10,6 +10,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.Arrays;
+
 public class PartitionByDateTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -154,4 +156,84 @@ public class PartitionByDateTest {
         partition.init();
         Assert.assertEquals(true, 0 == partition.calculate("2012-12-31"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRange() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd");
+        partition.setsBeginDate("2014-01-01");
+        partition.setsEndDate("2014-01-30");
+        partition.setsPartionDay("10");
+        partition.init();
+        Assert.assertArrayEquals(new Integer[]{0}, partition.calculateRange("2014-01-01", "2014-01-10"));
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2014-01-05", "2014-01-11"));
+        Assert.assertArrayEquals(new Integer[]{2, 0}, partition.calculateRange("2014-01-25", "2014-02-01"));
+        Assert.assertArrayEquals(new Integer[]{1, 2, 0}, partition.calculateRange("2014-02-15", "2019-06-30"));
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2013-12-01", "2014-01-11"));
+        Assert.assertEquals(0, partition.calculateRange("2013-12-01", "2013-12-31").length);
+        Assert.assertEquals(0, partition.calculateRange("2014-01-11", "2014-01-01").length);
+        Assert.assertEquals(0, partition.calculateRange("2014/01/01", "2014-01-11").length);
+    }
+
+    @Test
+    public void testRangeDefaultNode() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd HH:mm:ss");
+        partition.setsBeginDate("2014-01-01 00:00:00");
+        partition.setsPartionDay("10");
+        partition.setDefaultNode(0);
+        partition.init();
+        Assert.assertArrayEquals(new Integer[]{0}, partition.calculateRange("2013-12-01 00:00:00", "2013-12-31 12:00:00"));
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2013-12-01 00:00:00", "2014-01-11 12:00:00"));
+        // the period of the end is included even if the end is earlier in the day than the begin
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2014-01-10 12:00:00", "2014-01-11 06:00:00"));
+        Integer[] nodes = partition.calculateRange("2014-01-01 00:00:00", "2016-12-31 00:00:00");
+        Assert.assertEquals(110, nodes.length);
+        Assert.assertEquals(109, (int) nodes[109]);
+        Assert.assertTrue(Arrays.asList(nodes).contains(partition.calculate("2015-06-30 23:59:59")));
+    }
+
+    @Test
+    public void testParseWithoutPadding() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd");
+        partition.setsBeginDate("2014-01-01");
+        partition.setsPartionDay("10");
+        partition.init();
+        Assert.assertEquals(true, 0 == partition.calculate("2014-1-5"));
+        Assert.assertEquals(true, 1 == partition.calculate("2014-1-15"));
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2014-1-5", "2014-1-15"));
+    }
+
+    @Test
+    public void testParseClockHour() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd hh:mm:ss");
+        partition.setsBeginDate("2014-01-01 06:00:00");
+        partition.setsPartionDay("1");
+        partition.init();
+        // the time is kept, so the value is less than one day after the begin
+        Assert.assertEquals(true, 0 == partition.calculate("2014-01-02 05:00:00"));
+        Assert.assertEquals(true, 1 == partition.calculate("2014-01-02 07:00:00"));
+        Assert.assertArrayEquals(new Integer[]{0}, partition.calculateRange("2014-01-01 07:00:00", "2014-01-02 05:00:00"));
+    }
+
+    @Test
+    public void testParseLenient() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd");
+        partition.setsBeginDate("2014-01-01");
+        partition.setsPartionDay("1");
+        partition.init();
+        // the overflowed day and month roll into the next month and year
+        Assert.assertEquals(partition.calculate("2014-03-02"), partition.calculate("2014-02-30"));
+        Assert.assertNotEquals(partition.calculate("2014-02-28"), partition.calculate("2014-02-30"));
+        Assert.assertEquals(partition.calculate("2015-01-01"), partition.calculate("2014-13-01"));
+        Assert.assertArrayEquals(partition.calculateRange("2014-03-01", "2014-03-02"), partition.calculateRange("2014-03-01", "2014-02-30"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.route.function;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the cost of calculateRange of the functions which route a range to the nodes by the value,
+ * run by the main method, it is not a unit test
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RangeRoutingBenchmark {
+    private PartitionByDate byDay;
+    private PartitionByDate byDayNoEnd;
+    private AutoPartitionByLong autoByLong;
+    private PartitionByPattern byPattern;
+    private PartitionByLong byLong;
+
+    @Setup
+    public void setUp() {
+        byDay = new PartitionByDate();
+        byDay.setDateFormat("yyyy-MM-dd");
+        byDay.setsBeginDate("2014-01-01");
+        byDay.setsEndDate("2014-12-31");
+        byDay.setsPartionDay("30");
+        byDay.init();
+
+        byDayNoEnd = new PartitionByDate();
+        byDayNoEnd.setDateFormat("yyyy-MM-dd HH:mm:ss");
+        byDayNoEnd.setsBeginDate("2014-01-01 00:00:00");
+        byDayNoEnd.setsPartionDay("90");
+        byDayNoEnd.setDefaultNode(0);
+        byDayNoEnd.init();
+
+        autoByLong = new AutoPartitionByLong();
+        autoByLong.setMapFile("autopartition-long.txt");
+        autoByLong.init();
+
+        byPattern = new PartitionByPattern();
+        byPattern.setMapFile("partition-pattern-test.txt");
+        byPattern.setPatternValue(256);
+        byPattern.init();
+
+        byLong = new PartitionByLong();
+        byLong.setPartitionCount("2");
+        byLong.setPartitionLength("512");
+        byLong.init();
+    }
+
+    @Benchmark
+    public Integer[] dateOneMonth() {
+        return byDay.calculateRange("2014-03-01", "2014-03-31");
+    }
+
+    @Benchmark
+    public Integer[] dateFiveYears() {
+        return byDay.calculateRange("2014-01-01", "2018-12-31");
+    }
+
+    @Benchmark
+    public Integer[] dateTimeTenYears() {
+        return byDayNoEnd.calculateRange("2013-06-01 00:00:00", "2023-06-01 12:00:00");
+    }
+
+    @Benchmark
+    public Integer[] autoPartitionByLong() {
+        return autoByLong.calculateRange("100", "1500000");
+    }
+
+    @Benchmark
+    public Integer[] partitionByPattern() {
+        return byPattern.calculateRange("10", "200");
+    }
+
+    @Benchmark
+    public Integer[] partitionByLong() {
+        return byLong.calculateRange("10", "1000");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(RangeRoutingBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
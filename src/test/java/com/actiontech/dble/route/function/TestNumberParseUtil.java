@@ -27,4 +27,22 @@ public class TestNumberParseUtil {
         val = "30K09";
         Assert.assertEquals(30009, NumberParseUtil.parseLong(val));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParseSubSequence() {
+        String[] values = {"0", "-0", "+7", "123456789", "-9223372036854775808", "9223372036854775807"};
+        for (String val : values) {
+            String padded = "'" + val + "'";
+            Assert.assertEquals(Long.parseLong(val), NumberParseUtil.parseLong(padded, 1, padded.length() - 1));
+        }
+        String[] badValues = {"", "-", "+", "1a", "9223372036854775808", "-9223372036854775809", "1 "};
+        for (String val : badValues) {
+            try {
+                NumberParseUtil.parseLong(val, 0, val.length());
+                Assert.fail(val);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+}
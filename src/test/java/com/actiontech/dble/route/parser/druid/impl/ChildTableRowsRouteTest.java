@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.route.parser.druid.impl;
+
+import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.net.mysql.CharsetNames;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.function.PartitionByLong;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.services.mysqlsharding.ShardingService;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static com.actiontech.dble.server.util.SchemaUtil.SchemaInfo;
+
+public class ChildTableRowsRouteTest {
+    private static final String SCHEMA = "testdb";
+    private static final List<String> NODES = Arrays.asList("dn1", "dn2");
+    private static ShardingTableConfig customer;
+    // joined by the sharding column of customer, routed directly
+    private static ChildTableConfig orders;
+    // joined by a column which isn't the sharding column, found by the probe
+    private static ChildTableConfig items;
+
+    @BeforeClass
+    public static void beforeClass() {
+        PartitionByLong function = new PartitionByLong();
+        function.setPartitionCount("2");
+        function.setPartitionLength("512");
+        function.init();
+        customer = new ShardingTableConfig("customer", -1, NODES, null, function, "id", false, false);
+        orders = new ChildTableConfig("orders", -1, NODES, customer, "customer_id", "id", null, false);
+        items = new ChildTableConfig("items", -1, NODES, orders, "order_code", "code", null, false);
+    }
+
+    @Test
+    public void testLocateSql() {
+        Assert.assertNull(orders.getLocateRTableKeysSql());
+        Assert.assertEquals("SELECT customer.id FROM orders,customer WHERE customer.id=orders.customer_id AND  orders.code=",
+                items.getLocateRTableKeySql());
+        // the join key is selected, so the rows returned are told apart
+        Assert.assertEquals("SELECT orders.code FROM orders,customer WHERE customer.id=orders.customer_id AND  orders.code IN ",
+                items.getLocateRTableKeysSql());
+    }
+
+    @Test
+    public void testDirectRoute() throws Exception {
+        String sql = "insert into orders(id, customer_id) values (1, 1), (2, 600), (3, 2)";
+        SQLInsertStatement stmt = parse(sql);
+        DruidInsertParser parser = Mockito.spy(new DruidInsertParser());
+        Mockito.doReturn("int").when(parser).getShardingDataType(Mockito.any(SchemaInfo.class), Mockito.anyString());
+        RouteResultset rrs = new RouteResultset(sql, ServerParse.INSERT);
+        parser.routeChildTableRows(new SchemaInfo(SCHEMA, "orders"), rrs, orders, stmt, stmt.getColumns(), stmt.getValuesList(), 1,
+                mockService(), false);
+
+        Assert.assertTrue(rrs.isFinishedRoute());
+        Map<String, String> nodeSqls = nodeSqls(rrs);
+        Assert.assertEquals(2, nodeSqls.size());
+        Assert.assertEquals("insert into orders(id, customer_id) values (1, 1),(3, 2)", nodeSqls.get("dn1"));
+        Assert.assertEquals("insert into orders(id, customer_id) values (2, 600)", nodeSqls.get("dn2"));
+    }
+
+    @Test
+    public void testProbeRoute() throws Exception {
+        String sql = "insert into items(id, order_code) values (1, 'a'), (2, 'b'), (3, 'a')";
+        SQLInsertStatement stmt = parse(sql);
+        DruidInsertParser parser = Mockito.spy(new DruidInsertParser());
+        Map<String, String> keyNodes = new HashMap<>();
+        keyNodes.put("'a'", "dn2");
+        keyNodes.put("'b'", "dn1");
+        Mockito.doReturn(keyNodes).when(parser).findParentNodes(Mockito.eq(SCHEMA), Mockito.eq(items), Mockito.anyListOf(String.class), Mockito.any(ShardingService.class));
+        ShardingService service = mockService();
+        RouteResultset rrs = new RouteResultset(sql, ServerParse.INSERT);
+        Assert.assertTrue(parser.routeByParentNodes(items, new String[]{"'a'", "'b'", "'a'"}, service, new SchemaInfo(SCHEMA, "items"), stmt,
+                stmt.getValuesList(), rrs));
+
+        Assert.assertTrue(rrs.isFinishedRoute());
+        Map<String, String> nodeSqls = nodeSqls(rrs);
+        Assert.assertEquals(2, nodeSqls.size());
+        Assert.assertEquals("insert into items(id, order_code) values (2, 'b')", nodeSqls.get("dn1"));
+        Assert.assertEquals("insert into items(id, order_code) values (1, 'a'),(3, 'a')", nodeSqls.get("dn2"));
+        Mockito.verify(service, Mockito.never()).writeErrMessage(Mockito.anyInt(), Mockito.anyString());
+    }
+
+    @Test
+    public void testProbeParentNotFound() throws Exception {
+        String sql = "insert into items(id, order_code) values (1, 'a'), (2, 'c')";
+        SQLInsertStatement stmt = parse(sql);
+        DruidInsertParser parser = Mockito.spy(new DruidInsertParser());
+        Mockito.doReturn(Collections.singletonMap("'a'", "dn2")).when(parser).findParentNodes(Mockito.eq(SCHEMA), Mockito.eq(items), Mockito.anyListOf(String.class), Mockito.any(ShardingService.class));
+        ShardingService service = mockService();
+        RouteResultset rrs = new RouteResultset(sql, ServerParse.INSERT);
+        Assert.assertFalse(parser.routeByParentNodes(items, new String[]{"'a'", "'c'"}, service, new SchemaInfo(SCHEMA, "items"), stmt,
+                stmt.getValuesList(), rrs));
+        Assert.assertFalse(rrs.isFinishedRoute());
+        Mockito.verify(service).writeErrMessage(Mockito.eq(ErrorCode.ER_UNKNOWN_ERROR), Mockito.contains("'c'"));
+    }
+
+    private static SQLInsertStatement parse(String sql) {
+        return (SQLInsertStatement) new MySqlStatementParser(sql).parseStatement();
+    }
+
+    private static ShardingService mockService() {
+        ShardingService service = Mockito.mock(ShardingService.class);
+        CharsetNames charsetNames = new CharsetNames();
+        charsetNames.setClient("utf8mb4");
+        Mockito.when(service.getCharset()).thenReturn(charsetNames);
+        return service;
+    }
+
+    private static Map<String, String> nodeSqls(RouteResultset rrs) {
+        Map<String, String> nodeSqls = new HashMap<>();
+        for (RouteResultsetNode node : rrs.getNodes()) {
+            nodeSqls.put(node.getName(), node.getStatement());
+        }
+        return nodeSqls;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.route.parser.druid.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InsertValuesSplitterTest {
+
+    @Test
+    public void testSplit() {
+        String sql = "insert into t(id, name) values (1, 'a,)'), (2, concat('b', '(')),(3,\"c\") on duplicate key update name=values(name)";
+        InsertValuesSplitter splitter = InsertValuesSplitter.split(sql, 3);
+        Assert.assertNotNull(splitter);
+        String[] nodeSqls = splitter.build(new int[]{1, 0, 1}, 3);
+        Assert.assertEquals("insert into t(id, name) values (2, concat('b', '(')) on duplicate key update name=values(name)", nodeSqls[0]);
+        Assert.assertEquals("insert into t(id, name) values (1, 'a,)'),(3,\"c\") on duplicate key update name=values(name)", nodeSqls[1]);
+        Assert.assertNull(nodeSqls[2]);
+    }
+
+    @Test
+    public void testReplace() {
+        String sql = "REPLACE t VALUES (1,'x'),(2,'y')";
+        InsertValuesSplitter splitter = InsertValuesSplitter.split(sql, 2);
+        Assert.assertNotNull(splitter);
+        String[] nodeSqls = splitter.build(new int[]{0, 0}, 1);
+        Assert.assertEquals("REPLACE t VALUES (1,'x'),(2,'y')", nodeSqls[0]);
+    }
+
+    @Test
+    public void testNotMatched() {
+        Assert.assertNull(InsertValuesSplitter.split("insert into t values (1),(2)", 3));
+        Assert.assertNull(InsertValuesSplitter.split("insert into t values (1),(2),(3)", 2));
+        Assert.assertNull(InsertValuesSplitter.split("insert into t select * from t2", 2));
+        Assert.assertNull(InsertValuesSplitter.split("update t set a = 1", 1));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ParameterizedSqlTest {
+
+    @Test
+    public void testSameTemplate() {
+        ParameterizedSql sql1 = ParameterizedSql.parse("select * from t1 where id = 1 and name = 'a' limit 10");
+        ParameterizedSql sql2 = ParameterizedSql.parse("select * from t1 where id = 0020 and name = 'bc' limit 5");
+        Assert.assertNotNull(sql1);
+        Assert.assertNotNull(sql2);
+        Assert.assertEquals("select * from t1 where id = ? and name = ? limit ?", sql1.getTemplate());
+        Assert.assertEquals(sql1.getTemplate(), sql2.getTemplate());
+        Assert.assertEquals(Arrays.asList("1", "a", "10"), sql1.getValues());
+        Assert.assertEquals(Arrays.asList("20", "bc", "5"), sql2.getValues());
+    }
+
+    @Test
+    public void testIdentifier() {
+        ParameterizedSql sql = ParameterizedSql.parse("select `1a`, c2 from db1.t_2 where c2 = 1.50");
+        Assert.assertNotNull(sql);
+        Assert.assertEquals("select `1a`, c2 from db1.t_2 where c2 = ?", sql.getTemplate());
+        Assert.assertEquals("1.50", sql.getValues().get(0));
+    }
+
+    @Test
+    public void testEscapedString() {
+        ParameterizedSql sql = ParameterizedSql.parse("select * from t1 where name = 'a''b' or name = 'c\\'d'");
+        Assert.assertNotNull(sql);
+        Assert.assertEquals("select * from t1 where name = ? or name = ?", sql.getTemplate());
+        Assert.assertNull(sql.getValues().get(0));
+        Assert.assertNull(sql.getValues().get(1));
+    }
+
+    @Test
+    public void testNotParameterized() {
+        Assert.assertNull(ParameterizedSql.parse("select * from t1"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where id = 0x1f"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where id = 1e3"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where name = \"a\""));
+        Assert.assertNull(ParameterizedSql.parse("/*!dble:shardingNode=dn1*/select * from t1 where id = 1"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where id = 1 -- comment"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where id = 1;select 1"));
+        Assert.assertNull(ParameterizedSql.parse("select * from t1 where name = 'a"));
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.sequence.handler;
+
+import com.actiontech.dble.config.model.SystemConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the fetch sql is answered by a fake dble_seq_nextval, each segment has SPAN values
+ */
+public class IncrSequenceMySQLHandlerTest {
+    private static final String SEQ_NAME = "`test`.`t`";
+    private static final int SPAN = 10;
+    private int oldWatermark;
+    private int oldMaxBatch;
+    private FakeFetcher fetcher;
+    private IncrSequenceMySQLHandler handler;
+    private SequenceVal seqVal;
+
+    @Before
+    public void setUp() throws Exception {
+        oldWatermark = SystemConfig.getInstance().getSequencePrefetchWatermark();
+        oldMaxBatch = SystemConfig.getInstance().getSequenceMaxSegmentBatch();
+        fetcher = new FakeFetcher();
+        handler = new IncrSequenceMySQLHandler(fetcher);
+        seqVal = new SequenceVal(SEQ_NAME, "dn1");
+        Field field = IncrSequenceMySQLHandler.class.getDeclaredField("seqValueMap");
+        field.setAccessible(true);
+        ((Map<String, SequenceVal>) field.get(handler)).put(SEQ_NAME, seqVal);
+    }
+
+    @After
+    public void tearDown() {
+        SystemConfig.getInstance().setSequencePrefetchWatermark(oldWatermark);
+        SystemConfig.getInstance().setSequenceMaxSegmentBatch(oldMaxBatch);
+    }
+
+    @Test
+    public void testDefaultNoBatchNoPrefetch() throws Exception {
+        Assert.assertEquals(0, SystemConfig.getInstance().getSequencePrefetchWatermark());
+        Assert.assertEquals(1, SystemConfig.getInstance().getSequenceMaxSegmentBatch());
+        assertNextIds(1, 3 * SPAN);
+        Assert.assertEquals(3, fetcher.requests.size());
+        for (SequenceVal.FetchRequest request : fetcher.requests) {
+            Assert.assertFalse(request.async);
+            Assert.assertEquals(1, request.batch);
+            Assert.assertEquals("SELECT dble_seq_nextval('" + SEQ_NAME + "')", request.sql);
+        }
+        Assert.assertEquals(0, seqVal.getPrefetchCount());
+    }
+
+    @Test
+    public void testBatchGrowsWhenStalled() throws Exception {
+        SystemConfig.getInstance().setSequenceMaxSegmentBatch(4);
+        // 1 segment, then 2 and 4 because the segments run out at once
+        assertNextIds(1, SPAN);
+        assertNextIds(SPAN + 1, 3 * SPAN);
+        Assert.assertEquals(2, fetcher.requests.size());
+        assertNextIds(3 * SPAN + 1, 7 * SPAN);
+        Assert.assertEquals(3, fetcher.requests.size());
+        int[] batches = {1, 2, 4};
+        for (int i = 0; i < batches.length; i++) {
+            SequenceVal.FetchRequest request = fetcher.requests.get(i);
+            Assert.assertEquals(batches[i], request.batch);
+            Assert.assertEquals(batches[i], request.sql.split("dble_seq_nextval").length - 1);
+        }
+        // never more than the max batch
+        assertNextIds(7 * SPAN + 1, 11 * SPAN + 1);
+        Assert.assertEquals(4, fetcher.requests.get(3).batch);
+        Assert.assertEquals(4, seqVal.getSegmentBatch());
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        SystemConfig.getInstance().setSequencePrefetchWatermark(50);
+        fetcher.holdAsync = true;
+        assertNextIds(1, 5);
+        Assert.assertEquals(1, fetcher.requests.size());
+        // the watermark is reached, the next segment is fetched in background
+        assertNextIds(6, 6);
+        Assert.assertEquals(2, fetcher.requests.size());
+        SequenceVal.FetchRequest prefetch = fetcher.requests.get(1);
+        Assert.assertTrue(prefetch.async);
+        Assert.assertTrue(seqVal.fetching.get());
+        fetcher.answer(prefetch);
+        Assert.assertFalse(seqVal.fetching.get());
+        Assert.assertEquals(1, seqVal.getPrefetchedSegments());
+
+        // the prefetched segment is used without waiting, and the next one is prefetched when it is in use
+        assertNextIds(7, 2 * SPAN);
+        Assert.assertEquals(3, fetcher.requests.size());
+        Assert.assertTrue(fetcher.requests.get(2).async);
+        Assert.assertEquals(0, seqVal.getStallCount());
+        Assert.assertEquals(2, seqVal.getPrefetchCount());
+    }
+
+    @Test
+    public void testPrefetchFailed() throws Exception {
+        SystemConfig.getInstance().setSequencePrefetchWatermark(50);
+        fetcher.holdAsync = true;
+        assertNextIds(1, 6);
+        SequenceVal.FetchRequest prefetch = fetcher.requests.get(1);
+        seqVal.fetchFailed(prefetch);
+        Assert.assertFalse(seqVal.fetching.get());
+        Assert.assertEquals(0, seqVal.getPrefetchedSegments());
+        // the caller fetches by itself when the segment runs out
+        assertNextIds(7, 2 * SPAN);
+        Assert.assertEquals(1, seqVal.getStallCount());
+        Assert.assertFalse(fetcher.requests.get(2).async);
+    }
+
+    @Test
+    public void testLatePrefetchResponse() throws Exception {
+        SequenceVal.FetchRequest prefetch = startFetch(true);
+        // given up as waitOtherFinish does when it times out
+        seqVal.fetchFailed(prefetch);
+        Assert.assertFalse(seqVal.fetching.get());
+
+        SequenceVal.FetchRequest fetch = startFetch(false);
+        // the response of the prefetch comes while the next fetch is running
+        prefetch.result = new String[]{"100," + SPAN};
+        seqVal.fetchFinished(prefetch);
+        Assert.assertEquals(0, seqVal.getPrefetchedSegments());
+        Assert.assertTrue(seqVal.fetching.get());
+
+        fetch.result = new String[]{"200," + SPAN};
+        seqVal.fetchFinished(fetch);
+        long[][] ranges = seqVal.waitFinish();
+        Assert.assertNotNull(ranges);
+        Assert.assertEquals(1, ranges.length);
+        Assert.assertEquals(200, ranges[0][0]);
+        Assert.assertEquals(200 + SPAN, ranges[0][1]);
+        Assert.assertEquals(2, seqVal.getFetchCount());
+    }
+
+    @Test
+    public void testLateResponseAfterFailed() {
+        SequenceVal.FetchRequest fetch = startFetch(false);
+        seqVal.fetchFailed(fetch);
+        fetch.result = new String[]{"100," + SPAN};
+        seqVal.fetchFinished(fetch);
+        // the failure is kept
+        Assert.assertNull(seqVal.waitFinish());
+        Assert.assertEquals(1, seqVal.getFetchCount());
+    }
+
+    @Test
+    public void testErrorValueInBatch() {
+        SequenceVal.FetchRequest fetch = startFetch(false);
+        fetch.result = new String[]{"100," + SPAN, IncrSequenceMySQLHandler.ERR_SEQ_RESULT};
+        seqVal.fetchFinished(fetch);
+        Assert.assertNull(seqVal.waitFinish());
+    }
+
+    private SequenceVal.FetchRequest startFetch(boolean async) {
+        Assert.assertTrue(seqVal.fetching.compareAndSet(false, true));
+        return seqVal.startFetch(async, false, 1, 0);
+    }
+
+    private void assertNextIds(long from, long to) throws Exception {
+        for (long i = from; i <= to; i++) {
+            Assert.assertEquals(i, handler.nextId(SEQ_NAME, null));
+        }
+    }
+
+    /**
+     * answers the fetch at once, or keeps the prefetch for the test to answer
+     */
+    private static final class FakeFetcher extends FetchMySQLSequenceHandler {
+        private final List<SequenceVal.FetchRequest> requests = new ArrayList<>();
+        private long nextValue = 1;
+        private boolean holdAsync;
+
+        @Override
+        public void execute(SequenceVal.FetchRequest request) {
+            requests.add(request);
+            if (!request.async || !holdAsync) {
+                answer(request);
+            }
+        }
+
+        void answer(SequenceVal.FetchRequest request) {
+            String[] values = new String[request.batch];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = nextValue + "," + SPAN;
+                nextValue += SPAN;
+            }
+            request.result = values;
+            request.seqVal.fetchFinished(request);
+        }
+    }
+}
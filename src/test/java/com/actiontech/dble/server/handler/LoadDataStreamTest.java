@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.SocketWR;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class LoadDataStreamTest {
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    public void testReadWhileOffering() throws Exception {
+        final LoadDataStream stream = new LoadDataStream(Mockito.mock(SocketWR.class));
+        final int packets = 40;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < packets; i++) {
+                byte[] data = new byte[MB];
+                data[0] = (byte) i;
+                Assert.assertTrue(stream.offer(data));
+            }
+            stream.finish();
+        });
+        producer.start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7000];
+        int n;
+        while ((n = stream.read(buffer, 0, buffer.length)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        producer.join();
+        byte[] all = out.toByteArray();
+        Assert.assertEquals(MB * packets, all.length);
+        for (int i = 0; i < packets; i++) {
+            Assert.assertEquals((byte) i, all[i * MB]);
+        }
+    }
+
+    @Test
+    public void testOfferNeverWaits() throws Exception {
+        final LoadDataStream stream = new LoadDataStream(Mockito.mock(SocketWR.class));
+        final CountDownLatch offered = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            // more than the high water mark without any reading
+            for (int i = 0; i < 32; i++) {
+                Assert.assertTrue(stream.offer(new byte[MB]));
+            }
+            offered.countDown();
+        });
+        producer.start();
+        Assert.assertTrue(offered.await(10, TimeUnit.SECONDS));
+        producer.join();
+    }
+
+    @Test
+    public void testReadPausedAndResumed() throws Exception {
+        SocketWR socketWR = Mockito.mock(SocketWR.class);
+        LoadDataStream stream = new LoadDataStream(socketWR);
+        for (int i = 0; i < 15; i++) {
+            stream.offer(new byte[MB]);
+        }
+        Mockito.verify(socketWR, Mockito.never()).disableRead();
+        // reaches the high water mark
+        stream.offer(new byte[MB]);
+        Mockito.verify(socketWR, Mockito.times(1)).disableRead();
+        // the packets received in the same read are still accepted
+        Assert.assertTrue(stream.offer(new byte[MB]));
+        Mockito.verify(socketWR, Mockito.times(1)).disableRead();
+
+        byte[] buffer = new byte[MB];
+        // 17M buffered, the reading starts again at 4M
+        for (int i = 0; i < 12; i++) {
+            Assert.assertEquals(MB, stream.read(buffer, 0, MB));
+        }
+        Mockito.verify(socketWR, Mockito.never()).enableRead();
+        Assert.assertEquals(MB, stream.read(buffer, 0, MB));
+        Assert.assertEquals(MB, stream.read(buffer, 0, MB));
+        Mockito.verify(socketWR, Mockito.times(1)).enableRead();
+        Assert.assertEquals(MB, stream.read(buffer, 0, MB));
+        Mockito.verify(socketWR, Mockito.times(1)).enableRead();
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        LoadDataStream stream = new LoadDataStream(Mockito.mock(SocketWR.class));
+        Assert.assertTrue(stream.offer(new byte[]{'a'}));
+        Assert.assertEquals('a', stream.read());
+        Assert.assertFalse(stream.isAborted());
+        stream.abort();
+        Assert.assertTrue(stream.isAborted());
+        Assert.assertFalse(stream.offer(new byte[]{'b'}));
+        try {
+            stream.read();
+            Assert.fail("aborted");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAbortResumesRead() {
+        SocketWR socketWR = Mockito.mock(SocketWR.class);
+        LoadDataStream stream = new LoadDataStream(socketWR);
+        for (int i = 0; i < 16; i++) {
+            stream.offer(new byte[MB]);
+        }
+        Mockito.verify(socketWR, Mockito.times(1)).disableRead();
+        stream.abort();
+        Mockito.verify(socketWR, Mockito.times(1)).enableRead();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+package com.actiontech.dble.services.manager.dump;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class DumpFileSplitTest {
+
+    @Test
+    public void testSplitContent() {
+        List<String> strings = DumpFileHandler.splitContent("a;\nb;\r\nc;\nd", ";\n", ";\r\n");
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), strings);
+        strings = DumpFileHandler.splitContent("a;\nb;\n", ";\n", ";\r\n");
+        Assert.assertEquals(Arrays.asList("a", "b"), strings);
+        strings = DumpFileHandler.splitContent("abc", ";\n", ";\r\n");
+        Assert.assertEquals(Arrays.asList("abc"), strings);
+        strings = DumpFileHandler.splitContent("", ";\n", ";\r\n");
+        Assert.assertEquals(Arrays.asList(""), strings);
+    }
+
+    @Test
+    public void testChunkEnd() {
+        byte[] bytes = "insert 1;\ninsert 2;\r\ninsert\n3".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(21, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), bytes.length));
+        Assert.assertEquals(10, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), 15));
+        // longer than the window
+        bytes = "insert\n'abc".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(7, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), bytes.length));
+        // not in the middle of the character
+        bytes = "'中文".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(4, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), 6));
+        Assert.assertEquals(4, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), 5));
+        Assert.assertEquals(7, DumpFileReader.chunkEnd(ByteBuffer.wrap(bytes), 7));
+    }
+
+    @Test
+    public void testChannelWriter() throws Exception {
+        File file = File.createTempFile("dump", ".txt");
+        try {
+            DumpFileProgress progress = new DumpFileProgress("dump", 0);
+            StringBuilder expected = new StringBuilder();
+            try (DumpFileChannelWriter writer = new DumpFileChannelWriter(file.getPath(), progress)) {
+                String row = "(1,'中😀')";
+                char[] chars = row.toCharArray();
+                for (int i = 0; i < 300000; i++) {
+                    writer.write(',');
+                    // split the surrogate pair into two writes
+                    writer.write(chars, 0, 6);
+                    writer.write(chars, 6, chars.length - 6);
+                    expected.append(',').append(row);
+                }
+            }
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Assert.assertEquals(expected.toString(), new String(bytes, StandardCharsets.UTF_8));
+            Assert.assertEquals(bytes.length, progress.getWriteLength());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testChannelWriterSingleChars() throws Exception {
+        File file = File.createTempFile("dump", ".txt");
+        try {
+            DumpFileProgress progress = new DumpFileProgress("dump", 0);
+            StringBuilder expected = new StringBuilder();
+            try (DumpFileChannelWriter writer = new DumpFileChannelWriter(file.getPath(), progress)) {
+                String row = "(1,'中😀'),";
+                for (int i = 0; i < 300000; i++) {
+                    // the ASCII chars go into the buffer directly, the surrogate pair is split into two writes
+                    for (int j = 0; j < row.length(); j++) {
+                        writer.write(row.charAt(j));
+                    }
+                    expected.append(row);
+                }
+            }
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Assert.assertEquals(expected.toString(), new String(bytes, StandardCharsets.UTF_8));
+            Assert.assertEquals(bytes.length, progress.getWriteLength());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016-2023 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+public class MappedBufferUtilTest {
+
+    @Test
+    public void testUnmap() throws Exception {
+        File file = File.createTempFile("mapped", ".bin");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 4096);
+                buffer.put(new byte[]{1, 2, 3});
+                buffer.force();
+                // works on both JDK 8 and JDK 9+
+                Assert.assertTrue(MappedBufferUtil.unmap(buffer));
+                // the file can be truncated at once without the mapping
+                raf.getChannel().truncate(3);
+            }
+            Assert.assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(file.toPath()));
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testUnmapNull() {
+        Assert.assertFalse(MappedBufferUtil.unmap(null));
+    }
+
+    @Test
+    public void testRelease() {
+        Assert.assertTrue(MappedBufferUtil.release(ByteBuffer.allocateDirect(1024)));
+        // a heap buffer is left to GC
+        Assert.assertFalse(MappedBufferUtil.release(ByteBuffer.allocate(1024)));
+    }
+}